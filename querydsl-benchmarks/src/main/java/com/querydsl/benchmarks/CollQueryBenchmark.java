@@ -0,0 +1,69 @@
+/*
+ * Copyright 2015, Timo Westkämper
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.querydsl.benchmarks;
+
+import static com.querydsl.benchmarks.QCustomer.customer;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+import com.querydsl.collections.CollQueryFactory;
+
+/**
+ * CollQueryBenchmark measures filtering, ordering and counting of in-memory collections
+ *
+ * @author tiwe
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class CollQueryBenchmark {
+
+    @Param({"100", "10000", "100000"})
+    public int size;
+
+    private List<Customer> customers;
+
+    @Setup
+    public void setUp() {
+        customers = Customer.create(size);
+    }
+
+    @Benchmark
+    public List<Customer> filter() {
+        return CollQueryFactory.from(customer, customers)
+                .where(customer.age.between(20, 30), customer.name.startsWith("name1"))
+                .list(customer);
+    }
+
+    @Benchmark
+    public List<Customer> filter_OrderBy_Limit() {
+        return CollQueryFactory.from(customer, customers)
+                .where(customer.age.gt(50))
+                .orderBy(customer.name.desc())
+                .limit(10)
+                .list(customer);
+    }
+
+    @Benchmark
+    public long count() {
+        return CollQueryFactory.from(customer, customers)
+                .where(customer.age.lt(50))
+                .count();
+    }
+
+}
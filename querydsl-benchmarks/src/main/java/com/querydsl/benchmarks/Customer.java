@@ -0,0 +1,79 @@
+/*
+ * Copyright 2015, Timo Westkämper
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.querydsl.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Customer is the bean type used in the benchmarks
+ *
+ * @author tiwe
+ *
+ */
+public class Customer {
+
+    private int id;
+
+    private String name;
+
+    private int age;
+
+    public Customer() {}
+
+    public Customer(int id, String name, int age) {
+        this.id = id;
+        this.name = name;
+        this.age = age;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public void setId(int id) {
+        this.id = id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public int getAge() {
+        return age;
+    }
+
+    public void setAge(int age) {
+        this.age = age;
+    }
+
+    /**
+     * Create the given amount of customers
+     *
+     * @param size amount of customers
+     * @return
+     */
+    public static List<Customer> create(int size) {
+        List<Customer> customers = new ArrayList<Customer>(size);
+        for (int i = 0; i < size; i++) {
+            customers.add(new Customer(i, "name" + i, i % 100));
+        }
+        return customers;
+    }
+
+}
@@ -0,0 +1,50 @@
+/*
+ * Copyright 2015, Timo Westkämper
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.querydsl.benchmarks;
+
+import static com.querydsl.benchmarks.QCustomer.customer;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+import com.querydsl.core.types.Predicate;
+
+/**
+ * ExpressionBenchmark measures hashCode and toString of freshly created expressions
+ *
+ * @author tiwe
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ExpressionBenchmark {
+
+    private Predicate create() {
+        return customer.name.startsWith("Bob").and(customer.age.between(18, 65))
+                .or(customer.id.in(1, 2, 3));
+    }
+
+    @Benchmark
+    public int hashCode_() {
+        return create().hashCode();
+    }
+
+    @Benchmark
+    public String toString_() {
+        return create().toString();
+    }
+
+}
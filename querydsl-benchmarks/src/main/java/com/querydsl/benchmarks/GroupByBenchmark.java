@@ -0,0 +1,62 @@
+/*
+ * Copyright 2015, Timo Westkämper
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.querydsl.benchmarks;
+
+import static com.querydsl.benchmarks.QCustomer.customer;
+import static com.querydsl.core.group.GroupBy.groupBy;
+import static com.querydsl.core.group.GroupBy.list;
+import static com.querydsl.core.group.GroupBy.sum;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+import com.querydsl.collections.CollQueryFactory;
+
+/**
+ * GroupByBenchmark measures GroupBy transforms over in-memory collections
+ *
+ * @author tiwe
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class GroupByBenchmark {
+
+    @Param({"100", "10000", "100000"})
+    public int size;
+
+    private List<Customer> customers;
+
+    @Setup
+    public void setUp() {
+        customers = Customer.create(size);
+    }
+
+    @Benchmark
+    public Map<Integer, List<String>> groupBy_List() {
+        return CollQueryFactory.from(customer, customers)
+                .transform(groupBy(customer.age).as(list(customer.name)));
+    }
+
+    @Benchmark
+    public Map<Integer, Integer> groupBy_Sum() {
+        return CollQueryFactory.from(customer, customers)
+                .transform(groupBy(customer.age).as(sum(customer.id)));
+    }
+
+}
@@ -0,0 +1,72 @@
+/*
+ * Copyright 2015, Timo Westkämper
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.querydsl.benchmarks;
+
+import static com.querydsl.benchmarks.QCustomer.customer;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+import com.querydsl.core.types.AccessorStrategy;
+import com.querydsl.core.types.ConstructorExpression;
+import com.querydsl.core.types.Projections;
+import com.querydsl.core.types.QBean;
+
+/**
+ * ProjectionBenchmark compares the reflective and the generated accessor strategies of
+ * bean and constructor projections
+ *
+ * @author tiwe
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ProjectionBenchmark {
+
+    @Param({"REFLECTION", "GENERATED"})
+    public AccessorStrategy strategy;
+
+    private QBean<Customer> bean;
+
+    private QBean<Customer> fields;
+
+    private ConstructorExpression<Customer> constructor;
+
+    private final Object[] row = new Object[]{1, "Bob", 42};
+
+    @Setup
+    public void setUp() {
+        bean = Projections.bean(strategy, Customer.class, customer.id, customer.name, customer.age);
+        fields = Projections.fields(strategy, Customer.class, customer.id, customer.name, customer.age);
+        constructor = Projections.constructor(strategy, Customer.class, customer.id, customer.name, customer.age);
+    }
+
+    @Benchmark
+    public Customer bean() {
+        return bean.newInstance(row);
+    }
+
+    @Benchmark
+    public Customer fields() {
+        return fields.newInstance(row);
+    }
+
+    @Benchmark
+    public Customer constructor() {
+        return constructor.newInstance(row);
+    }
+
+}
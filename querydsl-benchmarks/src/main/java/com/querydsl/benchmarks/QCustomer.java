@@ -0,0 +1,49 @@
+/*
+ * Copyright 2015, Timo Westkämper
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.querydsl.benchmarks;
+
+import java.sql.Types;
+
+import com.querydsl.core.types.PathMetadataFactory;
+import com.querydsl.core.types.path.NumberPath;
+import com.querydsl.core.types.path.StringPath;
+import com.querydsl.sql.ColumnMetadata;
+import com.querydsl.sql.RelationalPathBase;
+
+/**
+ * QCustomer is the query type for {@link Customer}, which is shared by all benchmarked modules
+ *
+ * @author tiwe
+ *
+ */
+public class QCustomer extends RelationalPathBase<Customer> {
+
+    private static final long serialVersionUID = 2541426745227358418L;
+
+    public static final QCustomer customer = new QCustomer("customer");
+
+    public final NumberPath<Integer> id = createNumber("id", Integer.class);
+
+    public final StringPath name = createString("name");
+
+    public final NumberPath<Integer> age = createNumber("age", Integer.class);
+
+    public QCustomer(String variable) {
+        super(Customer.class, PathMetadataFactory.forVariable(variable), "PUBLIC", "CUSTOMER");
+        addMetadata(id, ColumnMetadata.named("ID").ofType(Types.INTEGER));
+        addMetadata(name, ColumnMetadata.named("NAME").ofType(Types.VARCHAR));
+        addMetadata(age, ColumnMetadata.named("AGE").ofType(Types.INTEGER));
+    }
+
+}
@@ -0,0 +1,114 @@
+/*
+ * Copyright 2015, Timo Westkämper
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.querydsl.benchmarks;
+
+import static com.querydsl.benchmarks.QCustomer.customer;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+import com.querydsl.core.Tuple;
+import com.querydsl.core.types.AccessorStrategy;
+import com.querydsl.core.types.Projections;
+import com.querydsl.core.types.QBean;
+import com.querydsl.sql.Configuration;
+import com.querydsl.sql.H2Templates;
+import com.querydsl.sql.SQLQuery;
+import com.querydsl.sql.dml.SQLBulkLoader;
+
+/**
+ * SQLQueryBenchmark measures the execution of SQL queries against an in-memory H2 database
+ *
+ * @author tiwe
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class SQLQueryBenchmark {
+
+    @Param({"100", "10000"})
+    public int size;
+
+    private final Configuration configuration = new Configuration(new H2Templates());
+
+    private Connection connection;
+
+    private QBean<Customer> reflectiveBean, generatedBean;
+
+    @Setup
+    public void setUp() throws SQLException {
+        connection = DriverManager.getConnection("jdbc:h2:mem:benchmarks", "sa", "");
+        Statement stmt = connection.createStatement();
+        try {
+            stmt.execute("drop table customer if exists");
+            stmt.execute("create table customer (id int primary key, name varchar(64), age int)");
+        } finally {
+            stmt.close();
+        }
+        Object[][] rows = new Object[size][];
+        for (int i = 0; i < size; i++) {
+            rows[i] = new Object[]{i, "name" + i, i % 100};
+        }
+        new SQLBulkLoader<Object[]>(connection, configuration, customer,
+                SQLBulkLoader.columns(customer.id, customer.name, customer.age))
+            .load(Arrays.asList(rows));
+        reflectiveBean = Projections.bean(AccessorStrategy.REFLECTION, Customer.class,
+                customer.id, customer.name, customer.age);
+        generatedBean = Projections.bean(AccessorStrategy.GENERATED, Customer.class,
+                customer.id, customer.name, customer.age);
+    }
+
+    @TearDown
+    public void tearDown() throws SQLException {
+        connection.close();
+    }
+
+    private SQLQuery query() {
+        return new SQLQuery(connection, configuration).from(customer);
+    }
+
+    @Benchmark
+    public List<String> list_Column() {
+        return query().list(customer.name);
+    }
+
+    @Benchmark
+    public List<Tuple> list_Tuple() {
+        return query().list(customer.id, customer.name, customer.age);
+    }
+
+    @Benchmark
+    public List<Customer> list_Bean() {
+        return query().list(reflectiveBean);
+    }
+
+    @Benchmark
+    public List<Customer> list_Bean_Generated() {
+        return query().list(generatedBean);
+    }
+
+    @Benchmark
+    public long count_Filtered() {
+        return query().where(customer.age.lt(50)).count();
+    }
+
+}
@@ -0,0 +1,100 @@
+/*
+ * Copyright 2015, Timo Westkämper
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.querydsl.benchmarks;
+
+import static com.querydsl.benchmarks.QCustomer.customer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.mongodb.morphia.Morphia;
+import org.openjdk.jmh.annotations.*;
+
+import com.querydsl.core.BooleanBuilder;
+import com.querydsl.core.DefaultQueryMetadata;
+import com.querydsl.core.JoinType;
+import com.querydsl.core.QueryMetadata;
+import com.querydsl.jpa.JPQLSerializer;
+import com.querydsl.jpa.JPQLTemplates;
+import com.querydsl.lucene4.LuceneSerializer;
+import com.querydsl.mongodb.morphia.MorphiaSerializer;
+import com.querydsl.sql.Configuration;
+import com.querydsl.sql.H2Templates;
+import com.querydsl.sql.SQLSerializer;
+
+/**
+ * SerializerBenchmark measures the rendering of a query with a growing amount of predicates
+ * in the SQL, JPQL, MongoDB and Lucene serializers
+ *
+ * @author tiwe
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class SerializerBenchmark {
+
+    @Param({"1", "10", "100"})
+    public int predicates;
+
+    private final Configuration configuration = new Configuration(new H2Templates());
+
+    private final LuceneSerializer luceneSerializer = new LuceneSerializer(true, true);
+
+    private final Morphia morphia = new Morphia();
+
+    private QueryMetadata metadata;
+
+    @Setup
+    public void setUp() {
+        List<Integer> ids = new ArrayList<Integer>(predicates);
+        BooleanBuilder builder = new BooleanBuilder();
+        for (int i = 0; i < predicates; i++) {
+            ids.add(i);
+            builder.or(customer.name.eq("name" + i).and(customer.age.gt(i)));
+        }
+        metadata = new DefaultQueryMetadata();
+        metadata.addJoin(JoinType.DEFAULT, customer);
+        metadata.addWhere(customer.id.in(ids));
+        metadata.addWhere(builder.getValue());
+        metadata.addOrderBy(customer.name.asc());
+        metadata.setProjection(customer.name);
+    }
+
+    @Benchmark
+    public String sql() {
+        SQLSerializer serializer = new SQLSerializer(configuration);
+        serializer.serialize(metadata, false);
+        return serializer.toString();
+    }
+
+    @Benchmark
+    public String jpql() {
+        JPQLSerializer serializer = new JPQLSerializer(JPQLTemplates.DEFAULT);
+        serializer.serialize(metadata, false, null);
+        return serializer.toString();
+    }
+
+    @Benchmark
+    public Object mongodb() {
+        return new MorphiaSerializer(morphia).handle(metadata.getWhere());
+    }
+
+    @Benchmark
+    public Object lucene() {
+        return luceneSerializer.toQuery(metadata.getWhere(), metadata);
+    }
+
+}
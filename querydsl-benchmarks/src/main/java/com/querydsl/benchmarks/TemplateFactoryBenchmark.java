@@ -0,0 +1,54 @@
+/*
+ * Copyright 2015, Timo Westkämper
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.querydsl.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+import com.querydsl.core.types.Template;
+import com.querydsl.core.types.TemplateFactory;
+
+/**
+ * TemplateFactoryBenchmark measures the parsing of templates and the lookup of cached templates
+ *
+ * @author tiwe
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class TemplateFactoryBenchmark {
+
+    @Param({"{0} = {1}", "substring({0},{1+'1'},{2-1s})", "{0} like {1%%}"})
+    public String template;
+
+    private final TemplateFactory cached = new TemplateFactory('\\');
+
+    @Setup
+    public void setUp() {
+        cached.create(template);
+    }
+
+    @Benchmark
+    public Template create() {
+        return new TemplateFactory('\\').create(template);
+    }
+
+    @Benchmark
+    public Template create_Cached() {
+        return cached.create(template);
+    }
+
+}
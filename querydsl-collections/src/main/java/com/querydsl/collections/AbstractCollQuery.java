@@ -115,22 +115,22 @@ public abstract class AbstractCollQuery<Q extends AbstractCollQuery<Q>> extends
 
     @Override
     public Q groupBy(Expression<?> e) {
-        throw new UnsupportedOperationException();
+        return queryMixin.groupBy(e);
     }
 
     @Override
     public Q groupBy(Expression<?>... o) {
-        throw new UnsupportedOperationException();
+        return queryMixin.groupBy(o);
     }
 
     @Override
     public Q having(Predicate e) {
-        throw new UnsupportedOperationException();
+        return queryMixin.having(e);
     }
 
     @Override
     public Q having(Predicate... e) {
-        throw new UnsupportedOperationException();
+        return queryMixin.having(e);
     }
 
 
@@ -201,7 +201,7 @@ public abstract class AbstractCollQuery<Q extends AbstractCollQuery<Q>> extends
     public <RT> CloseableIterator<RT> iterate(Expression<RT> projection) {
         try {
             projection = queryMixin.setProjection(projection);
-            return new IteratorAdapter<RT>(queryEngine.list(getMetadata(), iterables, projection).iterator());
+            return new IteratorAdapter<RT>(queryEngine.iterate(getMetadata(), iterables, projection));
         } finally {
             reset();
         }
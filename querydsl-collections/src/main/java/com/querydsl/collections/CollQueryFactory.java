@@ -14,6 +14,7 @@
 package com.querydsl.collections;
 
 import java.util.Collection;
+import java.util.concurrent.ExecutorService;
 
 import com.google.common.collect.ImmutableList;
 import com.querydsl.core.alias.Alias;
@@ -70,6 +71,16 @@ public final class CollQueryFactory {
         return new CollQuery().from(path, col);
     }
 
+    /**
+     * Create a new query, which evaluates large list sources in parallel with the given executor
+     *
+     * @param executor executor for the parallel evaluation
+     * @return
+     */
+    public static CollQuery parallel(ExecutorService executor) {
+        return new CollQuery(((DefaultQueryEngine) DefaultQueryEngine.getDefault()).parallel(executor));
+    }
+
     /**
      * Create a new update clause
      * 
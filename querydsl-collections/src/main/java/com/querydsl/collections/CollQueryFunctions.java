@@ -19,6 +19,7 @@ import java.math.BigDecimal;
 import java.util.*;
 
 import com.google.common.base.Objects;
+import com.google.common.collect.Lists;
 import com.querydsl.core.types.Expression;
 import com.querydsl.core.types.Operator;
 import com.querydsl.core.types.Ops;
@@ -195,6 +196,81 @@ public final class CollQueryFunctions {
         }
     }
 
+    /**
+     * Add the given value to the hash join index under the given key
+     *
+     * @param index hash join index
+     * @param key join key
+     * @param value value
+     */
+    public static <T> void addToIndex(Map<Object, List<T>> index, @Nullable Object key, T value) {
+        List<T> values = index.get(key);
+        if (values == null) {
+            values = new ArrayList<T>();
+            index.put(key, values);
+        }
+        values.add(value);
+    }
+
+    /**
+     * Get the values of the hash join index for the given key
+     *
+     * @param index hash join index
+     * @param key join key
+     * @return matching values in insertion order
+     */
+    public static <T> List<T> getFromIndex(Map<Object, List<T>> index, @Nullable Object key) {
+        List<T> values = index.get(key);
+        return values != null ? values : Collections.<T>emptyList();
+    }
+
+    /**
+     * Get the hash join index which has been built for the given source by an earlier evaluation
+     *
+     * @param source joined source
+     * @return index or null, if the index needs to be built
+     */
+    @Nullable
+    public static <T> Map<Object, List<T>> getIndex(Iterable<T> source) {
+        return source instanceof JoinSource ? ((JoinSource<T>) source).index : null;
+    }
+
+    /**
+     * Keep the given hash join index for further evaluations with the given source
+     *
+     * @param source joined source
+     * @param index hash join index
+     */
+    public static <T> void setIndex(Iterable<T> source, Map<Object, List<T>> index) {
+        if (source instanceof JoinSource) {
+            ((JoinSource<T>) source).index = index;
+        }
+    }
+
+    /**
+     * JoinSource is a joined source of a query whose first source is evaluated in chunks. The
+     * elements and the hash join index of the source are shared by the evaluations of the chunks.
+     *
+     * @param <T> element type
+     */
+    public static final class JoinSource<T> implements Iterable<T> {
+
+        private final Collection<T> elements;
+
+        @Nullable
+        private Map<Object, List<T>> index;
+
+        JoinSource(Iterable<T> source) {
+            this.elements = source instanceof Collection ? (Collection<T>) source : Lists.newArrayList(source);
+        }
+
+        @Override
+        public Iterator<T> iterator() {
+            return elements.iterator();
+        }
+
+    }
+
     private static Number reduce(Iterable<Number> source, BinaryFunction f) {
         Iterator<Number> it = source.iterator();
         Number result = it.next();
@@ -226,6 +302,44 @@ public final class CollQueryFunctions {
         }
     }
 
+    /**
+     * Aggregate a chunk of a source. The chunk aggregates of the source are combined via
+     * {@link #combine(List, Expression, Operator, long)}.
+     *
+     * @param chunk non-empty chunk of the source
+     * @param expr aggregated expression
+     * @param aggregator aggregation operator other than COUNT_DISTINCT_AGG
+     * @return
+     */
+    public static Number aggregateChunk(Collection<Number> chunk, Expression<?> expr, Operator aggregator) {
+        if (aggregator == Ops.AggOps.AVG_AGG) {
+            return reduce(chunk, SUM);
+        } else {
+            return aggregate(chunk, expr, aggregator);
+        }
+    }
+
+    /**
+     * Combine the chunk aggregates of a source into the aggregate of the source
+     *
+     * @param aggregates chunk aggregates
+     * @param expr aggregated expression
+     * @param aggregator aggregation operator other than COUNT_DISTINCT_AGG
+     * @param size size of the source
+     * @return
+     */
+    public static Number combine(List<Number> aggregates, Expression<?> expr, Operator aggregator, long size) {
+        if (aggregator == Ops.AggOps.AVG_AGG) {
+            return reduce(aggregates, SUM).doubleValue() / size;
+        } else if (aggregator == Ops.AggOps.COUNT_AGG) {
+            return Long.valueOf(size);
+        } else if (aggregator == Ops.AggOps.COUNT_DISTINCT_AGG) {
+            throw new IllegalArgumentException("Chunk aggregates can't be combined for " + aggregator);
+        } else {
+            return aggregate(aggregates, expr, aggregator);
+        }
+    }
+
     public static boolean like(final String str, String like) {
         final StringBuilder pattern = new StringBuilder(like.length() + 4);
         for (int i = 0; i < like.length(); i++) {
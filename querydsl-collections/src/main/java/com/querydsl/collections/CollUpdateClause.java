@@ -38,9 +38,12 @@ public class CollUpdateClause<T> implements UpdateClause<CollUpdateClause<T>> {
 
     private final CollQuery query;
 
+    private final Iterable<? extends T> col;
+
     public CollUpdateClause(QueryEngine qe, Path<T> expr, Iterable<? extends T> col) {
         this.query = new CollQuery(qe).from(expr, col);
         this.expr = expr;
+        this.col = col;
     }
 
     public CollUpdateClause(Path<T> expr, Iterable<? extends T> col) {
@@ -48,15 +51,21 @@ public class CollUpdateClause<T> implements UpdateClause<CollUpdateClause<T>> {
     }
 
     @Override
+    @SuppressWarnings("unchecked")
     public long execute() {
         int rv = 0;
+        IndexedCollection<T> indexed = col instanceof IndexedCollection ? (IndexedCollection<T>) col : null;
         for (T match : query.list(expr)) {
+            Long seq = indexed != null ? indexed.unindex(match) : null;
             BeanMap beanMap = new BeanMap(match);
             for (Map.Entry<Path<?>,Object> entry : paths.entrySet()) {
                 // TODO : support deep updates as well
                 String propertyName = entry.getKey().getMetadata().getName();
                 beanMap.put(propertyName, entry.getValue());
             }
+            if (seq != null) {
+                indexed.index(match, seq);
+            }
             rv++;
         }
         return rv;
@@ -35,25 +35,40 @@ import com.querydsl.core.JoinType;
 import com.querydsl.core.QueryMetadata;
 import com.querydsl.core.support.CollectionAnyVisitor;
 import com.querydsl.core.support.Context;
+import com.querydsl.core.support.PathsExtractor;
 import com.querydsl.core.types.Expression;
 import com.querydsl.core.types.FactoryExpression;
 import com.querydsl.core.types.Operation;
+import com.querydsl.core.types.Ops;
 import com.querydsl.core.types.ParamExpression;
 import com.querydsl.core.types.ParamNotSetException;
+import com.querydsl.core.types.Path;
 import com.querydsl.core.types.Predicate;
 
 /**
  * DefaultEvaluatorFactory provides Java source templates for evaluation of CollQuery queries
  *
+ * <p>Sources which are joined to earlier sources via an equality condition in the filter are
+ * evaluated as hash joins: the source is indexed by its join key before iteration and only the
+ * matching elements are visited for each combination of the earlier sources. The index of a
+ * {@link CollQueryFunctions.JoinSource} is built once and kept for the further evaluations.</p>
+ *
  * @author tiwe
  *
  */
 public class DefaultEvaluatorFactory {
 
+    private static final String FUNCTIONS = CollQueryFunctions.class.getName();
+
+    private static final ClassType COUNT_TYPE = new ClassType(TypeCategory.SIMPLE, Long.class);
+
     private final EvaluatorFactory factory;
 
     private final CollQueryTemplates templates;
 
+    @Nullable
+    private final EvaluatorCache cache;
+
     private final CollectionAnyVisitor collectionAnyVisitor = new CollectionAnyVisitor();
 
     public DefaultEvaluatorFactory(CollQueryTemplates templates) {
@@ -61,27 +76,76 @@ public class DefaultEvaluatorFactory {
         Thread.currentThread().getContextClassLoader());
     }
 
+    /**
+     * Create a new DefaultEvaluatorFactory which caches the compiled evaluators in the given cache.
+     * Each evaluator is defined in its own class loader, so that the classes of evicted evaluators
+     * can be unloaded.
+     *
+     * @param templates templates
+     * @param cache evaluator cache
+     */
+    public DefaultEvaluatorFactory(CollQueryTemplates templates, EvaluatorCache cache) {
+        this(templates, new IsolatingEvaluatorFactory(Thread.currentThread().getContextClassLoader()),
+                cache);
+    }
+
     public DefaultEvaluatorFactory(CollQueryTemplates templates, EvaluatorFactory factory) {
+        this(templates, factory, null);
+    }
+
+    /**
+     * Create a new DefaultEvaluatorFactory which caches the compiled evaluators in the given cache.
+     * The classes of evicted evaluators stay loaded as long as the class loader of the given
+     * factory is in use.
+     *
+     * @param templates templates
+     * @param factory factory for evaluator compilation
+     * @param cache evaluator cache or null for no caching
+     */
+    public DefaultEvaluatorFactory(CollQueryTemplates templates, EvaluatorFactory factory,
+            @Nullable EvaluatorCache cache) {
         this.templates = templates;
         this.factory = factory;
+        this.cache = cache;
     }
 
     protected DefaultEvaluatorFactory(CollQueryTemplates templates,
             URLClassLoader classLoader, JavaCompiler compiler) {
-        this.templates = templates;
-        this.factory = new JDKEvaluatorFactory(classLoader, compiler);
+        this(templates, new JDKEvaluatorFactory(classLoader, compiler), null);
     }
 
     protected DefaultEvaluatorFactory(CollQueryTemplates templates, ClassLoader classLoader) {
-        this.templates = templates;
+        this(templates, createFactory(classLoader), null);
+    }
+
+    static EvaluatorFactory createFactory(ClassLoader classLoader) {
         if (classLoader instanceof URLClassLoader) {
-            this.factory = new JDKEvaluatorFactory((URLClassLoader) classLoader);
+            return new JDKEvaluatorFactory((URLClassLoader) classLoader);
         } else {
             // for OSGi compatibility
-            this.factory = new ECJEvaluatorFactory(classLoader);
+            return new ECJEvaluatorFactory(classLoader);
         }
     }
 
+    /**
+     * Get the templates of the generated evaluators
+     *
+     * @return
+     */
+    public CollQueryTemplates getTemplates() {
+        return templates;
+    }
+
+    /**
+     * Get the cache of compiled evaluators
+     *
+     * @return evaluator cache or null, if evaluators are not cached
+     */
+    @Nullable
+    public EvaluatorCache getCache() {
+        return cache;
+    }
+
     /**
      * Create an Evaluator for the given query sources and projection
      *
@@ -121,8 +185,7 @@ public class DefaultEvaluatorFactory {
             }
         }
 
-        return factory.createEvaluator(serializer.toString(), projection.getType(), names,
-                types, constants);
+        return compile(serializer.toString(), projection.getType(), names, types, constants);
     }
 
     /**
@@ -153,7 +216,7 @@ public class DefaultEvaluatorFactory {
         Type sourceType = new ClassType(TypeCategory.SIMPLE, source.getType());
         ClassType sourceListType = new ClassType(TypeCategory.SIMPLE, Iterable.class, sourceType);
 
-        return factory.createEvaluator(
+        return compile(
                 ser.toString(),
                 sourceListType,
                 new String[]{source+"_"},
@@ -162,6 +225,42 @@ public class DefaultEvaluatorFactory {
                 constants);
     }
 
+    /**
+     * Create an Evaluator which counts the elements of the given source matching the given filter
+     *
+     * @param source
+     * @param filter
+     * @return
+     */
+    public Evaluator<Long> createCountEvaluator(QueryMetadata metadata,
+            Expression<?> source, Predicate filter) {
+        String typeName = ClassUtils.getName(source.getType());
+        CollQuerySerializer ser = new CollQuerySerializer(templates);
+        ser.append("long rv = 0;\n");
+        ser.append("for (" + typeName + " "+ source + " : " + source + "_) {\n");
+        ser.append("    try {\n");
+        ser.append("        if (").handle(filter).append(") {\n");
+        ser.append("            rv++;\n");
+        ser.append("        }\n");
+        ser.append("    } catch (NullPointerException npe) { }\n");
+        ser.append("}\n");
+        ser.append("return rv;");
+
+        Map<Object,String> constantToLabel = ser.getConstantToLabel();
+        Map<String, Object> constants = getConstants(metadata, constantToLabel);
+
+        Type sourceType = new ClassType(TypeCategory.SIMPLE, source.getType());
+        ClassType sourceListType = new ClassType(TypeCategory.SIMPLE, Iterable.class, sourceType);
+
+        return compile(
+                ser.toString(),
+                COUNT_TYPE,
+                new String[]{source+"_"},
+                new Type[]{sourceListType},
+                new Class[]{Iterable.class},
+                constants);
+    }
+
     /**
      * Create an Evaluator for the given sources and the given optional filter
      *
@@ -171,15 +270,57 @@ public class DefaultEvaluatorFactory {
      */
     public Evaluator<List<Object[]>> createEvaluator(QueryMetadata metadata,
             List<JoinExpression> joins, @Nullable Predicate filter) {
+        return createEvaluator(metadata, joins, filter, false);
+    }
+
+    /**
+     * Create an Evaluator which counts the matching rows of the given sources and the given
+     * optional filter
+     *
+     * @param joins
+     * @param filter
+     * @return
+     */
+    public Evaluator<Long> createCountEvaluator(QueryMetadata metadata,
+            List<JoinExpression> joins, @Nullable Predicate filter) {
+        return createEvaluator(metadata, joins, filter, true);
+    }
+
+    private <T> Evaluator<T> createEvaluator(QueryMetadata metadata,
+            List<JoinExpression> joins, @Nullable Predicate filter, boolean count) {
         List<String> sourceNames = new ArrayList<String>();
         List<Type> sourceTypes = new ArrayList<Type>();
         List<Class<?>> sourceClasses = new ArrayList<Class<?>>();
         StringBuilder vars = new StringBuilder();
         CollQuerySerializer ser = new CollQuerySerializer(templates);
-        ser.append("java.util.List<Object[]> rv = new java.util.ArrayList<Object[]>();\n");
+        if (count) {
+            ser.append("long rv = 0;\n");
+        } else {
+            ser.append("java.util.List<Object[]> rv = new java.util.ArrayList<Object[]>();\n");
+        }
 
         List<String> anyJoinMatchers = new ArrayList<String>();
 
+        // hash join indexes
+        Map<Expression<?>, Expression<?>[]> hashJoins = filter != null ? getHashJoins(joins, filter)
+                : Collections.<Expression<?>, Expression<?>[]>emptyMap();
+        for (Map.Entry<Expression<?>, Expression<?>[]> entry : hashJoins.entrySet()) {
+            Expression<?> target = entry.getKey();
+            String typeName = ClassUtils.getName(target.getType());
+            ser.append("java.util.Map<Object, java.util.List<" + typeName + ">> " + target + "_index = "
+                    + FUNCTIONS + ".getIndex(" + target + "_);\n");
+            ser.append("if (" + target + "_index == null) {\n");
+            ser.append("    " + target + "_index = new java.util.HashMap<Object, java.util.List<" + typeName + ">>();\n");
+            ser.append("    for (" + typeName + " "+ target + " : " + target + "_) {\n");
+            ser.append("        try {\n");
+            ser.append("            " + FUNCTIONS + ".addToIndex(" + target + "_index, ");
+            ser.handle(entry.getValue()[0]).append(", " + target + ");\n");
+            ser.append("        } catch (NullPointerException npe) { }\n");
+            ser.append("    }\n");
+            ser.append("    " + FUNCTIONS + ".setIndex(" + target + "_, " + target + "_index);\n");
+            ser.append("}\n");
+        }
+
         // creating context
         for (JoinExpression join : joins) {
             Expression<?> target = join.getTarget();
@@ -189,7 +330,19 @@ public class DefaultEvaluatorFactory {
             }
             switch (join.getType()) {
             case DEFAULT:
-                ser.append("for (" + typeName + " "+ target + " : " + target + "_) {\n");
+                if (hashJoins.containsKey(target)) {
+                    String matches = target + "_matches";
+                    ser.append("java.util.List<" + typeName + "> " + matches + ";\n");
+                    ser.append("try {\n");
+                    ser.append("    " + matches + " = " + FUNCTIONS + ".getFromIndex(" + target + "_index, ");
+                    ser.handle(hashJoins.get(target)[1]).append(");\n");
+                    ser.append("} catch (NullPointerException npe) {\n");
+                    ser.append("    " + matches + " = java.util.Collections.emptyList();\n");
+                    ser.append("}\n");
+                    ser.append("for (" + typeName + " "+ target + " : " + matches + ") {\n");
+                } else {
+                    ser.append("for (" + typeName + " "+ target + " : " + target + "_) {\n");
+                }
                 vars.append(target);
                 sourceNames.add(target+"_");
                 sourceTypes.add(new SimpleType(Types.ITERABLE, new ClassType(TypeCategory.SIMPLE,target.getType())));
@@ -237,6 +390,8 @@ public class DefaultEvaluatorFactory {
             }
         }
 
+        String addRow = count ? "rv++;\n" : "rv.add(new Object[]{" + vars + "});\n";
+
         // filter
         if (filter != null) {
             ser.append("try {\n");
@@ -245,11 +400,11 @@ public class DefaultEvaluatorFactory {
             for (String matcher : anyJoinMatchers) {
                 ser.append("    "+ matcher + " = true;\n");
             }
-            ser.append("    rv.add(new Object[]{"+vars+"});\n");
+            ser.append("    " + addRow);
             ser.append("}\n");
             ser.append("} catch (NullPointerException npe) { }\n");
         } else {
-            ser.append("rv.add(new Object[]{"+vars+"});\n");
+            ser.append(addRow);
         }
 
         // closing context
@@ -262,8 +417,9 @@ public class DefaultEvaluatorFactory {
         Map<Object,String> constantToLabel = ser.getConstantToLabel();
         Map<String, Object> constants = getConstants(metadata, constantToLabel);
 
-        ClassType projectionType = new ClassType(TypeCategory.LIST, List.class, Types.OBJECTS);
-        return factory.createEvaluator(
+        ClassType projectionType = count ? COUNT_TYPE
+                : new ClassType(TypeCategory.LIST, List.class, Types.OBJECTS);
+        return compile(
                 ser.toString(),
                 projectionType,
                 sourceNames.toArray(new String[sourceNames.size()]),
@@ -272,6 +428,110 @@ public class DefaultEvaluatorFactory {
                 constants);
     }
 
+    /**
+     * Get the hash join keys of the given sources. The keys are taken from equalities of the
+     * filter, which compare an expression of a default source to an expression of the earlier
+     * sources.
+     *
+     * @param joins sources
+     * @param filter filter
+     * @return key of the source and key of the earlier sources by source
+     */
+    static Map<Expression<?>, Expression<?>[]> getHashJoins(List<JoinExpression> joins, Predicate filter) {
+        List<Operation<?>> equalities = new ArrayList<Operation<?>>();
+        addEqualities(filter, equalities);
+        if (equalities.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        Map<Expression<?>, Expression<?>[]> rv = new LinkedHashMap<Expression<?>, Expression<?>[]>();
+        Set<Expression<?>> declared = new HashSet<Expression<?>>();
+        for (JoinExpression join : joins) {
+            Expression<?> target = join.getTarget();
+            if (join.getType() == JoinType.DEFAULT) {
+                if (!declared.isEmpty()) {
+                    for (Operation<?> equality : equalities) {
+                        Expression<?> left = equality.getArg(0), right = equality.getArg(1);
+                        if (isHashJoin(target, left, right, declared)) {
+                            rv.put(target, new Expression<?>[]{left, right});
+                            break;
+                        } else if (isHashJoin(target, right, left, declared)) {
+                            rv.put(target, new Expression<?>[]{right, left});
+                            break;
+                        }
+                    }
+                }
+                declared.add(target);
+            } else {
+                declared.add(((Operation<?>) target).getArg(1));
+            }
+        }
+        return rv;
+    }
+
+    private static void addEqualities(Predicate predicate, List<Operation<?>> equalities) {
+        if (predicate instanceof Operation) {
+            Operation<?> operation = (Operation<?>) predicate;
+            if (operation.getOperator() == Ops.AND) {
+                addEqualities((Predicate) operation.getArg(0), equalities);
+                addEqualities((Predicate) operation.getArg(1), equalities);
+            } else if (operation.getOperator() == Ops.EQ
+                    && Primitives.wrap(operation.getArg(0).getType()).equals(
+                       Primitives.wrap(operation.getArg(1).getType()))) {
+                equalities.add(operation);
+            }
+        }
+    }
+
+    private static boolean isHashJoin(Expression<?> target, Expression<?> key, Expression<?> probe,
+            Set<Expression<?>> declared) {
+        Set<Expression<?>> keyRoots = getRoots(key);
+        Set<Expression<?>> probeRoots = getRoots(probe);
+        return keyRoots.size() == 1 && keyRoots.contains(target)
+            && !probeRoots.isEmpty() && declared.containsAll(probeRoots);
+    }
+
+    private static Set<Expression<?>> getRoots(Expression<?> expr) {
+        List<Path<?>> paths = new ArrayList<Path<?>>();
+        expr.accept(PathsExtractor.DEFAULT, paths);
+        Set<Expression<?>> roots = new HashSet<Expression<?>>();
+        for (Path<?> path : paths) {
+            roots.add(path.getRoot());
+        }
+        return roots;
+    }
+
+    private <T> Evaluator<T> compile(String source, Class<? extends T> projectionType,
+            String[] names, Class<?>[] classes, Map<String, Object> constants) {
+        source = withParameters(source, names);
+        if (cache != null) {
+            return cache.get(factory, source, projectionType, names, classes, constants);
+        } else {
+            return factory.createEvaluator(source, projectionType, names, classes, constants);
+        }
+    }
+
+    private <T> Evaluator<T> compile(String source, ClassType projectionType,
+            String[] names, Type[] types, Class<?>[] classes, Map<String, Object> constants) {
+        source = withParameters(source, names);
+        if (cache != null) {
+            return cache.get(factory, source, projectionType, names, types, classes, constants);
+        } else {
+            return factory.createEvaluator(source, projectionType, names, types, classes, constants);
+        }
+    }
+
+    /**
+     * Codegen identifies compiled evaluators by source and parameter types only, so the parameter
+     * names are appended to the source to keep evaluators with reordered sources apart
+     */
+    private static String withParameters(String source, String[] names) {
+        StringBuilder builder = new StringBuilder(source).append("\n/*");
+        for (String name : names) {
+            builder.append(' ').append(name);
+        }
+        return builder.append(" */").toString();
+    }
+
     private Map<String, Object> getConstants(QueryMetadata metadata,
             Map<Object, String> constantToLabel) {
         Map<String,Object> constants = new HashMap<String,Object>();
@@ -289,4 +549,32 @@ public class DefaultEvaluatorFactory {
         return constants;
     }
 
+    /**
+     * IsolatingEvaluatorFactory compiles each evaluator with a new factory, which defines the
+     * evaluator class in a new class loader
+     */
+    private static final class IsolatingEvaluatorFactory implements EvaluatorFactory {
+
+        private final ClassLoader classLoader;
+
+        IsolatingEvaluatorFactory(ClassLoader classLoader) {
+            this.classLoader = classLoader;
+        }
+
+        @Override
+        public <T> Evaluator<T> createEvaluator(String source, Class<? extends T> projectionType,
+                String[] names, Class<?>[] classes, Map<String, Object> constants) {
+            return createFactory(classLoader).createEvaluator(source, projectionType, names, classes,
+                    constants);
+        }
+
+        @Override
+        public <T> Evaluator<T> createEvaluator(String source, ClassType projectionType,
+                String[] names, Type[] types, Class<?>[] classes, Map<String, Object> constants) {
+            return createFactory(classLoader).createEvaluator(source, projectionType, names, types,
+                    classes, constants);
+        }
+
+    }
+
 }
@@ -14,19 +14,35 @@
 package com.querydsl.collections;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
-import java.util.HashSet;
+import java.util.Comparator;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.RandomAccess;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
+import javax.annotation.Nullable;
+
+import com.google.common.base.Throwables;
+import com.google.common.collect.AbstractIterator;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Iterators;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
 import com.mysema.codegen.Evaluator;
 import com.mysema.commons.lang.IteratorAdapter;
 import com.querydsl.core.JoinExpression;
 import com.querydsl.core.JoinType;
 import com.querydsl.core.QueryMetadata;
+import com.querydsl.core.QueryException;
 import com.querydsl.core.QueryModifiers;
 import com.querydsl.core.types.ArrayConstructorExpression;
 import com.querydsl.core.types.Expression;
@@ -39,12 +55,21 @@ import com.querydsl.core.types.OrderSpecifier;
 /**
  * Default implementation of the {@link QueryEngine} interface
  *
+ * <p>If an ExecutorService is given, the filters and projections of large {@link RandomAccess}
+ * sources are evaluated in parallel chunks, whose results are merged in source order.</p>
+ *
  * @author tiwe
  *
  */
 @SuppressWarnings("unchecked")
 public class DefaultQueryEngine implements QueryEngine {
 
+    private static final int INITIAL_CHUNK_SIZE = 16;
+
+    private static final int MAX_CHUNK_SIZE = 1024;
+
+    private static final int MIN_PARALLEL_CHUNK_SIZE = 10000;
+
     private static volatile QueryEngine DEFAULT;
 
     public static QueryEngine getDefault() {
@@ -56,59 +81,281 @@ public class DefaultQueryEngine implements QueryEngine {
 
     private final DefaultEvaluatorFactory evaluatorFactory;
 
+    @Nullable
+    private final ExecutorService executor;
+
+    private final int parallelism;
+
     public DefaultQueryEngine(DefaultEvaluatorFactory evaluatorFactory) {
+        this(evaluatorFactory, null, 1);
+    }
+
+    /**
+     * Create a new DefaultQueryEngine instance, which evaluates large sources in parallel
+     *
+     * @param evaluatorFactory evaluator factory
+     * @param executor executor for the parallel evaluation
+     */
+    public DefaultQueryEngine(DefaultEvaluatorFactory evaluatorFactory, ExecutorService executor) {
+        this(evaluatorFactory, executor, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Create a new DefaultQueryEngine instance, which evaluates large sources in parallel
+     *
+     * @param evaluatorFactory evaluator factory
+     * @param executor executor for the parallel evaluation or null for sequential evaluation
+     * @param parallelism maximum amount of chunks per source
+     */
+    public DefaultQueryEngine(DefaultEvaluatorFactory evaluatorFactory, @Nullable ExecutorService executor,
+            int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("parallelism needs to be positive, was " + parallelism);
+        }
         this.evaluatorFactory = evaluatorFactory;
+        this.executor = executor;
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Create a query engine, which shares the evaluators of this engine and evaluates large
+     * sources in parallel with the given executor
+     *
+     * @param executor executor for the parallel evaluation
+     * @return
+     */
+    public DefaultQueryEngine parallel(ExecutorService executor) {
+        return new DefaultQueryEngine(evaluatorFactory, executor);
     }
 
     @Override
     public long count(QueryMetadata metadata, Map<Expression<?>, Iterable<?>> iterables) {
-        if (metadata.getJoins().size() == 1) {
-            return evaluateSingleSource(metadata, iterables, true).size();
+        if (isGrouped(metadata)) {
+            return evaluateGroups(metadata, iterables, true).size();
+        } else if (metadata.isDistinct()) {
+            if (metadata.getJoins().size() == 1) {
+                return evaluateSingleSource(metadata, iterables, true).size();
+            } else {
+                return evaluateMultipleSources(metadata, iterables, true).size();
+            }
+        } else if (metadata.getJoins().size() == 1) {
+            return countSingleSource(metadata, iterables);
+        } else {
+            return countMultipleSources(metadata, iterables);
+        }
+    }
+
+    private long countSingleSource(QueryMetadata metadata, Map<Expression<?>, Iterable<?>> iterables) {
+        Expression<?> source = metadata.getJoins().get(0).getTarget();
+        Iterable<?> iterable = getSource(metadata, iterables);
+        if (metadata.getWhere() != null) {
+            final Evaluator<Long> evaluator = evaluatorFactory.createCountEvaluator(metadata, source,
+                    metadata.getWhere());
+            List<? extends List<?>> chunks = iterable instanceof List ? split((List<?>) iterable) : null;
+            if (chunks != null) {
+                long count = 0;
+                for (Long chunkCount : evaluate(chunks, new ChunkFunction<Long>() {
+                    @Override
+                    public Long apply(List<?> chunk) {
+                        return evaluator.evaluate(chunk);
+                    }
+                })) {
+                    count += chunkCount;
+                }
+                return count;
+            } else {
+                return evaluator.evaluate(iterable);
+            }
+        } else if (iterable instanceof Collection) {
+            return ((Collection<?>) iterable).size();
         } else {
-            return evaluateMultipleSources(metadata, iterables, true).size();
+            return Iterators.size(iterable.iterator());
+        }
+    }
+
+    /**
+     * Get the source of a single source query. If the source is an {@link IndexedCollection}
+     * with an index for a conjunct of the where clause, the indexed candidates are returned.
+     */
+    private Iterable<?> getSource(QueryMetadata metadata, Map<Expression<?>, Iterable<?>> iterables) {
+        Iterable<?> iterable = iterables.values().iterator().next();
+        if (iterable instanceof IndexedCollection && metadata.getWhere() != null) {
+            List<?> candidates = ((IndexedCollection<?>) iterable).getCandidates(metadata.getWhere(),
+                    metadata.getParams());
+            if (candidates != null) {
+                return candidates;
+            }
+        }
+        return iterable;
+    }
+
+    private long countMultipleSources(QueryMetadata metadata, Map<Expression<?>, Iterable<?>> iterables) {
+        Evaluator<Long> ev = evaluatorFactory.createCountEvaluator(metadata, metadata.getJoins(),
+                metadata.getWhere());
+        return ev.evaluate(getIterables(metadata, iterables));
+    }
+
+    private Object[] getIterables(QueryMetadata metadata, Map<Expression<?>, Iterable<?>> iterables) {
+        List<Iterable<?>> iterableList = new ArrayList<Iterable<?>>(metadata.getJoins().size());
+        for (JoinExpression join : metadata.getJoins()) {
+            if (join.getType() == JoinType.DEFAULT) {
+                iterableList.add(iterables.get(join.getTarget()));
+            }
         }
+        return iterableList.toArray();
     }
 
     @Override
     public boolean exists(QueryMetadata metadata, Map<Expression<?>, Iterable<?>> iterables) {
+        if (isGrouped(metadata)) {
+            return !evaluateGroups(metadata, iterables, true).isEmpty();
+        } else {
+            return getRows(metadata, iterables).hasNext();
+        }
+    }
+
+    /**
+     * Evaluate the given query and return the projection as an iterator. Unordered queries
+     * without distinct are evaluated lazily while the iterator is consumed.
+     *
+     * @param metadata
+     * @param iterables
+     * @param projection
+     * @return
+     */
+    @Override
+    public <T> Iterator<T> iterate(QueryMetadata metadata, Map<Expression<?>, Iterable<?>> iterables,
+            Expression<T> projection) {
+        if (!metadata.getOrderBy().isEmpty() || metadata.isDistinct() || isGrouped(metadata)
+                || isAggregation(metadata.getProjection())) {
+            return list(metadata, iterables, projection).iterator();
+        }
+        Iterator<?> rows = getRows(metadata, iterables);
+
+        // offset
         QueryModifiers modifiers = metadata.getModifiers();
-        metadata.setLimit(1l);
-        try {
-            if (metadata.getJoins().size() == 1) {
-                return !evaluateSingleSource(metadata, iterables, true).isEmpty();
-            } else {
-                return !evaluateMultipleSources(metadata, iterables, true).isEmpty();
+        if (modifiers.getOffset() != null) {
+            Iterators.advance(rows, (int) Math.min(modifiers.getOffset(), Integer.MAX_VALUE));
+        }
+        // limit
+        if (modifiers.getLimit() != null) {
+            rows = Iterators.limit(rows, (int) Math.min(modifiers.getLimit(), Integer.MAX_VALUE));
+        }
+        // projection
+        List<Expression<?>> sources = getSources(metadata);
+        if (metadata.getJoins().size() > 1
+                || (metadata.getProjection() != null && !metadata.getProjection().equals(sources.get(0)))) {
+            Evaluator<?> evaluator = evaluatorFactory.create(metadata, sources, metadata.getProjection());
+            rows = Iterators.transform(rows, new EvaluatorFunction(evaluator));
+        }
+        return (Iterator<T>) rows;
+    }
+
+    /**
+     * Get the filtered rows of the query as a lazy iterator. The first source is evaluated in
+     * chunks of growing size, so that only the consumed part of the result is materialized. The
+     * joined sources and their hash join indexes are shared by the evaluations of the chunks.
+     */
+    private Iterator<?> getRows(QueryMetadata metadata, Map<Expression<?>, Iterable<?>> iterables) {
+        if (metadata.getJoins().size() == 1) {
+            Expression<?> source = metadata.getJoins().get(0).getTarget();
+            Iterable<?> iterable = getSource(metadata, iterables);
+            if (metadata.getWhere() == null) {
+                return iterable.iterator();
+            }
+            Evaluator<?> evaluator = evaluatorFactory.createEvaluator(metadata, source, metadata.getWhere());
+            return new ChunkIterator(evaluator, new Object[]{iterable}, MAX_CHUNK_SIZE);
+        } else {
+            Evaluator<?> evaluator = evaluatorFactory.createEvaluator(metadata, metadata.getJoins(),
+                    metadata.getWhere());
+            Object[] args = getIterables(metadata, iterables);
+            for (int i = 1; i < args.length; i++) {
+                args[i] = new CollQueryFunctions.JoinSource<Object>((Iterable<Object>) args[i]);
+            }
+            return new ChunkIterator(evaluator, args, MAX_CHUNK_SIZE);
+        }
+    }
+
+    /**
+     * Compile the evaluators of the given query shape ahead of its first execution. Queries which
+     * differ from the given one only in their constant values share the compiled evaluators, if the
+     * evaluator factory of this engine has an {@link EvaluatorCache}.
+     *
+     * <pre>
+     * engine.warmUp(new CollQuery().from(cat, cats).where(cat.name.eq("")).getMetadata(), cat);
+     * </pre>
+     *
+     * @param metadata query metadata
+     * @param projection projection or null to compile the evaluators of count queries
+     */
+    public void warmUp(QueryMetadata metadata, @Nullable Expression<?> projection) {
+        if (metadata.getJoins().size() == 1) {
+            Expression<?> source = metadata.getJoins().get(0).getTarget();
+            if (metadata.getWhere() != null) {
+                if (projection != null || metadata.isDistinct()) {
+                    evaluatorFactory.createEvaluator(metadata, source, metadata.getWhere());
+                } else {
+                    evaluatorFactory.createCountEvaluator(metadata, source, metadata.getWhere());
+                }
+            }
+        } else if (projection != null || metadata.isDistinct()) {
+            evaluatorFactory.createEvaluator(metadata, metadata.getJoins(), metadata.getWhere());
+        } else {
+            evaluatorFactory.createCountEvaluator(metadata, metadata.getJoins(), metadata.getWhere());
+        }
+
+        if (projection != null) {
+            List<Expression<?>> sources = getSources(metadata);
+            if (!metadata.getOrderBy().isEmpty()) {
+                createOrderEvaluator(metadata, sources);
+            }
+            if (metadata.getJoins().size() > 1 || !projection.equals(sources.get(0))) {
+                evaluatorFactory.create(metadata, sources, getRowProjection(projection));
             }
-        } finally {
-            metadata.setModifiers(modifiers);
         }
     }
 
     @Override
     public <T> List<T> list(QueryMetadata metadata, Map<Expression<?>, Iterable<?>> iterables,
             Expression<T> projection) {
-        if (metadata.getJoins().size() == 1) {
+        if (isGrouped(metadata)) {
+            return (List<T>) evaluateGroups(metadata, iterables, false);
+        } else if (metadata.getJoins().size() == 1) {
             return evaluateSingleSource(metadata, iterables, false);
         } else {
             return evaluateMultipleSources(metadata, iterables, false);
         }
     }
 
+    private static boolean isGrouped(QueryMetadata metadata) {
+        return !metadata.getGroupBy().isEmpty() || metadata.getHaving() != null;
+    }
+
+    private List<?> evaluateGroups(QueryMetadata metadata, Map<Expression<?>, Iterable<?>> iterables,
+            boolean count) {
+        Grouping grouping = new Grouping(evaluatorFactory, metadata, getSources(metadata), !count);
+        List<Object[]> groups = grouping.group(getRows(metadata, iterables));
+        if (count) {
+            return groups;
+        }
+        List<?> list = grouping.project(groups);
+        // limit + offset
+        if (metadata.getModifiers().isRestricting()) {
+            list = metadata.getModifiers().subList(list);
+        }
+        // distinct
+        if (metadata.isDistinct()) {
+            list = distinct(list);
+        }
+        return list;
+    }
+
     private <T> List<T> distinct(List<T> list) {
         List<T> rv = new ArrayList<T>(list.size());
-        if (!list.isEmpty() && list.get(0) != null && list.get(0).getClass().isArray()) {
-            Set set = new HashSet(list.size());
-            for (T o : list) {
-                if (set.add(ImmutableList.copyOf((Object[])o))) {
-                    rv.add(o);
-                }
-            }
-            return rv;
-        } else {
-            for (T o : list) {
-                if (!rv.contains(o)) {
-                    rv.add(o);
-                }
+        Set<Object> keys = Sets.newHashSetWithExpectedSize(list.size());
+        for (T o : list) {
+            if (keys.add(o != null && o.getClass().isArray() ? new ArrayKey(o) : o)) {
+                rv.add(o);
             }
         }
         return rv;
@@ -118,27 +365,13 @@ public class DefaultQueryEngine implements QueryEngine {
             Iterable<?>> iterables, boolean count) {
         // from where
         Evaluator<List<Object[]>> ev = evaluatorFactory.createEvaluator(metadata, metadata.getJoins(), metadata.getWhere());
-        List<Iterable<?>> iterableList = new ArrayList<Iterable<?>>(metadata.getJoins().size());
-        for (JoinExpression join : metadata.getJoins()) {
-            if (join.getType() == JoinType.DEFAULT) {
-                iterableList.add(iterables.get(join.getTarget()));
-            }
-        }
-        List<?> list = ev.evaluate(iterableList.toArray());
+        List<?> list = ev.evaluate(getIterables(metadata, iterables));
 
         if (!count && !list.isEmpty()) {
-            List<Expression<?>> sources = new ArrayList<Expression<?>>(metadata.getJoins().size());
-            for (JoinExpression join : metadata.getJoins()) {
-                if (join.getType() == JoinType.DEFAULT) {
-                    sources.add(join.getTarget());
-                } else {
-                    Operation target = (Operation) join.getTarget();
-                    sources.add(target.getArg(1));
-                }
-            }
+            List<Expression<?>> sources = getSources(metadata);
             // ordered
             if (!metadata.getOrderBy().isEmpty()) {
-                order(metadata, sources, list);
+                list = order(metadata, sources, list);
             }
             // projection
             list = project(metadata, sources, list);
@@ -163,7 +396,7 @@ public class DefaultQueryEngine implements QueryEngine {
             Iterable<?>> iterables, boolean count) {
         final Expression<?> source = metadata.getJoins().get(0).getTarget();
         final List<Expression<?>> sources = Collections.<Expression<?>>singletonList(source);
-        final Iterable<?> iterable = iterables.values().iterator().next();
+        final Iterable<?> iterable = getSource(metadata, iterables);
         List<?> list;
         if (iterable instanceof List) {
             list = (List)iterable;
@@ -173,9 +406,19 @@ public class DefaultQueryEngine implements QueryEngine {
 
         // from & where
         if (metadata.getWhere() != null) {
-            Evaluator<List<?>> evaluator = (Evaluator)evaluatorFactory
+            final Evaluator<List<?>> evaluator = (Evaluator)evaluatorFactory
                     .createEvaluator(metadata, source, metadata.getWhere());
-            list = evaluator.evaluate(list);
+            List<? extends List<?>> chunks = split(list);
+            if (chunks != null) {
+                list = concat(evaluate(chunks, new ChunkFunction<List<?>>() {
+                    @Override
+                    public List<?> apply(List<?> chunk) {
+                        return evaluator.evaluate(chunk);
+                    }
+                }), list.size());
+            } else {
+                list = evaluator.evaluate(list);
+            }
         }
 
         if (!count && !list.isEmpty()) {
@@ -185,7 +428,7 @@ public class DefaultQueryEngine implements QueryEngine {
                 if (list == iterable) {
                     list = new ArrayList(list);
                 }
-                order(metadata, sources, list);
+                list = order(metadata, sources, list);
             }
             // projection
             if (metadata.getProjection() != null && !metadata.getProjection().equals(source)) {
@@ -209,32 +452,133 @@ public class DefaultQueryEngine implements QueryEngine {
 
     }
 
-    private void order(QueryMetadata metadata, List<Expression<?>> sources, List<?> list) {
+    private List<Expression<?>> getSources(QueryMetadata metadata) {
+        List<Expression<?>> sources = new ArrayList<Expression<?>>(metadata.getJoins().size());
+        for (JoinExpression join : metadata.getJoins()) {
+            if (join.getType() == JoinType.DEFAULT) {
+                sources.add(join.getTarget());
+            } else {
+                Operation target = (Operation) join.getTarget();
+                sources.add(target.getArg(1));
+            }
+        }
+        return sources;
+    }
+
+    private Evaluator createOrderEvaluator(QueryMetadata metadata, List<Expression<?>> sources) {
         // create a projection for the order
         List<OrderSpecifier<?>> orderBy = metadata.getOrderBy();
         Expression<Object>[] orderByExpr = new Expression[orderBy.size()];
-        boolean[] directions = new boolean[orderBy.size()];
         for (int i = 0; i < orderBy.size(); i++) {
             orderByExpr[i] = (Expression) orderBy.get(i).getTarget();
-            directions[i] = orderBy.get(i).getOrder() == Order.ASC;
         }
         Expression<?> expr = new ArrayConstructorExpression<Object>(Object[].class, orderByExpr);
-        Evaluator orderEvaluator = evaluatorFactory.create(metadata, sources, expr);
-        Collections.sort(list, new MultiComparator(orderEvaluator, directions));
+        return evaluatorFactory.create(metadata, sources, expr);
     }
 
-    private List<?> project(QueryMetadata metadata, List<Expression<?>> sources, List<?> list) {
-        Expression<?> projection = metadata.getProjection();
-        Operator aggregator = null;
-        if (projection instanceof Operation && Ops.aggOps.contains(((Operation)projection).getOperator())) {
-            Operation<?> aggregation = (Operation<?>)projection;
-            aggregator = aggregation.getOperator();
-            projection = aggregation.getArg(0);
+    private <T> List<T> order(QueryMetadata metadata, List<Expression<?>> sources, List<T> list) {
+        List<OrderSpecifier<?>> orderBy = metadata.getOrderBy();
+        boolean[] directions = new boolean[orderBy.size()];
+        for (int i = 0; i < orderBy.size(); i++) {
+            directions[i] = orderBy.get(i).getOrder() == Order.ASC;
+        }
+        Evaluator orderEvaluator = createOrderEvaluator(metadata, sources);
+        Comparator<T> comparator = new MultiComparator<T>(orderEvaluator, directions);
+        int size = getTopSize(metadata);
+        if (size < list.size()) {
+            return topN(list, comparator, size);
+        } else {
+            Collections.sort(list, comparator);
+            return list;
+        }
+    }
+
+    /**
+     * Get the amount of ordered rows needed for the limit and offset of the query
+     */
+    private int getTopSize(QueryMetadata metadata) {
+        QueryModifiers modifiers = metadata.getModifiers();
+        if (modifiers.getLimit() == null || isAggregation(metadata.getProjection())) {
+            return Integer.MAX_VALUE;
         }
+        long size = modifiers.getLimit() + (modifiers.getOffset() != null ? modifiers.getOffset() : 0l);
+        return (int) Math.min(size, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Get the first size elements of the list in the order of the comparator. Selects them with
+     * a bounded heap and keeps the order of equal elements like a stable sort.
+     */
+    private static <T> List<T> topN(final List<T> list, final Comparator<T> comparator, int size) {
+        if (size == 0) {
+            return new ArrayList<T>();
+        }
+        Comparator<Integer> positions = new Comparator<Integer>() {
+            @Override
+            public int compare(Integer i1, Integer i2) {
+                int res = comparator.compare(list.get(i1), list.get(i2));
+                return res != 0 ? res : i1.compareTo(i2);
+            }
+        };
+        PriorityQueue<Integer> heap = new PriorityQueue<Integer>(size, Collections.reverseOrder(positions));
+        for (int i = 0; i < list.size(); i++) {
+            if (heap.size() < size) {
+                heap.add(i);
+            } else if (positions.compare(i, heap.peek()) < 0) {
+                heap.poll();
+                heap.add(i);
+            }
+        }
+        Integer[] top = heap.toArray(new Integer[heap.size()]);
+        Arrays.sort(top, positions);
+        List<T> rv = new ArrayList<T>(top.length);
+        for (Integer i : top) {
+            rv.add(list.get(i));
+        }
+        return rv;
+    }
+
+    private static boolean isAggregation(@Nullable Expression<?> projection) {
+        return projection instanceof Operation
+            && Ops.aggOps.contains(((Operation<?>)projection).getOperator());
+    }
+
+    private static Expression<?> getRowProjection(Expression<?> projection) {
+        if (isAggregation(projection)) {
+            return ((Operation<?>)projection).getArg(0);
+        } else {
+            return projection;
+        }
+    }
+
+    private List<?> project(QueryMetadata metadata, List<Expression<?>> sources, List<?> list) {
+        final Expression<?> projection = getRowProjection(metadata.getProjection());
         Evaluator projectionEvaluator = evaluatorFactory.create(metadata, sources, projection);
-        EvaluatorFunction transformer = new EvaluatorFunction(projectionEvaluator);
-        List target = new ArrayList();
-        Iterators.addAll(target, Iterators.transform(list.iterator(), transformer));
+        final EvaluatorFunction transformer = new EvaluatorFunction(projectionEvaluator);
+        final Operator aggregator = projection != metadata.getProjection()
+                ? ((Operation<?>)metadata.getProjection()).getOperator() : null;
+        List<? extends List<?>> chunks = split(list);
+        if (chunks != null && aggregator != null && aggregator != Ops.AggOps.COUNT_DISTINCT_AGG) {
+            List<Number> aggregates = evaluate(chunks, new ChunkFunction<Number>() {
+                @Override
+                public Number apply(List<?> chunk) {
+                    return CollQueryFunctions.aggregateChunk(transform(chunk, transformer), projection, aggregator);
+                }
+            });
+            return ImmutableList.of(CollQueryFunctions.combine(aggregates, projection, aggregator, list.size()));
+        }
+
+        List target;
+        if (chunks != null) {
+            target = concat(evaluate(chunks, new ChunkFunction<List<?>>() {
+                @Override
+                public List<?> apply(List<?> chunk) {
+                    return transform(chunk, transformer);
+                }
+            }), list.size());
+        } else {
+            target = transform(list, transformer);
+        }
         if (aggregator != null) {
             return ImmutableList.of(CollQueryFunctions.aggregate(target, projection, aggregator));
         } else {
@@ -242,6 +586,141 @@ public class DefaultQueryEngine implements QueryEngine {
         }
     }
 
+    private static List transform(List<?> list, EvaluatorFunction transformer) {
+        List target = new ArrayList(list.size());
+        Iterators.addAll(target, Iterators.transform(list.iterator(), transformer));
+        return target;
+    }
+
+    /**
+     * Split the given list into chunks for parallel evaluation or return null, if the list is
+     * to be evaluated sequentially
+     */
+    @Nullable
+    private <T> List<List<T>> split(List<T> list) {
+        if (executor == null || !(list instanceof RandomAccess)) {
+            return null;
+        }
+        int chunks = Math.min(parallelism, list.size() / MIN_PARALLEL_CHUNK_SIZE);
+        if (chunks < 2) {
+            return null;
+        }
+        return Lists.partition(list, (list.size() + chunks - 1) / chunks);
+    }
+
+    /**
+     * Apply the function to the chunks in parallel and return the results in chunk order
+     */
+    private <T> List<T> evaluate(List<? extends List<?>> chunks, final ChunkFunction<T> function) {
+        List<Callable<T>> tasks = new ArrayList<Callable<T>>(chunks.size());
+        for (final List<?> chunk : chunks) {
+            tasks.add(new Callable<T>() {
+                @Override
+                public T call() {
+                    return function.apply(chunk);
+                }
+            });
+        }
+        try {
+            List<T> results = new ArrayList<T>(tasks.size());
+            for (Future<T> future : executor.invokeAll(tasks)) {
+                results.add(future.get());
+            }
+            return results;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new QueryException(e);
+        } catch (ExecutionException e) {
+            Throwables.propagateIfPossible(e.getCause());
+            throw new QueryException(e.getCause());
+        }
+    }
+
+    private static <T> List<T> concat(List<? extends List<?>> lists, int size) {
+        List<T> rv = new ArrayList<T>(size);
+        for (List<?> list : lists) {
+            rv.addAll((List<T>) list);
+        }
+        return rv;
+    }
+
+    /**
+     * Function applied to a chunk of a source
+     */
+    private interface ChunkFunction<T> {
+
+        T apply(List<?> chunk);
+
+    }
+
+    /**
+     * ChunkIterator applies a list evaluator to consecutive chunks of the first source and
+     * iterates over the results
+     */
+    private static final class ChunkIterator extends AbstractIterator<Object> {
+
+        private final Evaluator<?> evaluator;
+
+        private final Object[] args;
 
+        private final Iterator<?> source;
+
+        private final int maxChunkSize;
+
+        private int chunkSize = INITIAL_CHUNK_SIZE;
+
+        private Iterator<?> rows = Collections.emptyList().iterator();
+
+        ChunkIterator(Evaluator<?> evaluator, Object[] args, int maxChunkSize) {
+            this.evaluator = evaluator;
+            this.args = args;
+            this.source = ((Iterable<?>) args[0]).iterator();
+            this.maxChunkSize = maxChunkSize;
+        }
+
+        @Override
+        protected Object computeNext() {
+            while (!rows.hasNext()) {
+                if (!source.hasNext()) {
+                    return endOfData();
+                }
+                List<Object> chunk = new ArrayList<Object>(chunkSize);
+                while (chunk.size() < chunkSize && source.hasNext()) {
+                    chunk.add(source.next());
+                }
+                chunkSize = (int) Math.min(2l * chunkSize, maxChunkSize);
+                args[0] = chunk;
+                rows = ((List<?>) evaluator.evaluate(args)).iterator();
+            }
+            return rows.next();
+        }
+
+    }
+
+    /**
+     * ArrayKey provides array content based equality for distinct rows
+     */
+    static final class ArrayKey {
+
+        private final Object[] array;
+
+        private final int hashCode;
+
+        ArrayKey(Object array) {
+            this.array = new Object[]{array};
+            this.hashCode = Arrays.deepHashCode(this.array);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof ArrayKey && Arrays.deepEquals(array, ((ArrayKey) o).array);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+
+    }
 
 }
@@ -0,0 +1,273 @@
+/*
+ * Copyright 2015, Timo Westkämper
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.querydsl.collections;
+
+import java.lang.reflect.Modifier;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import com.mysema.codegen.Evaluator;
+import com.mysema.codegen.EvaluatorFactory;
+import com.mysema.codegen.model.ClassType;
+import com.mysema.codegen.model.Type;
+import com.mysema.codegen.model.TypeCategory;
+import com.querydsl.core.QueryException;
+
+/**
+ * EvaluatorCache is a bounded cache of compiled evaluators keyed by the generated source, the
+ * parameter types and the types of the constants.
+ *
+ * <p>Constants are compiled as trailing parameters of the evaluators, so that queries which differ
+ * only in their constant values share the compiled evaluator. The least recently used evaluators are
+ * evicted, when the maximum size is reached. Enable it via
+ * {@link DefaultEvaluatorFactory#DefaultEvaluatorFactory(CollQueryTemplates, EvaluatorCache)} and
+ * precompile frequent query shapes via {@link DefaultQueryEngine#warmUp(com.querydsl.core.QueryMetadata,
+ * com.querydsl.core.types.Expression)}.</p>
+ *
+ * <p>The cache bounds the amount of loaded evaluator classes only, if each evaluator is defined in
+ * its own class loader, like with the constructor above. With a shared {@link EvaluatorFactory}
+ * the evicted classes stay loaded in the class loader of the factory.</p>
+ *
+ * @author tiwe
+ */
+public final class EvaluatorCache {
+
+    private static final Map<String, Object> NO_CONSTANTS = Collections.emptyMap();
+
+    private final Cache<String, Evaluator<?>> evaluators;
+
+    /**
+     * Create a new EvaluatorCache instance
+     *
+     * @param maximumSize maximum amount of cached evaluators
+     */
+    public EvaluatorCache(int maximumSize) {
+        this.evaluators = CacheBuilder.newBuilder().maximumSize(maximumSize).recordStats().build();
+    }
+
+    /**
+     * Get the amount of evaluators served from the cache
+     *
+     * @return
+     */
+    public long getHitCount() {
+        return evaluators.stats().hitCount();
+    }
+
+    /**
+     * Get the amount of evaluators which needed to be compiled
+     *
+     * @return
+     */
+    public long getMissCount() {
+        return evaluators.stats().missCount();
+    }
+
+    /**
+     * Get the amount of evaluators evicted from the cache
+     *
+     * @return
+     */
+    public long getEvictionCount() {
+        return evaluators.stats().evictionCount();
+    }
+
+    /**
+     * Get the total time spent compiling evaluators in nanoseconds
+     *
+     * @return
+     */
+    public long getTotalCompileTime() {
+        return evaluators.stats().totalLoadTime();
+    }
+
+    /**
+     * Get the amount of cached evaluators
+     *
+     * @return
+     */
+    public long size() {
+        return evaluators.size();
+    }
+
+    /**
+     * Discard all cached evaluators
+     */
+    public void invalidateAll() {
+        evaluators.invalidateAll();
+    }
+
+    /**
+     * Get the cached evaluator for the given source bound to the given constants
+     *
+     * @param factory factory for compilation of missing evaluators
+     * @param source java source
+     * @param projectionType projection type
+     * @param names parameter names
+     * @param classes parameter types
+     * @param constants constants by name
+     * @return
+     */
+    public <T> Evaluator<T> get(final EvaluatorFactory factory, final String source,
+            final Class<? extends T> projectionType, String[] names, Class<?>[] classes,
+            Map<String, Object> constants) {
+        final Map<String, Object> sorted = new TreeMap<String, Object>(constants);
+        final String[] allNames = append(names, sorted.keySet().toArray(new String[sorted.size()]));
+        final Class<?>[] allClasses = append(classes, getConstantTypes(sorted));
+        StringBuilder key = new StringBuilder(source).append('\n').append(projectionType.getName());
+        appendParameters(key, allNames, allClasses);
+        return bind(key.toString(), sorted, new Callable<Evaluator<?>>() {
+            @Override
+            public Evaluator<?> call() {
+                return factory.createEvaluator(source, projectionType, allNames, allClasses,
+                        NO_CONSTANTS);
+            }
+        });
+    }
+
+    /**
+     * Get the cached evaluator for the given source bound to the given constants
+     *
+     * @param factory factory for compilation of missing evaluators
+     * @param source java source
+     * @param projectionType projection type
+     * @param names parameter names
+     * @param types parameter types
+     * @param classes parameter classes
+     * @param constants constants by name
+     * @return
+     */
+    public <T> Evaluator<T> get(final EvaluatorFactory factory, final String source,
+            final ClassType projectionType, String[] names, Type[] types, Class<?>[] classes,
+            Map<String, Object> constants) {
+        final Map<String, Object> sorted = new TreeMap<String, Object>(constants);
+        Class<?>[] constantTypes = getConstantTypes(sorted);
+        Type[] constantModels = new Type[constantTypes.length];
+        for (int i = 0; i < constantTypes.length; i++) {
+            constantModels[i] = new ClassType(TypeCategory.SIMPLE, constantTypes[i]);
+        }
+        final String[] allNames = append(names, sorted.keySet().toArray(new String[sorted.size()]));
+        final Type[] allTypes = append(types, constantModels);
+        final Class<?>[] allClasses = append(classes, constantTypes);
+        StringBuilder key = new StringBuilder(source).append('\n')
+                .append(projectionType.getGenericName(true));
+        for (Type type : types) {
+            key.append('\n').append(type.getGenericName(true));
+        }
+        appendParameters(key, allNames, allClasses);
+        return bind(key.toString(), sorted, new Callable<Evaluator<?>>() {
+            @Override
+            public Evaluator<?> call() {
+                return factory.createEvaluator(source, projectionType, allNames, allTypes, allClasses,
+                        NO_CONSTANTS);
+            }
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> Evaluator<T> bind(String key, Map<String, Object> constants,
+            Callable<Evaluator<?>> compiler) {
+        try {
+            Evaluator<T> evaluator = (Evaluator<T>) evaluators.get(key, compiler);
+            if (constants.isEmpty()) {
+                return evaluator;
+            } else {
+                return new BoundEvaluator<T>(evaluator, constants.values().toArray());
+            }
+        } catch (ExecutionException e) {
+            throw new QueryException(e.getCause());
+        } catch (UncheckedExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            } else {
+                throw new QueryException(e.getCause());
+            }
+        }
+    }
+
+    private static void appendParameters(StringBuilder key, String[] names, Class<?>[] classes) {
+        for (int i = 0; i < names.length; i++) {
+            key.append('\n').append(names[i]).append(' ').append(classes[i].getName());
+        }
+    }
+
+    private static Class<?>[] getConstantTypes(Map<String, Object> constants) {
+        Class<?>[] types = new Class<?>[constants.size()];
+        int i = 0;
+        for (Object constant : constants.values()) {
+            types[i++] = getConstantType(constant);
+        }
+        return types;
+    }
+
+    private static Class<?> getConstantType(Object constant) {
+        if (constant instanceof List) {
+            return List.class;
+        } else if (constant instanceof Set) {
+            return Set.class;
+        } else if (constant instanceof Collection) {
+            return Collection.class;
+        } else if (constant instanceof Map) {
+            return Map.class;
+        }
+        Class<?> type = constant.getClass();
+        while (!Modifier.isPublic(type.getModifiers()) || type.isAnonymousClass()) {
+            type = type.getSuperclass();
+        }
+        return type;
+    }
+
+    private static <T> T[] append(T[] first, T[] second) {
+        T[] rv = Arrays.copyOf(first, first.length + second.length);
+        System.arraycopy(second, 0, rv, first.length, second.length);
+        return rv;
+    }
+
+    /**
+     * BoundEvaluator supplies the constants of a query to a shared evaluator
+     */
+    private static final class BoundEvaluator<T> implements Evaluator<T> {
+
+        private final Evaluator<T> evaluator;
+
+        private final Object[] constants;
+
+        BoundEvaluator(Evaluator<T> evaluator, Object[] constants) {
+            this.evaluator = evaluator;
+            this.constants = constants;
+        }
+
+        @Override
+        public T evaluate(Object... args) {
+            return evaluator.evaluate(append(args, constants));
+        }
+
+        @Override
+        public Class<? extends T> getType() {
+            return evaluator.getType();
+        }
+
+    }
+
+}
@@ -0,0 +1,846 @@
+/*
+ * Copyright 2015, Timo Westkämper
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.querydsl.collections;
+
+import java.beans.BeanInfo;
+import java.beans.IntrospectionException;
+import java.beans.Introspector;
+import java.beans.PropertyDescriptor;
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.primitives.Primitives;
+import com.querydsl.core.QueryException;
+import com.querydsl.core.QueryMetadata;
+import com.querydsl.core.types.Constant;
+import com.querydsl.core.types.Expression;
+import com.querydsl.core.types.FactoryExpression;
+import com.querydsl.core.types.Operation;
+import com.querydsl.core.types.Operator;
+import com.querydsl.core.types.Ops;
+import com.querydsl.core.types.ParamExpression;
+import com.querydsl.core.types.ParamNotSetException;
+import com.querydsl.core.types.Path;
+import com.querydsl.core.types.PathType;
+import com.querydsl.core.types.SubQueryExpression;
+import com.querydsl.core.types.TemplateExpression;
+import com.querydsl.core.types.Visitor;
+
+/**
+ * ExpressionInterpreter converts expressions into trees of evaluation nodes, which evaluate the
+ * expressions against rows of source values without code generation.
+ *
+ * <p>Operations are evaluated with the semantics of the Java code generated for the default
+ * {@link CollQueryTemplates}. Operators which are not supported or which use custom templates are
+ * rejected with an {@link UnsupportedOperationException}.</p>
+ *
+ * @author tiwe
+ */
+final class ExpressionInterpreter implements Visitor<ExpressionInterpreter.Node, Void> {
+
+    /**
+     * Node is the evaluation node of a single expression
+     */
+    abstract static class Node {
+
+        /**
+         * Evaluate the expression for the given row of source values
+         *
+         * @param row source values
+         * @return
+         */
+        abstract Object evaluate(Object[] row);
+
+        /**
+         * Evaluate the predicate for the given row of source values. Null values cause a
+         * NullPointerException like the unboxing in generated code.
+         *
+         * @param row source values
+         * @return
+         */
+        boolean isTrue(Object[] row) {
+            return (Boolean) evaluate(row);
+        }
+
+    }
+
+    private static final Map<Operator, String> DATE_FUNCTIONS = ImmutableMap.<Operator, String>builder()
+            .put(Ops.DateTimeOps.YEAR, "getYear")
+            .put(Ops.DateTimeOps.MONTH, "getMonth")
+            .put(Ops.DateTimeOps.WEEK, "getWeek")
+            .put(Ops.DateTimeOps.DAY_OF_WEEK, "getDayOfWeek")
+            .put(Ops.DateTimeOps.DAY_OF_MONTH, "getDayOfMonth")
+            .put(Ops.DateTimeOps.DAY_OF_YEAR, "getDayOfYear")
+            .put(Ops.DateTimeOps.HOUR, "getHour")
+            .put(Ops.DateTimeOps.MINUTE, "getMinute")
+            .put(Ops.DateTimeOps.SECOND, "getSecond")
+            .put(Ops.DateTimeOps.MILLISECOND, "getMilliSecond")
+            .put(Ops.DateTimeOps.YEAR_MONTH, "getYearMonth")
+            .put(Ops.DateTimeOps.YEAR_WEEK, "getYearWeek")
+            .build();
+
+    private final CollQueryTemplates templates;
+
+    private final QueryMetadata metadata;
+
+    private final List<? extends Expression<?>> variables;
+
+    /**
+     * Create a new ExpressionInterpreter instance
+     *
+     * @param templates templates of the query engine
+     * @param metadata query metadata for parameter values
+     * @param variables source variables in the order of the evaluated rows
+     */
+    ExpressionInterpreter(CollQueryTemplates templates, QueryMetadata metadata,
+            List<? extends Expression<?>> variables) {
+        this.templates = templates;
+        this.metadata = metadata;
+        this.variables = variables;
+    }
+
+    /**
+     * Convert the given expression into an evaluation node
+     *
+     * @param expr expression
+     * @return
+     * @throws UnsupportedOperationException if the expression can't be interpreted
+     */
+    Node interpret(Expression<?> expr) {
+        return expr.accept(this, null);
+    }
+
+    private Node[] interpret(List<? extends Expression<?>> exprs) {
+        Node[] nodes = new Node[exprs.size()];
+        for (int i = 0; i < nodes.length; i++) {
+            nodes[i] = interpret(exprs.get(i));
+        }
+        return nodes;
+    }
+
+    private static Node value(final Object value) {
+        return new Node() {
+            @Override
+            Object evaluate(Object[] row) {
+                return value;
+            }
+        };
+    }
+
+    @Override
+    public Node visit(Constant<?> expr, Void context) {
+        return value(expr.getConstant());
+    }
+
+    @Override
+    public Node visit(ParamExpression<?> expr, Void context) {
+        Object value = metadata.getParams().get(expr);
+        if (value == null) {
+            throw new ParamNotSetException(expr);
+        }
+        return value(value);
+    }
+
+    @Override
+    public Node visit(final FactoryExpression<?> expr, Void context) {
+        final Node[] args = interpret(expr.getArgs());
+        return new Node() {
+            @Override
+            Object evaluate(Object[] row) {
+                Object[] values = new Object[args.length];
+                for (int i = 0; i < values.length; i++) {
+                    values[i] = args[i].evaluate(row);
+                }
+                return expr.newInstance(values);
+            }
+        };
+    }
+
+    @Override
+    public Node visit(Path<?> expr, Void context) {
+        final int index = variables.indexOf(expr);
+        if (index > -1) {
+            return new Node() {
+                @Override
+                Object evaluate(Object[] row) {
+                    return row[index];
+                }
+            };
+        }
+        PathType pathType = expr.getMetadata().getPathType();
+        Path<?> parent = expr.getMetadata().getParent();
+        if (parent == null) {
+            throw unsupported(expr);
+        } else if (pathType == PathType.PROPERTY) {
+            return property(interpret(parent), parent.getType(), expr.getMetadata().getName());
+        } else if (pathType == PathType.DELEGATE) {
+            return interpret(parent);
+        }
+
+        checkTemplate(pathType);
+        final Node owner = interpret(parent);
+        Object elementValue = expr.getMetadata().getElement();
+        // the elements of the constant path types are plain values
+        final Node element = elementValue instanceof Expression
+                ? interpret((Expression<?>) elementValue) : value(elementValue);
+        switch (pathType) {
+        case LISTVALUE:
+        case LISTVALUE_CONSTANT:
+            return new Node() {
+                @Override
+                Object evaluate(Object[] row) {
+                    return ((List<?>) owner.evaluate(row)).get((Integer) element.evaluate(row));
+                }
+            };
+        case MAPVALUE:
+        case MAPVALUE_CONSTANT:
+            return new Node() {
+                @Override
+                Object evaluate(Object[] row) {
+                    return ((Map<?, ?>) owner.evaluate(row)).get(element.evaluate(row));
+                }
+            };
+        case ARRAYVALUE:
+        case ARRAYVALUE_CONSTANT:
+            return new Node() {
+                @Override
+                Object evaluate(Object[] row) {
+                    return Array.get(owner.evaluate(row), (Integer) element.evaluate(row));
+                }
+            };
+        default:
+            throw unsupported(expr);
+        }
+    }
+
+    private static Node property(final Node owner, Class<?> ownerType, final String property) {
+        final Method getter = getAccessor(ownerType, property);
+        if (getter != null && Modifier.isPublic(getter.getModifiers())) {
+            getter.setAccessible(true);
+            return new Node() {
+                @Override
+                Object evaluate(Object[] row) {
+                    Object value = owner.evaluate(row);
+                    if (value == null) {
+                        throw new NullPointerException();
+                    }
+                    try {
+                        return getter.invoke(value);
+                    } catch (IllegalAccessException e) {
+                        throw new QueryException(e);
+                    } catch (InvocationTargetException e) {
+                        if (e.getCause() instanceof RuntimeException) {
+                            throw (RuntimeException) e.getCause();
+                        }
+                        throw new QueryException(e.getCause());
+                    }
+                }
+            };
+        }
+        final Field field = getField(ownerType, property);
+        if (field != null && Modifier.isPublic(field.getModifiers())) {
+            return new Node() {
+                @Override
+                Object evaluate(Object[] row) {
+                    try {
+                        return field.get(owner.evaluate(row));
+                    } catch (IllegalAccessException e) {
+                        throw new QueryException(e);
+                    }
+                }
+            };
+        }
+        return new Node() {
+            @Override
+            Object evaluate(Object[] row) {
+                Object value = owner.evaluate(row);
+                if (value == null) {
+                    throw new NullPointerException();
+                }
+                return CollQueryFunctions.get(value, property);
+            }
+        };
+    }
+
+    private static Method getAccessor(Class<?> owner, String property) {
+        try {
+            BeanInfo beanInfo = Introspector.getBeanInfo(owner);
+            for (PropertyDescriptor pd : beanInfo.getPropertyDescriptors()) {
+                if (pd.getName().equals(property)) {
+                    return pd.getReadMethod();
+                }
+            }
+            return null;
+        } catch (IntrospectionException e) {
+            return null;
+        }
+    }
+
+    private static Field getField(Class<?> owner, String field) {
+        try {
+            return owner.getField(field);
+        } catch (NoSuchFieldException e) {
+            return null;
+        }
+    }
+
+    @Override
+    public Node visit(Operation<?> expr, Void context) {
+        Operator operator = expr.getOperator();
+        if (!(operator instanceof Ops) && !DATE_FUNCTIONS.containsKey(operator)) {
+            throw unsupported(expr);
+        }
+        checkTemplate(operator);
+        List<Expression<?>> args = expr.getArgs();
+        if (DATE_FUNCTIONS.containsKey(operator)) {
+            return date(interpret(args.get(0)), DATE_FUNCTIONS.get(operator));
+        }
+        switch ((Ops) operator) {
+        case EQ:
+        case NE:
+        case GT:
+        case LT:
+        case GOE:
+        case LOE:
+            return comparison((Ops) operator, args.get(0), args.get(1));
+        case ADD:
+        case SUB:
+        case MULT:
+        case DIV:
+            return arithmetic(expr, (Ops) operator, args.get(0), args.get(1));
+        case NEGATE:
+            if (!isPrimitive(args.get(0).getType())) {
+                throw unsupported(expr);
+            }
+            return negate(interpret(args.get(0)));
+        default:
+            return operation(expr, (Ops) operator, interpret(args));
+        }
+    }
+
+    private Node operation(Operation<?> expr, Ops operator, final Node[] args) {
+        switch (operator) {
+        // boolean
+        case AND:
+            return new Node() {
+                @Override
+                Object evaluate(Object[] row) {
+                    return args[0].isTrue(row) && args[1].isTrue(row);
+                }
+            };
+        case OR:
+            return new Node() {
+                @Override
+                Object evaluate(Object[] row) {
+                    return args[0].isTrue(row) || args[1].isTrue(row);
+                }
+            };
+        case NOT:
+            return new Node() {
+                @Override
+                Object evaluate(Object[] row) {
+                    return !args[0].isTrue(row);
+                }
+            };
+        case IS_NULL:
+            return new Node() {
+                @Override
+                Object evaluate(Object[] row) {
+                    return args[0].evaluate(row) == null;
+                }
+            };
+        case IS_NOT_NULL:
+            return new Node() {
+                @Override
+                Object evaluate(Object[] row) {
+                    return args[0].evaluate(row) != null;
+                }
+            };
+        case INSTANCE_OF:
+            return new Node() {
+                @Override
+                Object evaluate(Object[] row) {
+                    return ((Class<?>) args[1].evaluate(row)).isInstance(args[0].evaluate(row));
+                }
+            };
+        case ORDINAL:
+            return new Node() {
+                @Override
+                Object evaluate(Object[] row) {
+                    return ((Enum<?>) args[0].evaluate(row)).ordinal();
+                }
+            };
+        case BETWEEN:
+            return new Node() {
+                @Override
+                @SuppressWarnings("unchecked")
+                Object evaluate(Object[] row) {
+                    return CollQueryFunctions.between((Comparable) args[0].evaluate(row),
+                            (Comparable) args[1].evaluate(row), (Comparable) args[2].evaluate(row));
+                }
+            };
+        case NULLIF:
+            return new Node() {
+                @Override
+                Object evaluate(Object[] row) {
+                    return CollQueryFunctions.nullif(args[0].evaluate(row), args[1].evaluate(row));
+                }
+            };
+        case STRING_CAST:
+            return new Node() {
+                @Override
+                Object evaluate(Object[] row) {
+                    return String.valueOf(args[0].evaluate(row));
+                }
+            };
+
+        // collection, array and map
+        case IN:
+        case NOT_IN:
+            final boolean in = operator == Ops.IN;
+            return new Node() {
+                @Override
+                Object evaluate(Object[] row) {
+                    return ((Collection<?>) args[1].evaluate(row)).contains(args[0].evaluate(row)) == in;
+                }
+            };
+        case COL_IS_EMPTY:
+            return new Node() {
+                @Override
+                Object evaluate(Object[] row) {
+                    return ((Collection<?>) args[0].evaluate(row)).isEmpty();
+                }
+            };
+        case COL_SIZE:
+            return new Node() {
+                @Override
+                Object evaluate(Object[] row) {
+                    return ((Collection<?>) args[0].evaluate(row)).size();
+                }
+            };
+        case ARRAY_SIZE:
+            return new Node() {
+                @Override
+                Object evaluate(Object[] row) {
+                    return Array.getLength(args[0].evaluate(row));
+                }
+            };
+        case MAP_IS_EMPTY:
+            return new Node() {
+                @Override
+                Object evaluate(Object[] row) {
+                    return ((Map<?, ?>) args[0].evaluate(row)).isEmpty();
+                }
+            };
+        case MAP_SIZE:
+            return new Node() {
+                @Override
+                Object evaluate(Object[] row) {
+                    return ((Map<?, ?>) args[0].evaluate(row)).size();
+                }
+            };
+        case CONTAINS_KEY:
+            return new Node() {
+                @Override
+                Object evaluate(Object[] row) {
+                    return ((Map<?, ?>) args[0].evaluate(row)).containsKey(args[1].evaluate(row));
+                }
+            };
+        case CONTAINS_VALUE:
+            return new Node() {
+                @Override
+                Object evaluate(Object[] row) {
+                    return ((Map<?, ?>) args[0].evaluate(row)).containsValue(args[1].evaluate(row));
+                }
+            };
+
+        // string
+        case CONCAT:
+            return new Node() {
+                @Override
+                Object evaluate(Object[] row) {
+                    return String.valueOf(args[0].evaluate(row)) + args[1].evaluate(row);
+                }
+            };
+        case LOWER:
+            return new Node() {
+                @Override
+                Object evaluate(Object[] row) {
+                    return string(args[0], row).toLowerCase();
+                }
+            };
+        case UPPER:
+            return new Node() {
+                @Override
+                Object evaluate(Object[] row) {
+                    return string(args[0], row).toUpperCase();
+                }
+            };
+        case TRIM:
+            return new Node() {
+                @Override
+                Object evaluate(Object[] row) {
+                    return string(args[0], row).trim();
+                }
+            };
+        case STRING_LENGTH:
+            return new Node() {
+                @Override
+                Object evaluate(Object[] row) {
+                    return string(args[0], row).length();
+                }
+            };
+        case STRING_IS_EMPTY:
+            return new Node() {
+                @Override
+                Object evaluate(Object[] row) {
+                    return string(args[0], row).isEmpty();
+                }
+            };
+        case CHAR_AT:
+            return new Node() {
+                @Override
+                Object evaluate(Object[] row) {
+                    return string(args[0], row).charAt((Integer) args[1].evaluate(row));
+                }
+            };
+        case SUBSTR_1ARG:
+            return new Node() {
+                @Override
+                Object evaluate(Object[] row) {
+                    return string(args[0], row).substring((Integer) args[1].evaluate(row));
+                }
+            };
+        case SUBSTR_2ARGS:
+            return new Node() {
+                @Override
+                Object evaluate(Object[] row) {
+                    return string(args[0], row).substring((Integer) args[1].evaluate(row),
+                            (Integer) args[2].evaluate(row));
+                }
+            };
+        case INDEX_OF:
+            return new Node() {
+                @Override
+                Object evaluate(Object[] row) {
+                    return string(args[0], row).indexOf(string(args[1], row));
+                }
+            };
+        case INDEX_OF_2ARGS:
+            return new Node() {
+                @Override
+                Object evaluate(Object[] row) {
+                    return string(args[0], row).indexOf(string(args[1], row),
+                            (Integer) args[2].evaluate(row));
+                }
+            };
+        case STARTS_WITH:
+        case STARTS_WITH_IC:
+            final boolean startsIc = operator == Ops.STARTS_WITH_IC;
+            return new Node() {
+                @Override
+                Object evaluate(Object[] row) {
+                    return string(args[0], row, startsIc).startsWith(string(args[1], row, startsIc));
+                }
+            };
+        case ENDS_WITH:
+        case ENDS_WITH_IC:
+            final boolean endsIc = operator == Ops.ENDS_WITH_IC;
+            return new Node() {
+                @Override
+                Object evaluate(Object[] row) {
+                    return string(args[0], row, endsIc).endsWith(string(args[1], row, endsIc));
+                }
+            };
+        case STRING_CONTAINS:
+        case STRING_CONTAINS_IC:
+            final boolean containsIc = operator == Ops.STRING_CONTAINS_IC;
+            return new Node() {
+                @Override
+                Object evaluate(Object[] row) {
+                    return string(args[0], row, containsIc).contains(string(args[1], row, containsIc));
+                }
+            };
+        case EQ_IGNORE_CASE:
+            return new Node() {
+                @Override
+                Object evaluate(Object[] row) {
+                    return string(args[0], row).equalsIgnoreCase(string(args[1], row));
+                }
+            };
+        case MATCHES:
+        case MATCHES_IC:
+            return new Node() {
+                @Override
+                Object evaluate(Object[] row) {
+                    return string(args[0], row).matches(string(args[1], row));
+                }
+            };
+        case LIKE:
+        case LIKE_ESCAPE:
+            return new Node() {
+                @Override
+                Object evaluate(Object[] row) {
+                    return CollQueryFunctions.like(string(args[0], row), string(args[1], row));
+                }
+            };
+        default:
+            throw unsupported(expr);
+        }
+    }
+
+    private static String string(Node node, Object[] row) {
+        return (String) node.evaluate(row);
+    }
+
+    private static String string(Node node, Object[] row, boolean lowerCase) {
+        String str = (String) node.evaluate(row);
+        return lowerCase ? str.toLowerCase() : str;
+    }
+
+    private Node comparison(final Ops operator, Expression<?> left, Expression<?> right) {
+        final Node arg0 = interpret(left), arg1 = interpret(right);
+        if (isPrimitive(left.getType()) && isPrimitive(right.getType())) {
+            // primitive comparison
+            return new Node() {
+                @Override
+                Object evaluate(Object[] row) {
+                    Object value0 = arg0.evaluate(row), value1 = arg1.evaluate(row);
+                    if (value0 == null || value1 == null) {
+                        throw new NullPointerException();
+                    } else if (value0 instanceof Boolean || value1 instanceof Boolean) {
+                        return compared(operator, value0.equals(value1) ? 0 : 1);
+                    } else if (Numbers.isNaN(value0) || Numbers.isNaN(value1)) {
+                        // NaN is unordered, only != holds
+                        return operator == Ops.NE;
+                    } else {
+                        return compared(operator, Numbers.compare(value0, value1));
+                    }
+                }
+            };
+        } else if (operator == Ops.EQ || operator == Ops.NE) {
+            final boolean eq = operator == Ops.EQ;
+            return new Node() {
+                @Override
+                Object evaluate(Object[] row) {
+                    return CollQueryFunctions.equals(arg0.evaluate(row), arg1.evaluate(row)) == eq;
+                }
+            };
+        } else {
+            return new Node() {
+                @Override
+                @SuppressWarnings("unchecked")
+                Object evaluate(Object[] row) {
+                    return compared(operator, CollQueryFunctions.compareTo(
+                            (Comparable) arg0.evaluate(row), (Comparable) arg1.evaluate(row)));
+                }
+            };
+        }
+    }
+
+    private static boolean compared(Ops operator, int comparison) {
+        switch (operator) {
+        case EQ:  return comparison == 0;
+        case NE:  return comparison != 0;
+        case GT:  return comparison > 0;
+        case LT:  return comparison < 0;
+        case GOE: return comparison >= 0;
+        case LOE: return comparison <= 0;
+        default: throw new IllegalArgumentException(operator.toString());
+        }
+    }
+
+    private Node arithmetic(Operation<?> expr, final Ops operator, Expression<?> left, Expression<?> right) {
+        final Node arg0 = interpret(left), arg1 = interpret(right);
+        Class<?> type0 = left.getType(), type1 = right.getType();
+        if (isPrimitive(type0) && isPrimitive(type1)) {
+            return new Node() {
+                @Override
+                Object evaluate(Object[] row) {
+                    return Numbers.apply(operator, arg0.evaluate(row), arg1.evaluate(row));
+                }
+            };
+        } else if (BigDecimal.class.equals(type0) || BigInteger.class.equals(type0)) {
+            return new Node() {
+                @Override
+                Object evaluate(Object[] row) {
+                    return Numbers.apply(operator, (Number) arg0.evaluate(row), (Number) arg1.evaluate(row));
+                }
+            };
+        } else {
+            throw unsupported(expr);
+        }
+    }
+
+    private static Node negate(final Node arg) {
+        return new Node() {
+            @Override
+            Object evaluate(Object[] row) {
+                return Numbers.apply(Ops.SUB, 0, arg.evaluate(row));
+            }
+        };
+    }
+
+    private static Node date(final Node arg, String function) {
+        final Method method;
+        try {
+            method = CollQueryFunctions.class.getMethod(function, Date.class);
+        } catch (NoSuchMethodException e) {
+            throw new UnsupportedOperationException(function);
+        }
+        return new Node() {
+            @Override
+            Object evaluate(Object[] row) {
+                Date date = (Date) arg.evaluate(row);
+                if (date == null) {
+                    throw new NullPointerException();
+                }
+                try {
+                    return method.invoke(null, date);
+                } catch (IllegalAccessException e) {
+                    throw new QueryException(e);
+                } catch (InvocationTargetException e) {
+                    throw new QueryException(e.getCause());
+                }
+            }
+        };
+    }
+
+    private void checkTemplate(Operator operator) {
+        if (!templates.getTemplate(operator).equals(CollQueryTemplates.DEFAULT.getTemplate(operator))) {
+            throw new UnsupportedOperationException("Custom template for " + operator);
+        }
+    }
+
+    private static boolean isPrimitive(Class<?> type) {
+        return type.isPrimitive() || Primitives.isWrapperType(type);
+    }
+
+    private static UnsupportedOperationException unsupported(Expression<?> expr) {
+        return new UnsupportedOperationException("Interpretation of " + expr + " is not supported");
+    }
+
+    @Override
+    public Node visit(SubQueryExpression<?> expr, Void context) {
+        throw unsupported(expr);
+    }
+
+    @Override
+    public Node visit(TemplateExpression<?> expr, Void context) {
+        throw unsupported(expr);
+    }
+
+    /**
+     * Numbers implements the arithmetic and comparison of numbers with Java promotion rules
+     */
+    private static final class Numbers {
+
+        private static Object promote(Object value) {
+            if (value instanceof Character) {
+                return (int) (Character) value;
+            } else if (value instanceof Byte || value instanceof Short) {
+                return ((Number) value).intValue();
+            } else {
+                return value;
+            }
+        }
+
+        static boolean isNaN(Object value) {
+            return (value instanceof Double && ((Double) value).isNaN())
+                || (value instanceof Float && ((Float) value).isNaN());
+        }
+
+        static int compare(Object value0, Object value1) {
+            Number n0 = (Number) promote(value0), n1 = (Number) promote(value1);
+            if (isDecimal(n0) || isDecimal(n1)) {
+                double d0 = n0.doubleValue(), d1 = n1.doubleValue();
+                return d0 < d1 ? -1 : (d0 == d1 ? 0 : 1);
+            } else {
+                long l0 = n0.longValue(), l1 = n1.longValue();
+                return l0 < l1 ? -1 : (l0 == l1 ? 0 : 1);
+            }
+        }
+
+        static Number apply(Ops operator, Object value0, Object value1) {
+            Number n0 = (Number) promote(value0), n1 = (Number) promote(value1);
+            if (n0 instanceof BigDecimal) {
+                BigDecimal b0 = (BigDecimal) n0, b1 = (BigDecimal) n1;
+                switch (operator) {
+                case ADD:  return b0.add(b1);
+                case SUB:  return b0.subtract(b1);
+                case MULT: return b0.multiply(b1);
+                default:   return b0.divide(b1);
+                }
+            } else if (n0 instanceof BigInteger) {
+                BigInteger b0 = (BigInteger) n0, b1 = (BigInteger) n1;
+                switch (operator) {
+                case ADD:  return b0.add(b1);
+                case SUB:  return b0.subtract(b1);
+                case MULT: return b0.multiply(b1);
+                default:   return b0.divide(b1);
+                }
+            } else if (n0 instanceof Double || n1 instanceof Double) {
+                double d0 = n0.doubleValue(), d1 = n1.doubleValue();
+                switch (operator) {
+                case ADD:  return d0 + d1;
+                case SUB:  return d0 - d1;
+                case MULT: return d0 * d1;
+                default:   return d0 / d1;
+                }
+            } else if (n0 instanceof Float || n1 instanceof Float) {
+                float f0 = n0.floatValue(), f1 = n1.floatValue();
+                switch (operator) {
+                case ADD:  return f0 + f1;
+                case SUB:  return f0 - f1;
+                case MULT: return f0 * f1;
+                default:   return f0 / f1;
+                }
+            } else if (n0 instanceof Long || n1 instanceof Long) {
+                long l0 = n0.longValue(), l1 = n1.longValue();
+                switch (operator) {
+                case ADD:  return l0 + l1;
+                case SUB:  return l0 - l1;
+                case MULT: return l0 * l1;
+                default:   return l0 / l1;
+                }
+            } else {
+                int i0 = n0.intValue(), i1 = n1.intValue();
+                switch (operator) {
+                case ADD:  return i0 + i1;
+                case SUB:  return i0 - i1;
+                case MULT: return i0 * i1;
+                default:   return i0 / i1;
+                }
+            }
+        }
+
+        private static boolean isDecimal(Number number) {
+            return number instanceof Double || number instanceof Float;
+        }
+
+        private Numbers() {}
+
+    }
+
+}
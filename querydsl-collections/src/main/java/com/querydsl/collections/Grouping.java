@@ -0,0 +1,412 @@
+/*
+ * Copyright 2015, Timo Westkämper
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.querydsl.collections;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.annotation.Nullable;
+
+import com.mysema.codegen.Evaluator;
+import com.querydsl.core.QueryMetadata;
+import com.querydsl.core.support.ReplaceVisitor;
+import com.querydsl.core.types.ArrayConstructorExpression;
+import com.querydsl.core.types.Expression;
+import com.querydsl.core.types.Operation;
+import com.querydsl.core.types.Operator;
+import com.querydsl.core.types.Ops;
+import com.querydsl.core.types.Order;
+import com.querydsl.core.types.OrderSpecifier;
+import com.querydsl.core.types.PathImpl;
+import com.querydsl.core.types.TemplateExpression;
+import com.querydsl.core.util.MathUtils;
+
+/**
+ * Grouping evaluates the groupBy and having clauses of a query in a single pass over the
+ * filtered rows. The rows are aggregated into a hash map of groups, and the aggregates in the
+ * having, orderBy and projection clauses are replaced by variables, which are bound to the
+ * aggregate values of each group. Other expressions are evaluated for the first row of the group.
+ *
+ * @author tiwe
+ */
+@SuppressWarnings("unchecked")
+final class Grouping {
+
+    private final DefaultEvaluatorFactory evaluatorFactory;
+
+    private final QueryMetadata metadata;
+
+    private final List<Expression<?>> sources;
+
+    private final List<Operation<?>> aggregates = new ArrayList<Operation<?>>();
+
+    private final List<Expression<?>> groupSources;
+
+    @Nullable
+    private final Evaluator<Object[]> keyEvaluator;
+
+    private final Evaluator<?>[] argumentEvaluators;
+
+    @Nullable
+    private final Evaluator<Boolean> havingEvaluator;
+
+    private final int[] havingAggregates;
+
+    @Nullable
+    private final Evaluator<Object[]> orderEvaluator;
+
+    @Nullable
+    private final Evaluator<?> projectionEvaluator;
+
+    /**
+     * Create a new Grouping instance
+     *
+     * @param evaluatorFactory evaluator factory
+     * @param metadata query metadata
+     * @param sources source variables of the rows
+     * @param project true, if the groups are ordered and projected
+     */
+    Grouping(DefaultEvaluatorFactory evaluatorFactory, QueryMetadata metadata,
+            List<Expression<?>> sources, boolean project) {
+        this.evaluatorFactory = evaluatorFactory;
+        this.metadata = metadata;
+        this.sources = sources;
+
+        // replace aggregates
+        AggregateReplacer replacer = new AggregateReplacer();
+        Expression<Boolean> having = metadata.getHaving() != null
+                ? (Expression<Boolean>) metadata.getHaving().accept(replacer, null) : null;
+        Expression<Object[]> order = null;
+        Expression<?> projection = null;
+        if (project) {
+            if (!metadata.getOrderBy().isEmpty()) {
+                List<OrderSpecifier<?>> orderBy = metadata.getOrderBy();
+                Expression<Object>[] targets = new Expression[orderBy.size()];
+                for (int i = 0; i < orderBy.size(); i++) {
+                    targets[i] = (Expression<Object>) orderBy.get(i).getTarget().accept(replacer, null);
+                }
+                order = new ArrayConstructorExpression<Object>(Object[].class, targets);
+            }
+            projection = metadata.getProjection().accept(replacer, null);
+        }
+        groupSources = new ArrayList<Expression<?>>(sources);
+        groupSources.addAll(replacer.variables);
+
+        // grouped rows
+        if (!metadata.getGroupBy().isEmpty()) {
+            Expression<Object>[] keys = metadata.getGroupBy().toArray(new Expression[0]);
+            keyEvaluator = evaluatorFactory.create(metadata, sources,
+                    new ArrayConstructorExpression<Object>(Object[].class, keys));
+        } else {
+            keyEvaluator = null;
+        }
+        argumentEvaluators = new Evaluator<?>[aggregates.size()];
+        for (int i = 0; i < aggregates.size(); i++) {
+            Operation<?> aggregate = aggregates.get(i);
+            if (aggregate.getOperator() != Ops.AggOps.COUNT_ALL_AGG && !aggregate.getArgs().isEmpty()) {
+                argumentEvaluators[i] = evaluatorFactory.create(metadata, sources, aggregate.getArg(0));
+            }
+        }
+
+        // groups
+        havingEvaluator = having != null ? createGroupEvaluator(having) : null;
+        havingAggregates = having != null ? getComparedAggregates(metadata.getHaving()) : new int[0];
+        orderEvaluator = order != null ? createGroupEvaluator(order) : null;
+        projectionEvaluator = projection != null ? createGroupEvaluator(projection) : null;
+    }
+
+    /**
+     * Aggregates may be null, which is not accepted by the primitive parameters of compiled
+     * evaluators, so group level expressions are interpreted, if possible
+     */
+    private <T> Evaluator<T> createGroupEvaluator(final Expression<T> expr) {
+        try {
+            final ExpressionInterpreter.Node node = new ExpressionInterpreter(evaluatorFactory.getTemplates(),
+                    metadata, groupSources).interpret(expr);
+            return new Evaluator<T>() {
+                @Override
+                public T evaluate(Object... args) {
+                    return (T) node.evaluate(args);
+                }
+
+                @Override
+                public Class<? extends T> getType() {
+                    return expr.getType();
+                }
+            };
+        } catch (UnsupportedOperationException e) {
+            return evaluatorFactory.create(metadata, groupSources, expr);
+        }
+    }
+
+    /**
+     * Get the indexes of the aggregates which are used in the given predicate other than in null
+     * checks
+     */
+    private int[] getComparedAggregates(Expression<?> predicate) {
+        Set<Integer> indexes = new LinkedHashSet<Integer>();
+        collectComparedAggregates(predicate, indexes);
+        int[] rv = new int[indexes.size()];
+        int i = 0;
+        for (Integer index : indexes) {
+            rv[i++] = index;
+        }
+        return rv;
+    }
+
+    private void collectComparedAggregates(Expression<?> expr, Set<Integer> indexes) {
+        if (expr instanceof Operation<?>) {
+            Operation<?> operation = (Operation<?>) expr;
+            Operator operator = operation.getOperator();
+            if (operator instanceof Ops.AggOps) {
+                indexes.add(aggregates.indexOf(operation));
+            } else if (operator != Ops.IS_NULL && operator != Ops.IS_NOT_NULL) {
+                for (Expression<?> arg : operation.getArgs()) {
+                    collectComparedAggregates(arg, indexes);
+                }
+            }
+        } else if (expr instanceof TemplateExpression<?>) {
+            for (Object arg : ((TemplateExpression<?>) expr).getArgs()) {
+                if (arg instanceof Expression<?>) {
+                    collectComparedAggregates((Expression<?>) arg, indexes);
+                }
+            }
+        }
+    }
+
+    /**
+     * Group the given rows and return the groups which match the having clause
+     *
+     * @param rows source values or arrays of source values for multiple sources
+     * @return rows of the source values of the first row and the aggregates of each group
+     */
+    List<Object[]> group(Iterator<?> rows) {
+        Map<Object, Group> groups = new LinkedHashMap<Object, Group>();
+        while (rows.hasNext()) {
+            Object row = rows.next();
+            Object[] args = sources.size() > 1 ? (Object[]) row : new Object[]{row};
+            Object key = keyEvaluator != null ? new DefaultQueryEngine.ArrayKey(keyEvaluator.evaluate(args)) : Boolean.TRUE;
+            Group group = groups.get(key);
+            if (group == null) {
+                group = new Group(args, aggregates);
+                groups.put(key, group);
+            }
+            for (int i = 0; i < argumentEvaluators.length; i++) {
+                group.accumulators[i].add(argumentEvaluators[i] != null
+                        ? argumentEvaluators[i].evaluate(args) : Boolean.TRUE);
+            }
+        }
+        // aggregates without groupBy are computed for all rows
+        if (groups.isEmpty() && keyEvaluator == null) {
+            groups.put(Boolean.TRUE, new Group(new Object[sources.size()], aggregates));
+        }
+
+        List<Object[]> rv = new ArrayList<Object[]>(groups.size());
+        for (Group group : groups.values()) {
+            Object[] groupRow = new Object[groupSources.size()];
+            System.arraycopy(group.args, 0, groupRow, 0, group.args.length);
+            for (int i = 0; i < group.accumulators.length; i++) {
+                groupRow[group.args.length + i] = group.accumulators[i].getValue();
+            }
+            if (havingEvaluator == null || isTrue(groupRow, group.args.length)) {
+                rv.add(groupRow);
+            }
+        }
+        return rv;
+    }
+
+    /**
+     * Evaluate the having clause for the given group. Like in SQL, comparisons of null aggregates
+     * are unknown, so groups with null aggregates outside of null checks don't match.
+     */
+    private boolean isTrue(Object[] groupRow, int offset) {
+        for (int index : havingAggregates) {
+            if (groupRow[offset + index] == null) {
+                return false;
+            }
+        }
+        return Boolean.TRUE.equals(havingEvaluator.evaluate(groupRow));
+    }
+
+    /**
+     * Order the given groups and project them
+     *
+     * @param groups groups
+     * @return
+     */
+    List<?> project(List<Object[]> groups) {
+        if (orderEvaluator != null) {
+            List<OrderSpecifier<?>> orderBy = metadata.getOrderBy();
+            boolean[] directions = new boolean[orderBy.size()];
+            for (int i = 0; i < orderBy.size(); i++) {
+                directions[i] = orderBy.get(i).getOrder() == Order.ASC;
+            }
+            Collections.sort(groups, new MultiComparator<Object[]>(orderEvaluator, directions));
+        }
+        List<Object> rv = new ArrayList<Object>(groups.size());
+        for (Object[] group : groups) {
+            rv.add(projectionEvaluator.evaluate(group));
+        }
+        return rv;
+    }
+
+    /**
+     * AggregateReplacer replaces aggregates with variables
+     */
+    private final class AggregateReplacer extends ReplaceVisitor<Void> {
+
+        private final List<Expression<?>> variables = new ArrayList<Expression<?>>();
+
+        @Override
+        public Expression<?> visit(Operation<?> expr, Void context) {
+            if (!(expr.getOperator() instanceof Ops.AggOps)) {
+                return super.visit(expr, context);
+            } else if (expr.getOperator() == Ops.AggOps.COUNT_DISTINCT_ALL_AGG) {
+                throw new UnsupportedOperationException("Unsupported aggregate " + expr);
+            }
+            int index = aggregates.indexOf(expr);
+            if (index < 0) {
+                index = aggregates.size();
+                aggregates.add(expr);
+                variables.add(new PathImpl<Object>((Class) expr.getType(), "aggregate" + index + "_"));
+            }
+            return variables.get(index);
+        }
+
+    }
+
+    /**
+     * Group holds the first row and the aggregate values of a group
+     */
+    private static final class Group {
+
+        private final Object[] args;
+
+        private final Accumulator[] accumulators;
+
+        Group(Object[] args, List<Operation<?>> aggregates) {
+            this.args = args;
+            this.accumulators = new Accumulator[aggregates.size()];
+            for (int i = 0; i < accumulators.length; i++) {
+                accumulators[i] = new Accumulator(aggregates.get(i));
+            }
+        }
+
+    }
+
+    /**
+     * Accumulator computes a single aggregate. Null values are ignored.
+     */
+    private static final class Accumulator {
+
+        private final Operator operator;
+
+        private final Class<?> type;
+
+        private long count;
+
+        private long longSum;
+
+        private double doubleSum;
+
+        private boolean floating;
+
+        @Nullable
+        private BigDecimal decimalSum;
+
+        @Nullable
+        private Object value;
+
+        @Nullable
+        private Set<Object> values;
+
+        Accumulator(Operation<?> aggregate) {
+            this.operator = aggregate.getOperator();
+            this.type = aggregate.getType();
+            if (operator == Ops.AggOps.COUNT_DISTINCT_AGG) {
+                values = new HashSet<Object>();
+            }
+        }
+
+        void add(@Nullable Object val) {
+            if (val == null) {
+                return;
+            }
+            count++;
+            if (operator == Ops.AggOps.SUM_AGG || operator == Ops.AggOps.AVG_AGG) {
+                if (val instanceof BigDecimal || val instanceof BigInteger) {
+                    BigDecimal decimal = new BigDecimal(val.toString());
+                    decimalSum = decimalSum != null ? decimalSum.add(decimal) : decimal;
+                } else if (val instanceof Double || val instanceof Float) {
+                    doubleSum += ((Number) val).doubleValue();
+                    floating = true;
+                } else {
+                    longSum += ((Number) val).longValue();
+                }
+            } else if (operator == Ops.AggOps.MIN_AGG) {
+                if (value == null || ((Comparable<Object>) val).compareTo(value) < 0) {
+                    value = val;
+                }
+            } else if (operator == Ops.AggOps.MAX_AGG) {
+                if (value == null || ((Comparable<Object>) val).compareTo(value) > 0) {
+                    value = val;
+                }
+            } else if (operator == Ops.AggOps.COUNT_DISTINCT_AGG) {
+                values.add(val.getClass().isArray() ? new DefaultQueryEngine.ArrayKey(val) : val);
+            } else if (operator == Ops.AggOps.BOOLEAN_ALL) {
+                value = !Boolean.FALSE.equals(value) && (Boolean) val;
+            } else if (operator == Ops.AggOps.BOOLEAN_ANY) {
+                value = Boolean.TRUE.equals(value) || (Boolean) val;
+            }
+        }
+
+        @Nullable
+        Object getValue() {
+            if (operator == Ops.AggOps.COUNT_AGG || operator == Ops.AggOps.COUNT_ALL_AGG) {
+                return count;
+            } else if (operator == Ops.AggOps.COUNT_DISTINCT_AGG) {
+                return Long.valueOf(values.size());
+            } else if (count == 0) {
+                return null;
+            } else if (operator == Ops.AggOps.AVG_AGG) {
+                return getSum().doubleValue() / count;
+            } else if (operator == Ops.AggOps.SUM_AGG) {
+                return MathUtils.cast(getSum(), (Class) type);
+            } else {
+                return value;
+            }
+        }
+
+        private Number getSum() {
+            if (decimalSum != null) {
+                return decimalSum.add(BigDecimal.valueOf(longSum)).add(BigDecimal.valueOf(doubleSum));
+            } else if (floating) {
+                return doubleSum + longSum;
+            } else {
+                return longSum;
+            }
+        }
+
+    }
+
+}
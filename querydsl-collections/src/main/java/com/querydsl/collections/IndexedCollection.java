@@ -0,0 +1,392 @@
+/*
+ * Copyright 2015, Timo Westkämper
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.querydsl.collections;
+
+import java.util.AbstractCollection;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+import javax.annotation.Nullable;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.primitives.Primitives;
+import com.querydsl.core.DefaultQueryMetadata;
+import com.querydsl.core.types.Constant;
+import com.querydsl.core.types.Expression;
+import com.querydsl.core.types.Operation;
+import com.querydsl.core.types.Operator;
+import com.querydsl.core.types.Ops;
+import com.querydsl.core.types.ParamExpression;
+import com.querydsl.core.types.Path;
+import com.querydsl.core.types.Predicate;
+
+/**
+ * IndexedCollection is a collection with hash and sorted indexes on properties of its elements.
+ * {@link DefaultQueryEngine} uses the indexes for where conditions of the form
+ * {@code path.eq(value)}, {@code path.in(values)} and, for sorted indexes,
+ * {@code path.between(from, to)}, {@code path.gt(value)} etc, if the condition is a conjunct of the
+ * where clause and the query uses the source path of the indexed paths.
+ *
+ * <pre>
+ * IndexedCollection&lt;Cat&gt; cats = new IndexedCollection&lt;Cat&gt;(cat, source)
+ *     .addHashIndex(cat.name)
+ *     .addSortedIndex(cat.birthdate);
+ * List&lt;Cat&gt; matches = CollQueryFactory.from(cat, cats).where(cat.name.eq("Bob")).list(cat);
+ * </pre>
+ *
+ * <p>The elements are kept in insertion order and, like in a list, equal elements can be contained
+ * several times, but adding the same instance twice is rejected, since the elements are tracked
+ * by identity. The indexes are maintained on additions and removals and by {@link CollUpdateClause}
+ * and {@link CollDeleteClause}. Other modifications of indexed properties need to be followed by
+ * {@link #reindex()}. The collection is not thread-safe.</p>
+ *
+ * @author tiwe
+ *
+ * @param <T> element type
+ */
+public class IndexedCollection<T> extends AbstractCollection<T> {
+
+    private final Path<T> root;
+
+    private final Map<Long, T> elements = new LinkedHashMap<Long, T>();
+
+    private final Map<T, Long> sequences = new IdentityHashMap<T, Long>();
+
+    private final Map<Path<?>, Index<T>> indexes = new LinkedHashMap<Path<?>, Index<T>>();
+
+    private long sequence;
+
+    public IndexedCollection(Path<T> root) {
+        this.root = root;
+    }
+
+    public IndexedCollection(Path<T> root, Iterable<? extends T> elements) {
+        this(root);
+        for (T element : elements) {
+            add(element);
+        }
+    }
+
+    /**
+     * Add a hash index for equality lookups of the given path
+     *
+     * @param path path with the source path of this collection as root
+     * @return
+     */
+    public IndexedCollection<T> addHashIndex(Path<?> path) {
+        return addIndex(path, new HashMap<Object, SortedMap<Long, T>>());
+    }
+
+    /**
+     * Add a sorted index for equality and range lookups of the given path
+     *
+     * @param path path with Comparable values and the source path of this collection as root
+     * @return
+     */
+    public IndexedCollection<T> addSortedIndex(Path<? extends Comparable<?>> path) {
+        return addIndex(path, new TreeMap<Object, SortedMap<Long, T>>());
+    }
+
+    private IndexedCollection<T> addIndex(Path<?> path, Map<Object, SortedMap<Long, T>> entries) {
+        if (!root.equals(path.getRoot())) {
+            throw new IllegalArgumentException(path + " is not a path of " + root);
+        }
+        ExpressionInterpreter.Node key = new ExpressionInterpreter(CollQueryTemplates.DEFAULT,
+                new DefaultQueryMetadata(), ImmutableList.of(root)).interpret(path);
+        Index<T> index = new Index<T>(key, entries);
+        for (Map.Entry<Long, T> entry : elements.entrySet()) {
+            index.add(entry.getValue(), entry.getKey());
+        }
+        indexes.put(path, index);
+        return this;
+    }
+
+    @Override
+    public boolean add(T element) {
+        if (sequences.containsKey(element)) {
+            throw new IllegalArgumentException(element + " is already contained");
+        }
+        long seq = sequence++;
+        elements.put(seq, element);
+        sequences.put(element, seq);
+        for (Index<T> index : indexes.values()) {
+            index.add(element, seq);
+        }
+        return true;
+    }
+
+    @Override
+    public boolean contains(Object element) {
+        return sequences.containsKey(element) || super.contains(element);
+    }
+
+    @Override
+    public void clear() {
+        elements.clear();
+        sequences.clear();
+        for (Index<T> index : indexes.values()) {
+            index.entries.clear();
+        }
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        final Iterator<Map.Entry<Long, T>> entries = elements.entrySet().iterator();
+        return new Iterator<T>() {
+            private Map.Entry<Long, T> current;
+
+            @Override
+            public boolean hasNext() {
+                return entries.hasNext();
+            }
+
+            @Override
+            public T next() {
+                current = entries.next();
+                return current.getValue();
+            }
+
+            @Override
+            public void remove() {
+                entries.remove();
+                sequences.remove(current.getValue());
+                for (Index<T> index : indexes.values()) {
+                    index.remove(current.getValue(), current.getKey());
+                }
+            }
+        };
+    }
+
+    @Override
+    public int size() {
+        return elements.size();
+    }
+
+    /**
+     * Rebuild the indexes after modifications of indexed properties
+     */
+    public void reindex() {
+        for (Index<T> index : indexes.values()) {
+            index.entries.clear();
+            for (Map.Entry<Long, T> entry : elements.entrySet()) {
+                index.add(entry.getValue(), entry.getKey());
+            }
+        }
+    }
+
+    /**
+     * Remove the given element from the indexes before a modification
+     *
+     * @return insertion sequence of the element or null, if the instance is not contained
+     */
+    @Nullable
+    Long unindex(T element) {
+        Long seq = sequences.get(element);
+        if (seq != null) {
+            for (Index<T> index : indexes.values()) {
+                index.remove(element, seq);
+            }
+        }
+        return seq;
+    }
+
+    /**
+     * Add the given element to the indexes after a modification
+     *
+     * @param seq insertion sequence returned by {@link #unindex(Object)}
+     */
+    void index(T element, long seq) {
+        for (Index<T> index : indexes.values()) {
+            index.add(element, seq);
+        }
+    }
+
+    /**
+     * Get the elements matching an indexed conjunct of the given condition in insertion order
+     *
+     * @param condition where condition of a query with the source path of this collection
+     * @param params parameter values of the query
+     * @return candidates or null, if no conjunct is indexed
+     */
+    @Nullable
+    List<T> getCandidates(Predicate condition, Map<ParamExpression<?>, Object> params) {
+        List<Operation<?>> conjuncts = new ArrayList<Operation<?>>();
+        addConjuncts(condition, conjuncts);
+        // equality lookups are preferred over range lookups
+        for (boolean equality : new boolean[]{true, false}) {
+            for (Operation<?> conjunct : conjuncts) {
+                Operator op = conjunct.getOperator();
+                Index<T> index = indexes.get(conjunct.getArg(0));
+                if (index == null || (op == Ops.EQ || op == Ops.IN) != equality) {
+                    continue;
+                }
+                Collection<SortedMap<Long, T>> matches = index.lookup(conjunct, params);
+                if (matches != null) {
+                    return merge(matches);
+                }
+            }
+        }
+        return null;
+    }
+
+    private static void addConjuncts(Expression<?> expr, List<Operation<?>> conjuncts) {
+        if (expr instanceof Operation) {
+            Operation<?> operation = (Operation<?>) expr;
+            if (operation.getOperator() == Ops.AND) {
+                addConjuncts(operation.getArg(0), conjuncts);
+                addConjuncts(operation.getArg(1), conjuncts);
+            } else if (!operation.getArgs().isEmpty() && operation.getArg(0) instanceof Path) {
+                conjuncts.add(operation);
+            }
+        }
+    }
+
+    private static <T> List<T> merge(Collection<SortedMap<Long, T>> matches) {
+        if (matches.size() == 1) {
+            return new ArrayList<T>(matches.iterator().next().values());
+        }
+        SortedMap<Long, T> merged = new TreeMap<Long, T>();
+        for (SortedMap<Long, T> match : matches) {
+            merged.putAll(match);
+        }
+        return new ArrayList<T>(merged.values());
+    }
+
+    /**
+     * Index maps the values of a path to the elements with their insertion sequence
+     */
+    private static final class Index<T> {
+
+        private final ExpressionInterpreter.Node key;
+
+        private final Map<Object, SortedMap<Long, T>> entries;
+
+        Index(ExpressionInterpreter.Node key, Map<Object, SortedMap<Long, T>> entries) {
+            this.key = key;
+            this.entries = entries;
+        }
+
+        @Nullable
+        private Object getKey(Object element) {
+            try {
+                return key.evaluate(new Object[]{element});
+            } catch (NullPointerException e) {
+                return null;
+            }
+        }
+
+        void add(T element, long seq) {
+            Object value = getKey(element);
+            if (value != null) {
+                SortedMap<Long, T> values = entries.get(value);
+                if (values == null) {
+                    values = new TreeMap<Long, T>();
+                    entries.put(value, values);
+                }
+                values.put(seq, element);
+            }
+        }
+
+        void remove(Object element, long seq) {
+            Object value = getKey(element);
+            if (value != null) {
+                SortedMap<Long, T> values = entries.get(value);
+                if (values != null) {
+                    values.remove(seq);
+                    if (values.isEmpty()) {
+                        entries.remove(value);
+                    }
+                }
+            }
+        }
+
+        /**
+         * Get the matches of the given conjunct or null, if the conjunct can't be looked up
+         */
+        @Nullable
+        @SuppressWarnings("unchecked")
+        Collection<SortedMap<Long, T>> lookup(Operation<?> conjunct, Map<ParamExpression<?>, Object> params) {
+            Class<?> type = Primitives.wrap(conjunct.getArg(0).getType());
+            List<Object> values = new ArrayList<Object>(conjunct.getArgs().size() - 1);
+            for (int i = 1; i < conjunct.getArgs().size(); i++) {
+                Object value = getValue(conjunct.getArg(i), params);
+                if (conjunct.getOperator() == Ops.IN && value instanceof Collection) {
+                    values.addAll((Collection<?>) value);
+                } else {
+                    values.add(value);
+                }
+            }
+            for (Object value : values) {
+                if (!type.isInstance(value)) {
+                    return null;
+                }
+            }
+
+            Operator op = conjunct.getOperator();
+            if (op == Ops.EQ || op == Ops.IN) {
+                List<SortedMap<Long, T>> matches = new ArrayList<SortedMap<Long, T>>(values.size());
+                for (Object value : values) {
+                    SortedMap<Long, T> match = entries.get(value);
+                    if (match != null) {
+                        matches.add(match);
+                    }
+                }
+                return matches;
+            } else if (!(entries instanceof NavigableMap)) {
+                return null;
+            }
+
+            NavigableMap<Object, SortedMap<Long, T>> sorted = (NavigableMap<Object, SortedMap<Long, T>>) entries;
+            if (op == Ops.GT) {
+                return sorted.tailMap(values.get(0), false).values();
+            } else if (op == Ops.GOE) {
+                return sorted.tailMap(values.get(0), true).values();
+            } else if (op == Ops.LT) {
+                return sorted.headMap(values.get(0), false).values();
+            } else if (op == Ops.LOE) {
+                return sorted.headMap(values.get(0), true).values();
+            } else if (op == Ops.BETWEEN) {
+                if (((Comparable<Object>) values.get(0)).compareTo(values.get(1)) > 0) {
+                    return Collections.emptyList();
+                }
+                return sorted.subMap(values.get(0), true, values.get(1), true).values();
+            } else {
+                return null;
+            }
+        }
+
+        @Nullable
+        private static Object getValue(Expression<?> expr, Map<ParamExpression<?>, Object> params) {
+            if (expr instanceof Constant) {
+                return ((Constant<?>) expr).getConstant();
+            } else if (expr instanceof ParamExpression) {
+                return params.get(expr);
+            } else {
+                return null;
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,524 @@
+/*
+ * Copyright 2015, Timo Westkämper
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.querydsl.collections;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.annotation.Nullable;
+
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import com.mysema.codegen.Evaluator;
+import com.mysema.codegen.EvaluatorFactory;
+import com.mysema.codegen.model.ClassType;
+import com.mysema.codegen.model.Type;
+import com.querydsl.core.JoinExpression;
+import com.querydsl.core.JoinType;
+import com.querydsl.core.QueryMetadata;
+import com.querydsl.core.support.CollectionAnyVisitor;
+import com.querydsl.core.support.Context;
+import com.querydsl.core.types.Expression;
+import com.querydsl.core.types.Operation;
+import com.querydsl.core.types.Predicate;
+import com.querydsl.collections.ExpressionInterpreter.Node;
+
+/**
+ * InterpretingEvaluatorFactory evaluates queries by interpretation of the expression trees and
+ * switches to compiled evaluators for frequently executed query shapes.
+ *
+ * <p>Each query shape is interpreted for the first executions up to the compile threshold, which
+ * avoids the compilation overhead and class generation for one-shot queries. Shapes which are
+ * executed more often are compiled like in {@link DefaultEvaluatorFactory}. Expressions which can't
+ * be interpreted are always compiled. The Java compiler is only initialized when it is used, so
+ * with a threshold of {@link Integer#MAX_VALUE} queries can be evaluated without a compiler.</p>
+ *
+ * <p>The default query engine uses compiled evaluation. The interpreter compares numbers by value,
+ * while compiled code compares boxed numbers of the same type by identity, so this factory needs
+ * to be configured explicitly.</p>
+ *
+ * <pre>
+ * QueryEngine queryEngine = new DefaultQueryEngine(
+ *     new InterpretingEvaluatorFactory(CollQueryTemplates.DEFAULT));
+ * CollQuery query = new CollQuery(queryEngine);
+ * </pre>
+ *
+ * @author tiwe
+ */
+public class InterpretingEvaluatorFactory extends DefaultEvaluatorFactory {
+
+    /**
+     * Default amount of interpreted executions of a query shape before it is compiled
+     */
+    public static final int DEFAULT_COMPILE_THRESHOLD = 10;
+
+    private static final int MAXIMUM_SHAPES = 10000;
+
+    private final CollectionAnyVisitor collectionAnyVisitor = new CollectionAnyVisitor();
+
+    private final int compileThreshold;
+
+    private final LoadingCache<String, Shape> shapes = CacheBuilder.newBuilder()
+            .maximumSize(MAXIMUM_SHAPES)
+            .build(new CacheLoader<String, Shape>() {
+                @Override
+                public Shape load(String key) {
+                    return new Shape();
+                }
+            });
+
+    public InterpretingEvaluatorFactory(CollQueryTemplates templates) {
+        this(templates, DEFAULT_COMPILE_THRESHOLD);
+    }
+
+    /**
+     * Create a new InterpretingEvaluatorFactory instance
+     *
+     * @param templates templates
+     * @param compileThreshold amount of interpreted executions of a query shape before it is compiled
+     */
+    public InterpretingEvaluatorFactory(CollQueryTemplates templates, int compileThreshold) {
+        this(templates, new LazyEvaluatorFactory(Thread.currentThread().getContextClassLoader()),
+                null, compileThreshold);
+    }
+
+    /**
+     * Create a new InterpretingEvaluatorFactory instance
+     *
+     * @param templates templates
+     * @param factory factory for evaluator compilation
+     * @param cache evaluator cache or null for no caching
+     * @param compileThreshold amount of interpreted executions of a query shape before it is compiled
+     */
+    public InterpretingEvaluatorFactory(CollQueryTemplates templates, EvaluatorFactory factory,
+            @Nullable EvaluatorCache cache, int compileThreshold) {
+        super(templates, factory, cache);
+        this.compileThreshold = compileThreshold;
+    }
+
+    @Override
+    public <T> Evaluator<T> create(QueryMetadata metadata, List<? extends Expression<?>> sources,
+            final Expression<T> projection) {
+        Shape shape = getShape("create", sources, projection);
+        if (shape.isInterpreted(compileThreshold)) {
+            try {
+                final Node node = new ExpressionInterpreter(getTemplates(), metadata, sources)
+                        .interpret(projection);
+                return new Evaluator<T>() {
+                    @Override
+                    @SuppressWarnings("unchecked")
+                    public T evaluate(Object... args) {
+                        try {
+                            return (T) node.evaluate(args);
+                        } catch (RuntimeException e) {
+                            throw wrap(e);
+                        }
+                    }
+
+                    @Override
+                    public Class<? extends T> getType() {
+                        return projection.getType();
+                    }
+                };
+            } catch (UnsupportedOperationException e) {
+                shape.interpretable = false;
+            }
+        }
+        return super.create(metadata, sources, projection);
+    }
+
+    @Override
+    public <T> Evaluator<List<T>> createEvaluator(QueryMetadata metadata,
+            Expression<? extends T> source, Predicate filter) {
+        Node node = interpretFilter("filter", metadata, source, filter);
+        if (node != null) {
+            return new FilterEvaluator<List<T>>(node, false);
+        } else {
+            return super.createEvaluator(metadata, source, filter);
+        }
+    }
+
+    @Override
+    public Evaluator<Long> createCountEvaluator(QueryMetadata metadata,
+            Expression<?> source, Predicate filter) {
+        Node node = interpretFilter("count", metadata, source, filter);
+        if (node != null) {
+            return new FilterEvaluator<Long>(node, true);
+        } else {
+            return super.createCountEvaluator(metadata, source, filter);
+        }
+    }
+
+    @Nullable
+    private Node interpretFilter(String kind, QueryMetadata metadata, Expression<?> source,
+            Predicate filter) {
+        List<Expression<?>> sources = Collections.<Expression<?>>singletonList(source);
+        Shape shape = getShape(kind, sources, filter);
+        if (shape.isInterpreted(compileThreshold)) {
+            try {
+                return new ExpressionInterpreter(getTemplates(), metadata, sources).interpret(filter);
+            } catch (UnsupportedOperationException e) {
+                shape.interpretable = false;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public Evaluator<List<Object[]>> createEvaluator(QueryMetadata metadata,
+            List<JoinExpression> joins, @Nullable Predicate filter) {
+        JoinEvaluator<List<Object[]>> evaluator = interpretJoins("join", metadata, joins, filter, false);
+        if (evaluator != null) {
+            return evaluator;
+        } else {
+            return super.createEvaluator(metadata, joins, filter);
+        }
+    }
+
+    @Override
+    public Evaluator<Long> createCountEvaluator(QueryMetadata metadata,
+            List<JoinExpression> joins, @Nullable Predicate filter) {
+        JoinEvaluator<Long> evaluator = interpretJoins("joinCount", metadata, joins, filter, true);
+        if (evaluator != null) {
+            return evaluator;
+        } else {
+            return super.createCountEvaluator(metadata, joins, filter);
+        }
+    }
+
+    @Nullable
+    private <T> JoinEvaluator<T> interpretJoins(String kind, QueryMetadata metadata,
+            List<JoinExpression> joins, @Nullable Predicate filter, boolean count) {
+        List<Expression<?>> variables = new ArrayList<Expression<?>>(joins.size());
+        for (JoinExpression join : joins) {
+            if (join.getType() == JoinType.DEFAULT) {
+                variables.add(join.getTarget());
+            } else {
+                variables.add(((Operation<?>) join.getTarget()).getArg(1));
+            }
+        }
+        StringBuilder key = new StringBuilder(kind);
+        for (JoinExpression join : joins) {
+            key.append('\n').append(join.getType()).append(' ').append(join.getTarget())
+               .append(' ').append(join.getCondition());
+        }
+        Shape shape = getShape(key.toString(), variables, filter);
+        if (!shape.isInterpreted(compileThreshold)) {
+            return null;
+        }
+        try {
+            ExpressionInterpreter interpreter = new ExpressionInterpreter(getTemplates(), metadata, variables);
+            Map<Expression<?>, Expression<?>[]> hashJoins = filter != null ? getHashJoins(joins, filter)
+                    : Collections.<Expression<?>, Expression<?>[]>emptyMap();
+            Level[] levels = new Level[joins.size()];
+            int sources = 0;
+            for (int i = 0; i < levels.length; i++) {
+                JoinExpression join = joins.get(i);
+                Level level = new Level();
+                if (join.getType() == JoinType.DEFAULT) {
+                    level.source = sources++;
+                    Expression<?>[] hashJoin = hashJoins.get(join.getTarget());
+                    if (hashJoin != null) {
+                        level.key = interpreter.interpret(hashJoin[0]);
+                        level.probe = interpreter.interpret(hashJoin[1]);
+                    }
+                } else if (join.getType() == JoinType.INNERJOIN || join.getType() == JoinType.LEFTJOIN) {
+                    Expression<?> collection = ((Operation<?>) join.getTarget()).getArg(0);
+                    level.any = join.getCondition() != null && join.getCondition().toString().equals("any");
+                    level.map = collection.getType().equals(Map.class);
+                    level.leftJoin = join.getType() == JoinType.LEFTJOIN;
+                    if (level.any) {
+                        collection = collection.accept(collectionAnyVisitor, new Context());
+                    }
+                    level.source = -1;
+                    level.collection = interpreter.interpret(collection);
+                } else {
+                    throw new IllegalArgumentException("Illegal join expression " + join);
+                }
+                levels[i] = level;
+            }
+            Node node = filter != null ? interpreter.interpret(filter) : null;
+            return new JoinEvaluator<T>(levels, node, count);
+        } catch (UnsupportedOperationException e) {
+            shape.interpretable = false;
+            return null;
+        }
+    }
+
+    private Shape getShape(String kind, List<? extends Expression<?>> sources, @Nullable Expression<?> expr) {
+        StringBuilder key = new StringBuilder(kind);
+        for (Expression<?> source : sources) {
+            key.append('\n').append(source).append(' ').append(source.getType().getName());
+        }
+        if (expr != null) {
+            key.append('\n').append(new CollQuerySerializer(getTemplates()).handle(expr).toString());
+        }
+        return shapes.getUnchecked(key.toString());
+    }
+
+    /**
+     * Shape holds the execution statistics of a query shape
+     */
+    private static final class Shape {
+
+        private final AtomicInteger executions = new AtomicInteger();
+
+        private volatile boolean interpretable = true;
+
+        boolean isInterpreted(int compileThreshold) {
+            return interpretable && executions.get() < compileThreshold
+                && executions.incrementAndGet() <= compileThreshold;
+        }
+
+    }
+
+    /**
+     * Wrap the given exception like the reflective invocation of compiled evaluators does
+     */
+    private static IllegalArgumentException wrap(RuntimeException e) {
+        return new IllegalArgumentException(new InvocationTargetException(e));
+    }
+
+    /**
+     * FilterEvaluator filters or counts the elements of a single source
+     */
+    private static final class FilterEvaluator<T> implements Evaluator<T> {
+
+        private final Node filter;
+
+        private final boolean count;
+
+        FilterEvaluator(Node filter, boolean count) {
+            this.filter = filter;
+            this.count = count;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public T evaluate(Object... args) {
+            List<Object> rv = count ? null : new ArrayList<Object>();
+            long matches = 0;
+            Object[] row = new Object[1];
+            try {
+                for (Object element : (Iterable<?>) args[0]) {
+                    row[0] = element;
+                    try {
+                        if (filter.isTrue(row)) {
+                            if (count) {
+                                matches++;
+                            } else {
+                                rv.add(element);
+                            }
+                        }
+                    } catch (NullPointerException npe) { }
+                }
+            } catch (RuntimeException e) {
+                throw wrap(e);
+            }
+            return (T) (count ? Long.valueOf(matches) : rv);
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public Class<? extends T> getType() {
+            return (Class) (count ? Long.class : List.class);
+        }
+
+    }
+
+    /**
+     * Level describes the iteration of a single join
+     */
+    private static final class Level {
+
+        private int source;
+
+        private Node collection, key, probe;
+
+        private boolean any, map, leftJoin;
+
+    }
+
+    /**
+     * JoinEvaluator evaluates the joins of multiple sources as nested loops
+     */
+    private static final class JoinEvaluator<T> implements Evaluator<T> {
+
+        private final Level[] levels;
+
+        @Nullable
+        private final Node filter;
+
+        private final boolean count;
+
+        JoinEvaluator(Level[] levels, @Nullable Node filter, boolean count) {
+            this.levels = levels;
+            this.filter = filter;
+            this.count = count;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public T evaluate(Object... args) {
+            List<Map<Object, List<Object>>> indexes = new ArrayList<Map<Object, List<Object>>>(levels.length);
+            Result result = new Result(count);
+            try {
+                for (int i = 0; i < levels.length; i++) {
+                    indexes.add(levels[i].key != null ? index(i, (Iterable<Object>) args[levels[i].source]) : null);
+                }
+                iterate(0, new Object[levels.length], args, indexes, result);
+            } catch (RuntimeException e) {
+                throw wrap(e);
+            }
+            return (T) (count ? Long.valueOf(result.count) : result.rows);
+        }
+
+        private Map<Object, List<Object>> index(int level, Iterable<Object> source) {
+            Map<Object, List<Object>> index = CollQueryFunctions.getIndex(source);
+            if (index == null) {
+                index = new HashMap<Object, List<Object>>();
+                Object[] row = new Object[levels.length];
+                for (Object element : source) {
+                    row[level] = element;
+                    try {
+                        CollQueryFunctions.addToIndex(index, levels[level].key.evaluate(row), element);
+                    } catch (NullPointerException npe) { }
+                }
+                CollQueryFunctions.setIndex(source, index);
+            }
+            return index;
+        }
+
+        private boolean iterate(int index, Object[] row, Object[] args,
+                List<Map<Object, List<Object>>> indexes, Result result) {
+            if (index == levels.length) {
+                if (filter == null) {
+                    result.add(row);
+                    return false;
+                }
+                try {
+                    if (filter.isTrue(row)) {
+                        result.add(row);
+                        return true;
+                    }
+                } catch (NullPointerException npe) { }
+                return false;
+            }
+            Level level = levels[index];
+            boolean matched = false;
+            for (Object element : getElements(level, row, args, indexes.get(index))) {
+                row[index] = element;
+                matched |= iterate(index + 1, row, args, indexes, result);
+                if (matched && level.any) {
+                    break;
+                }
+            }
+            return matched;
+        }
+
+        private Iterable<?> getElements(Level level, Object[] row, Object[] args,
+                @Nullable Map<Object, List<Object>> index) {
+            if (level.source > -1 && index == null) {
+                return (Iterable<?>) args[level.source];
+            } else if (level.source > -1) {
+                try {
+                    return CollQueryFunctions.getFromIndex(index, level.probe.evaluate(row));
+                } catch (NullPointerException npe) {
+                    return Collections.emptyList();
+                }
+            } else {
+                Object collection = level.collection.evaluate(row);
+                Collection<?> elements = level.map ? ((Map<?, ?>) collection).values()
+                        : (Collection<?>) collection;
+                return level.leftJoin ? CollQueryFunctions.leftJoin(elements) : elements;
+            }
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public Class<? extends T> getType() {
+            return (Class) (count ? Long.class : List.class);
+        }
+
+    }
+
+    /**
+     * Result collects the rows or the row count of a join evaluation
+     */
+    private static final class Result {
+
+        private final List<Object[]> rows;
+
+        private long count;
+
+        Result(boolean count) {
+            this.rows = count ? null : new ArrayList<Object[]>();
+        }
+
+        void add(Object[] row) {
+            if (rows != null) {
+                rows.add(row.clone());
+            } else {
+                count++;
+            }
+        }
+
+    }
+
+    /**
+     * LazyEvaluatorFactory initializes the Java compiler on first use
+     */
+    private static final class LazyEvaluatorFactory implements EvaluatorFactory {
+
+        private final ClassLoader classLoader;
+
+        private volatile EvaluatorFactory factory;
+
+        LazyEvaluatorFactory(ClassLoader classLoader) {
+            this.classLoader = classLoader;
+        }
+
+        private EvaluatorFactory getFactory() {
+            if (factory == null) {
+                synchronized (this) {
+                    if (factory == null) {
+                        factory = createFactory(classLoader);
+                    }
+                }
+            }
+            return factory;
+        }
+
+        @Override
+        public <T> Evaluator<T> createEvaluator(String source, Class<? extends T> projectionType,
+                String[] names, Class<?>[] classes, Map<String, Object> constants) {
+            return getFactory().createEvaluator(source, projectionType, names, classes, constants);
+        }
+
+        @Override
+        public <T> Evaluator<T> createEvaluator(String source, ClassType projectionType,
+                String[] names, Type[] types, Class<?>[] classes, Map<String, Object> constants) {
+            return getFactory().createEvaluator(source, projectionType, names, types, classes, constants);
+        }
+
+    }
+
+}
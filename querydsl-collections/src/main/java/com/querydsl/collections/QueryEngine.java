@@ -13,6 +13,7 @@
  */
 package com.querydsl.collections;
 
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 
@@ -46,6 +47,17 @@ public interface QueryEngine {
     <T> List<T> list(QueryMetadata metadata, Map<Expression<?>, Iterable<?>> iterables, 
             Expression<T> projection);
 
+    /**
+     * Evaluate the given query and return the projection as an iterator
+     *
+     * @param metadata
+     * @param iterables
+     * @param projection
+     * @return
+     */
+    <T> Iterator<T> iterate(QueryMetadata metadata, Map<Expression<?>, Iterable<?>> iterables,
+            Expression<T> projection);
+
     /**
      * @param metadata
      * @param iterables
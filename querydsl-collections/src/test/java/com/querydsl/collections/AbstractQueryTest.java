@@ -73,12 +73,21 @@ public abstract class AbstractQueryTest {
         return last;
     }
 
+    /**
+     * Compares the interpreted and compiled evaluation of the test queries
+     */
+    private static final QueryEngine ENGINE = new ComparingQueryEngine();
+
     static class TestQuery extends AbstractCollQuery<TestQuery> {
 
         List<Object> res = new ArrayList<Object>();
 
         public TestQuery() {
-            super(new DefaultQueryMetadata(), DefaultQueryEngine.getDefault());
+            this(ENGINE);
+        }
+
+        public TestQuery(QueryEngine queryEngine) {
+            super(new DefaultQueryMetadata(), queryEngine);
         }
         
         @Override
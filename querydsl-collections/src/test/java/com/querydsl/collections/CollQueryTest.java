@@ -158,14 +158,32 @@ public class CollQueryTest extends AbstractQueryTest {
         }
     }
 
-    @Test(expected=UnsupportedOperationException.class)
+    @Test
+    public void Count() {
+        assertEquals(cats.size(), query().from(cat, cats).count());
+        assertEquals(1, query().from(cat, cats).where(cat.name.eq("Bob")).count());
+        assertEquals(cats.size() - 1, query().from(cat, cats).where(cat.name.ne("Bob")).count());
+        assertEquals(3, from(cat, cats).where(cat.name.startsWith("B").or(cat.name.length().gt(4)))
+                .count());
+    }
+
+    @Test
+    public void Count_Joins() {
+        assertEquals(cats.size() * cats.size(), query().from(cat, cats).from(otherCat, cats).count());
+        assertEquals(cats.size(), query().from(cat, cats).from(otherCat, cats)
+                .where(cat.name.eq(otherCat.name)).count());
+        assertEquals(query().from(cat, cats).innerJoin(cat.kittens, otherCat).list(cat, otherCat).size(),
+                query().from(cat, cats).innerJoin(cat.kittens, otherCat).count());
+    }
+
+    @Test
     public void GroupBy() {
-        query().from(cat, cats).groupBy(cat.name);
+        assertEquals(cats.size(), query().from(cat, cats).groupBy(cat.name).list(cat.name).size());
     }
 
-    @Test(expected=UnsupportedOperationException.class)
+    @Test
     public void Having() {
-        query().from(cat, cats).having(cat.name.isNull());
+        assertEquals(0, query().from(cat, cats).groupBy(cat.name).having(cat.name.isNull()).count());
     }
 
 }
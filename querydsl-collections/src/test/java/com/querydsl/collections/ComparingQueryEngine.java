@@ -0,0 +1,176 @@
+/*
+ * Copyright 2015, Timo Westkämper
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.querydsl.collections;
+
+import java.lang.reflect.Array;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import com.google.common.collect.Lists;
+import com.querydsl.core.QueryMetadata;
+import com.querydsl.core.Tuple;
+import com.querydsl.core.types.Expression;
+
+/**
+ * ComparingQueryEngine evaluates each query by interpretation and with compiled evaluators and
+ * fails, if the results or the thrown exceptions differ
+ */
+public class ComparingQueryEngine implements QueryEngine {
+
+    private final List<String> mismatches = new ArrayList<String>();
+
+    private final QueryEngine interpreted = new DefaultQueryEngine(new InterpretingEvaluatorFactory(
+            CollQueryTemplates.DEFAULT, DefaultEvaluatorFactory.createFactory(getClass().getClassLoader()),
+            null, Integer.MAX_VALUE));
+
+    private final QueryEngine compiled = new DefaultQueryEngine(
+            new DefaultEvaluatorFactory(CollQueryTemplates.DEFAULT));
+
+    /**
+     * Get the descriptions of the evaluations with different results
+     *
+     * @return
+     */
+    public List<String> getMismatches() {
+        return mismatches;
+    }
+
+    private abstract static class Execution<T> {
+
+        abstract T run(QueryEngine engine);
+
+    }
+
+    @Override
+    public long count(final QueryMetadata metadata, final Map<Expression<?>, Iterable<?>> iterables) {
+        return compare(metadata, new Execution<Long>() {
+            @Override
+            Long run(QueryEngine engine) {
+                return engine.count(metadata, iterables);
+            }
+        });
+    }
+
+    @Override
+    public <T> List<T> list(final QueryMetadata metadata, final Map<Expression<?>, Iterable<?>> iterables,
+            final Expression<T> projection) {
+        return compare(metadata, new Execution<List<T>>() {
+            @Override
+            List<T> run(QueryEngine engine) {
+                return engine.list(metadata, iterables, projection);
+            }
+        });
+    }
+
+    @Override
+    public <T> Iterator<T> iterate(final QueryMetadata metadata,
+            final Map<Expression<?>, Iterable<?>> iterables, final Expression<T> projection) {
+        return compare(metadata, new Execution<List<T>>() {
+            @Override
+            List<T> run(QueryEngine engine) {
+                return Lists.newArrayList(engine.iterate(metadata, iterables, projection));
+            }
+        }).iterator();
+    }
+
+    @Override
+    public boolean exists(final QueryMetadata metadata, final Map<Expression<?>, Iterable<?>> iterables) {
+        return compare(metadata, new Execution<Boolean>() {
+            @Override
+            Boolean run(QueryEngine engine) {
+                return engine.exists(metadata, iterables);
+            }
+        });
+    }
+
+    private <T> T compare(QueryMetadata metadata, Execution<T> execution) {
+        T expected = null;
+        RuntimeException expectedError = null;
+        try {
+            expected = execution.run(compiled);
+        } catch (RuntimeException e) {
+            expectedError = e;
+        }
+        T actual;
+        try {
+            actual = execution.run(interpreted);
+        } catch (RuntimeException e) {
+            if (expectedError == null) {
+                throw mismatch("Interpreted " + describe(metadata) + " failed with " + e
+                        + ", compiled returned " + expected);
+            } else if (!expectedError.getClass().equals(e.getClass())) {
+                throw mismatch("Interpreted " + describe(metadata) + " failed with " + e
+                        + ", compiled failed with " + expectedError);
+            }
+            throw e;
+        }
+        if (expectedError != null) {
+            throw mismatch("Compiled " + describe(metadata) + " failed with " + expectedError
+                    + ", interpreted returned " + actual);
+        } else if (!same(expected, actual)) {
+            throw mismatch("Interpreted " + describe(metadata) + " returned " + actual
+                    + ", compiled returned " + expected);
+        }
+        return actual;
+    }
+
+    private static String describe(QueryMetadata metadata) {
+        return "select " + metadata.getProjection() + " from " + metadata.getJoins()
+                + " where " + metadata.getWhere();
+    }
+
+    private AssertionError mismatch(String message) {
+        mismatches.add(message);
+        return new AssertionError(message);
+    }
+
+    private static boolean same(Object expected, Object actual) {
+        if (expected == actual) {
+            return true;
+        } else if (expected == null || actual == null) {
+            return false;
+        } else if (expected instanceof Tuple && actual instanceof Tuple) {
+            return same(((Tuple) expected).toArray(), ((Tuple) actual).toArray());
+        } else if (expected instanceof List && actual instanceof List) {
+            return same(((List<?>) expected).toArray(), ((List<?>) actual).toArray());
+        } else if (expected.getClass().isArray() && actual.getClass().isArray()) {
+            int length = Array.getLength(expected);
+            if (length != Array.getLength(actual)) {
+                return false;
+            }
+            for (int i = 0; i < length; i++) {
+                if (!same(Array.get(expected, i), Array.get(actual, i))) {
+                    return false;
+                }
+            }
+            return true;
+        } else if (overridesEquals(expected.getClass())) {
+            return expected.equals(actual);
+        } else {
+            // instances created by factory expressions
+            return expected.getClass().equals(actual.getClass());
+        }
+    }
+
+    private static boolean overridesEquals(Class<?> type) {
+        try {
+            return !type.getMethod("equals", Object.class).getDeclaringClass().equals(Object.class);
+        } catch (NoSuchMethodException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+}
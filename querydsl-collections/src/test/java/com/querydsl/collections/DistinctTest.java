@@ -13,6 +13,7 @@
  */
 package com.querydsl.collections;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 
 import java.util.Arrays;
@@ -20,7 +21,9 @@ import java.util.List;
 
 import org.junit.Test;
 
+import com.querydsl.core.Tuple;
 import com.querydsl.core.types.path.NumberPath;
+import com.querydsl.core.types.path.StringPath;
 
 public class DistinctTest extends AbstractQueryTest {
 
@@ -60,4 +63,24 @@ public class DistinctTest extends AbstractQueryTest {
         CollQueryFactory.from(intVar1, Arrays.asList(null, 1)).distinct().list(intVar1);
     }
 
+    @Test
+    public void Null_Values() {
+        List<Integer> list = Arrays.asList(null, 1, null, 2, 1);
+        assertEquals(Arrays.asList(null, 1, 2), CollQueryFactory.from(intVar1, list).distinct().list(intVar1));
+    }
+
+    @Test
+    public void Array_Rows_With_Nulls() {
+        StringPath strVar1 = new StringPath("str1");
+        StringPath strVar2 = new StringPath("str2");
+        List<String> list = Arrays.asList(null, "a", null);
+        List<Tuple> rows = CollQueryFactory.from(strVar1, list).from(strVar2, list).distinct()
+                .list(strVar1, strVar2);
+        assertEquals(4, rows.size());
+        assertArrayEquals(new Object[]{null, null}, rows.get(0).toArray());
+        assertArrayEquals(new Object[]{null, "a"}, rows.get(1).toArray());
+        assertArrayEquals(new Object[]{"a", null}, rows.get(2).toArray());
+        assertArrayEquals(new Object[]{"a", "a"}, rows.get(3).toArray());
+    }
+
 }
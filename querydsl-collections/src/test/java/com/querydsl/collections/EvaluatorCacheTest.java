@@ -0,0 +1,110 @@
+/*
+ * Copyright 2015, Timo Westkämper
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.querydsl.collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.querydsl.core.types.expr.Param;
+
+public class EvaluatorCacheTest extends AbstractQueryTest {
+
+    private EvaluatorCache cache;
+
+    private DefaultQueryEngine engine;
+
+    @Before
+    public void setUp() {
+        super.setUp();
+        cache = new EvaluatorCache(10);
+        engine = new DefaultQueryEngine(new DefaultEvaluatorFactory(CollQueryTemplates.DEFAULT, cache));
+    }
+
+    private CollQuery query(List<Cat> source) {
+        return new CollQuery(engine).from(cat, source);
+    }
+
+    @Test
+    public void Same_Shape() {
+        assertEquals(Arrays.asList("Bob"), query(cats).where(cat.name.eq("Bob")).list(cat.name));
+        assertEquals(Arrays.asList("Kitty"), query(cats).where(cat.name.eq("Kitty")).list(cat.name));
+        assertEquals(2, cache.getMissCount());
+        assertEquals(2, cache.getHitCount());
+        assertEquals(2, cache.size());
+        assertTrue(cache.getTotalCompileTime() > 0);
+    }
+
+    @Test
+    public void Different_Constant_Types() {
+        query(cats).where(cat.id.in(1, 2)).list(cat);
+        query(cats).where(cat.id.in(Collections.singleton(1))).list(cat);
+        query(cats).where(cat.id.in(Arrays.asList(1, 2, 3))).list(cat);
+        assertEquals(2, cache.getMissCount());
+        assertEquals(1, cache.getHitCount());
+    }
+
+    @Test
+    public void Params() {
+        Param<String> name = new Param<String>(String.class, "name");
+        assertEquals(Arrays.asList("Bob"), query(cats).where(cat.name.eq(name)).set(name, "Bob").list(cat.name));
+        assertEquals(Arrays.asList("Alex"), query(cats).where(cat.name.eq(name)).set(name, "Alex").list(cat.name));
+        assertEquals(2, cache.getHitCount());
+    }
+
+    @Test
+    public void Eviction() {
+        for (int i = 0; i < 12; i++) {
+            query(cats).where(cat.name.length().gt(i).or(cat.id.lt(i))).list(cat);
+            query(cats).where(cat.name.length().gt(i)).list(cat);
+            query(cats).where(cat.name.length().gt(i).and(cat.id.lt(i))).list(cat);
+        }
+        assertEquals(3, cache.size());
+        assertEquals(3, cache.getMissCount());
+
+        cache.invalidateAll();
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void Bounded() {
+        EvaluatorCache small = new EvaluatorCache(1);
+        engine = new DefaultQueryEngine(new DefaultEvaluatorFactory(CollQueryTemplates.DEFAULT, small));
+        query(cats).where(cat.name.eq("Bob")).list(cat);
+        query(cats).where(cat.name.ne("Bob")).list(cat);
+        assertEquals(1, small.size());
+        assertEquals(1, small.getEvictionCount());
+    }
+
+    @Test
+    public void WarmUp() {
+        engine.warmUp(query(Collections.<Cat>emptyList()).where(cat.name.eq("")).orderBy(cat.id.asc())
+                .getMetadata(), cat.name);
+        engine.warmUp(query(Collections.<Cat>emptyList()).where(cat.name.startsWith("")).getMetadata(), null);
+        assertEquals(4, cache.size());
+
+        assertEquals(Arrays.asList("Bob"), query(cats).where(cat.name.eq("Bob")).orderBy(cat.id.asc())
+                .list(cat.name));
+        assertEquals(1, query(cats).where(cat.name.startsWith("K")).count());
+        assertEquals(4, cache.getHitCount());
+        assertEquals(4, cache.getMissCount());
+    }
+
+}
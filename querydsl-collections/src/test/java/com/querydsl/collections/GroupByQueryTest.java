@@ -0,0 +1,172 @@
+/*
+ * Copyright 2015, Timo Westkämper
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.querydsl.collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.querydsl.core.Tuple;
+import com.querydsl.core.types.expr.Wildcard;
+
+public class GroupByQueryTest extends AbstractQueryTest {
+
+    private List<Cat> source;
+
+    @Before
+    public void setUp() {
+        super.setUp();
+        source = new ArrayList<Cat>();
+        String[] names = {"Bob", "Kate", "Alex", "Bob", "Kate", "Bob"};
+        for (int i = 0; i < names.length; i++) {
+            Cat c = new Cat(names[i], i + 1);
+            c.setWeight((i + 1) * 10);
+            c.setBodyWeight(i % 2);
+            source.add(c);
+        }
+    }
+
+    @Test
+    public void Group_Keys() {
+        assertEquals(Arrays.asList("Bob", "Kate", "Alex"),
+                query().from(cat, source).groupBy(cat.name).list(cat.name));
+    }
+
+    @Test
+    public void Aggregates() {
+        List<Tuple> rows = query().from(cat, source).groupBy(cat.name)
+            .list(cat.name, cat.id.count(), cat.weight.sum(), cat.weight.avg(), cat.id.min(), cat.id.max());
+        assertEquals(3, rows.size());
+        Tuple bob = rows.get(0);
+        assertEquals("Bob", bob.get(cat.name));
+        assertEquals(Long.valueOf(3), bob.get(cat.id.count()));
+        assertEquals(Integer.valueOf(110), bob.get(cat.weight.sum()));
+        assertEquals(Double.valueOf(110.0 / 3), bob.get(cat.weight.avg()));
+        assertEquals(Integer.valueOf(1), bob.get(cat.id.min()));
+        assertEquals(Integer.valueOf(6), bob.get(cat.id.max()));
+        Tuple alex = rows.get(2);
+        assertEquals(Long.valueOf(1), alex.get(cat.id.count()));
+        assertEquals(Integer.valueOf(30), alex.get(cat.weight.sum()));
+    }
+
+    @Test
+    public void Multiple_Keys() {
+        List<Tuple> rows = query().from(cat, source).groupBy(cat.name, cat.bodyWeight)
+            .orderBy(cat.name.asc(), cat.bodyWeight.asc()).list(cat.name, cat.bodyWeight, cat.count());
+        assertEquals(5, rows.size());
+        assertEquals("Alex", rows.get(0).get(cat.name));
+        assertEquals(Long.valueOf(2), rows.get(2).get(cat.count()));
+        assertEquals(Integer.valueOf(1), rows.get(2).get(cat.bodyWeight));
+    }
+
+    @Test
+    public void Having() {
+        assertEquals(Arrays.asList("Bob", "Kate"), query().from(cat, source).groupBy(cat.name)
+            .having(cat.count().gt(1l)).list(cat.name));
+        assertEquals(Arrays.asList("Bob"), query().from(cat, source).groupBy(cat.name)
+            .having(cat.weight.sum().gt(80), cat.name.startsWith("B")).list(cat.name));
+        assertEquals(2, query().from(cat, source).groupBy(cat.name).having(cat.count().gt(1l)).count());
+        assertTrue(query().from(cat, source).groupBy(cat.name).having(cat.id.max().eq(3)).exists());
+        assertFalse(query().from(cat, source).groupBy(cat.name).having(cat.id.max().eq(4)).exists());
+    }
+
+    @Test
+    public void Where() {
+        assertEquals(Arrays.asList(1l, 2l, 1l), query().from(cat, source).where(cat.id.gt(2)).groupBy(cat.name)
+            .list(cat.count()));
+    }
+
+    @Test
+    public void Order_By_Aggregate() {
+        assertEquals(Arrays.asList("Bob", "Kate", "Alex"), query().from(cat, source).groupBy(cat.name)
+            .orderBy(cat.weight.avg().desc()).list(cat.name));
+        assertEquals(Arrays.asList("Bob"), query().from(cat, source).groupBy(cat.name)
+            .orderBy(cat.weight.avg().desc()).limit(1).list(cat.name));
+    }
+
+    @Test
+    public void Expressions_Of_Aggregates() {
+        assertEquals(Arrays.asList(111, 71, 31), query().from(cat, source).groupBy(cat.name)
+            .list(cat.weight.sum().add(1)));
+    }
+
+    @Test
+    public void Count_All_And_Distinct() {
+        List<Tuple> rows = query().from(cat, source).groupBy(cat.name)
+            .list(cat.name, Wildcard.count, cat.bodyWeight.countDistinct());
+        assertEquals(Long.valueOf(3), rows.get(0).get(Wildcard.count));
+        assertEquals(Long.valueOf(2), rows.get(0).get(cat.bodyWeight.countDistinct()));
+    }
+
+    @Test
+    public void Null_Values() {
+        source.get(0).setName(null);
+        source.get(1).setName(null);
+        List<Tuple> rows = query().from(cat, source).groupBy(cat.bodyWeight)
+            .list(cat.bodyWeight, cat.name.min(), cat.name.count());
+        assertEquals("Alex", rows.get(0).get(cat.name.min()));
+        assertEquals(Long.valueOf(2), rows.get(0).get(cat.name.count()));
+
+        assertNull(query().from(cat, source).where(cat.id.lt(3)).groupBy(cat.bodyWeight).list(cat.name.max())
+            .get(0));
+    }
+
+    @Test
+    public void Joins() {
+        for (Cat c : source) {
+            c.setKittens(Collections.<Cat>emptyList());
+        }
+        Cat bob = source.get(0);
+        bob.setKittens(Arrays.asList(source.get(1), source.get(2)));
+        Cat kate = source.get(1);
+        kate.setKittens(Arrays.asList(source.get(3)));
+        List<Tuple> rows = query().from(cat, source).innerJoin(cat.kittens, kitten).groupBy(cat.id)
+            .list(cat.id, kitten.weight.sum());
+        assertEquals(2, rows.size());
+        assertEquals(Integer.valueOf(50), rows.get(0).get(kitten.weight.sum()));
+        assertEquals(Integer.valueOf(40), rows.get(1).get(kitten.weight.sum()));
+    }
+
+    @Test
+    public void Having_Without_Group_By() {
+        assertEquals(Arrays.asList(6l), query().from(cat, source).having(cat.count().gt(5l)).list(cat.count()));
+        assertEquals(0, query().from(cat, source).having(cat.count().gt(6l)).count());
+    }
+
+    @Test
+    public void Having_Null_Aggregates() {
+        List<Cat> empty = Collections.emptyList();
+        assertEquals(0, query().from(cat, empty).having(cat.weight.sum().gt(0)).count());
+        assertEquals(0, query().from(cat, empty).having(cat.weight.sum().gt(0).not()).count());
+        assertEquals(1, query().from(cat, empty).having(cat.weight.sum().isNull()).count());
+        assertEquals(1, query().from(cat, empty).having(cat.count().eq(0l)).count());
+    }
+
+    @Test
+    public void Compiled() {
+        DefaultQueryEngine engine = new DefaultQueryEngine(new DefaultEvaluatorFactory(CollQueryTemplates.DEFAULT));
+        assertEquals(Arrays.asList("Bob", "Kate"), new CollQuery(engine).from(cat, source).groupBy(cat.name)
+            .having(cat.count().gt(1l)).orderBy(cat.id.sum().desc()).list(cat.name));
+    }
+
+}
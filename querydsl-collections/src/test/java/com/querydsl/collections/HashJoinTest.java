@@ -0,0 +1,116 @@
+/*
+ * Copyright 2015, Timo Westkämper
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.querydsl.collections;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.querydsl.core.Tuple;
+import com.querydsl.core.types.path.NumberPath;
+import com.querydsl.core.types.path.StringPath;
+
+public class HashJoinTest extends AbstractQueryTest {
+
+    private final NumberPath<Integer> num1 = new NumberPath<Integer>(Integer.class, "num1");
+
+    private final NumberPath<Integer> num2 = new NumberPath<Integer>(Integer.class, "num2");
+
+    private final NumberPath<Integer> num3 = new NumberPath<Integer>(Integer.class, "num3");
+
+    private static List<Integer> range(int size) {
+        List<Integer> rv = new ArrayList<Integer>(size);
+        for (int i = 0; i < size; i++) {
+            rv.add(i);
+        }
+        return rv;
+    }
+
+    @Test
+    public void Equal_Keys() {
+        List<Cat> cats1 = Arrays.asList(new Cat("Bob", 1), new Cat("Kate", 2), new Cat("Franz", 3));
+        List<Cat> cats2 = Arrays.asList(new Cat("Kate", 4), new Cat("Bob", 5), new Cat("Bob", 6));
+        List<Tuple> rows = query().from(cat, cats1).from(otherCat, cats2)
+            .where(cat.name.eq(otherCat.name))
+            .list(cat.id, otherCat.id);
+        assertEquals(3, rows.size());
+        assertEquals(Arrays.asList(1, 5), Arrays.asList(rows.get(0).toArray()));
+        assertEquals(Arrays.asList(1, 6), Arrays.asList(rows.get(1).toArray()));
+        assertEquals(Arrays.asList(2, 4), Arrays.asList(rows.get(2).toArray()));
+    }
+
+    @Test
+    public void Reversed_Arguments() {
+        assertEquals(Arrays.asList(1, 2, 3), query().from(num1, range(4)).from(num2, Arrays.asList(3, 2, 1))
+            .where(num2.eq(num1)).orderBy(num1.asc()).list(num1));
+    }
+
+    @Test
+    public void Additional_Conditions() {
+        assertEquals(Arrays.asList(6, 7, 8, 9), query().from(num1, range(10)).from(num2, range(10))
+            .where(num1.gt(5), num1.eq(num2), num2.lt(100)).list(num2));
+    }
+
+    @Test
+    public void Computed_Keys() {
+        assertEquals(Arrays.asList(0, 2, 4), query().from(num1, range(3)).from(num2, range(6))
+            .where(num1.multiply(2).eq(num2.add(0))).list(num2));
+    }
+
+    @Test
+    public void Null_Keys() {
+        StringPath str1 = new StringPath("str1");
+        StringPath str2 = new StringPath("str2");
+        List<String> strings = Arrays.asList("a", null, "b");
+        assertEquals(Arrays.asList("a", null, "b"), query().from(str1, strings).from(str2, strings)
+            .where(str1.eq(str2)).list(str2));
+    }
+
+    @Test
+    public void Null_Properties() {
+        Cat bob = new Cat("Bob", 1);
+        bob.setMate(new Cat("Kate", 2));
+        Cat kate = new Cat("Kate", 2);
+        List<Cat> cats = Arrays.asList(bob, kate);
+        QCat mate = new QCat("mate");
+        assertEquals(Arrays.asList("Bob"), query().from(cat, cats).from(mate, cats)
+            .where(cat.mate.id.eq(mate.id)).list(cat.name));
+        assertEquals(Arrays.asList("Bob"), query().from(mate, cats).from(cat, cats)
+            .where(cat.mate.id.eq(mate.id)).list(cat.name));
+    }
+
+    @Test
+    public void Three_Sources() {
+        assertEquals(Arrays.asList(3, 4), query().from(num1, range(5)).from(num2, range(10)).from(num3, range(20))
+            .where(num1.eq(num2), num2.add(10).eq(num3), num1.goe(3)).list(num3.subtract(10)));
+    }
+
+    @Test
+    public void Count() {
+        assertEquals(10, query().from(num1, range(10)).from(num2, range(20)).where(num1.eq(num2)).count());
+    }
+
+    @Test
+    public void Large_Sources() {
+        List<Integer> values = range(100000);
+        assertEquals(100000, query().from(num1, values).from(num2, values).where(num1.eq(num2)).count());
+        assertEquals(100000, query().from(num1, values).from(num2, values).where(num1.eq(num2))
+            .list(num2).size());
+    }
+
+}
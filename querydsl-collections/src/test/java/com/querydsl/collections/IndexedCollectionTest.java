@@ -0,0 +1,194 @@
+/*
+ * Copyright 2015, Timo Westkämper
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.querydsl.collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.querydsl.core.types.expr.Param;
+
+public class IndexedCollectionTest {
+
+    private final QCat cat = QCat.cat;
+
+    private final QCat other = new QCat("other");
+
+    private List<Cat> source;
+
+    private IndexedCollection<Cat> cats;
+
+    @Before
+    public void setUp() {
+        source = new ArrayList<Cat>();
+        for (int i = 0; i < 1000; i++) {
+            source.add(new Cat(i % 10 == 0 ? null : "Cat" + (i % 100), i));
+        }
+        Collections.shuffle(source);
+        cats = new IndexedCollection<Cat>(cat, source).addHashIndex(cat.name).addSortedIndex(cat.id);
+    }
+
+    private CollQuery query() {
+        return new CollQuery();
+    }
+
+    private List<Integer> scan(com.querydsl.core.types.Predicate... conditions) {
+        return query().from(cat, source).where(conditions).list(cat.id);
+    }
+
+    @Test
+    public void Equality() {
+        assertEquals(scan(cat.name.eq("Cat5")), query().from(cat, cats).where(cat.name.eq("Cat5")).list(cat.id));
+        assertEquals(10, query().from(cat, cats).where(cat.name.eq("Cat5")).count());
+        assertEquals(0, query().from(cat, cats).where(cat.name.eq("Cat0")).count());
+        assertEquals(Arrays.asList(55), query().from(cat, cats).where(cat.id.eq(55)).list(cat.id));
+    }
+
+    @Test
+    public void In() {
+        assertEquals(scan(cat.name.in("Cat5", "Cat7", "Bob")),
+                query().from(cat, cats).where(cat.name.in("Cat5", "Cat7", "Bob")).list(cat.id));
+    }
+
+    @Test
+    public void Ranges() {
+        assertEquals(scan(cat.id.between(100, 120)),
+                query().from(cat, cats).where(cat.id.between(100, 120)).list(cat.id));
+        assertEquals(scan(cat.id.gt(990)), query().from(cat, cats).where(cat.id.gt(990)).list(cat.id));
+        assertEquals(scan(cat.id.goe(990)), query().from(cat, cats).where(cat.id.goe(990)).list(cat.id));
+        assertEquals(scan(cat.id.lt(5)), query().from(cat, cats).where(cat.id.lt(5)).list(cat.id));
+        assertEquals(scan(cat.id.loe(5)), query().from(cat, cats).where(cat.id.loe(5)).list(cat.id));
+        assertEquals(0, query().from(cat, cats).where(cat.id.between(120, 100)).count());
+    }
+
+    @Test
+    public void Conjuncts() {
+        assertEquals(scan(cat.id.lt(500), cat.name.eq("Cat5"), cat.id.goe(100)),
+                query().from(cat, cats).where(cat.id.lt(500), cat.name.eq("Cat5"), cat.id.goe(100)).list(cat.id));
+        assertEquals(scan(cat.name.eq("Cat5").or(cat.id.eq(10))),
+                query().from(cat, cats).where(cat.name.eq("Cat5").or(cat.id.eq(10))).list(cat.id));
+    }
+
+    @Test
+    public void Params() {
+        Param<String> name = new Param<String>(String.class, "name");
+        assertEquals(10, query().from(cat, cats).where(cat.name.eq(name)).set(name, "Cat7").count());
+    }
+
+    @Test
+    public void Stale_Index() {
+        Cat cat5 = query().from(cat, cats).where(cat.id.eq(5)).uniqueResult(cat);
+        cat5.setName("Bob");
+        // the index is used and not yet aware of the modification
+        assertFalse(query().from(cat, cats).where(cat.name.eq("Bob")).exists());
+        cats.reindex();
+        assertTrue(query().from(cat, cats).where(cat.name.eq("Bob")).exists());
+    }
+
+    @Test
+    public void Other_Alias() {
+        assertEquals(10, query().from(other, cats).where(other.name.eq("Cat5")).count());
+    }
+
+    @Test
+    public void Update() {
+        assertEquals(10, new CollUpdateClause<Cat>(cat, cats).where(cat.name.eq("Cat5")).set(cat.name, "Bob")
+            .execute());
+        assertEquals(0, query().from(cat, cats).where(cat.name.eq("Cat5")).count());
+        assertEquals(10, query().from(cat, cats).where(cat.name.eq("Bob")).count());
+    }
+
+    @Test
+    public void Delete() {
+        assertEquals(21, new CollDeleteClause<Cat>(cat, cats).where(cat.id.between(100, 120)).execute());
+        assertEquals(979, cats.size());
+        assertEquals(0, query().from(cat, cats).where(cat.id.between(100, 120)).count());
+        assertEquals(9, query().from(cat, cats).where(cat.name.eq("Cat5")).count());
+    }
+
+    @Test
+    public void Add_And_Remove() {
+        Cat bob = new Cat("Bob", 2000);
+        assertTrue(cats.add(bob));
+        assertEquals(Arrays.asList(2000), query().from(cat, cats).where(cat.name.eq("Bob")).list(cat.id));
+        assertTrue(cats.remove(bob));
+        assertEquals(0, query().from(cat, cats).where(cat.id.gt(1000)).count());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void Add_Same_Instance() {
+        Cat bob = new Cat("Bob", 2000);
+        cats.add(bob);
+        cats.add(bob);
+    }
+
+    @Test
+    public void Equal_Elements() {
+        cats.add(new NamedCat("Bob", 2000));
+        cats.add(new NamedCat("Bob", 2001));
+        assertEquals(1002, cats.size());
+        assertEquals(Arrays.asList(2000, 2001), query().from(cat, cats).where(cat.name.eq("Bob")).list(cat.id));
+        assertTrue(cats.remove(new NamedCat("Bob", 0)));
+        assertEquals(Arrays.asList(2001), query().from(cat, cats).where(cat.name.eq("Bob")).list(cat.id));
+    }
+
+    @Test
+    public void Update_Equality_Property() {
+        NamedCat bob = new NamedCat("Bob", 2000);
+        cats.add(bob);
+        assertEquals(1, new CollUpdateClause<Cat>(cat, cats).where(cat.name.eq("Bob")).set(cat.name, "Alice")
+            .execute());
+        assertEquals(Arrays.asList(2000), query().from(cat, cats).where(cat.name.eq("Alice")).list(cat.id));
+        assertEquals(Arrays.asList(2000), query().from(cat, cats).where(cat.id.eq(2000)).list(cat.id));
+        assertTrue(cats.contains(bob));
+        assertFalse(cats.contains(new NamedCat("Bob", 0)));
+        assertTrue(cats.remove(bob));
+        assertEquals(0, query().from(cat, cats).where(cat.id.eq(2000)).count());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void Path_Of_Other_Root() {
+        cats.addHashIndex(other.name);
+    }
+
+    /**
+     * Cat with equality based on the name
+     */
+    public static class NamedCat extends Cat {
+
+        public NamedCat(String name, int id) {
+            super(name, id);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof NamedCat && getName().equals(((NamedCat) o).getName());
+        }
+
+        @Override
+        public int hashCode() {
+            return getName().hashCode();
+        }
+
+    }
+
+}
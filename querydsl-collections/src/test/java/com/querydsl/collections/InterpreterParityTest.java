@@ -0,0 +1,106 @@
+/*
+ * Copyright 2015, Timo Westkämper
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.querydsl.collections;
+
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.google.common.base.Joiner;
+import com.mysema.commons.lang.Pair;
+import com.querydsl.core.Module;
+import com.querydsl.core.Projectable;
+import com.querydsl.core.QueryExecution;
+import com.querydsl.core.Target;
+import com.querydsl.core.types.Expression;
+import com.querydsl.core.types.Predicate;
+import com.querydsl.core.types.path.NumberPath;
+
+/**
+ * Runs the standard query suite by interpretation and with compiled evaluators over sources
+ * with null values and compares the results
+ */
+public class InterpreterParityTest {
+
+    private final Date birthDate = new Date();
+
+    private final java.sql.Date date = new java.sql.Date(birthDate.getTime());
+
+    private final java.sql.Time time = new java.sql.Time(birthDate.getTime());
+
+    private final QCat cat = new QCat("cat");
+
+    private final QCat otherCat = new QCat("otherCat");
+
+    private final List<Cat> data = Arrays.asList(
+            new Cat("Bob", 1, birthDate),
+            new Cat("Ruth", 2, birthDate),
+            new Cat(null, 3, birthDate),
+            new Cat("Allen", 4),
+            new Cat()
+    );
+
+    private final ComparingQueryEngine engine = new ComparingQueryEngine();
+
+    private static final Expression<?>[] NO_EXPRESSIONS = new Expression[0];
+
+    private QueryExecution standardTest = new QueryExecution(Module.COLLECTIONS, Target.MEM) {
+        @Override
+        protected Pair<Projectable, Expression<?>[]> createQuery() {
+            return Pair.of(
+                    (Projectable) new CollQuery(engine).from(cat, data).from(otherCat, data),
+                    NO_EXPRESSIONS);
+        }
+        @Override
+        protected Pair<Projectable, Expression<?>[]> createQuery(Predicate filter) {
+            return Pair.of(
+                    (Projectable) new CollQuery(engine).from(cat, data).from(otherCat, data).where(filter),
+                    new Expression<?>[]{cat.name});
+        }
+    };
+
+    @Test
+    public void test() {
+        Cat kitten = data.get(0).getKittens().get(0);
+        standardTest.runArrayTests(cat.kittenArray, otherCat.kittenArray, kitten, new Cat());
+        standardTest.runBooleanTests(cat.name.isNull(), otherCat.kittens.isEmpty());
+        standardTest.runCollectionTests(cat.kittens, otherCat.kittens, kitten, new Cat());
+        standardTest.runDateTests(cat.dateField, otherCat.dateField, date);
+        standardTest.runDateTimeTests(cat.birthdate, otherCat.birthdate, birthDate);
+        standardTest.runListTests(cat.kittens, otherCat.kittens, kitten, new Cat());
+        standardTest.runMapTests(cat.kittensByName, otherCat.kittensByName, "Kitty", kitten, "NoName", new Cat());
+        standardTest.runNumericCasts(cat.id, otherCat.id, 1);
+        standardTest.runNumericTests(cat.id, otherCat.id, 1);
+        standardTest.runStringTests(cat.name, otherCat.name, "Bob");
+        standardTest.runTimeTests(cat.timeField, otherCat.timeField, time);
+        // errors of both evaluations are expected for null sources, only differences fail
+        assertTrue(Joiner.on('\n').join(engine.getMismatches()), engine.getMismatches().isEmpty());
+    }
+
+    @Test
+    public void NaN() {
+        NumberPath<Double> num = new NumberPath<Double>(Double.class, "num");
+        List<Double> numbers = Arrays.asList(1.0, 2.0, Double.NaN);
+        for (Predicate filter : Arrays.<Predicate>asList(num.gt(1.0), num.goe(1.0), num.lt(2.0),
+                num.loe(2.0), num.eq(1.0), num.ne(1.0), num.between(0.0, 3.0))) {
+            new CollQuery(engine).from(num, numbers).where(filter).list(num);
+        }
+        assertTrue(Joiner.on('\n').join(engine.getMismatches()), engine.getMismatches().isEmpty());
+    }
+
+}
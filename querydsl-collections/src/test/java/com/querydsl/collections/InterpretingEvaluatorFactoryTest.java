@@ -0,0 +1,167 @@
+/*
+ * Copyright 2015, Timo Westkämper
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.querydsl.collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.mysema.codegen.Evaluator;
+import com.mysema.codegen.EvaluatorFactory;
+import com.mysema.codegen.model.ClassType;
+import com.mysema.codegen.model.Type;
+import com.querydsl.core.types.path.NumberPath;
+
+public class InterpretingEvaluatorFactoryTest extends AbstractQueryTest {
+
+    /**
+     * Fails the test on compilation
+     */
+    private static class NoCompiler implements EvaluatorFactory {
+
+        @Override
+        public <T> Evaluator<T> createEvaluator(String source, Class<? extends T> projectionType,
+                String[] names, Class<?>[] classes, Map<String, Object> constants) {
+            throw new IllegalStateException("Compiled " + source);
+        }
+
+        @Override
+        public <T> Evaluator<T> createEvaluator(String source, ClassType projectionType,
+                String[] names, Type[] types, Class<?>[] classes, Map<String, Object> constants) {
+            throw new IllegalStateException("Compiled " + source);
+        }
+
+    }
+
+    private DefaultQueryEngine interpreted;
+
+    @Before
+    public void setUp() {
+        super.setUp();
+        interpreted = new DefaultQueryEngine(new InterpretingEvaluatorFactory(CollQueryTemplates.DEFAULT,
+                new NoCompiler(), null, Integer.MAX_VALUE));
+    }
+
+    private CollQuery query(List<Cat> source) {
+        return new CollQuery(interpreted).from(cat, source);
+    }
+
+    @Test
+    public void Filter() {
+        assertEquals(Arrays.asList("Bob"), query(cats).where(cat.name.eq("Bob")).list(cat.name));
+        assertEquals(Arrays.asList("Kitty", "Francis"), query(cats)
+            .where(cat.name.startsWith("F").or(cat.name.lower().endsWith("y"))).list(cat.name));
+        assertEquals(2, query(cats).where(cat.name.length().between(4, 5)).count());
+        assertEquals(Arrays.asList("Alex", "Bob"), query(cats).where(cat.name.in("Bob", "Alex", "Jim"))
+            .orderBy(cat.name.asc()).list(cat.name));
+        assertEquals(Arrays.asList("Kitty"), query(cats).where(cat.name.like("K%y")).list(cat.name));
+    }
+
+    @Test
+    public void Arithmetic() {
+        NumberPath<Integer> num = new NumberPath<Integer>(Integer.class, "num");
+        List<Integer> nums = Arrays.asList(1, 2, 3, 4);
+        assertEquals(Arrays.asList(3, 5, 7, 9), new CollQuery(interpreted).from(num, nums)
+            .list(num.multiply(2).add(1)));
+        assertEquals(Arrays.asList(0, 1, 1, 2), new CollQuery(interpreted).from(num, nums)
+            .list(num.divide(2)));
+        assertEquals(Arrays.asList(3, 4), new CollQuery(interpreted).from(num, nums)
+            .where(num.subtract(1).goe(2L)).list(num));
+    }
+
+    @Test
+    public void Null_Properties() {
+        Cat bob = new Cat("Bob");
+        bob.setMate(new Cat("Kate"));
+        List<Cat> source = Arrays.asList(bob, new Cat("Franz"));
+        assertEquals(Arrays.asList("Bob"), query(source).where(cat.mate.name.eq("Kate")).list(cat.name));
+        assertEquals(1, query(source).where(cat.mate.name.isNotNull()).count());
+        assertEquals(Arrays.asList("Franz"), query(source).where(cat.mate.isNull()).list(cat.name));
+    }
+
+    @Test
+    public void Joins() {
+        Cat bob = new Cat("Bob");
+        bob.setKittens(Arrays.asList(new Cat("Bob"), new Cat("Kate")));
+        Cat kate = new Cat("Kate");
+        List<Cat> source = Arrays.asList(bob, kate);
+        assertEquals(Arrays.asList("Bob"), query(source).innerJoin(cat.kittens, otherCat)
+            .where(cat.name.eq(otherCat.name)).list(cat.name));
+        assertEquals(3, query(source).leftJoin(cat.kittens, otherCat).list(cat.name, otherCat.name).size());
+        assertEquals(Arrays.asList("Bob"), query(source).where(cat.kittens.any().name.eq("Kate"))
+            .list(cat.name));
+        assertEquals(2, query(source).from(otherCat, source).where(cat.name.eq(otherCat.name)).count());
+        assertEquals(4, query(source).from(otherCat, source).count());
+    }
+
+    @Test
+    public void Projections() {
+        assertEquals(Arrays.asList("Bob!"), query(cats).where(cat.name.eq("Bob")).list(cat.name.concat("!")));
+        Cat cat2 = query(cats).where(cat.name.eq("Alex")).uniqueResult(QCat.create(cat.name, cat.id));
+        assertEquals("Alex", cat2.getName());
+    }
+
+    @Test
+    public void Compile_Threshold() {
+        final int[] compiled = new int[1];
+        final EvaluatorFactory compiler = DefaultEvaluatorFactory.createFactory(getClass().getClassLoader());
+        EvaluatorFactory counting = new EvaluatorFactory() {
+            @Override
+            public <T> Evaluator<T> createEvaluator(String source, Class<? extends T> projectionType,
+                    String[] names, Class<?>[] classes, Map<String, Object> constants) {
+                compiled[0]++;
+                return compiler.createEvaluator(source, projectionType, names, classes, constants);
+            }
+
+            @Override
+            public <T> Evaluator<T> createEvaluator(String source, ClassType projectionType,
+                    String[] names, Type[] types, Class<?>[] classes, Map<String, Object> constants) {
+                compiled[0]++;
+                return compiler.createEvaluator(source, projectionType, names, types, classes, constants);
+            }
+        };
+        DefaultQueryEngine engine = new DefaultQueryEngine(new InterpretingEvaluatorFactory(
+                CollQueryTemplates.DEFAULT, counting, null, 2));
+        String[] names = {"Bob", "Alex", "Kitty", "Francis"};
+        for (String name : names) {
+            assertEquals(Arrays.asList(name), new CollQuery(engine).from(cat, cats).where(cat.name.eq(name))
+                .list(cat.name));
+        }
+        // filter and projection of the 3rd and 4th execution
+        assertEquals(4, compiled[0]);
+    }
+
+    @Test
+    public void Unsupported_Operations() {
+        EvaluatorFactory compiler = DefaultEvaluatorFactory.createFactory(getClass().getClassLoader());
+        DefaultQueryEngine engine = new DefaultQueryEngine(new InterpretingEvaluatorFactory(
+                CollQueryTemplates.DEFAULT, compiler, null, Integer.MAX_VALUE));
+        List<Double> values = new CollQuery(engine).from(cat, cats).where(cat.name.eq("Bob"))
+            .list(cat.bodyWeight.doubleValue().abs());
+        assertEquals(1, values.size());
+    }
+
+    @Test
+    public void Without_Compiler() {
+        assertTrue(query(Collections.<Cat>emptyList()).where(cat.name.eq("Bob")).list(cat).isEmpty());
+    }
+
+}
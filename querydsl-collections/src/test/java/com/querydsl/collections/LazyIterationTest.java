@@ -0,0 +1,151 @@
+/*
+ * Copyright 2015, Timo Westkämper
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.querydsl.collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.google.common.collect.AbstractIterator;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import com.mysema.commons.lang.CloseableIterator;
+import com.querydsl.core.Tuple;
+
+public class LazyIterationTest extends AbstractQueryTest {
+
+    /**
+     * Generates cats with increasing ids and counts the consumed elements
+     */
+    private static class CatSource implements Iterable<Cat> {
+
+        private final int size;
+
+        private int consumed;
+
+        CatSource(int size) {
+            this.size = size;
+        }
+
+        @Override
+        public Iterator<Cat> iterator() {
+            return new AbstractIterator<Cat>() {
+                int i = 0;
+                @Override
+                protected Cat computeNext() {
+                    if (i == size) {
+                        return endOfData();
+                    }
+                    consumed++;
+                    return new Cat("Cat" + i, i++);
+                }
+            };
+        }
+
+    }
+
+    private final CatSource source = new CatSource(1000000);
+
+    @Override
+    protected TestQuery query() {
+        // only the compiled evaluation iterates lazily
+        last = new TestQuery(DefaultQueryEngine.getDefault());
+        return last;
+    }
+
+    @Test
+    public void Iterate_Consumes_Only_Needed_Elements() {
+        CloseableIterator<String> names = query().from(cat, source).where(cat.id.gt(10)).iterate(cat.name);
+        assertEquals("Cat11", names.next());
+        assertEquals("Cat12", names.next());
+        assertTrue(source.consumed < 1000);
+    }
+
+    @Test
+    public void Iterate_All() {
+        List<Integer> ids = Lists.newArrayList(query().from(cat, new CatSource(5000)).where(cat.id.lt(3000))
+            .iterate(cat.id));
+        assertEquals(3000, ids.size());
+        assertEquals(Integer.valueOf(2999), ids.get(2999));
+    }
+
+    @Test
+    public void Limit() {
+        List<Integer> ids = Lists.newArrayList(query().from(cat, source).where(cat.id.gt(100))
+            .limit(3).offset(2).iterate(cat.id));
+        assertEquals(Arrays.asList(103, 104, 105), ids);
+        assertTrue(source.consumed < 1000);
+    }
+
+    @Test
+    public void Unique_Result() {
+        assertEquals("Cat5", query().from(cat, source).where(cat.id.eq(5)).limit(1).uniqueResult(cat.name));
+        assertTrue(source.consumed < 1000);
+    }
+
+    @Test
+    public void Exists() {
+        assertTrue(query().from(cat, source).where(cat.name.startsWith("Cat1")).exists());
+        assertTrue(source.consumed < 1000);
+        assertFalse(query().from(cat, new CatSource(100)).where(cat.id.gt(100)).exists());
+    }
+
+    @Test
+    public void Exists_Joins() {
+        List<Cat> others = ImmutableList.of(new Cat("Cat3"), new Cat("Bob"));
+        assertTrue(query().from(cat, source).from(otherCat, others).where(cat.name.eq(otherCat.name)).exists());
+        assertTrue(source.consumed < 1000);
+    }
+
+    @Test
+    public void Joins() {
+        List<Cat> others = ImmutableList.of(new Cat("Cat3"), new Cat("Cat20"), new Cat("Cat700"));
+        CloseableIterator<Tuple> rows = query().from(cat, source).from(otherCat, others)
+            .where(cat.name.eq(otherCat.name)).iterate(cat.id, otherCat.name);
+        assertEquals(Integer.valueOf(3), rows.next().get(cat.id));
+        assertEquals("Cat20", rows.next().get(otherCat.name));
+        assertEquals(Integer.valueOf(700), rows.next().get(cat.id));
+        assertTrue(source.consumed < 2000);
+    }
+
+    @Test
+    public void Joins_Indexed_Once() {
+        CatSource others = new CatSource(10);
+        List<Integer> ids = Lists.newArrayList(query().from(cat, new CatSource(5000)).from(otherCat, others)
+            .where(cat.name.eq(otherCat.name)).iterate(cat.id));
+        assertEquals(Arrays.asList(0, 1, 2, 3, 4, 5, 6, 7, 8, 9), ids);
+        assertEquals(10, others.consumed);
+    }
+
+    @Test
+    public void Ordered() {
+        List<String> names = Lists.newArrayList(query().from(cat, new CatSource(100)).where(cat.id.lt(3))
+            .orderBy(cat.id.desc()).iterate(cat.name));
+        assertEquals(Arrays.asList("Cat2", "Cat1", "Cat0"), names);
+    }
+
+    @Test
+    public void Distinct() {
+        List<String> names = Lists.newArrayList(query().from(cat, cats).from(otherCat, cats).distinct()
+            .iterate(cat.name));
+        assertEquals(cats.size(), names.size());
+    }
+
+}
@@ -43,6 +43,27 @@ public class PagingTest extends AbstractQueryTest {
         assertResultSize(9, 0, new QueryModifiers(10l, 9l));
     }
 
+    @Test
+    public void Ordered() {
+        List<Integer> values = Arrays.asList(5, 3, 9, 1, 7, 2, 8, 4, 6);
+        assertEquals(Arrays.asList(9, 8, 7),
+                new CollQuery().from(var, values).orderBy(var.desc()).limit(3).list(var));
+        assertEquals(Arrays.asList(3, 4),
+                new CollQuery().from(var, values).orderBy(var.asc()).offset(2).limit(2).list(var));
+        assertEquals(Arrays.asList(9),
+                new CollQuery().from(var, values).orderBy(var.asc()).offset(8).limit(5).list(var));
+    }
+
+    @Test
+    public void Ordered_Ties() {
+        List<Integer> values = Arrays.asList(13, 21, 11, 22, 12, 23);
+        // ordered by tens, ties keep their original order
+        assertEquals(Arrays.asList(13, 11, 12, 21),
+                new CollQuery().from(var, values).orderBy(var.divide(10).floor().asc()).limit(4).list(var));
+        assertEquals(Arrays.asList(12, 21),
+                new CollQuery().from(var, values).orderBy(var.divide(10).floor().asc()).offset(2).limit(2).list(var));
+    }
+
     private void assertResultSize(int total, int size, QueryModifiers modifiers) {
         // via list
         assertEquals(size, createQuery(modifiers).list(var).size());
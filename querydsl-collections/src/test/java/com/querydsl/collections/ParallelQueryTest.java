@@ -0,0 +1,100 @@
+/*
+ * Copyright 2015, Timo Westkämper
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.querydsl.collections;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class ParallelQueryTest {
+
+    private static final QCat cat = QCat.cat;
+
+    private static ExecutorService executor;
+
+    private static List<Cat> cats;
+
+    @BeforeClass
+    public static void setUpClass() {
+        executor = Executors.newFixedThreadPool(4);
+        cats = new ArrayList<Cat>();
+        for (int i = 0; i < 100000; i++) {
+            cats.add(new Cat(i % 2 == 0 ? "Bob" + i : null, i));
+        }
+    }
+
+    @AfterClass
+    public static void tearDownClass() {
+        executor.shutdown();
+    }
+
+    private CollQuery query() {
+        return CollQueryFactory.parallel(executor);
+    }
+
+    @Test
+    public void Filter() {
+        List<Integer> ids = query().from(cat, cats).where(cat.name.startsWith("Bob1")).list(cat.id);
+        List<Integer> expected = CollQueryFactory.from(cat, cats).where(cat.name.startsWith("Bob1")).list(cat.id);
+        assertEquals(expected, ids);
+        assertEquals(5555, ids.size());
+    }
+
+    @Test
+    public void Count() {
+        assertEquals(50000, query().from(cat, cats).where(cat.name.isNotNull()).count());
+        assertEquals(50000, query().from(cat, cats).where(cat.name.length().gt(2)).count());
+    }
+
+    @Test
+    public void Projection() {
+        List<String> names = query().from(cat, cats).where(cat.id.lt(50000)).list(cat.name);
+        assertEquals(50000, names.size());
+        assertEquals("Bob49998", names.get(49998));
+    }
+
+    @Test
+    public void Aggregates() {
+        assertEquals(Integer.valueOf(99999), query().from(cat, cats).uniqueResult(cat.id.max()));
+        assertEquals(Integer.valueOf(1), query().from(cat, cats).where(cat.id.gt(0)).uniqueResult(cat.id.min()));
+        assertEquals(Long.valueOf(4999950000l), query().from(cat, cats).uniqueResult(cat.id.longValue().sum()));
+        assertEquals(49999.5, query().from(cat, cats).uniqueResult(cat.id.longValue().avg()), 0.0001);
+        assertEquals(Long.valueOf(100000), query().from(cat, cats).uniqueResult(cat.id.count()));
+        assertEquals(CollQueryFactory.from(cat, cats).uniqueResult(cat.name.countDistinct()),
+                query().from(cat, cats).uniqueResult(cat.name.countDistinct()));
+    }
+
+    @Test
+    public void Ordered() {
+        List<Integer> ids = query().from(cat, cats).where(cat.name.isNotNull()).orderBy(cat.id.desc())
+            .limit(2).list(cat.id);
+        assertEquals(99998, ids.get(0).intValue());
+        assertEquals(99996, ids.get(1).intValue());
+    }
+
+    @Test
+    public void Sequential_Sources() {
+        List<Cat> linked = new LinkedList<Cat>(cats);
+        assertEquals(50000, query().from(cat, linked).where(cat.name.isNull()).count());
+    }
+
+}
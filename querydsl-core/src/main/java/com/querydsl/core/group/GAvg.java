@@ -19,6 +19,9 @@ import com.querydsl.core.types.Expression;
 import com.querydsl.core.util.MathUtils;
 
 /**
+ * GAvg averages the values of a group. The values are summed up like in {@link GSum} and
+ * divided by the amount of rows in the group.
+ *
  * @author tiwe
  *
  * @param <T>
@@ -34,6 +37,47 @@ public class GAvg<T extends Number> extends AbstractGroupExpression<T, T> {
 
     @Override
     public GroupCollector<T, T> createGroupCollector() {
+        final Class<T> type = (Class<T>) getType();
+        if (GSum.isIntegral(type)) {
+            return new GroupCollector<T, T>() {
+                private int count = 0;
+                private long sum;
+
+                @Override
+                public void add(T t) {
+                    count++;
+                    if (t != null) {
+                        sum += t.longValue();
+                    }
+                }
+
+                @Override
+                public T get() {
+                    return MathUtils.cast(sum / count, type);
+                }
+
+            };
+        } else if (GSum.isFloatingPoint(type)) {
+            return new GroupCollector<T, T>() {
+                private int count = 0;
+                private double sum;
+
+                @Override
+                public void add(T t) {
+                    count++;
+                    if (t != null) {
+                        sum += t.doubleValue();
+                    }
+                }
+
+                @Override
+                public T get() {
+                    return MathUtils.cast(sum / count, type);
+                }
+
+            };
+        }
+        final boolean bigDecimal = type.equals(BigDecimal.class);
         return new GroupCollector<T, T>() {
             private int count = 0;
             private BigDecimal sum = BigDecimal.ZERO;
@@ -42,17 +86,17 @@ public class GAvg<T extends Number> extends AbstractGroupExpression<T, T> {
             public void add(T t) {
                 count++;
                 if (t != null) {
-                    sum = sum.add(new BigDecimal(t.toString()));
+                    sum = sum.add(bigDecimal ? (BigDecimal) t : new BigDecimal(t.toString()));
                 }
             }
 
             @Override
             public T get() {
                 BigDecimal avg = sum.divide(BigDecimal.valueOf(count));
-                return MathUtils.cast(avg, (Class<T>) getType());
+                return MathUtils.cast(avg, type);
             }
 
         };
     }
 
-}
\ No newline at end of file
+}
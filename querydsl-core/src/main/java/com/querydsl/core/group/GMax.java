@@ -37,7 +37,7 @@ class GMax<T extends Comparable<? super T>> extends AbstractGroupExpression<T, T
             @Override
             public void add(T o) {
                 if (max != null) {
-                    max = o.compareTo(max) > 0 ? o : max;
+                    max = o != null && o.compareTo(max) > 0 ? o : max;
                 } else {
                     max = o;
                 }
@@ -37,7 +37,7 @@ class GMin<T extends Comparable<? super T>> extends AbstractGroupExpression<T, T
             @Override
             public void add(T o) {
                 if (min != null) {
-                    min = o.compareTo(min) < 0 ? o : min;
+                    min = o != null && o.compareTo(min) < 0 ? o : min;
                 } else {
                     min = (T)o;
                 }
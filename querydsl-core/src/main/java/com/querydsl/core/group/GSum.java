@@ -19,6 +19,10 @@ import com.querydsl.core.types.Expression;
 import com.querydsl.core.util.MathUtils;
 
 /**
+ * GSum sums the values of a group. Integral and floating point values are accumulated into
+ * primitive longs and doubles and BigDecimal values without conversions, other number types
+ * are accumulated via their String representation.
+ *
  * @author tiwe
  *
  * @param <T>
@@ -32,24 +36,86 @@ public class GSum<T extends Number> extends AbstractGroupExpression<T, T> {
         super((Class) expr.getType(), expr);
     }
 
+    static boolean isIntegral(Class<?> type) {
+        return type.equals(Integer.class) || type.equals(Long.class)
+            || type.equals(Short.class) || type.equals(Byte.class);
+    }
+
+    static boolean isFloatingPoint(Class<?> type) {
+        return type.equals(Double.class) || type.equals(Float.class);
+    }
+
     @Override
     public GroupCollector<T, T> createGroupCollector() {
+        final Class<T> type = (Class<T>) getType();
+        if (isIntegral(type)) {
+            return new GroupCollector<T, T>() {
+                private long sum;
+
+                @Override
+                public void add(T t) {
+                    if (t != null) {
+                        sum += t.longValue();
+                    }
+                }
+
+                @Override
+                public T get() {
+                    return MathUtils.cast(sum, type);
+                }
+
+            };
+        } else if (isFloatingPoint(type)) {
+            return new GroupCollector<T, T>() {
+                private double sum;
+
+                @Override
+                public void add(T t) {
+                    if (t != null) {
+                        sum += t.doubleValue();
+                    }
+                }
+
+                @Override
+                public T get() {
+                    return MathUtils.cast(sum, type);
+                }
+
+            };
+        } else if (type.equals(BigDecimal.class)) {
+            return new GroupCollector<T, T>() {
+                private BigDecimal sum = BigDecimal.ZERO;
+
+                @Override
+                public void add(T t) {
+                    if (t != null) {
+                        sum = sum.add((BigDecimal) t);
+                    }
+                }
+
+                @Override
+                public T get() {
+                    return (T) sum;
+                }
+
+            };
+        }
         return new GroupCollector<T, T>() {
             private BigDecimal sum = BigDecimal.ZERO;
 
             @Override
             public void add(T t) {
                 if (t != null) {
-                    sum = sum.add(new BigDecimal(t.toString()));    
-                }                
+                    sum = sum.add(new BigDecimal(t.toString()));
+                }
             }
 
             @Override
             public T get() {
-                return (T) MathUtils.cast(sum, (Class<T>) getType());
+                return MathUtils.cast(sum, type);
             }
 
         };
     }
 
-}
\ No newline at end of file
+}
@@ -36,13 +36,38 @@ public class GroupByBuilder<K> {
 
     private final Expression<K> key;
 
+    private final int spillThreshold;
+
     /**
      * Create a new GroupByBuilder for the given key expression
      *
      * @param key
      */
     public GroupByBuilder(Expression<K> key) {
+        this(key, 0);
+    }
+
+    private GroupByBuilder(Expression<K> key, int spillThreshold) {
         this.key = key;
+        this.spillThreshold = spillThreshold;
+    }
+
+    /**
+     * Group unordered rows in the iterate transformers by holding at most the given amount of
+     * rows in memory. Rows beyond that are spilled to temporary files and merged, so the projected
+     * values need to be Serializable. Groups which exceed the threshold are returned in the order
+     * of the hash codes of their keys.
+     *
+     * <p>The as and list transformers keep all groups in memory and are not affected.</p>
+     *
+     * @param maxRows maximum amount of rows held in memory
+     * @return builder with the spill threshold
+     */
+    public GroupByBuilder<K> spill(int maxRows) {
+        if (maxRows < 1) {
+            throw new IllegalArgumentException("maxRows needs to be positive, was " + maxRows);
+        }
+        return new GroupByBuilder<K>(key, maxRows);
     }
 
     /**
@@ -62,7 +87,7 @@ public class GroupByBuilder<K> {
      * @return
      */
     public ResultTransformer<CloseableIterator<Group>> iterate(Expression<?>... expressions) {
-        return new GroupByIterate<K, Group>(key, expressions);
+        return new GroupByIterate<K, Group>(key, spillThreshold, expressions);
     }
 
     /**
@@ -104,7 +129,7 @@ public class GroupByBuilder<K> {
      */
     public <V> ResultTransformer<CloseableIterator<V>> iterate(Expression<V> expression) {
         final Expression<V> lookup = getLookup(expression);
-        return new GroupByIterate<K, V>(key, expression) {
+        return new GroupByIterate<K, V>(key, spillThreshold, expression) {
             @Override
             protected V transform(Group group) {
                 return group.getOne(lookup);
@@ -128,6 +153,30 @@ public class GroupByBuilder<K> {
         };
     }
 
+    /**
+     * Push the results to the given callback without retaining them
+     *
+     * @param callback
+     * @param expressions
+     * @return transformer returning the amount of groups
+     */
+    public ResultTransformer<Long> iterate(GroupCallback<? super K, ? super Group> callback,
+            Expression<?>... expressions) {
+        return new GroupByCallback<K, Group>((GroupByIterate<K, Group>) iterate(expressions), callback);
+    }
+
+    /**
+     * Push the results to the given callback without retaining them
+     *
+     * @param callback
+     * @param expression
+     * @return transformer returning the amount of groups
+     */
+    public <V> ResultTransformer<Long> iterate(GroupCallback<? super K, ? super V> callback,
+            Expression<V> expression) {
+        return new GroupByCallback<K, V>((GroupByIterate<K, V>) iterate(expression), callback);
+    }
+
     private <V> Expression<V> getLookup(Expression<V> expression) {
         if (expression instanceof GroupExpression) {
             return ((GroupExpression)expression).getExpression();
@@ -178,7 +227,7 @@ public class GroupByBuilder<K> {
     public <V> ResultTransformer<CloseableIterator<V>> iterate(FactoryExpression<V> expression) {
         final FactoryExpression<?> transformation = FactoryExpressionUtils.wrap(expression);
         List<Expression<?>> args = transformation.getArgs();
-        return new GroupByIterate<K, V>(key, args.toArray(new Expression<?>[args.size()])) {
+        return new GroupByIterate<K, V>(key, spillThreshold, args.toArray(new Expression<?>[args.size()])) {
             @Override
             protected V transform(Group group) {
                 // XXX Isn't group.toArray() suitable here?
@@ -191,6 +240,18 @@ public class GroupByBuilder<K> {
         };
     }
 
+    /**
+     * Push the results to the given callback without retaining them
+     *
+     * @param callback
+     * @param expression
+     * @return transformer returning the amount of groups
+     */
+    public <V> ResultTransformer<Long> iterate(GroupCallback<? super K, ? super V> callback,
+            FactoryExpression<V> expression) {
+        return new GroupByCallback<K, V>((GroupByIterate<K, V>) iterate(expression), callback);
+    }
+
     /**
      * Get the results as a list
      *
@@ -0,0 +1,56 @@
+/*
+ * Copyright 2015, Timo Westkämper
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.querydsl.core.group;
+
+import com.mysema.commons.lang.CloseableIterator;
+import com.querydsl.core.Projectable;
+import com.querydsl.core.ResultTransformer;
+
+/**
+ * Pushes aggregated results to a {@link GroupCallback} without retaining them. The result of the
+ * transformation is the amount of groups.
+ *
+ * @author tiwe
+ *
+ * @param <K>
+ * @param <V>
+ */
+public class GroupByCallback<K, V> implements ResultTransformer<Long> {
+
+    private final GroupByIterate<K, V> groupBy;
+
+    private final GroupCallback<? super K, ? super V> callback;
+
+    GroupByCallback(GroupByIterate<K, V> groupBy, GroupCallback<? super K, ? super V> callback) {
+        this.groupBy = groupBy;
+        this.callback = callback;
+    }
+
+    @Override
+    public Long transform(Projectable projectable) {
+        CloseableIterator<Group> groups = groupBy.iterateGroups(projectable);
+        long count = 0;
+        try {
+            while (groups.hasNext()) {
+                Group group = groups.next();
+                callback.handle(groupBy.getKey(group), groupBy.transform(group));
+                count++;
+            }
+        } finally {
+            groups.close();
+        }
+        return count;
+    }
+
+}
@@ -25,7 +25,10 @@ import com.querydsl.core.types.FactoryExpressionUtils;
 import com.querydsl.core.types.Projections;
 
 /**
- * Provides aggregated results as an iterator
+ * Provides aggregated results as an iterator. The groups are formed from consecutive rows with
+ * equal keys, so the rows need to be ordered by the key. With a spill threshold the rows may be
+ * in any order; they are grouped in memory up to the threshold and otherwise spilled to
+ * temporary files and merged, see {@link GroupByBuilder#spill(int)}.
  *
  * @author tiwe
  *
@@ -34,12 +37,47 @@ import com.querydsl.core.types.Projections;
  */
 public class GroupByIterate<K, V> extends AbstractGroupByTransformer<K, CloseableIterator<V>> {
 
+    private final int spillThreshold;
+
     GroupByIterate(Expression<K> key, Expression<?>... expressions) {
+        this(key, 0, expressions);
+    }
+
+    GroupByIterate(Expression<K> key, int spillThreshold, Expression<?>... expressions) {
         super(key, expressions);
+        this.spillThreshold = spillThreshold;
     }
 
     @Override
     public CloseableIterator<V> transform(Projectable projectable) {
+        final CloseableIterator<Group> groups = iterateGroups(projectable);
+
+        return new CloseableIterator<V>() {
+
+            @Override
+            public boolean hasNext() {
+                return groups.hasNext();
+            }
+
+            @Override
+            public V next() {
+                return transform(groups.next());
+            }
+
+            @Override
+            public void remove() {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public void close() {
+                groups.close();
+            }
+
+        };
+    }
+
+    CloseableIterator<Group> iterateGroups(Projectable projectable) {
         // create groups
         FactoryExpression<Tuple> expr = FactoryExpressionUtils.wrap(Projections.tuple(expressions));
         boolean hasGroups = false;
@@ -50,8 +88,11 @@ public class GroupByIterate<K, V> extends AbstractGroupByTransformer<K, Closeabl
             expr = withoutGroupExpressions(expr);
         }
         final CloseableIterator<Tuple> iter = projectable.iterate(expr);
+        if (spillThreshold > 0) {
+            return new SpillingGroupIterator(iter, groupExpressions, maps, spillThreshold);
+        }
 
-        return new CloseableIterator<V>() {
+        return new CloseableIterator<Group>() {
 
             private GroupImpl group;
 
@@ -63,12 +104,12 @@ public class GroupByIterate<K, V> extends AbstractGroupByTransformer<K, Closeabl
             }
 
             @Override
-            public V next() {
+            public Group next() {
                 if (!iter.hasNext()) {
                     if (group != null) {
                         Group current = group;
                         group = null;
-                        return transform(current);
+                        return current;
                     } else {
                         throw new NoSuchElementException();
                     }
@@ -87,12 +128,12 @@ public class GroupByIterate<K, V> extends AbstractGroupByTransformer<K, Closeabl
                         group = new GroupImpl(groupExpressions, maps);
                         groupId = (K) row[0];
                         group.add(row);
-                        return transform(current);
+                        return current;
                     }
                 }
                 Group current = group;
                 group = null;
-                return transform(current);
+                return current;
             }
 
             @Override
@@ -108,6 +149,10 @@ public class GroupByIterate<K, V> extends AbstractGroupByTransformer<K, Closeabl
         };
     }
 
+    K getKey(Group group) {
+        return (K) group.getGroup(groupExpressions.get(0));
+    }
+
     protected V transform(Group group) {
         return (V)group;
     }
@@ -0,0 +1,34 @@
+/*
+ * Copyright 2015, Timo Westkämper
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.querydsl.core.group;
+
+/**
+ * GroupCallback receives the groups of a push-style {@link GroupBy} transformation one at a time
+ *
+ * @author tiwe
+ *
+ * @param <K> key type
+ * @param <V> group type
+ */
+public interface GroupCallback<K, V> {
+
+    /**
+     * Handle the given group
+     *
+     * @param key group key
+     * @param group group or the projection of the group
+     */
+    void handle(K key, V group);
+
+}
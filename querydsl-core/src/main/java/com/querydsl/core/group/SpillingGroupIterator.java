@@ -0,0 +1,348 @@
+/*
+ * Copyright 2015, Timo Westkämper
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.querydsl.core.group;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+import javax.annotation.Nullable;
+
+import com.google.common.collect.AbstractIterator;
+import com.mysema.commons.lang.CloseableIterator;
+import com.querydsl.core.QueryException;
+import com.querydsl.core.Tuple;
+
+/**
+ * SpillingGroupIterator groups unordered rows with a bounded amount of buffered rows. If the
+ * rows fit into the buffer, the groups are formed in memory and returned in the order of their
+ * first rows. Otherwise the buffered rows are sorted by the hash code of their key and spilled to
+ * temporary files, which are merged, so that only the rows of keys with the same hash code are
+ * grouped in memory at a time. The rows keep their relative order within each group. At most
+ * {@link #MERGE_FAN_IN} runs are read at a time; more runs are first merged into fewer, longer
+ * runs in additional passes.
+ *
+ * <p>Spilled rows are written with Java serialization, so the projected values need to be
+ * Serializable. The temporary files are deleted when the iterator is exhausted, closed or fails,
+ * and on exit of the JVM, if the iterator is abandoned otherwise.</p>
+ *
+ * @author tiwe
+ */
+final class SpillingGroupIterator extends AbstractIterator<Group> implements CloseableIterator<Group> {
+
+    /**
+     * Maximum amount of runs which are open at the same time
+     */
+    static final int MERGE_FAN_IN = 64;
+
+    private static final Comparator<Object[]> HASH_ORDER = new Comparator<Object[]>() {
+        @Override
+        public int compare(Object[] row1, Object[] row2) {
+            return compareInts(hash(row1), hash(row2));
+        }
+    };
+
+    private final CloseableIterator<Tuple> rows;
+
+    private final List<GroupExpression<?, ?>> groupExpressions;
+
+    private final List<QPair<?, ?>> maps;
+
+    private final int threshold;
+
+    private final int fanIn;
+
+    private final List<Run> runs = new ArrayList<Run>();
+
+    @Nullable
+    private Iterator<GroupImpl> groups;
+
+    @Nullable
+    private PriorityQueue<Run> queue;
+
+    SpillingGroupIterator(CloseableIterator<Tuple> rows, List<GroupExpression<?, ?>> groupExpressions,
+            List<QPair<?, ?>> maps, int threshold) {
+        this(rows, groupExpressions, maps, threshold, MERGE_FAN_IN);
+    }
+
+    SpillingGroupIterator(CloseableIterator<Tuple> rows, List<GroupExpression<?, ?>> groupExpressions,
+            List<QPair<?, ?>> maps, int threshold, int fanIn) {
+        if (fanIn < 2) {
+            throw new IllegalArgumentException("fanIn needs to be at least 2, was " + fanIn);
+        }
+        this.rows = rows;
+        this.groupExpressions = groupExpressions;
+        this.maps = maps;
+        this.threshold = threshold;
+        this.fanIn = fanIn;
+    }
+
+    private static int hash(Object[] row) {
+        return row[0] != null ? row[0].hashCode() : 0;
+    }
+
+    private static int compareInts(int i1, int i2) {
+        return i1 < i2 ? -1 : (i1 == i2 ? 0 : 1);
+    }
+
+    @Override
+    protected Group computeNext() {
+        try {
+            return computeNextGroup();
+        } catch (RuntimeException e) {
+            close();
+            throw e;
+        }
+    }
+
+    private Group computeNextGroup() {
+        if (groups == null) {
+            List<Object[]> buffer = fill();
+            if (!rows.hasNext() && runs.isEmpty()) {
+                groups = group(buffer).values().iterator();
+            } else {
+                spill(buffer);
+                while (rows.hasNext()) {
+                    spill(fill());
+                }
+                rows.close();
+                while (runs.size() > fanIn) {
+                    mergeRuns();
+                }
+                queue = new PriorityQueue<Run>(runs.size());
+                for (Run run : runs) {
+                    if (run.next()) {
+                        queue.add(run);
+                    }
+                }
+                groups = Collections.<GroupImpl>emptyList().iterator();
+            }
+        }
+        while (!groups.hasNext()) {
+            if (queue == null || queue.isEmpty()) {
+                close();
+                return endOfData();
+            }
+            groups = merge().values().iterator();
+        }
+        return groups.next();
+    }
+
+    private List<Object[]> fill() {
+        List<Object[]> buffer = new ArrayList<Object[]>();
+        while (buffer.size() < threshold && rows.hasNext()) {
+            buffer.add(rows.next().toArray());
+        }
+        return buffer;
+    }
+
+    private Map<Object, GroupImpl> group(List<Object[]> buffer) {
+        Map<Object, GroupImpl> rv = new LinkedHashMap<Object, GroupImpl>();
+        for (Object[] row : buffer) {
+            add(rv, row);
+        }
+        return rv;
+    }
+
+    private void add(Map<Object, GroupImpl> groups, Object[] row) {
+        GroupImpl group = groups.get(row[0]);
+        if (group == null) {
+            group = new GroupImpl(groupExpressions, maps);
+            groups.put(row[0], group);
+        }
+        group.add(row);
+    }
+
+    /**
+     * Write the rows sorted by the hash codes of the keys to a new run file
+     */
+    private void spill(List<Object[]> buffer) {
+        Collections.sort(buffer, HASH_ORDER);
+        try {
+            ObjectOutputStream out = createRun();
+            try {
+                for (Object[] row : buffer) {
+                    write(out, hash(row), row);
+                }
+            } finally {
+                out.close();
+            }
+        } catch (IOException e) {
+            close();
+            throw new QueryException(e);
+        }
+    }
+
+    /**
+     * Merge each {@link #fanIn} consecutive runs into a single run
+     */
+    private void mergeRuns() {
+        int size = runs.size();
+        try {
+            for (int i = 0; i < size; i += fanIn) {
+                List<Run> batch = new ArrayList<Run>(runs.subList(i, Math.min(i + fanIn, size)));
+                PriorityQueue<Run> batchQueue = new PriorityQueue<Run>(batch.size());
+                for (Run run : batch) {
+                    if (run.next()) {
+                        batchQueue.add(run);
+                    }
+                }
+                ObjectOutputStream out = createRun();
+                try {
+                    while (!batchQueue.isEmpty()) {
+                        Run run = batchQueue.poll();
+                        write(out, run.hash, run.row);
+                        if (run.next()) {
+                            batchQueue.add(run);
+                        }
+                    }
+                } finally {
+                    out.close();
+                }
+            }
+        } catch (IOException e) {
+            close();
+            throw new QueryException(e);
+        }
+        // the merged runs keep the order of their sources
+        runs.subList(0, size).clear();
+        for (int i = 0; i < runs.size(); i++) {
+            runs.get(i).index = i;
+        }
+    }
+
+    /**
+     * Create a new run file and open it for writing
+     */
+    private ObjectOutputStream createRun() throws IOException {
+        File file = File.createTempFile("querydsl-groupby", ".tmp");
+        file.deleteOnExit();
+        Run run = new Run(file, runs.size());
+        runs.add(run);
+        return new ObjectOutputStream(new BufferedOutputStream(new FileOutputStream(run.file)));
+    }
+
+    private static void write(ObjectOutputStream out, int hash, Object[] row) throws IOException {
+        out.writeInt(hash);
+        out.writeObject(row);
+        out.reset();
+    }
+
+    /**
+     * Group the rows with the smallest hash code from the runs one at a time
+     */
+    private Map<Object, GroupImpl> merge() {
+        Map<Object, GroupImpl> rv = new LinkedHashMap<Object, GroupImpl>();
+        int hash = queue.peek().hash;
+        while (!queue.isEmpty() && queue.peek().hash == hash) {
+            Run run = queue.poll();
+            add(rv, run.row);
+            if (run.next()) {
+                queue.add(run);
+            }
+        }
+        return rv;
+    }
+
+    @Override
+    public void close() {
+        rows.close();
+        for (Run run : runs) {
+            run.close();
+        }
+        runs.clear();
+    }
+
+    /**
+     * Run is a spilled file of rows sorted by the hash codes of their keys
+     */
+    private final class Run implements Comparable<Run> {
+
+        private final File file;
+
+        private int index;
+
+        @Nullable
+        private ObjectInputStream in;
+
+        private int hash;
+
+        private Object[] row;
+
+        Run(File file, int index) {
+            this.file = file;
+            this.index = index;
+        }
+
+        /**
+         * Read the next row
+         *
+         * @return false, if the run is exhausted
+         */
+        boolean next() {
+            try {
+                if (in == null) {
+                    in = new ObjectInputStream(new BufferedInputStream(new FileInputStream(file)));
+                }
+                hash = in.readInt();
+                row = (Object[]) in.readObject();
+                return true;
+            } catch (EOFException e) {
+                close();
+                return false;
+            } catch (IOException e) {
+                SpillingGroupIterator.this.close();
+                throw new QueryException(e);
+            } catch (ClassNotFoundException e) {
+                SpillingGroupIterator.this.close();
+                throw new QueryException(e);
+            }
+        }
+
+        void close() {
+            try {
+                if (in != null) {
+                    in.close();
+                    in = null;
+                }
+            } catch (IOException e) {
+                // the file is deleted anyway
+            } finally {
+                file.delete();
+            }
+        }
+
+        @Override
+        public int compareTo(Run run) {
+            int rv = compareInts(hash, run.hash);
+            return rv != 0 ? rv : compareInts(index, run.index);
+        }
+
+    }
+
+}
@@ -0,0 +1,37 @@
+/*
+ * Copyright 2015, Timo Westkämper
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.querydsl.core.types;
+
+/**
+ * AccessorStrategy defines how {@link QBean} and {@link ConstructorExpression} projections
+ * instantiate and populate their results
+ *
+ * @author tiwe
+ *
+ */
+public enum AccessorStrategy {
+
+    /**
+     * Use Java reflection
+     */
+    REFLECTION,
+
+    /**
+     * Use bytecode generated accessors, which are created once per projection type.
+     * Requires cglib on the classpath. Members which are not visible to generated code,
+     * such as private setters and fields, are still accessed via reflection.
+     */
+    GENERATED
+
+}
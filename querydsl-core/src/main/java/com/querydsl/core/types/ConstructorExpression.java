@@ -17,6 +17,7 @@ import static com.querydsl.core.util.ConstructorUtils.*;
 
 import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
 import java.util.Arrays;
 import java.util.List;
 
@@ -50,20 +51,30 @@ public class ConstructorExpression<T> extends FactoryExpressionBase<T> {
     private static final long serialVersionUID = -602747921848073175L;
 
     public static <D> ConstructorExpression<D> create(Class<D> type, Expression<?>... args) {
+        return create(AccessorStrategy.REFLECTION, type, args);
+    }
+
+    public static <D> ConstructorExpression<D> create(AccessorStrategy strategy, Class<D> type,
+            Expression<?>... args) {
         Class<?>[] paramTypes = new Class[args.length];
         for (int i = 0; i < paramTypes.length; i++) {
             paramTypes[i] = args[i].getType();
         }
-        return new ConstructorExpression<D>(type, paramTypes, args);
+        return new ConstructorExpression<D>(type, paramTypes, strategy, ImmutableList.copyOf(args));
     }
 
     private final ImmutableList<Expression<?>> args;
 
     private final Class<?>[] parameterTypes;
 
+    private final AccessorStrategy strategy;
+
     @Nullable
     private transient Constructor<?> constructor;
 
+    @Nullable
+    private transient GeneratedAccessors accessors;
+
     private transient Iterable<Function<Object[], Object[]>> transformers;
 
     protected ConstructorExpression(Class<T> type, Class<?>[] paramTypes, Expression<?>... args) {
@@ -71,8 +82,14 @@ public class ConstructorExpression<T> extends FactoryExpressionBase<T> {
     }
 
     protected ConstructorExpression(Class<T> type, Class<?>[] paramTypes, ImmutableList<Expression<?>> args) {
+        this(type, paramTypes, AccessorStrategy.REFLECTION, args);
+    }
+
+    protected ConstructorExpression(Class<T> type, Class<?>[] paramTypes, AccessorStrategy strategy,
+            ImmutableList<Expression<?>> args) {
         super(type);
         this.parameterTypes = getConstructorParameters(type, paramTypes).clone();
+        this.strategy = strategy;
         this.args = args;
     }
 
@@ -124,12 +141,21 @@ public class ConstructorExpression<T> extends FactoryExpressionBase<T> {
     public T newInstance(Object... args) {
         try {
             if (constructor == null) {
-                constructor = getConstructor(getType(), parameterTypes);
+                Constructor<?> constructor = getConstructor(getType(), parameterTypes);
                 transformers = getTransformers(constructor);
+                if (strategy == AccessorStrategy.GENERATED) {
+                    GeneratedAccessors accessors = GeneratedAccessors.create(getType(),
+                            constructor.getParameterTypes(), ImmutableList.<Method>of());
+                    this.accessors = accessors.hasConstructor() ? accessors : null;
+                }
+                this.constructor = constructor;
             }
             for (Function<Object[], Object[]> transformer : transformers) {
                 args = transformer.apply(args);
             }
+            if (accessors != null) {
+                return (T) accessors.newInstance(args);
+            }
             return (T) constructor.newInstance(args);
         } catch (SecurityException e) {
             throw new ExpressionException(e.getMessage(), e);
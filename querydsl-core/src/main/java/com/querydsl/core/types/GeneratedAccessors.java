@@ -0,0 +1,120 @@
+/*
+ * Copyright 2015, Timo Westkämper
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.querydsl.core.types;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.List;
+
+import net.sf.cglib.reflect.FastClass;
+
+/**
+ * GeneratedAccessors provides cglib generated constructor and setter invocations for a
+ * projection type. The generated classes are cached by cglib per type and class loader.
+ *
+ * @author tiwe
+ *
+ */
+final class GeneratedAccessors {
+
+    private static final int MISSING = -1;
+
+    private static final Object[] NO_ARGS = new Object[0];
+
+    /**
+     * Create accessors for the given type
+     *
+     * @param type projection type
+     * @param parameterTypes parameter types of the constructor to use
+     * @param setters setters to use, entries may be null
+     * @return
+     */
+    public static GeneratedAccessors create(Class<?> type, Class<?>[] parameterTypes, List<Method> setters) {
+        try {
+            return new GeneratedAccessors(FastClass.create(type), parameterTypes, setters);
+        } catch (NoClassDefFoundError e) {
+            throw new ExpressionException("cglib is required for generated accessors", e);
+        }
+    }
+
+    private final FastClass fastClass;
+
+    private final int constructor;
+
+    private final int[] setterIndexes;
+
+    private final Method[] setters;
+
+    private GeneratedAccessors(FastClass fastClass, Class<?>[] parameterTypes, List<Method> setters) {
+        this.fastClass = fastClass;
+        this.constructor = fastClass.getIndex(parameterTypes);
+        this.setters = setters.toArray(new Method[setters.size()]);
+        this.setterIndexes = new int[this.setters.length];
+        for (int i = 0; i < setterIndexes.length; i++) {
+            Method setter = this.setters[i];
+            setterIndexes[i] = setter != null
+                    ? fastClass.getIndex(setter.getName(), setter.getParameterTypes()) : MISSING;
+        }
+    }
+
+    /**
+     * Get whether the constructor is invoked via generated code
+     *
+     * @return
+     */
+    public boolean hasConstructor() {
+        return constructor != MISSING;
+    }
+
+    /**
+     * Invoke the default constructor
+     *
+     * @return
+     * @throws InvocationTargetException
+     */
+    public Object newInstance() throws InvocationTargetException {
+        return fastClass.newInstance(constructor, NO_ARGS);
+    }
+
+    /**
+     * Invoke the constructor
+     *
+     * @param args constructor arguments
+     * @return
+     * @throws InvocationTargetException
+     */
+    public Object newInstance(Object[] args) throws InvocationTargetException {
+        return fastClass.newInstance(constructor, args);
+    }
+
+    /**
+     * Invoke the setter with the given index
+     *
+     * @param index setter index
+     * @param bean target
+     * @param value value to set
+     * @throws InvocationTargetException
+     * @throws IllegalAccessException
+     */
+    public void set(int index, Object bean, Object value) throws InvocationTargetException,
+            IllegalAccessException {
+        int setter = setterIndexes[index];
+        if (setter != MISSING) {
+            fastClass.invoke(setter, bean, new Object[]{value});
+        } else if (setters[index] != null) {
+            setters[index].invoke(bean, value);
+        }
+    }
+
+}
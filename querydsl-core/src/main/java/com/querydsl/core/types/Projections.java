@@ -100,6 +100,39 @@ public final class Projections {
         return new QBean<T>(type, bindings);
     }
 
+    /**
+     * Create a Bean populating projection for the given type and expressions, which uses the
+     * given accessor strategy
+     *
+     * <p>Example</p>
+     * <pre>
+     * List&lt;UserDTO&gt; dtos = query.list(
+     *     Projections.bean(AccessorStrategy.GENERATED, UserDTO.class, user.firstName, user.lastName));
+     * </pre>
+     *
+     * @param <T>
+     * @param strategy accessor strategy
+     * @param type type of the projection
+     * @param exprs arguments for the projection
+     * @return
+     */
+    public static <T> QBean<T> bean(AccessorStrategy strategy, Class<T> type, Expression<?>... exprs) {
+        return new QBean<T>(type, false, strategy, exprs);
+    }
+
+    /**
+     * Create a Bean populating projection for the given type and bindings, which uses the
+     * given accessor strategy
+     *
+     * @param strategy
+     * @param type
+     * @param bindings
+     */
+    public static <T> QBean<T> bean(AccessorStrategy strategy, Class<T> type,
+            Map<String, ? extends Expression<?>> bindings) {
+        return new QBean<T>(type, false, strategy, bindings);
+    }
+
 
     /**
      * Create a constructor invocation projection for the given type and expressions
@@ -119,6 +152,21 @@ public final class Projections {
         return ConstructorExpression.create(type, exprs);
     }
 
+    /**
+     * Create a constructor invocation projection for the given type and expressions, which uses
+     * the given accessor strategy
+     *
+     * @param <T>
+     * @param strategy accessor strategy
+     * @param type type of the projection
+     * @param exprs arguments for the projection
+     * @return
+     */
+    public static <T> ConstructorExpression<T> constructor(AccessorStrategy strategy, Class<T> type,
+            Expression<?>... exprs) {
+        return ConstructorExpression.create(strategy, type, exprs);
+    }
+
     /**
      * Create a constructor invocation projection for given type, parameter types and expressions
      *
@@ -195,6 +243,33 @@ public final class Projections {
         return new QBean<T>(type, true, bindings);
     }
 
+    /**
+     * Create a field access based Bean populating projection for the given type and expressions,
+     * which uses the given accessor strategy for the instantiation
+     *
+     * @param <T>
+     * @param strategy accessor strategy
+     * @param type type of the projection
+     * @param exprs arguments for the projection
+     * @return
+     */
+    public static <T> QBean<T> fields(AccessorStrategy strategy, Class<T> type, Expression<?>... exprs) {
+        return new QBean<T>(type, true, strategy, exprs);
+    }
+
+    /**
+     * Create a field access based Bean populating projection for the given type and bindings,
+     * which uses the given accessor strategy for the instantiation
+     *
+     * @param strategy
+     * @param type
+     * @param bindings
+     */
+    public static <T> QBean<T> fields(AccessorStrategy strategy, Class<T> type,
+            Map<String, ? extends Expression<?>> bindings) {
+        return new QBean<T>(type, true, strategy, bindings);
+    }
+
     /**
      * Create a new List typed projection for the given expressions
      *
@@ -24,6 +24,8 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 
+import javax.annotation.Nullable;
+
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.primitives.Primitives;
@@ -84,6 +86,11 @@ public class QBean<T> extends FactoryExpressionBase<T> {
 
     private final boolean fieldAccess;
 
+    private final AccessorStrategy strategy;
+
+    @Nullable
+    private transient GeneratedAccessors accessors;
+
     /**
      * Create a new QBean instance
      *
@@ -161,6 +168,18 @@ public class QBean<T> extends FactoryExpressionBase<T> {
         this(type, fieldAccess, createBindings(args));
     }
 
+    /**
+     * Create a new QBean instance
+     *
+     * @param type
+     * @param fieldAccess
+     * @param strategy
+     * @param args
+     */
+    protected QBean(Class<T> type, boolean fieldAccess, AccessorStrategy strategy, Expression<?>... args) {
+        this(type, fieldAccess, strategy, createBindings(args));
+    }
+
     /**
      * Create a new QBean instance
      *
@@ -169,9 +188,23 @@ public class QBean<T> extends FactoryExpressionBase<T> {
      * @param bindings
      */
     protected QBean(Class<T> type, boolean fieldAccess, Map<String, ? extends Expression<?>> bindings) {
+        this(type, fieldAccess, AccessorStrategy.REFLECTION, bindings);
+    }
+
+    /**
+     * Create a new QBean instance
+     *
+     * @param type
+     * @param fieldAccess
+     * @param strategy
+     * @param bindings
+     */
+    protected QBean(Class<T> type, boolean fieldAccess, AccessorStrategy strategy,
+            Map<String, ? extends Expression<?>> bindings) {
         super(type);
         this.bindings = ImmutableMap.copyOf(bindings);
         this.fieldAccess = fieldAccess;
+        this.strategy = strategy;
         if (fieldAccess) {
             this.fields = initFields(bindings);
             this.setters = ImmutableList.of();
@@ -249,9 +282,14 @@ public class QBean<T> extends FactoryExpressionBase<T> {
     }
 
     @Override
+    @SuppressWarnings("unchecked")
     public T newInstance(Object... a) {
         try {
-            T rv = create(getType());
+            if (strategy == AccessorStrategy.GENERATED && accessors == null) {
+                accessors = GeneratedAccessors.create(getType(), new Class<?>[0], setters);
+            }
+            T rv = accessors != null && accessors.hasConstructor()
+                    ? (T) accessors.newInstance() : create(getType());
             if (fieldAccess) {
                 for (int i = 0; i < a.length; i++) {
                     Object value = a[i];
@@ -260,6 +298,13 @@ public class QBean<T> extends FactoryExpressionBase<T> {
                         if (field != null) field.set(rv, value);
                     }
                 }
+            } else if (accessors != null) {
+                for (int i = 0; i < a.length; i++) {
+                    Object value = a[i];
+                    if (value != null) {
+                        accessors.set(i, rv, value);
+                    }
+                }
             } else {
                 for (int i = 0; i < a.length; i++) {
                     Object value = a[i];
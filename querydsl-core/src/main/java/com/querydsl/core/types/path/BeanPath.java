@@ -15,8 +15,8 @@ package com.querydsl.core.types.path;
 
 import java.lang.reflect.AnnotatedElement;
 import java.lang.reflect.InvocationTargetException;
-import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import javax.annotation.Nullable;
 
@@ -44,7 +44,7 @@ public class BeanPath<T> extends SimpleExpression<T> implements Path<T> {
 
     private static final long serialVersionUID = -1845524024957822731L;
 
-    private final Map<Class<?>, Object> casts = new HashMap<Class<?>, Object>();
+    private final Map<Class<?>, Object> casts = new ConcurrentHashMap<Class<?>, Object>();
 
     @Nullable
     private final PathInits inits;
@@ -85,25 +85,24 @@ public class BeanPath<T> extends SimpleExpression<T> implements Path<T> {
     @SuppressWarnings("unchecked")
     public <U extends BeanPath<? extends T>> U as(Class<U> clazz) {
         try {
-            if (!casts.containsKey(clazz)) {
+            U rv = (U) casts.get(clazz);
+            if (rv == null) {
                 PathMetadata metadata;
                 if (pathMixin.getMetadata().getPathType() != PathType.COLLECTION_ANY) {
                     metadata = PathMetadataFactory.forDelegate(pathMixin);
                 } else {
                     metadata = (PathMetadata)pathMixin.getMetadata();
                 }
-                U rv;
                 // the inits for the subtype will be wider, if it's a variable path
                 if (inits != null && pathMixin.getMetadata().getPathType() != PathType.VARIABLE) {
                     rv = clazz.getConstructor(PathMetadata.class, PathInits.class).newInstance(metadata, inits);
                 } else {
                     rv = clazz.getConstructor(PathMetadata.class).newInstance(metadata);
                 }
+                // concurrent casts may create equal instances, the last one is kept
                 casts.put(clazz, rv);
-                return rv;
-            } else {
-                return (U) casts.get(clazz);
             }
+            return rv;
 
         } catch (InstantiationException e) {
             throw new ExpressionException(e.getMessage(), e);
@@ -18,6 +18,7 @@ import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentMap;
 
 import com.google.common.collect.Maps;
 import com.querydsl.core.types.EntityPath;
@@ -27,7 +28,8 @@ import com.querydsl.core.types.PathMetadataFactory;
 import com.querydsl.core.types.expr.SimpleExpression;
 
 /**
- * PathBuilder is an extension to EntityPathBase for dynamic path construction
+ * PathBuilder is an extension to EntityPathBase for dynamic path construction. The property
+ * paths are cached in concurrent maps, so PathBuilder instances can be shared between threads.
  *
  * <p>Usage example:</p>
  * <pre>{@code
@@ -44,9 +46,9 @@ public class PathBuilder<T> extends EntityPathBase<T> {
 
     private static final long serialVersionUID = -1666357914232685088L;
 
-    private final Map<String, PathBuilder<?>> properties = Maps.newHashMap();
+    private final ConcurrentMap<String, PathBuilder<?>> properties = Maps.newConcurrentMap();
 
-    private final Map<Path<?>, Object> propertyMetadata = Maps.newHashMap();
+    private final ConcurrentMap<Path<?>, Object> propertyMetadata = Maps.newConcurrentMap();
 
     private final PathBuilderValidator validator;
 
@@ -102,7 +104,10 @@ public class PathBuilder<T> extends EntityPathBase<T> {
     private <P extends Path<?>> P  addMetadataOf(P newPath, Path<?> path) {
         if (path.getMetadata().getParent() instanceof EntityPath) {
             EntityPath<?> parent = (EntityPath)path.getMetadata().getParent();
-            propertyMetadata.put(newPath, parent.getMetadata(path));
+            Object metadata = parent.getMetadata(path);
+            if (metadata != null) {
+                propertyMetadata.put(newPath, metadata);
+            }
         }
         return newPath;
     }
@@ -133,7 +138,10 @@ public class PathBuilder<T> extends EntityPathBase<T> {
         if (path == null) {
             Class<?> vtype = validate(property, Object.class);
             path = new PathBuilder<Object>(vtype, forProperty(property), validator);
-            properties.put(property, path);
+            PathBuilder<Object> existing = (PathBuilder) properties.putIfAbsent(property, path);
+            if (existing != null) {
+                path = existing;
+            }
         }
         return path;
     }
@@ -149,10 +157,15 @@ public class PathBuilder<T> extends EntityPathBase<T> {
     @SuppressWarnings("unchecked")
     public <A> PathBuilder<A> get(String property, Class<A> type) {
         PathBuilder<A> path = (PathBuilder<A>) properties.get(property);
-        if (path == null || !type.isAssignableFrom(path.getType())) {
+        while (path == null || !type.isAssignableFrom(path.getType())) {
             Class<? extends A> vtype = validate(property, type);
-            path = new PathBuilder<A>(vtype, forProperty(property), validator);
-            properties.put(property, path);
+            PathBuilder<A> newPath = new PathBuilder<A>(vtype, forProperty(property), validator);
+            // builders of other types are replaced only if no other thread replaced them already
+            if (path == null ? properties.putIfAbsent(property, newPath) == null
+                    : properties.replace(property, path, newPath)) {
+                return newPath;
+            }
+            path = (PathBuilder<A>) properties.get(property);
         }
         return path;
     }
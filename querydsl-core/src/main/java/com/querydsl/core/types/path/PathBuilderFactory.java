@@ -13,20 +13,42 @@
  */
 package com.querydsl.core.types.path;
 
-import java.util.HashMap;
-import java.util.Map;
-
 import com.google.common.base.CaseFormat;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
 
 /**
- * PathBuilderFactory is a factory class for PathBuilder creation
+ * PathBuilderFactory is a factory class for PathBuilder creation. The created instances are
+ * cached per class in a bounded cache and are safe to be shared between threads.
  *
  * @author tiwe
  *
  */
 public final class PathBuilderFactory {
 
-    private final Map<Class<?>, PathBuilder<?>> paths = new HashMap<Class<?>, PathBuilder<?>>();
+    private static final int DEFAULT_MAXIMUM_SIZE = 1000;
+
+    private final LoadingCache<Class<?>, PathBuilder<?>> paths;
+
+    public PathBuilderFactory() {
+        this(DEFAULT_MAXIMUM_SIZE);
+    }
+
+    /**
+     * Create a new PathBuilderFactory instance
+     *
+     * @param maximumSize maximum amount of cached PathBuilder instances
+     */
+    public PathBuilderFactory(int maximumSize) {
+        this.paths = CacheBuilder.newBuilder().maximumSize(maximumSize).build(
+            new CacheLoader<Class<?>, PathBuilder<?>>() {
+                @Override
+                public PathBuilder<?> load(Class<?> clazz) {
+                    return new PathBuilder(clazz, CaseFormat.UPPER_CAMEL.to(CaseFormat.LOWER_CAMEL, clazz.getSimpleName()));
+                }
+            });
+    }
 
     /**
      * Create a new PathBuilder instance for the given type
@@ -36,12 +58,7 @@ public final class PathBuilderFactory {
      */
     @SuppressWarnings("unchecked")
     public <T> PathBuilder<T> create(Class<T> clazz) {
-        PathBuilder<T> rv = (PathBuilder<T>) paths.get(clazz);
-        if (rv == null) {
-            rv = new PathBuilder<T>(clazz, CaseFormat.UPPER_CAMEL.to(CaseFormat.LOWER_CAMEL, clazz.getSimpleName()));
-            paths.put(clazz, rv);
-        }
-        return rv;
+        return (PathBuilder<T>) paths.getUnchecked(clazz);
     }
 
 }
@@ -21,7 +21,10 @@ import static com.querydsl.core.group.GroupBy.set;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
 
+import java.io.File;
+import java.io.FilenameFilter;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.Iterator;
@@ -312,4 +315,137 @@ public class GroupByIterateTest extends AbstractGroupByTest {
         assertEquals(toSet(comment(4), comment(5)), post.getComments());
     }
 
+    @Test
+    public void Spill_In_Memory() {
+        CloseableIterator<Group> results_ = BASIC_RESULTS_UNORDERED.transform(
+            groupBy(postId).spill(100).iterate(postName, set(commentId), list(commentText)));
+        List<Group> results = IteratorAdapter.asList(results_);
+
+        assertEquals(4, results.size());
+        assertNull(results.get(0).getOne(postId));
+        assertEquals(Arrays.asList("comment 8", "comment 7"), results.get(0).getList(commentText));
+        assertEquals(toInt(1), results.get(1).getOne(postId));
+        assertEquals(Arrays.asList("comment 2", "comment 1", "comment 3"), results.get(1).getList(commentText));
+    }
+
+    @Test
+    public void Spill_To_Disk() {
+        CloseableIterator<Group> results_ = BASIC_RESULTS_UNORDERED.transform(
+            groupBy(postId).spill(3).iterate(postName, set(commentId), list(commentText)));
+        List<Group> results = IteratorAdapter.asList(results_);
+
+        assertEquals(4, results.size());
+
+        Group group = results.get(1);
+        assertEquals(toInt(1), group.getOne(postId));
+        assertEquals("post 1", group.getOne(postName));
+        assertEquals(toSet(1, 2, 3), group.getSet(commentId));
+        assertEquals(Arrays.asList("comment 2", "comment 1", "comment 3"), group.getList(commentText));
+
+        group = results.get(2);
+        assertEquals(toInt(2), group.getOne(postId));
+        assertEquals(toSet(4, 5), group.getSet(commentId));
+    }
+
+    @Test
+    public void Spill_Multi_Pass_Merge() {
+        List<GroupExpression<?, ?>> groupExpressions = Arrays.<GroupExpression<?, ?>>asList(
+            new GOne<Integer>(postId), new GOne<String>(postName), new GList<Integer>(commentId),
+            new GList<String>(commentText));
+        CloseableIterator<Group> results_ = new SpillingGroupIterator(
+            BASIC_RESULTS_UNORDERED.iterate(Projections.tuple(postId, postName, commentId, commentText)),
+            groupExpressions, Collections.<QPair<?, ?>>emptyList(), 1, 2);
+        List<Group> results = IteratorAdapter.asList(results_);
+
+        assertEquals(4, results.size());
+        assertNull(results.get(0).getOne(postId));
+        assertEquals(Arrays.asList("comment 8", "comment 7"), results.get(0).getList(commentText));
+        assertEquals(toInt(1), results.get(1).getOne(postId));
+        assertEquals(Arrays.asList("comment 2", "comment 1", "comment 3"), results.get(1).getList(commentText));
+        assertEquals(Arrays.asList("comment 4", "comment 5"), results.get(2).getList(commentText));
+    }
+
+    @Test
+    public void Spill_Failure_Deletes_Files() {
+        final CloseableIterator<Tuple> rows = BASIC_RESULTS_UNORDERED.iterate(
+            Projections.tuple(postId, postName, commentId, commentText));
+        CloseableIterator<Tuple> failing = new CloseableIterator<Tuple>() {
+            private int count;
+            @Override
+            public boolean hasNext() {
+                return rows.hasNext();
+            }
+            @Override
+            public Tuple next() {
+                if (++count > 4) {
+                    throw new IllegalStateException();
+                }
+                return rows.next();
+            }
+            @Override
+            public void remove() {
+                throw new UnsupportedOperationException();
+            }
+            @Override
+            public void close() {
+                rows.close();
+            }
+        };
+        List<GroupExpression<?, ?>> groupExpressions = Arrays.<GroupExpression<?, ?>>asList(
+            new GOne<Integer>(postId), new GOne<String>(postName), new GList<Integer>(commentId),
+            new GList<String>(commentText));
+        int files = countSpillFiles();
+        try {
+            new SpillingGroupIterator(failing, groupExpressions, Collections.<QPair<?, ?>>emptyList(), 1, 2).hasNext();
+            fail();
+        } catch (IllegalStateException e) {
+            assertEquals(files, countSpillFiles());
+        }
+    }
+
+    private static int countSpillFiles() {
+        String[] names = new File(System.getProperty("java.io.tmpdir")).list(new FilenameFilter() {
+            @Override
+            public boolean accept(File dir, String name) {
+                return name.startsWith("querydsl-groupby");
+            }
+        });
+        return names != null ? names.length : 0;
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void Spill_Invalid_Threshold() {
+        groupBy(postId).spill(0);
+    }
+
+    @Test
+    public void Callback() {
+        final Map<Integer, String> results = new LinkedHashMap<Integer, String>();
+        long count = BASIC_RESULTS.transform(groupBy(postId).iterate(new GroupCallback<Integer, String>() {
+            @Override
+            public void handle(Integer key, String group) {
+                results.put(key, group);
+            }
+        }, postName));
+
+        assertEquals(4, count);
+        assertEquals("post 1", results.get(1));
+        assertEquals("null post", results.get(null));
+    }
+
+    @Test
+    public void Callback_Spill() {
+        final List<Group> results = new LinkedList<Group>();
+        long count = BASIC_RESULTS_UNORDERED.transform(groupBy(postId).spill(2).iterate(
+            new GroupCallback<Integer, Group>() {
+                @Override
+                public void handle(Integer key, Group group) {
+                    results.add(group);
+                }
+            }, postName, set(commentId)));
+
+        assertEquals(4, count);
+        assertEquals(toSet(1, 2, 3), results.get(1).getSet(commentId));
+    }
+
 }
@@ -0,0 +1,94 @@
+/*
+ * Copyright 2011, Mysema Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.querydsl.core.group;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+
+import org.junit.Test;
+
+import com.querydsl.core.support.Expressions;
+import com.querydsl.core.types.Expression;
+
+public class NumberGroupExpressionTest {
+
+    private static <T> T collect(AbstractGroupExpression<T, T> expr, T... values) {
+        GroupCollector<T, T> collector = expr.createGroupCollector();
+        for (T value : values) {
+            collector.add(value);
+        }
+        return collector.get();
+    }
+
+    private static <T extends Number & Comparable<?>> Expression<T> path(Class<T> type) {
+        return Expressions.numberPath(type, "num");
+    }
+
+    @Test
+    public void Sum() {
+        assertEquals(Integer.valueOf(6), collect(GroupBy.sum(path(Integer.class)), 1, null, 2, 3));
+        assertEquals(Long.valueOf(3000000000L), collect(GroupBy.sum(path(Long.class)), 1000000000L, 2000000000L));
+        assertEquals(Short.valueOf((short) 3), collect(GroupBy.sum(path(Short.class)), (short) 1, (short) 2));
+        assertEquals(Double.valueOf(4.0), collect(GroupBy.sum(path(Double.class)), 1.5, 2.5));
+        assertEquals(new BigDecimal("4.00"), collect(GroupBy.sum(path(BigDecimal.class)),
+                new BigDecimal("1.50"), new BigDecimal("2.5")));
+        assertEquals(BigInteger.valueOf(3), collect(GroupBy.sum(path(BigInteger.class)),
+                BigInteger.ONE, BigInteger.valueOf(2)));
+    }
+
+    @Test
+    public void Sum_Overflow() {
+        assertEquals(Integer.valueOf(Integer.MIN_VALUE),
+                collect(GroupBy.sum(path(Integer.class)), Integer.MAX_VALUE, 1));
+    }
+
+    @Test
+    public void Sum_Empty() {
+        assertEquals(Integer.valueOf(0), collect(GroupBy.sum(path(Integer.class))));
+    }
+
+    @Test
+    public void Avg() {
+        assertEquals(Integer.valueOf(2), collect(GroupBy.avg(path(Integer.class)), 1, 2, 3));
+        assertEquals(Integer.valueOf(1), collect(GroupBy.avg(path(Integer.class)), 1, 2, 2));
+        assertEquals(Long.valueOf(-2), collect(GroupBy.avg(path(Long.class)), -2L, -3L));
+        assertEquals(Double.valueOf(2.5), collect(GroupBy.avg(path(Double.class)), 2.0, 3.0));
+        assertEquals(new BigDecimal("2.5"), collect(GroupBy.avg(path(BigDecimal.class)),
+                new BigDecimal("2"), new BigDecimal("3")));
+    }
+
+    @Test
+    public void Min() {
+        assertEquals(Integer.valueOf(-1), collect(GroupBy.min(path(Integer.class)), 3, null, -1, 2));
+        assertEquals(Long.valueOf(1), collect(GroupBy.min(path(Long.class)), 3L, 1L));
+        assertEquals(Double.valueOf(-0.0), collect(GroupBy.min(path(Double.class)), 0.0, -0.0));
+        assertEquals(new BigDecimal("1"), collect(GroupBy.min(path(BigDecimal.class)),
+                new BigDecimal("2"), new BigDecimal("1")));
+        assertNull(collect(GroupBy.min(path(Integer.class))));
+    }
+
+    @Test
+    public void Max() {
+        assertEquals(Integer.valueOf(3), collect(GroupBy.max(path(Integer.class)), null, 3, -1, 2));
+        assertEquals(Long.valueOf(3), collect(GroupBy.max(path(Long.class)), 3L, 1L));
+        assertEquals(Double.valueOf(Double.NaN), collect(GroupBy.max(path(Double.class)), 1.0, Double.NaN));
+        assertEquals(new BigDecimal("2"), collect(GroupBy.max(path(BigDecimal.class)),
+                new BigDecimal("2"), new BigDecimal("1")));
+        assertNull(collect(GroupBy.max(path(Integer.class)), (Integer) null));
+    }
+
+}
@@ -87,6 +87,16 @@ public class ConstructorExpressionTest {
         assertNotNull(instance);
     }
 
+    @Test
+    public void Create_Generated() {
+        Expression<Long> longVal = ConstantImpl.create(1l);
+        Expression<String> stringVal = ConstantImpl.create("");
+        ProjectionExample instance = ConstructorExpression.create(AccessorStrategy.GENERATED,
+                ProjectionExample.class, longVal, stringVal).newInstance(2l, "abc");
+        assertEquals((Long) 2L, instance.id);
+        assertEquals("abc", instance.text);
+    }
+
     @Test
     public void FactoryExpression_has_right_args() {
         FactoryExpression<ProjectionExample> constructor = ConstructorExpression.create(ProjectionExample.class, concat);
@@ -68,6 +68,15 @@ public class ProjectionsTest {
                 .newInstance(0l, "").getClass());
     }
 
+    @Test
+    public void Constructor_Generated_VarArgs() {
+        Expression<String> stringVal = ConstantImpl.create("");
+        VarArgs2 instance = Projections.constructor(AccessorStrategy.GENERATED, VarArgs2.class,
+                stringVal, stringVal, stringVal).newInstance("X", "Y", "Z");
+        assertEquals("X", instance.arg);
+        assertArrayEquals(new String[]{"Y", "Z"}, instance.args);
+    }
+
     @Test
     public void Constructor_VarArgs() {
         Expression<String> stringVal = ConstantImpl.create("");
@@ -108,6 +117,16 @@ public class ProjectionsTest {
         assertEquals(expectedText, instance.text);
     }
 
+    @Test
+    public void Fields_Generated() {
+        PathBuilder<Entity> entity = new PathBuilder<Entity>(Entity.class, "entity");
+        QBean<Entity> beanProjection = Projections.fields(AccessorStrategy.GENERATED, Entity.class,
+                entity.getNumber("cId", Integer.class),
+                entity.getNumber("eId", Integer.class));
+
+        assertEquals(Entity.class, beanProjection.newInstance(1, 2).getClass());
+    }
+
     @Test
     public void FieldsClassOfTExpressionOfQArray() {
         PathBuilder<Entity> entity = new PathBuilder<Entity>(Entity.class, "entity");
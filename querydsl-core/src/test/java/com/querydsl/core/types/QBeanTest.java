@@ -99,6 +99,21 @@ public class QBeanTest {
         assertEquals(true, bean.isMarried());
     }
 
+    @Test
+    public void with_Generated_Accessors() {
+        QBean<Entity> beanProjection = new QBean<Entity>(Entity.class, false, AccessorStrategy.GENERATED,
+                name, age, married);
+        Entity bean = beanProjection.newInstance("Fritz", 30, true);
+        assertEquals("Fritz", bean.getName());
+        assertEquals(30, bean.getAge());
+        assertEquals(true, bean.isMarried());
+
+        bean = beanProjection.newInstance(null, 31, false);
+        assertNull(bean.getName());
+        assertEquals(31, bean.getAge());
+        assertEquals(false, bean.isMarried());
+    }
+
     @Test
     public void with_Path_and_Exprs() {
         QBean<Entity> beanProjection = new QBean<Entity>(entity, name, age, married);
@@ -15,6 +15,8 @@
 package com.querydsl.core.types.path;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
 
 import org.junit.Test;
 
@@ -32,4 +34,19 @@ public class PathBuilderFactoryTest {
         pathBuilder.get("prop", Object.class);
     }
 
+    @Test
+    public void Create_Cached() {
+        PathBuilderFactory factory = new PathBuilderFactory();
+        assertSame(factory.create(String.class), factory.create(String.class));
+    }
+
+    @Test
+    public void Create_Bounded() {
+        PathBuilderFactory factory = new PathBuilderFactory(1);
+        PathBuilder<String> pathBuilder = factory.create(String.class);
+        factory.create(Integer.class);
+        assertNotSame(pathBuilder, factory.create(String.class));
+        assertEquals(pathBuilder, factory.create(String.class));
+    }
+
 }
@@ -15,13 +15,20 @@ package com.querydsl.core.types.path;
 
 import java.sql.Time;
 import java.util.Date;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import com.querydsl.core.BooleanBuilder;
 import com.querydsl.core.util.BeanMap;
 import org.junit.Test;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
 public class PathBuilderTest {
@@ -112,4 +119,39 @@ public class PathBuilderTest {
         entity.getTime("time", Time.class);
     }
 
+    @Test
+    public void Get_With_Type() {
+        PathBuilder<User> entity = new PathBuilder<User>(User.class, "entity");
+        PathBuilder<String> string = entity.get("name", String.class);
+        assertSame(string, entity.get("name", String.class));
+        assertSame(string, entity.get("name", Object.class));
+
+        PathBuilder<Integer> integer = entity.get("name", Integer.class);
+        assertEquals(Integer.class, integer.getType());
+        assertSame(integer, entity.get("name", Integer.class));
+        assertSame(integer, entity.get("name", Object.class));
+    }
+
+    @Test
+    public void Get_Concurrently() throws Exception {
+        final PathBuilder<User> entity = new PathBuilder<User>(User.class, "entity");
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Callable<PathBuilder<Object>>> tasks = new ArrayList<Callable<PathBuilder<Object>>>();
+            for (int i = 0; i < 100; i++) {
+                tasks.add(new Callable<PathBuilder<Object>>() {
+                    @Override
+                    public PathBuilder<Object> call() {
+                        return entity.get("firstName");
+                    }
+                });
+            }
+            for (Future<PathBuilder<Object>> result : executor.invokeAll(tasks)) {
+                assertSame(entity.get("firstName"), result.get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
 }
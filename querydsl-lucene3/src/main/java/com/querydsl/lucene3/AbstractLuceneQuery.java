@@ -16,21 +16,28 @@ package com.querydsl.lucene3;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.NoSuchElementException;
 
 import javax.annotation.Nullable;
 
 import org.apache.lucene.document.Document;
 import org.apache.lucene.document.FieldSelector;
 import org.apache.lucene.document.MapFieldSelector;
+import org.apache.lucene.index.IndexReader;
 import org.apache.lucene.search.ChainedFilter;
+import org.apache.lucene.search.Collector;
 import org.apache.lucene.search.DuplicateFilter;
 import org.apache.lucene.search.Filter;
 import org.apache.lucene.search.IndexSearcher;
 import org.apache.lucene.search.MatchAllDocsQuery;
 import org.apache.lucene.search.Query;
 import org.apache.lucene.search.QueryWrapperFilter;
+import org.apache.lucene.search.ReferenceManager;
 import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.Scorer;
 import org.apache.lucene.search.Sort;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.search.TotalHitCountCollector;
 
 import com.google.common.base.Function;
 import com.google.common.collect.ImmutableList;
@@ -46,6 +53,7 @@ import com.querydsl.core.SearchResults;
 import com.querydsl.core.SimpleProjectable;
 import com.querydsl.core.SimpleQuery;
 import com.querydsl.core.support.QueryMixin;
+import com.querydsl.core.types.Expression;
 import com.querydsl.core.types.OrderSpecifier;
 import com.querydsl.core.types.ParamExpression;
 import com.querydsl.core.types.Path;
@@ -64,8 +72,12 @@ SimpleProjectable<T> {
 
     private final QueryMixin<Q> queryMixin;
 
+    @Nullable
     private final IndexSearcher searcher;
 
+    @Nullable
+    private final ReferenceManager<IndexSearcher> searcherManager;
+
     private final LuceneSerializer serializer;
 
     private final Function<Document, T> transformer;
@@ -87,34 +99,78 @@ SimpleProjectable<T> {
         queryMixin = new QueryMixin<Q>((Q) this, new DefaultQueryMetadata().noValidate());
         this.serializer = serializer;
         this.searcher = searcher;
+        this.searcherManager = null;
+        this.transformer = transformer;
+    }
+
+    /**
+     * Create a query which acquires the current searcher of the given manager for each execution.
+     * The searcher is released after the execution or, for iterators, when the iterator is closed
+     * or exhausted.
+     *
+     * @param serializer serializer
+     * @param searcherManager searcher manager, e.g. a {@link org.apache.lucene.search.SearcherManager}
+     * @param transformer document transformer
+     */
+    @SuppressWarnings("unchecked")
+    public AbstractLuceneQuery(LuceneSerializer serializer, ReferenceManager<IndexSearcher> searcherManager,
+            Function<Document, T> transformer) {
+        queryMixin = new QueryMixin<Q>((Q) this, new DefaultQueryMetadata().noValidate());
+        this.serializer = serializer;
+        this.searcher = null;
+        this.searcherManager = searcherManager;
         this.transformer = transformer;
     }
 
+    public AbstractLuceneQuery(ReferenceManager<IndexSearcher> searcherManager, Function<Document, T> transformer) {
+        this(LuceneSerializer.DEFAULT, searcherManager, transformer);
+    }
+
     public AbstractLuceneQuery(IndexSearcher searcher, Function<Document, T> transformer) {
         this(LuceneSerializer.DEFAULT, searcher, transformer);
     }
 
     @Override
     public boolean exists() {
-        return innerCount() > 0;
+        final IndexSearcher searcher = acquire();
+        try {
+            if (maxDoc(searcher) == 0) {
+                return false;
+            }
+            searcher.search(createQuery(), getFilter(), new FirstHitCollector());
+            return false;
+        } catch (FirstHitCollector.HitFound e) {
+            return true;
+        } catch (IOException e) {
+            throw new QueryException(e);
+        } catch (IllegalArgumentException e) {
+            throw new QueryException(e);
+        } finally {
+            release(searcher);
+        }
     }
 
     @Override
     public boolean notExists() {
-        return innerCount() == 0;
+        return !exists();
     }
 
     private long innerCount() {
+        final IndexSearcher searcher = acquire();
         try {
-            final int maxDoc = searcher.maxDoc();
+            final int maxDoc = maxDoc(searcher);
             if (maxDoc == 0) {
                 return 0;
             }
-            return searcher.search(createQuery(), getFilter(), maxDoc).totalHits;
+            TotalHitCountCollector collector = new TotalHitCountCollector();
+            searcher.search(createQuery(), getFilter(), collector);
+            return collector.getTotalHits();
         } catch (IOException e) {
             throw new QueryException(e);
         } catch (IllegalArgumentException e) {
             throw new QueryException(e);
+        } finally {
+            release(searcher);
         }
     }
 
@@ -189,17 +245,132 @@ SimpleProjectable<T> {
 
     @Override
     public CloseableIterator<T> iterate() {
+        final IndexSearcher searcher = acquire();
+        try {
+            return releaseOnClose(iterate(searcher, innerSearch(searcher)), searcher);
+        } catch (RuntimeException e) {
+            release(searcher);
+            throw e;
+        }
+    }
+
+    private CloseableIterator<T> iterate(IndexSearcher searcher, @Nullable TopDocs topDocs) {
+        final Integer queryOffset = queryMixin.getMetadata().getModifiers().getOffsetAsInteger();
+        final int offset = queryOffset != null ? queryOffset.intValue() : 0;
+        if (topDocs != null && offset < topDocs.scoreDocs.length) {
+            return new ResultIterator<T>(topDocs.scoreDocs, offset, searcher, fieldSelector, transformer);
+        }
+        return new EmptyCloseableIterator<T>();
+    }
+
+    /**
+     * Iterate over the results in windows of the given size. Each window is fetched via
+     * {@link IndexSearcher#searchAfter(ScoreDoc, Query, Filter, int)} after the last hit of the
+     * previous window, so the memory use is bound by the window size regardless of the amount of
+     * results. The limit and offset of the query are applied.
+     *
+     * <p>Lucene 3 supports searchAfter only for results in relevance order, so the query may not
+     * be sorted.</p>
+     *
+     * @param windowSize amount of hits to fetch per search
+     * @return results
+     */
+    public CloseableIterator<T> iterate(int windowSize) {
+        if (windowSize < 1) {
+            throw new IllegalArgumentException("windowSize needs to be positive, was " + windowSize);
+        }
+        checkUnsorted();
+        return new WindowIterator(acquire(), windowSize);
+    }
+
+    /**
+     * Get a page of results after the given token. The limit and offset of the query are not used.
+     *
+     * <p>Lucene 3 supports searchAfter only for results in relevance order, so the query may not
+     * be sorted.</p>
+     *
+     * @param after token of the previous page or null for the first page
+     * @param size page size
+     * @return results with the token of the next page
+     */
+    public ResultPage<T> listPage(@Nullable String after, int size) {
+        if (size < 1) {
+            throw new IllegalArgumentException("size needs to be positive, was " + size);
+        }
+        checkUnsorted();
+        final IndexSearcher searcher = acquire();
+        try {
+            ScoreDoc afterDoc = after != null ? ScoreDocToken.decode(after) : null;
+            // one hit beyond the page is enough to detect further pages
+            TopDocs topDocs = searchAfter(searcher, createQuery(), getFilter(), afterDoc, size + 1);
+            ScoreDoc[] scoreDocs = topDocs.scoreDocs;
+            int length = Math.min(scoreDocs.length, size);
+            List<T> results = new ArrayList<T>(length);
+            for (int i = 0; i < length; i++) {
+                results.add(load(searcher, scoreDocs[i].doc));
+            }
+            String next = scoreDocs.length > size ? ScoreDocToken.encode(scoreDocs[size - 1]) : null;
+            return new ResultPage<T>(results, topDocs.totalHits, next);
+        } catch (IOException e) {
+            throw new QueryException(e);
+        } catch (IllegalArgumentException e) {
+            throw new QueryException(e);
+        } finally {
+            release(searcher);
+        }
+    }
+
+    private void checkUnsorted() {
+        if (getSort() != null) {
+            throw new UnsupportedOperationException("searchAfter is only supported for unsorted queries");
+        }
+    }
+
+    private TopDocs searchAfter(IndexSearcher searcher, Query query, @Nullable Filter filter, @Nullable ScoreDoc after, int n)
+            throws IOException {
+        if (after == null) {
+            return searcher.search(query, filter, n);
+        } else {
+            return searcher.searchAfter(after, query, filter, n);
+        }
+    }
+
+    @Nullable
+    private Sort getSort() {
+        final List<OrderSpecifier<?>> orderBys = queryMixin.getMetadata().getOrderBy();
+        if (querySort == null && !orderBys.isEmpty()) {
+            return serializer.toSort(orderBys);
+        }
+        return querySort;
+    }
+
+    private T load(IndexSearcher searcher, int doc) throws IOException {
+        Document document;
+        if (fieldSelector != null) {
+            document = searcher.doc(doc, fieldSelector);
+        } else {
+            document = searcher.doc(doc);
+        }
+        return transformer.apply(document);
+    }
+
+    /**
+     * Search the top documents up to the limit and offset of the query
+     *
+     * @return top documents or null, if the index is empty
+     */
+    @Nullable
+    private TopDocs innerSearch(IndexSearcher searcher) {
         final QueryMetadata metadata = queryMixin.getMetadata();
-        final List<OrderSpecifier<?>> orderBys = metadata.getOrderBy();
         final Integer queryLimit = metadata.getModifiers().getLimitAsInteger();
         final Integer queryOffset = metadata.getModifiers().getOffsetAsInteger();
-        Sort sort = querySort;
+        final Sort sort = getSort();
         int limit;
         final int offset = queryOffset != null ? queryOffset.intValue() : 0;
         try {
-            limit = maxDoc();
+            limit = maxDoc(searcher);
             if (limit == 0) {
-                return new EmptyCloseableIterator<T>();
+                return null;
             }
         } catch (IOException e) {
             throw new QueryException(e);
@@ -209,32 +380,71 @@ SimpleProjectable<T> {
         if (queryLimit != null && queryLimit.intValue() < limit) {
             limit = queryLimit.intValue();
         }
-        if (sort == null && !orderBys.isEmpty()) {
-            sort = serializer.toSort(orderBys);
-        }
 
         try {
-            ScoreDoc[] scoreDocs;
             int sumOfLimitAndOffset = limit + offset;
             if (sumOfLimitAndOffset < 1) {
                 throw new QueryException("The given limit (" + limit + ") and offset (" + offset + ") cause an integer overflow.");
             }
             if (sort != null) {
-                scoreDocs = searcher.search(createQuery(), getFilter(), sumOfLimitAndOffset, sort).scoreDocs;
+                return searcher.search(createQuery(), getFilter(), sumOfLimitAndOffset, sort);
             } else {
-                scoreDocs = searcher.search(createQuery(), getFilter(), sumOfLimitAndOffset).scoreDocs;
+                return searcher.search(createQuery(), getFilter(), sumOfLimitAndOffset);
             }
-            if (offset < scoreDocs.length) {
-                return new ResultIterator<T>(scoreDocs, offset, searcher, fieldSelector, transformer);
-            }
-            return new EmptyCloseableIterator<T>();
         } catch (final IOException e) {
             throw new QueryException(e);
         }
     }
 
+    /**
+     * Iterate over the projection of the results. The values of the projected paths are read from
+     * the FieldCache of the index segments without loading the documents. Only numeric paths are
+     * read from the FieldCache, other paths are read from the stored fields.
+     *
+     * @param projection path or factory expression of paths, e.g. via {@link com.querydsl.core.types.Projections}
+     * @return results
+     */
+    public <P> CloseableIterator<P> iterate(Expression<P> projection) {
+        final Integer queryOffset = queryMixin.getMetadata().getModifiers().getOffsetAsInteger();
+        final int offset = queryOffset != null ? queryOffset.intValue() : 0;
+        final IndexSearcher searcher = acquire();
+        try {
+            final ProjectionReader<P> reader = new ProjectionReader<P>(serializer, searcher, projection);
+            final TopDocs topDocs = innerSearch(searcher);
+            if (topDocs != null && offset < topDocs.scoreDocs.length) {
+                return releaseOnClose(new ProjectionIterator<P>(topDocs.scoreDocs, offset, reader), searcher);
+            }
+            release(searcher);
+            return new EmptyCloseableIterator<P>();
+        } catch (RuntimeException e) {
+            release(searcher);
+            throw e;
+        }
+    }
+
+    /**
+     * Get the projection of the results as a list
+     *
+     * @param projection path or factory expression of paths
+     * @return results
+     * @see #iterate(Expression)
+     */
+    public <P> List<P> list(Expression<P> projection) {
+        CloseableIterator<P> iterator = iterate(projection);
+        try {
+            return new IteratorAdapter<P>(iterator).asList();
+        } finally {
+            iterator.close();
+        }
+    }
+
     private List<T> innerList() {
-        return new IteratorAdapter<T>(iterate()).asList();
+        CloseableIterator<T> iterator = iterate();
+        try {
+            return new IteratorAdapter<T>(iterator).asList();
+        } finally {
+            iterator.close();
+        }
     }
 
     @Override
@@ -272,12 +482,15 @@ SimpleProjectable<T> {
 
     @Override
     public SearchResults<T> listResults() {
-        List<T> documents = innerList();
-        /*
-         * TODO Get rid of count(). It could be implemented by iterating the
-         * list results in list* from n to m.
-         */
-        return new SearchResults<T>(documents, queryMixin.getMetadata().getModifiers(), innerCount());
+        final IndexSearcher searcher = acquire();
+        try {
+            TopDocs topDocs = innerSearch(searcher);
+            List<T> documents = new IteratorAdapter<T>(iterate(searcher, topDocs)).asList();
+            long total = topDocs != null ? topDocs.totalHits : 0;
+            return new SearchResults<T>(documents, queryMixin.getMetadata().getModifiers(), total);
+        } finally {
+            release(searcher);
+        }
     }
 
     @Override
@@ -312,30 +525,28 @@ SimpleProjectable<T> {
 
     @Nullable
     private T oneResult(boolean unique) {
+        final IndexSearcher searcher = acquire();
         try {
-            int maxDoc = maxDoc();
+            int maxDoc = maxDoc(searcher);
             if (maxDoc == 0) {
                 return null;
             }
-            final ScoreDoc[] scoreDocs = searcher.search(createQuery(), getFilter(), maxDoc).scoreDocs;
             int index = 0;
             QueryModifiers modifiers = queryMixin.getMetadata().getModifiers();
             Long offset = modifiers.getOffset();
             if (offset != null) {
                 index = offset.intValue();
             }
+            // one hit beyond the requested one is enough to detect non-unique results
+            int n = (int) Math.min(index + 2L, maxDoc);
+            final TopDocs topDocs = searcher.search(createQuery(), getFilter(), n);
+            final ScoreDoc[] scoreDocs = topDocs.scoreDocs;
             Long limit = modifiers.getLimit();
             if (unique && (limit == null ? scoreDocs.length - index > 1 :
                                            limit > 1 && scoreDocs.length > 1)) {
-                throw new NonUniqueResultException("Unique result requested, but " + scoreDocs.length + " found.");
+                throw new NonUniqueResultException("Unique result requested, but " + topDocs.totalHits + " found.");
             } else if (scoreDocs.length > index) {
-                Document document;
-                if (fieldSelector != null) {
-                    document = searcher.doc(scoreDocs[index].doc, fieldSelector);
-                } else {
-                    document = searcher.doc(scoreDocs[index].doc);
-                }
-                return transformer.apply(document);
+                return load(searcher, scoreDocs[index].doc);
             } else {
                 return null;
             }
@@ -343,6 +554,8 @@ SimpleProjectable<T> {
             throw new QueryException(e);
         }  catch (IllegalArgumentException e) {
             throw new QueryException(e);
+        } finally {
+            release(searcher);
         }
     }
 
@@ -370,7 +583,237 @@ SimpleProjectable<T> {
         return createQuery().toString();
     }
 
-    private int maxDoc() throws IOException {
+    private int maxDoc(IndexSearcher searcher) throws IOException {
         return searcher.maxDoc();
     }
+
+    private IndexSearcher acquire() {
+        return searcherManager != null ? searcherManager.acquire() : searcher;
+    }
+
+    private void release(IndexSearcher searcher) {
+        if (searcherManager != null) {
+            try {
+                searcherManager.release(searcher);
+            } catch (IOException e) {
+                throw new QueryException(e);
+            }
+        }
+    }
+
+    private <E> CloseableIterator<E> releaseOnClose(final CloseableIterator<E> iterator,
+            final IndexSearcher searcher) {
+        if (searcherManager == null) {
+            return iterator;
+        }
+        return new CloseableIterator<E>() {
+
+            private boolean released;
+
+            @Override
+            public boolean hasNext() {
+                if (!iterator.hasNext()) {
+                    close();
+                    return false;
+                }
+                return true;
+            }
+
+            @Override
+            public E next() {
+                return iterator.next();
+            }
+
+            @Override
+            public void remove() {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public void close() {
+                if (!released) {
+                    released = true;
+                    iterator.close();
+                    release(searcher);
+                }
+            }
+
+        };
+    }
+
+    /**
+     * Iterator which fetches the results in windows of fixed size
+     */
+    private final class WindowIterator implements CloseableIterator<T> {
+
+        private final IndexSearcher searcher;
+
+        private final Query query = createQuery();
+
+        @Nullable
+        private final Filter filter = getFilter();
+
+        private final int windowSize;
+
+        private long skip, remaining;
+
+        @Nullable
+        private ScoreDoc after;
+
+        private ScoreDoc[] window = new ScoreDoc[0];
+
+        private int cursor;
+
+        private boolean exhausted, released;
+
+        WindowIterator(IndexSearcher searcher, int windowSize) {
+            QueryModifiers modifiers = queryMixin.getMetadata().getModifiers();
+            this.searcher = searcher;
+            this.windowSize = windowSize;
+            this.skip = modifiers.getOffset() != null ? modifiers.getOffset() : 0;
+            this.remaining = modifiers.getLimit() != null ? modifiers.getLimit() : Long.MAX_VALUE;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (cursor == window.length && !exhausted && remaining > 0) {
+                fetch();
+            }
+            if (cursor < window.length && remaining > 0) {
+                return true;
+            }
+            close();
+            return false;
+        }
+
+        private void fetch() {
+            try {
+                window = searchAfter(searcher, query, filter, after, windowSize).scoreDocs;
+            } catch (IOException e) {
+                throw new QueryException(e);
+            } catch (IllegalArgumentException e) {
+                throw new QueryException(e);
+            }
+            exhausted = window.length < windowSize;
+            if (window.length > 0) {
+                after = window[window.length - 1];
+            }
+            // skipped hits are not loaded
+            cursor = (int) Math.min(skip, window.length);
+            skip -= cursor;
+        }
+
+        @Override
+        public T next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            remaining--;
+            try {
+                return load(searcher, window[cursor++].doc);
+            } catch (IOException e) {
+                throw new QueryException(e);
+            }
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void close() {
+            window = new ScoreDoc[0];
+            exhausted = true;
+            if (!released) {
+                released = true;
+                release(searcher);
+            }
+        }
+
+    }
+
+    /**
+     * Iterator which reads the projection of the hits without loading the documents
+     */
+    private static final class ProjectionIterator<P> implements CloseableIterator<P> {
+
+        private final ScoreDoc[] scoreDocs;
+
+        private final ProjectionReader<P> reader;
+
+        private int cursor;
+
+        ProjectionIterator(ScoreDoc[] scoreDocs, int offset, ProjectionReader<P> reader) {
+            this.scoreDocs = scoreDocs;
+            this.cursor = offset;
+            this.reader = reader;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return cursor < scoreDocs.length;
+        }
+
+        @Override
+        public P next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            try {
+                return reader.read(scoreDocs[cursor++].doc);
+            } catch (IOException e) {
+                throw new QueryException(e);
+            }
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void close() {
+        }
+
+    }
+
+    /**
+     * Collector which ends the search at the first hit
+     */
+    private static final class FirstHitCollector extends Collector {
+
+        /**
+         * Thrown to end the search
+         */
+        private static final class HitFound extends RuntimeException {
+
+            private static final long serialVersionUID = 5166396271093932137L;
+
+            @Override
+            public synchronized Throwable fillInStackTrace() {
+                return this;
+            }
+
+        }
+
+        @Override
+        public void setScorer(Scorer scorer) {
+        }
+
+        @Override
+        public void collect(int doc) {
+            throw new HitFound();
+        }
+
+        @Override
+        public void setNextReader(IndexReader reader, int docBase) {
+        }
+
+        @Override
+        public boolean acceptsDocsOutOfOrder() {
+            return true;
+        }
+
+    }
 }
@@ -15,6 +15,7 @@ package com.querydsl.lucene3;
 
 import org.apache.lucene.document.Document;
 import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.ReferenceManager;
 
 import com.google.common.base.Function;
 
@@ -40,4 +41,12 @@ public class LuceneQuery extends AbstractLuceneQuery<Document, LuceneQuery> {
         super(luceneSerializer, searcher, TRANSFORMER);
     }
 
+    public LuceneQuery(ReferenceManager<IndexSearcher> searcherManager) {
+        super(searcherManager, TRANSFORMER);
+    }
+
+    public LuceneQuery(LuceneSerializer luceneSerializer, ReferenceManager<IndexSearcher> searcherManager) {
+        super(luceneSerializer, searcherManager, TRANSFORMER);
+    }
+
 }
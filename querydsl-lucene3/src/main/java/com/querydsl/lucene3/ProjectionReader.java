@@ -0,0 +1,270 @@
+/*
+ * Copyright 2015, Timo Westkämper
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.querydsl.lucene3;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import javax.annotation.Nullable;
+
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.FieldSelector;
+import org.apache.lucene.document.Fieldable;
+import org.apache.lucene.document.MapFieldSelector;
+import org.apache.lucene.document.NumericField;
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.search.FieldCache;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.util.Bits;
+import org.apache.lucene.util.ReaderUtil;
+
+import com.google.common.collect.ImmutableList;
+import com.querydsl.core.types.Expression;
+import com.querydsl.core.types.FactoryExpression;
+import com.querydsl.core.types.Path;
+
+/**
+ * ProjectionReader reads the values of projected numeric paths from the {@link FieldCache} of the
+ * index segments without loading the documents. The values of other paths and of numeric fields
+ * which are not indexed in a segment are read from the stored fields, since the FieldCache holds
+ * only a single term per document.
+ *
+ * @author tiwe
+ *
+ * @param <T> projection type
+ */
+final class ProjectionReader<T> {
+
+    private final IndexSearcher searcher;
+
+    private final List<IndexReader> segments = new ArrayList<IndexReader>();
+
+    private final int[] docStarts;
+
+    @Nullable
+    private final FactoryExpression<T> factory;
+
+    private final String[] fields;
+
+    private final Class<?>[] types;
+
+    private final List<String> storedFields = new ArrayList<String>();
+
+    @Nullable
+    private FieldSelector fieldSelector;
+
+    private final CachedValues[][] values;
+
+    @SuppressWarnings("unchecked")
+    ProjectionReader(LuceneSerializer serializer, IndexSearcher searcher, Expression<T> projection) {
+        List<Expression<?>> args;
+        if (projection instanceof FactoryExpression) {
+            factory = (FactoryExpression<T>) projection;
+            args = factory.getArgs();
+        } else {
+            factory = null;
+            args = ImmutableList.<Expression<?>>of(projection);
+        }
+        this.searcher = searcher;
+        this.fields = new String[args.size()];
+        this.types = new Class<?>[args.size()];
+        for (int i = 0; i < fields.length; i++) {
+            Expression<?> arg = args.get(i);
+            if (!(arg instanceof Path<?>)) {
+                throw new IllegalArgumentException("Only paths can be projected, got " + arg);
+            }
+            fields[i] = serializer.toField((Path<?>) arg);
+            types[i] = arg.getType();
+            if (!isCached(types[i])) {
+                storedFields.add(fields[i]);
+            }
+        }
+        ReaderUtil.gatherSubReaders(segments, searcher.getIndexReader());
+        this.docStarts = new int[segments.size()];
+        int maxDoc = 0;
+        for (int i = 0; i < docStarts.length; i++) {
+            docStarts[i] = maxDoc;
+            maxDoc += segments.get(i).maxDoc();
+        }
+        this.values = new CachedValues[segments.size()][];
+    }
+
+    private static boolean isCached(Class<?> type) {
+        return type.equals(Integer.class) || type.equals(Long.class)
+            || type.equals(Double.class) || type.equals(Float.class)
+            || type.equals(Short.class) || type.equals(Byte.class);
+    }
+
+    /**
+     * Read the projection of the given document
+     *
+     * @param doc document id
+     * @return projection
+     * @throws IOException
+     */
+    @SuppressWarnings("unchecked")
+    public T read(int doc) throws IOException {
+        int segment = ReaderUtil.subIndex(doc, docStarts);
+        CachedValues[] segmentValues = values[segment];
+        if (segmentValues == null) {
+            segmentValues = createValues(segments.get(segment));
+            values[segment] = segmentValues;
+        }
+        int segmentDoc = doc - docStarts[segment];
+        Document document = null;
+        Object[] row = new Object[fields.length];
+        for (int i = 0; i < row.length; i++) {
+            if (segmentValues[i] != null) {
+                row[i] = segmentValues[i].get(segmentDoc);
+            } else {
+                if (document == null) {
+                    if (fieldSelector == null) {
+                        fieldSelector = new MapFieldSelector(storedFields);
+                    }
+                    document = searcher.doc(doc, fieldSelector);
+                }
+                row[i] = getStoredValue(document.getFieldable(fields[i]), types[i]);
+            }
+        }
+        return factory != null ? factory.newInstance(row) : (T) row[0];
+    }
+
+    private CachedValues[] createValues(IndexReader reader) throws IOException {
+        CachedValues[] segmentValues = new CachedValues[fields.length];
+        Collection<String> indexedFields = null;
+        for (int i = 0; i < segmentValues.length; i++) {
+            if (isCached(types[i])) {
+                if (indexedFields == null) {
+                    indexedFields = reader.getFieldNames(IndexReader.FieldOption.INDEXED);
+                }
+                if (indexedFields.contains(fields[i])) {
+                    Bits docsWithField = FieldCache.DEFAULT.getDocsWithField(reader, fields[i]);
+                    segmentValues[i] = new CachedValues(reader, fields[i], types[i], docsWithField);
+                } else if (!storedFields.contains(fields[i])) {
+                    // the FieldCache is built from the terms, so fields which are only stored
+                    // are read from the documents
+                    storedFields.add(fields[i]);
+                    fieldSelector = null;
+                }
+            }
+        }
+        return segmentValues;
+    }
+
+    @Nullable
+    private static Object getStoredValue(@Nullable Fieldable field, Class<?> type) {
+        if (field == null) {
+            return null;
+        } else if (field instanceof NumericField && ((NumericField) field).getNumericValue() != null) {
+            return convert(((NumericField) field).getNumericValue(), type);
+        } else if (Number.class.isAssignableFrom(type) && field.stringValue() != null) {
+            return convert(new BigDecimal(field.stringValue()), type);
+        } else {
+            return field.stringValue();
+        }
+    }
+
+    private static Object convert(Number number, Class<?> type) {
+        if (type.equals(Integer.class)) {
+            return number.intValue();
+        } else if (type.equals(Long.class)) {
+            return number.longValue();
+        } else if (type.equals(Double.class)) {
+            return number.doubleValue();
+        } else if (type.equals(Float.class)) {
+            return number.floatValue();
+        } else if (type.equals(Short.class)) {
+            return number.shortValue();
+        } else if (type.equals(Byte.class)) {
+            return number.byteValue();
+        } else if (type.equals(BigDecimal.class)) {
+            return new BigDecimal(number.toString());
+        } else if (type.equals(BigInteger.class)) {
+            return BigInteger.valueOf(number.longValue());
+        } else if (type.equals(String.class)) {
+            return number.toString();
+        } else {
+            return number;
+        }
+    }
+
+    /**
+     * Values of a field in a segment
+     */
+    private static final class CachedValues {
+
+        private final Bits docsWithField;
+
+        @Nullable
+        private int[] ints;
+
+        @Nullable
+        private long[] longs;
+
+        @Nullable
+        private double[] doubles;
+
+        @Nullable
+        private float[] floats;
+
+        @Nullable
+        private short[] shorts;
+
+        @Nullable
+        private byte[] bytes;
+
+        @SuppressWarnings("deprecation")
+        CachedValues(IndexReader reader, String field, Class<?> type, Bits docsWithField) throws IOException {
+            this.docsWithField = docsWithField;
+            if (type.equals(Integer.class)) {
+                ints = FieldCache.DEFAULT.getInts(reader, field);
+            } else if (type.equals(Long.class)) {
+                longs = FieldCache.DEFAULT.getLongs(reader, field);
+            } else if (type.equals(Double.class)) {
+                doubles = FieldCache.DEFAULT.getDoubles(reader, field);
+            } else if (type.equals(Float.class)) {
+                floats = FieldCache.DEFAULT.getFloats(reader, field);
+            } else if (type.equals(Short.class)) {
+                shorts = FieldCache.DEFAULT.getShorts(reader, field);
+            } else {
+                bytes = FieldCache.DEFAULT.getBytes(reader, field);
+            }
+        }
+
+        @Nullable
+        Object get(int doc) {
+            if (!docsWithField.get(doc)) {
+                return null;
+            } else if (ints != null) {
+                return ints[doc];
+            } else if (longs != null) {
+                return longs[doc];
+            } else if (doubles != null) {
+                return doubles[doc];
+            } else if (floats != null) {
+                return floats[doc];
+            } else if (shorts != null) {
+                return shorts[doc];
+            } else {
+                return bytes[doc];
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,76 @@
+/*
+ * Copyright 2015, Timo Westkämper
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.querydsl.lucene3;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+import org.apache.lucene.search.ScoreDoc;
+
+import com.google.common.io.BaseEncoding;
+
+/**
+ * ScoreDocToken converts the last {@link ScoreDoc} of a result window into an opaque String
+ * token and back
+ *
+ * @author tiwe
+ *
+ */
+final class ScoreDocToken {
+
+    private static final BaseEncoding ENCODING = BaseEncoding.base64Url().omitPadding();
+
+    /**
+     * Encode the given hit
+     *
+     * @param scoreDoc hit
+     * @return token
+     */
+    public static String encode(ScoreDoc scoreDoc) {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeInt(scoreDoc.doc);
+            out.writeFloat(scoreDoc.score);
+            out.flush();
+            return ENCODING.encode(bytes.toByteArray());
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Decode the given token
+     *
+     * @param token token
+     * @return hit
+     * @throws IllegalArgumentException if the token is invalid
+     */
+    public static ScoreDoc decode(String token) {
+        try {
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(ENCODING.decode(token)));
+            int doc = in.readInt();
+            float score = in.readFloat();
+            return new ScoreDoc(doc, score);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Invalid token " + token, e);
+        }
+    }
+
+    private ScoreDocToken() {}
+
+}
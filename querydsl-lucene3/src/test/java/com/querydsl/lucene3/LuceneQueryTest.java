@@ -24,10 +24,14 @@ import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import org.apache.lucene.analysis.standard.StandardAnalyzer;
 import org.apache.lucene.document.Document;
@@ -42,6 +46,7 @@ import org.apache.lucene.index.IndexWriterConfig;
 import org.apache.lucene.search.DuplicateFilter;
 import org.apache.lucene.search.Filter;
 import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.SearcherManager;
 import org.apache.lucene.search.Sort;
 import org.apache.lucene.store.RAMDirectory;
 import org.apache.lucene.util.Version;
@@ -50,11 +55,14 @@ import org.junit.Before;
 import org.junit.Ignore;
 import org.junit.Test;
 
+import com.mysema.commons.lang.CloseableIterator;
 import com.querydsl.core.NonUniqueResultException;
 import com.querydsl.core.QueryException;
 import com.querydsl.core.QueryModifiers;
 import com.querydsl.core.SearchResults;
+import com.querydsl.core.Tuple;
 import com.querydsl.core.types.ParamNotSetException;
+import com.querydsl.core.types.Projections;
 import com.querydsl.core.types.expr.Param;
 import com.querydsl.core.types.path.NumberPath;
 import com.querydsl.core.types.path.StringPath;
@@ -139,6 +147,56 @@ public class LuceneQueryTest {
         searcher.close();
     }
 
+    @Test
+    public void SearcherManager() throws Exception {
+        SearcherManager manager = new SearcherManager(idx, null);
+        IndexSearcher current = manager.acquire();
+        manager.release(current);
+        int refCount = current.getIndexReader().getRefCount();
+
+        query = new LuceneQuery(new LuceneSerializer(true, true), manager);
+        assertEquals(4, query.where(year.between(1800, 2000)).list().size());
+        CloseableIterator<Document> iterator = query.iterate();
+        iterator.close();
+        assertEquals(refCount, current.getIndexReader().getRefCount());
+
+        IndexWriterConfig config = new IndexWriterConfig(Version.LUCENE_31,
+                new StandardAnalyzer(Version.LUCENE_30))
+            .setOpenMode(IndexWriterConfig.OpenMode.APPEND);
+        writer = new IndexWriter(idx, config);
+        writer.addDocument(createDocument("Moby Dick", "Herman Melville", "Call me Ishmael.", 1851, 10.0));
+        writer.close();
+        manager.maybeRefresh();
+
+        query = new LuceneQuery(new LuceneSerializer(true, true), manager);
+        assertEquals(5, query.where(year.between(1800, 2000)).count());
+        manager.close();
+    }
+
+    @Test
+    public void Sharded() throws Exception {
+        RAMDirectory idx2 = new RAMDirectory();
+        writer = createWriter(idx2);
+        writer.addDocument(createDocument("Moby Dick", "Herman Melville", "Call me Ishmael.", 1851, 10.0));
+        writer.close();
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            IndexReader reader2 = IndexReader.open(idx2);
+            IndexSearcher sharded = LuceneSearchers.sharded(executor, searcher.getIndexReader(), reader2);
+            query = new LuceneQuery(new LuceneSerializer(true, true), sharded);
+            List<Document> documents = query.where(year.between(1800, 2000)).orderBy(year.asc()).list();
+            assertEquals(5, documents.size());
+            assertEquals("Moby Dick", documents.get(0).get("title"));
+            assertEquals("Nummisuutarit", documents.get(1).get("title"));
+            assertEquals("1990", documents.get(4).get("year"));
+            assertEquals(5, query.count());
+            reader2.close();
+        } finally {
+            executor.shutdown();
+        }
+    }
+
     @Test
     public void Count_Empty_Where_Clause() {
         assertEquals(4, query.count());
@@ -230,6 +288,46 @@ public class LuceneQueryTest {
 
     }
 
+    @Test
+    public void List_Projection() {
+        query.where(year.between(1800, 2000));
+        query.orderBy(year.asc());
+        List<Tuple> results = query.list(Projections.tuple(title, year, gross));
+        assertEquals(4, results.size());
+        assertEquals("Nummisuutarit", results.get(0).get(title));
+        assertEquals(Integer.valueOf(1864), results.get(0).get(year));
+        assertEquals(Double.valueOf(10.0), results.get(0).get(gross));
+        assertEquals(Arrays.asList(1864, 1954, 1990, 1990), query.list(year));
+    }
+
+    @Test
+    public void List_Projection_Stored_Only() throws Exception {
+        NumberPath<Integer> rating = new NumberPath<Integer>(Integer.class, "rating");
+        Document d1 = new Document();
+        Document d2 = new Document();
+        Document d3 = new Document();
+        d1.add(new Field("sort", "a", Store.YES, Index.NOT_ANALYZED));
+        d1.add(new NumericField("rating", Store.YES, false).setIntValue(1));
+        d2.add(new Field("sort", "b", Store.YES, Index.NOT_ANALYZED));
+        d3.add(new Field("sort", "c", Store.YES, Index.NOT_ANALYZED));
+        d3.add(new NumericField("rating", Store.YES, false).setIntValue(3));
+        writer = createWriter(idx);
+        writer.addDocument(d1);
+        writer.addDocument(d2);
+        writer.addDocument(d3);
+        writer.close();
+
+        IndexReader reader = IndexReader.open(idx);
+        searcher = new IndexSearcher(reader);
+        query = new LuceneQuery(new LuceneSerializer(true, true), searcher);
+        assertEquals(Arrays.asList(1, null, 3), query.orderBy(sort.asc()).list(rating));
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void List_Projection_Not_Path() {
+        query.list(Projections.tuple(title.lower()));
+    }
+
     @Test
     public void List_Not_Sorted_Limit_2() {
         query.where(year.between(1800, 2000));
@@ -617,6 +715,55 @@ public class LuceneQueryTest {
         assertEquals(4, results.getTotal());
     }
 
+    @Test
+    public void ListResults_Offset_Beyond_Results() {
+        query.where(year.between(1800, 2000));
+        query.offset(10);
+        final SearchResults<Document> results = query.listResults();
+        assertTrue(results.getResults().isEmpty());
+        assertEquals(4, results.getTotal());
+    }
+
+    @Test
+    public void Iterate_Windows() {
+        query.where(year.between(1800, 2000));
+        query.offset(1).limit(2);
+        List<String> titles = new ArrayList<String>();
+        CloseableIterator<Document> iterator = query.iterate(1);
+        while (iterator.hasNext()) {
+            titles.add(iterator.next().get("title"));
+        }
+        iterator.close();
+        assertEquals(Arrays.asList("Nummisuutarit", "The Lord of the Rings"), titles);
+    }
+
+    @Test(expected=UnsupportedOperationException.class)
+    public void Iterate_Windows_Sorted() {
+        query.where(year.between(1800, 2000));
+        query.orderBy(year.asc());
+        query.iterate(1);
+    }
+
+    @Test
+    public void ListPage() {
+        query.where(year.between(1800, 2000));
+        ResultPage<Document> first = query.listPage(null, 3);
+        assertEquals(3, first.getResults().size());
+        assertEquals(4, first.getTotal());
+        assertTrue(first.hasNext());
+        assertEquals("Jurassic Park", first.getResults().get(0).get("title"));
+
+        ResultPage<Document> second = query.listPage(first.getNext(), 3);
+        assertEquals(1, second.getResults().size());
+        assertEquals("Introduction to Algorithms", second.getResults().get(0).get("title"));
+        assertFalse(second.hasNext());
+    }
+
+    @Test(expected=QueryException.class)
+    public void ListPage_Invalid_Token() {
+        query.listPage("?", 3);
+    }
+
     @Test(expected=UnsupportedOperationException.class)
     public void ListDistinctResults() {
         query.where(year.between(1800, 2000).or(
@@ -16,21 +16,32 @@ package com.querydsl.lucene4;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.Set;
 
 import javax.annotation.Nullable;
 
 import org.apache.lucene.document.Document;
+import org.apache.lucene.index.AtomicReaderContext;
 import org.apache.lucene.queries.ChainedFilter;
 import org.apache.lucene.sandbox.queries.DuplicateFilter;
+import org.apache.lucene.search.Collector;
 import org.apache.lucene.search.Filter;
 import org.apache.lucene.search.IndexSearcher;
 import org.apache.lucene.search.MatchAllDocsQuery;
+import org.apache.lucene.search.MultiCollector;
 import org.apache.lucene.search.Query;
 import org.apache.lucene.search.QueryWrapperFilter;
+import org.apache.lucene.search.ReferenceManager;
 import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.Scorer;
 import org.apache.lucene.search.Sort;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.search.TopFieldCollector;
+import org.apache.lucene.search.TotalHitCountCollector;
 
 import com.google.common.base.Function;
 import com.google.common.collect.ImmutableList;
@@ -46,6 +57,7 @@ import com.querydsl.core.SearchResults;
 import com.querydsl.core.SimpleProjectable;
 import com.querydsl.core.SimpleQuery;
 import com.querydsl.core.support.QueryMixin;
+import com.querydsl.core.types.Expression;
 import com.querydsl.core.types.OrderSpecifier;
 import com.querydsl.core.types.ParamExpression;
 import com.querydsl.core.types.Path;
@@ -64,8 +76,12 @@ SimpleProjectable<T> {
 
     private final QueryMixin<Q> queryMixin;
 
+    @Nullable
     private final IndexSearcher searcher;
 
+    @Nullable
+    private final ReferenceManager<IndexSearcher> searcherManager;
+
     private final LuceneSerializer serializer;
 
     private final Function<Document, T> transformer;
@@ -87,34 +103,78 @@ SimpleProjectable<T> {
         queryMixin = new QueryMixin<Q>((Q) this, new DefaultQueryMetadata().noValidate());
         this.serializer = serializer;
         this.searcher = searcher;
+        this.searcherManager = null;
+        this.transformer = transformer;
+    }
+
+    /**
+     * Create a query which acquires the current searcher of the given manager for each execution.
+     * The searcher is released after the execution or, for iterators, when the iterator is closed
+     * or exhausted.
+     *
+     * @param serializer serializer
+     * @param searcherManager searcher manager, e.g. a {@link org.apache.lucene.search.SearcherManager}
+     * @param transformer document transformer
+     */
+    @SuppressWarnings("unchecked")
+    public AbstractLuceneQuery(LuceneSerializer serializer, ReferenceManager<IndexSearcher> searcherManager,
+            Function<Document, T> transformer) {
+        queryMixin = new QueryMixin<Q>((Q) this, new DefaultQueryMetadata().noValidate());
+        this.serializer = serializer;
+        this.searcher = null;
+        this.searcherManager = searcherManager;
         this.transformer = transformer;
     }
 
+    public AbstractLuceneQuery(ReferenceManager<IndexSearcher> searcherManager, Function<Document, T> transformer) {
+        this(LuceneSerializer.DEFAULT, searcherManager, transformer);
+    }
+
     public AbstractLuceneQuery(IndexSearcher searcher, Function<Document, T> transformer) {
         this(LuceneSerializer.DEFAULT, searcher, transformer);
     }
 
     @Override
     public boolean exists() {
-        return innerCount() > 0;
+        final IndexSearcher searcher = acquire();
+        try {
+            if (maxDoc(searcher) == 0) {
+                return false;
+            }
+            searcher.search(createQuery(), getFilter(), new FirstHitCollector());
+            return false;
+        } catch (FirstHitCollector.HitFound e) {
+            return true;
+        } catch (IOException e) {
+            throw new QueryException(e);
+        } catch (IllegalArgumentException e) {
+            throw new QueryException(e);
+        } finally {
+            release(searcher);
+        }
     }
 
     @Override
     public boolean notExists() {
-        return innerCount() == 0;
+        return !exists();
     }
 
     private long innerCount() {
+        final IndexSearcher searcher = acquire();
         try {
-            final int maxDoc = searcher.getIndexReader().maxDoc();
+            final int maxDoc = maxDoc(searcher);
             if (maxDoc == 0) {
                 return 0;
             }
-            return searcher.search(createQuery(), getFilter(), maxDoc, Sort.INDEXORDER, false, false).totalHits;
+            TotalHitCountCollector collector = new TotalHitCountCollector();
+            searcher.search(createQuery(), getFilter(), collector);
+            return collector.getTotalHits();
         } catch (IOException e) {
             throw new QueryException(e);
         } catch (IllegalArgumentException e) {
             throw new QueryException(e);
+        } finally {
+            release(searcher);
         }
     }
 
@@ -189,17 +249,125 @@ SimpleProjectable<T> {
 
     @Override
     public CloseableIterator<T> iterate() {
+        final IndexSearcher searcher = acquire();
+        try {
+            return releaseOnClose(iterate(searcher, innerSearch(searcher)), searcher);
+        } catch (RuntimeException e) {
+            release(searcher);
+            throw e;
+        }
+    }
+
+    private CloseableIterator<T> iterate(IndexSearcher searcher, @Nullable TopDocs topDocs) {
+        final Integer queryOffset = queryMixin.getMetadata().getModifiers().getOffsetAsInteger();
+        final int offset = queryOffset != null ? queryOffset.intValue() : 0;
+        if (topDocs != null && offset < topDocs.scoreDocs.length) {
+            return new ResultIterator<T>(topDocs.scoreDocs, offset, searcher, fieldsToLoad, transformer);
+        }
+        return new EmptyCloseableIterator<T>();
+    }
+
+    /**
+     * Iterate over the results in windows of the given size. Each window is fetched via
+     * {@link IndexSearcher#searchAfter(ScoreDoc, Query, Filter, int, Sort)} after the last hit of the
+     * previous window, so the memory use is bound by the window size regardless of the amount of
+     * results. The limit and offset of the query are applied.
+     *
+     * @param windowSize amount of hits to fetch per search
+     * @return results
+     */
+    public CloseableIterator<T> iterate(int windowSize) {
+        if (windowSize < 1) {
+            throw new IllegalArgumentException("windowSize needs to be positive, was " + windowSize);
+        }
+        return new WindowIterator(acquire(), windowSize);
+    }
+
+    /**
+     * Get a page of results after the given token. The limit and offset of the query are not used,
+     * the sort of the query needs to be the same for all pages.
+     *
+     * @param after token of the previous page or null for the first page
+     * @param size page size
+     * @return results with the token of the next page
+     */
+    public ResultPage<T> listPage(@Nullable String after, int size) {
+        if (size < 1) {
+            throw new IllegalArgumentException("size needs to be positive, was " + size);
+        }
+        final IndexSearcher searcher = acquire();
+        try {
+            ScoreDoc afterDoc = after != null ? ScoreDocToken.decode(after) : null;
+            // one hit beyond the page is enough to detect further pages
+            TopDocs topDocs = searchAfter(searcher, createQuery(), getFilter(), afterDoc, size + 1);
+            ScoreDoc[] scoreDocs = topDocs.scoreDocs;
+            int length = Math.min(scoreDocs.length, size);
+            List<T> results = new ArrayList<T>(length);
+            for (int i = 0; i < length; i++) {
+                results.add(load(searcher, scoreDocs[i].doc));
+            }
+            String next = scoreDocs.length > size ? ScoreDocToken.encode(scoreDocs[size - 1]) : null;
+            return new ResultPage<T>(results, topDocs.totalHits, next);
+        } catch (IOException e) {
+            throw new QueryException(e);
+        } catch (IllegalArgumentException e) {
+            throw new QueryException(e);
+        } finally {
+            release(searcher);
+        }
+    }
+
+    private TopDocs searchAfter(IndexSearcher searcher, Query query, @Nullable Filter filter, @Nullable ScoreDoc after, int n)
+            throws IOException {
+        Sort sort = getSort();
+        if (sort == null) {
+            sort = Sort.INDEXORDER;
+        }
+        if (after == null) {
+            return searcher.search(query, filter, n, sort, false, false);
+        } else {
+            return searcher.searchAfter(after, query, filter, n, sort);
+        }
+    }
+
+    @Nullable
+    private Sort getSort() {
+        final List<OrderSpecifier<?>> orderBys = queryMixin.getMetadata().getOrderBy();
+        if (querySort == null && !orderBys.isEmpty()) {
+            return serializer.toSort(orderBys);
+        }
+        return querySort;
+    }
+
+    private T load(IndexSearcher searcher, int doc) throws IOException {
+        Document document;
+        if (fieldsToLoad != null) {
+            document = searcher.doc(doc, fieldsToLoad);
+        } else {
+            document = searcher.doc(doc);
+        }
+        return transformer.apply(document);
+    }
+
+    /**
+     * Search the top documents up to the limit and offset of the query
+     *
+     * @param searcher searcher
+     * @param collectors additional collectors for all hits of the search
+     * @return top documents or null, if the index is empty
+     */
+    @Nullable
+    private TopDocs innerSearch(IndexSearcher searcher, Collector... collectors) {
         final QueryMetadata metadata = queryMixin.getMetadata();
-        final List<OrderSpecifier<?>> orderBys = metadata.getOrderBy();
         final Integer queryLimit = metadata.getModifiers().getLimitAsInteger();
         final Integer queryOffset = metadata.getModifiers().getOffsetAsInteger();
-        Sort sort = querySort;
+        final Sort sort = getSort();
         int limit;
         final int offset = queryOffset != null ? queryOffset.intValue() : 0;
         try {
-            limit = maxDoc();
+            limit = maxDoc(searcher);
             if (limit == 0) {
-                return new EmptyCloseableIterator<T>();
+                return null;
             }
         } catch (IOException e) {
             throw new QueryException(e);
@@ -209,32 +377,79 @@ SimpleProjectable<T> {
         if (queryLimit != null && queryLimit.intValue() < limit) {
             limit = queryLimit.intValue();
         }
-        if (sort == null && !orderBys.isEmpty()) {
-            sort = serializer.toSort(orderBys);
-        }
 
         try {
-            ScoreDoc[] scoreDocs;
             int sumOfLimitAndOffset = limit + offset;
             if (sumOfLimitAndOffset < 1) {
                 throw new QueryException("The given limit (" + limit + ") and offset (" + offset + ") cause an integer overflow.");
             }
-            if (sort != null) {
-                scoreDocs = searcher.search(createQuery(), getFilter(), sumOfLimitAndOffset, sort, false, false).scoreDocs;
+            if (collectors.length > 0) {
+                TopFieldCollector top = TopFieldCollector.create(sort != null ? sort : Sort.INDEXORDER,
+                        sumOfLimitAndOffset, false, false, false, false);
+                Collector[] all = new Collector[collectors.length + 1];
+                all[0] = top;
+                System.arraycopy(collectors, 0, all, 1, collectors.length);
+                searcher.search(createQuery(), getFilter(), MultiCollector.wrap(all));
+                return top.topDocs();
+            } else if (sort != null) {
+                return searcher.search(createQuery(), getFilter(), sumOfLimitAndOffset, sort, false, false);
             } else {
-                scoreDocs = searcher.search(createQuery(), getFilter(), sumOfLimitAndOffset, Sort.INDEXORDER, false, false).scoreDocs;
+                return searcher.search(createQuery(), getFilter(), sumOfLimitAndOffset, Sort.INDEXORDER, false, false);
             }
-            if (offset < scoreDocs.length) {
-                return new ResultIterator<T>(scoreDocs, offset, searcher, fieldsToLoad, transformer);
-            }
-            return new EmptyCloseableIterator<T>();
         } catch (final IOException e) {
             throw new QueryException(e);
         }
     }
 
+    /**
+     * Iterate over the projection of the results. The values of the projected paths are read from
+     * the DocValues of the index segments without loading the documents. Fields without DocValues
+     * are read from the stored fields.
+     *
+     * @param projection path or factory expression of paths, e.g. via {@link com.querydsl.core.types.Projections}
+     * @return results
+     */
+    public <P> CloseableIterator<P> iterate(Expression<P> projection) {
+        final Integer queryOffset = queryMixin.getMetadata().getModifiers().getOffsetAsInteger();
+        final int offset = queryOffset != null ? queryOffset.intValue() : 0;
+        final IndexSearcher searcher = acquire();
+        try {
+            final ProjectionReader<P> reader = new ProjectionReader<P>(serializer, searcher, projection);
+            final TopDocs topDocs = innerSearch(searcher);
+            if (topDocs != null && offset < topDocs.scoreDocs.length) {
+                return releaseOnClose(new ProjectionIterator<P>(topDocs.scoreDocs, offset, reader), searcher);
+            }
+            release(searcher);
+            return new EmptyCloseableIterator<P>();
+        } catch (RuntimeException e) {
+            release(searcher);
+            throw e;
+        }
+    }
+
+    /**
+     * Get the projection of the results as a list
+     *
+     * @param projection path or factory expression of paths
+     * @return results
+     * @see #iterate(Expression)
+     */
+    public <P> List<P> list(Expression<P> projection) {
+        CloseableIterator<P> iterator = iterate(projection);
+        try {
+            return new IteratorAdapter<P>(iterator).asList();
+        } finally {
+            iterator.close();
+        }
+    }
+
     private List<T> innerList() {
-        return new IteratorAdapter<T>(iterate()).asList();
+        CloseableIterator<T> iterator = iterate();
+        try {
+            return new IteratorAdapter<T>(iterator).asList();
+        } finally {
+            iterator.close();
+        }
     }
 
     @Override
@@ -272,12 +487,112 @@ SimpleProjectable<T> {
 
     @Override
     public SearchResults<T> listResults() {
-        List<T> documents = innerList();
-        /*
-         * TODO Get rid of count(). It could be implemented by iterating the
-         * list results in list* from n to m.
-         */
-        return new SearchResults<T>(documents, queryMixin.getMetadata().getModifiers(), innerCount());
+        final IndexSearcher searcher = acquire();
+        try {
+            TopDocs topDocs = innerSearch(searcher);
+            List<T> documents = new IteratorAdapter<T>(iterate(searcher, topDocs)).asList();
+            long total = topDocs != null ? topDocs.totalHits : 0;
+            return new SearchResults<T>(documents, queryMixin.getMetadata().getModifiers(), total);
+        } finally {
+            release(searcher);
+        }
+    }
+
+    /**
+     * Get the results of the query together with the counts of the hits per value of the given
+     * paths. The counts are collected from the DocValues of the paths in the same search as the
+     * results and cover all hits regardless of the limit and offset of the query.
+     *
+     * @param facets facet paths
+     * @return results and counts
+     */
+    public FacetResults<T> listFacetResults(Path<?>... facets) {
+        FacetCollector[] collectors = new FacetCollector[facets.length];
+        for (int i = 0; i < facets.length; i++) {
+            collectors[i] = new FacetCollector(serializer.toField(facets[i]), facets[i].getType());
+        }
+        final IndexSearcher searcher = acquire();
+        try {
+            TopDocs topDocs = innerSearch(searcher, collectors);
+            List<T> documents = new IteratorAdapter<T>(iterate(searcher, topDocs)).asList();
+            long total = topDocs != null ? topDocs.totalHits : 0;
+            Map<Path<?>, Map<?, Long>> counts = new LinkedHashMap<Path<?>, Map<?, Long>>();
+            for (int i = 0; i < facets.length; i++) {
+                counts.put(facets[i], collectors[i].getCounts());
+            }
+            SearchResults<T> results = new SearchResults<T>(documents,
+                    queryMixin.getMetadata().getModifiers(), total);
+            return new FacetResults<T>(results, counts);
+        } finally {
+            release(searcher);
+        }
+    }
+
+    /**
+     * Get the top hits per value of the given path. The values are read from the DocValues of the
+     * path. The groups are ordered by their top hit and the limit and offset of the query are
+     * applied to the groups. With a limit the top groups are determined in a first search, so
+     * that only their hits are kept, otherwise the top hits of all groups are kept in memory.
+     *
+     * @param path group path
+     * @param groupSize maximum amount of hits per group
+     * @return top hits per group
+     */
+    @SuppressWarnings("unchecked")
+    public <K> Map<K, SearchResults<T>> listGroups(Path<K> path, int groupSize) {
+        if (groupSize < 1) {
+            throw new IllegalArgumentException("groupSize needs to be positive, was " + groupSize);
+        }
+        Sort sort = getSort();
+        if (sort == null) {
+            sort = Sort.INDEXORDER;
+        }
+        String field = serializer.toField(path);
+        QueryModifiers modifiers = queryMixin.getMetadata().getModifiers();
+        long offset = modifiers.getOffset() != null ? modifiers.getOffset() : 0;
+        long limit = modifiers.getLimit() != null ? modifiers.getLimit() : Long.MAX_VALUE;
+        final IndexSearcher searcher = acquire();
+        try {
+            GroupCollector collector;
+            if (maxDoc(searcher) == 0) {
+                collector = new GroupCollector(field, path.getType(), sort, groupSize);
+            } else if (offset + limit < Integer.MAX_VALUE) {
+                Query query = createQuery();
+                Filter filter = getFilter();
+                TopGroupsCollector topGroups = new TopGroupsCollector(field, path.getType(), sort,
+                        (int) (offset + limit));
+                searcher.search(query, filter, topGroups);
+                collector = new GroupCollector(field, path.getType(), sort, groupSize,
+                        topGroups.getKeys());
+                searcher.search(query, filter, collector);
+            } else {
+                collector = new GroupCollector(field, path.getType(), sort, groupSize);
+                searcher.search(createQuery(), getFilter(), collector);
+            }
+            Map<K, SearchResults<T>> groups = new LinkedHashMap<K, SearchResults<T>>();
+            long index = 0;
+            for (Map.Entry<Object, TopDocs> entry : collector.getGroups().entrySet()) {
+                if (index++ < offset) {
+                    continue;
+                } else if (groups.size() >= limit) {
+                    break;
+                }
+                ScoreDoc[] scoreDocs = entry.getValue().scoreDocs;
+                List<T> documents = new ArrayList<T>(scoreDocs.length);
+                for (ScoreDoc scoreDoc : scoreDocs) {
+                    documents.add(load(searcher, scoreDoc.doc));
+                }
+                groups.put((K) entry.getKey(), new SearchResults<T>(documents, (long) groupSize, 0L,
+                        entry.getValue().totalHits));
+            }
+            return groups;
+        } catch (IOException e) {
+            throw new QueryException(e);
+        } catch (IllegalArgumentException e) {
+            throw new QueryException(e);
+        } finally {
+            release(searcher);
+        }
     }
 
     @Override
@@ -312,30 +627,28 @@ SimpleProjectable<T> {
 
     @Nullable
     private T oneResult(boolean unique) {
+        final IndexSearcher searcher = acquire();
         try {
-            int maxDoc = maxDoc();
+            int maxDoc = maxDoc(searcher);
             if (maxDoc == 0) {
                 return null;
             }
-            final ScoreDoc[] scoreDocs = searcher.search(createQuery(), getFilter(), maxDoc, Sort.INDEXORDER, false, false).scoreDocs;
             int index = 0;
             QueryModifiers modifiers = queryMixin.getMetadata().getModifiers();
             Long offset = modifiers.getOffset();
             if (offset != null) {
                 index = offset.intValue();
             }
+            // one hit beyond the requested one is enough to detect non-unique results
+            int n = (int) Math.min(index + 2L, maxDoc);
+            final TopDocs topDocs = searcher.search(createQuery(), getFilter(), n, Sort.INDEXORDER, false, false);
+            final ScoreDoc[] scoreDocs = topDocs.scoreDocs;
             Long limit = modifiers.getLimit();
             if (unique && (limit == null ? scoreDocs.length - index > 1 :
                                            limit > 1 && scoreDocs.length > 1)) {
-                throw new NonUniqueResultException("Unique result requested, but " + scoreDocs.length + " found.");
+                throw new NonUniqueResultException("Unique result requested, but " + topDocs.totalHits + " found.");
             } else if (scoreDocs.length > index) {
-                Document document;
-                if (fieldsToLoad != null) {
-                    document = searcher.doc(scoreDocs[index].doc, fieldsToLoad);
-                } else {
-                    document = searcher.doc(scoreDocs[index].doc);
-                }
-                return transformer.apply(document);
+                return load(searcher, scoreDocs[index].doc);
             } else {
                 return null;
             }
@@ -343,6 +656,8 @@ SimpleProjectable<T> {
             throw new QueryException(e);
         }  catch (IllegalArgumentException e) {
             throw new QueryException(e);
+        } finally {
+            release(searcher);
         }
     }
 
@@ -370,7 +685,237 @@ SimpleProjectable<T> {
         return createQuery().toString();
     }
 
-    private int maxDoc() throws IOException {
+    private int maxDoc(IndexSearcher searcher) throws IOException {
         return searcher.getIndexReader().maxDoc();
     }
+
+    private IndexSearcher acquire() {
+        return searcherManager != null ? searcherManager.acquire() : searcher;
+    }
+
+    private void release(IndexSearcher searcher) {
+        if (searcherManager != null) {
+            try {
+                searcherManager.release(searcher);
+            } catch (IOException e) {
+                throw new QueryException(e);
+            }
+        }
+    }
+
+    private <E> CloseableIterator<E> releaseOnClose(final CloseableIterator<E> iterator,
+            final IndexSearcher searcher) {
+        if (searcherManager == null) {
+            return iterator;
+        }
+        return new CloseableIterator<E>() {
+
+            private boolean released;
+
+            @Override
+            public boolean hasNext() {
+                if (!iterator.hasNext()) {
+                    close();
+                    return false;
+                }
+                return true;
+            }
+
+            @Override
+            public E next() {
+                return iterator.next();
+            }
+
+            @Override
+            public void remove() {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public void close() {
+                if (!released) {
+                    released = true;
+                    iterator.close();
+                    release(searcher);
+                }
+            }
+
+        };
+    }
+
+    /**
+     * Iterator which fetches the results in windows of fixed size
+     */
+    private final class WindowIterator implements CloseableIterator<T> {
+
+        private final IndexSearcher searcher;
+
+        private final Query query = createQuery();
+
+        @Nullable
+        private final Filter filter = getFilter();
+
+        private final int windowSize;
+
+        private long skip, remaining;
+
+        @Nullable
+        private ScoreDoc after;
+
+        private ScoreDoc[] window = new ScoreDoc[0];
+
+        private int cursor;
+
+        private boolean exhausted, released;
+
+        WindowIterator(IndexSearcher searcher, int windowSize) {
+            QueryModifiers modifiers = queryMixin.getMetadata().getModifiers();
+            this.searcher = searcher;
+            this.windowSize = windowSize;
+            this.skip = modifiers.getOffset() != null ? modifiers.getOffset() : 0;
+            this.remaining = modifiers.getLimit() != null ? modifiers.getLimit() : Long.MAX_VALUE;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (cursor == window.length && !exhausted && remaining > 0) {
+                fetch();
+            }
+            if (cursor < window.length && remaining > 0) {
+                return true;
+            }
+            close();
+            return false;
+        }
+
+        private void fetch() {
+            try {
+                window = searchAfter(searcher, query, filter, after, windowSize).scoreDocs;
+            } catch (IOException e) {
+                throw new QueryException(e);
+            } catch (IllegalArgumentException e) {
+                throw new QueryException(e);
+            }
+            exhausted = window.length < windowSize;
+            if (window.length > 0) {
+                after = window[window.length - 1];
+            }
+            // skipped hits are not loaded
+            cursor = (int) Math.min(skip, window.length);
+            skip -= cursor;
+        }
+
+        @Override
+        public T next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            remaining--;
+            try {
+                return load(searcher, window[cursor++].doc);
+            } catch (IOException e) {
+                throw new QueryException(e);
+            }
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void close() {
+            window = new ScoreDoc[0];
+            exhausted = true;
+            if (!released) {
+                released = true;
+                release(searcher);
+            }
+        }
+
+    }
+
+    /**
+     * Iterator which reads the projection of the hits without loading the documents
+     */
+    private static final class ProjectionIterator<P> implements CloseableIterator<P> {
+
+        private final ScoreDoc[] scoreDocs;
+
+        private final ProjectionReader<P> reader;
+
+        private int cursor;
+
+        ProjectionIterator(ScoreDoc[] scoreDocs, int offset, ProjectionReader<P> reader) {
+            this.scoreDocs = scoreDocs;
+            this.cursor = offset;
+            this.reader = reader;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return cursor < scoreDocs.length;
+        }
+
+        @Override
+        public P next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            try {
+                return reader.read(scoreDocs[cursor++].doc);
+            } catch (IOException e) {
+                throw new QueryException(e);
+            }
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void close() {
+        }
+
+    }
+
+    /**
+     * Collector which ends the search at the first hit
+     */
+    private static final class FirstHitCollector extends Collector {
+
+        /**
+         * Thrown to end the search
+         */
+        private static final class HitFound extends RuntimeException {
+
+            private static final long serialVersionUID = 5166396271093932137L;
+
+            @Override
+            public synchronized Throwable fillInStackTrace() {
+                return this;
+            }
+
+        }
+
+        @Override
+        public void setScorer(Scorer scorer) {
+        }
+
+        @Override
+        public void collect(int doc) {
+            throw new HitFound();
+        }
+
+        @Override
+        public void setNextReader(AtomicReaderContext context) {
+        }
+
+        @Override
+        public boolean acceptsDocsOutOfOrder() {
+            return true;
+        }
+
+    }
 }
@@ -0,0 +1,175 @@
+/*
+ * Copyright 2015, Timo Westkämper
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.querydsl.lucene4;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.annotation.Nullable;
+
+import org.apache.lucene.index.AtomicReader;
+import org.apache.lucene.index.AtomicReaderContext;
+import org.apache.lucene.index.NumericDocValues;
+import org.apache.lucene.index.SortedDocValues;
+import org.apache.lucene.search.Collector;
+import org.apache.lucene.search.Scorer;
+import org.apache.lucene.util.Bits;
+import org.apache.lucene.util.BytesRef;
+
+/**
+ * FacetCollector counts the hits per value of a field. String values are read from SORTED
+ * DocValues and counted per segment ordinal, numeric values are read from NUMERIC DocValues.
+ * Documents without a value and segments without DocValues for the field don't contribute to the
+ * counts. Documents without a numeric value are only detected if the field is also indexed, see
+ * {@link ProjectionReader#getDocsWithField(AtomicReader, String)}.
+ *
+ * @author tiwe
+ *
+ */
+final class FacetCollector extends Collector {
+
+    private static final Comparator<Map.Entry<Object, long[]>> BY_COUNT = new Comparator<Map.Entry<Object, long[]>>() {
+        @Override
+        public int compare(Map.Entry<Object, long[]> o1, Map.Entry<Object, long[]> o2) {
+            long c1 = o1.getValue()[0], c2 = o2.getValue()[0];
+            return c1 > c2 ? -1 : (c1 == c2 ? 0 : 1);
+        }
+    };
+
+    private final String field;
+
+    private final Class<?> type;
+
+    private final boolean numeric;
+
+    private final Map<Object, long[]> counts = new HashMap<Object, long[]>();
+
+    @Nullable
+    private SortedDocValues sortedValues;
+
+    @Nullable
+    private int[] ordCounts;
+
+    @Nullable
+    private NumericDocValues numericValues;
+
+    @Nullable
+    private AtomicReader reader;
+
+    @Nullable
+    private Bits docsWithField;
+
+    FacetCollector(String field, Class<?> type) {
+        this.field = field;
+        this.type = type;
+        this.numeric = Number.class.isAssignableFrom(type);
+    }
+
+    @Override
+    public void setScorer(Scorer scorer) {
+    }
+
+    @Override
+    public void setNextReader(AtomicReaderContext context) throws IOException {
+        flush();
+        if (numeric) {
+            reader = context.reader();
+            numericValues = reader.getNumericDocValues(field);
+        } else {
+            sortedValues = context.reader().getSortedDocValues(field);
+            if (sortedValues != null) {
+                ordCounts = new int[sortedValues.getValueCount()];
+            }
+        }
+    }
+
+    @Override
+    public void collect(int doc) throws IOException {
+        if (ordCounts != null) {
+            int ord = sortedValues.getOrd(doc);
+            if (ord >= 0) {
+                ordCounts[ord]++;
+            }
+        } else if (numericValues != null) {
+            long value = numericValues.get(doc);
+            if (value == 0) {
+                if (docsWithField == null) {
+                    docsWithField = ProjectionReader.getDocsWithField(reader, field);
+                }
+                if (!docsWithField.get(doc)) {
+                    return;
+                }
+            }
+            increment(value, 1);
+        }
+    }
+
+    @Override
+    public boolean acceptsDocsOutOfOrder() {
+        return true;
+    }
+
+    private void increment(Object key, long amount) {
+        long[] count = counts.get(key);
+        if (count == null) {
+            count = new long[1];
+            counts.put(key, count);
+        }
+        count[0] += amount;
+    }
+
+    /**
+     * Move the ordinal counts of the current segment into the value counts
+     */
+    private void flush() {
+        if (ordCounts != null) {
+            BytesRef bytes = new BytesRef();
+            for (int ord = 0; ord < ordCounts.length; ord++) {
+                if (ordCounts[ord] > 0) {
+                    sortedValues.lookupOrd(ord, bytes);
+                    increment(bytes.utf8ToString(), ordCounts[ord]);
+                }
+            }
+        }
+        ordCounts = null;
+        sortedValues = null;
+        numericValues = null;
+        reader = null;
+        docsWithField = null;
+    }
+
+    /**
+     * Get the counts of the collected hits per value
+     *
+     * @return counts in descending order
+     */
+    public Map<Object, Long> getCounts() {
+        flush();
+        List<Map.Entry<Object, long[]>> entries = new ArrayList<Map.Entry<Object, long[]>>(counts.entrySet());
+        Collections.sort(entries, BY_COUNT);
+        Map<Object, Long> rv = new LinkedHashMap<Object, Long>();
+        for (Map.Entry<Object, long[]> entry : entries) {
+            Object key = numeric ? ProjectionReader.toValue((Long) entry.getKey(), type) : entry.getKey();
+            rv.put(key, entry.getValue()[0]);
+        }
+        return rv;
+    }
+
+}
@@ -0,0 +1,63 @@
+/*
+ * Copyright 2015, Timo Westkämper
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.querydsl.lucene4;
+
+import java.util.Map;
+
+import com.querydsl.core.SearchResults;
+import com.querydsl.core.types.Path;
+
+/**
+ * FacetResults contains the results of a query and the counts of the hits per facet value
+ *
+ * @author tiwe
+ *
+ * @param <T> result type
+ */
+public final class FacetResults<T> {
+
+    private final SearchResults<T> results;
+
+    private final Map<Path<?>, Map<?, Long>> counts;
+
+    public FacetResults(SearchResults<T> results, Map<Path<?>, Map<?, Long>> counts) {
+        this.results = results;
+        this.counts = counts;
+    }
+
+    /**
+     * Get the results
+     *
+     * @return results
+     */
+    public SearchResults<T> getResults() {
+        return results;
+    }
+
+    /**
+     * Get the counts of the hits per value of the given facet in descending order
+     *
+     * @param facet facet path
+     * @return counts per value
+     */
+    @SuppressWarnings("unchecked")
+    public <K> Map<K, Long> getCounts(Path<K> facet) {
+        Map<?, Long> facetCounts = counts.get(facet);
+        if (facetCounts == null) {
+            throw new IllegalArgumentException("No counts for " + facet);
+        }
+        return (Map<K, Long>) facetCounts;
+    }
+
+}
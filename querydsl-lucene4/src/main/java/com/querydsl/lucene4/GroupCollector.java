@@ -0,0 +1,145 @@
+/*
+ * Copyright 2015, Timo Westkämper
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.querydsl.lucene4;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.annotation.Nullable;
+
+import org.apache.lucene.index.AtomicReaderContext;
+import org.apache.lucene.search.Collector;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.Scorer;
+import org.apache.lucene.search.Sort;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.search.TopFieldCollector;
+import org.apache.lucene.search.TopFieldDocs;
+
+/**
+ * GroupCollector collects the top hits per value of a field. The values are read via a
+ * {@link GroupKeyReader}. The collected groups can be restricted to given keys, such as the keys
+ * of the top groups collected by a {@link TopGroupsCollector} in a first pass.
+ *
+ * @author tiwe
+ *
+ */
+final class GroupCollector extends Collector {
+
+    private final GroupKeyReader keyReader;
+
+    @Nullable
+    private final Set<Object> keys;
+
+    private final Sort sort;
+
+    private final int groupSize;
+
+    private final Map<Object, TopFieldCollector> groups = new LinkedHashMap<Object, TopFieldCollector>();
+
+    @Nullable
+    private AtomicReaderContext context;
+
+    @Nullable
+    private Scorer scorer;
+
+    GroupCollector(String field, Class<?> type, Sort sort, int groupSize) {
+        this(field, type, sort, groupSize, null);
+    }
+
+    /**
+     * Create a new GroupCollector
+     *
+     * @param field group field
+     * @param type value type
+     * @param sort sort of the hits
+     * @param groupSize maximum amount of hits per group
+     * @param keys keys of the collected groups or null for all groups
+     */
+    GroupCollector(String field, Class<?> type, Sort sort, int groupSize, @Nullable Set<Object> keys) {
+        this.keyReader = new GroupKeyReader(field, type);
+        this.keys = keys;
+        this.sort = sort;
+        this.groupSize = groupSize;
+    }
+
+    @Override
+    public void setScorer(Scorer scorer) throws IOException {
+        this.scorer = scorer;
+        for (TopFieldCollector group : groups.values()) {
+            group.setScorer(scorer);
+        }
+    }
+
+    @Override
+    public void setNextReader(AtomicReaderContext context) throws IOException {
+        this.context = context;
+        keyReader.setNextReader(context);
+        for (TopFieldCollector group : groups.values()) {
+            group.setNextReader(context);
+        }
+    }
+
+    @Override
+    public void collect(int doc) throws IOException {
+        Object key = keyReader.get(doc);
+        if (keys != null && !keys.contains(key)) {
+            return;
+        }
+        TopFieldCollector group = groups.get(key);
+        if (group == null) {
+            group = TopFieldCollector.create(sort, groupSize, true, false, false, true);
+            group.setNextReader(context);
+            if (scorer != null) {
+                group.setScorer(scorer);
+            }
+            groups.put(key, group);
+        }
+        group.collect(doc);
+    }
+
+    @Override
+    public boolean acceptsDocsOutOfOrder() {
+        return false;
+    }
+
+    /**
+     * Get the top hits of the groups ordered by the top hit of each group
+     *
+     * @return top hits per group
+     * @throws IOException
+     */
+    public Map<Object, TopDocs> getGroups() throws IOException {
+        List<Object> keys = new ArrayList<Object>(groups.keySet());
+        TopFieldDocs[] topDocs = new TopFieldDocs[keys.size()];
+        TopFieldDocs[] firstDocs = new TopFieldDocs[keys.size()];
+        for (int i = 0; i < topDocs.length; i++) {
+            topDocs[i] = (TopFieldDocs) groups.get(keys.get(i)).topDocs();
+            firstDocs[i] = new TopFieldDocs(topDocs[i].totalHits,
+                    new ScoreDoc[]{topDocs[i].scoreDocs[0]}, topDocs[i].fields, topDocs[i].getMaxScore());
+        }
+        // the groups are ordered via the sort aware merge of their top hits
+        TopDocs merged = TopDocs.merge(sort, Math.max(firstDocs.length, 1), firstDocs);
+        Map<Object, TopDocs> rv = new LinkedHashMap<Object, TopDocs>();
+        for (ScoreDoc first : merged.scoreDocs) {
+            rv.put(keys.get(first.shardIndex), topDocs[first.shardIndex]);
+        }
+        return rv;
+    }
+
+}
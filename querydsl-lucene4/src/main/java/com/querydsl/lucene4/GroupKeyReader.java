@@ -0,0 +1,111 @@
+/*
+ * Copyright 2015, Timo Westkämper
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.querydsl.lucene4;
+
+import java.io.IOException;
+
+import javax.annotation.Nullable;
+
+import org.apache.lucene.index.AtomicReader;
+import org.apache.lucene.index.AtomicReaderContext;
+import org.apache.lucene.index.NumericDocValues;
+import org.apache.lucene.index.SortedDocValues;
+import org.apache.lucene.util.Bits;
+import org.apache.lucene.util.BytesRef;
+
+/**
+ * GroupKeyReader reads the group keys of the documents of a segment from the SORTED or NUMERIC
+ * DocValues of a field. Documents without a value and segments without DocValues for the field
+ * have the key null. Documents without a numeric value are only detected if the field is also
+ * indexed, see {@link ProjectionReader#getDocsWithField(AtomicReader, String)}.
+ *
+ * @author tiwe
+ *
+ */
+final class GroupKeyReader {
+
+    private final String field;
+
+    private final Class<?> type;
+
+    private final boolean numeric;
+
+    @Nullable
+    private SortedDocValues sortedValues;
+
+    @Nullable
+    private String[] ordValues;
+
+    @Nullable
+    private NumericDocValues numericValues;
+
+    @Nullable
+    private AtomicReader reader;
+
+    @Nullable
+    private Bits docsWithField;
+
+    GroupKeyReader(String field, Class<?> type) {
+        this.field = field;
+        this.type = type;
+        this.numeric = Number.class.isAssignableFrom(type);
+    }
+
+    public void setNextReader(AtomicReaderContext context) throws IOException {
+        if (numeric) {
+            reader = context.reader();
+            numericValues = reader.getNumericDocValues(field);
+            docsWithField = null;
+        } else {
+            sortedValues = context.reader().getSortedDocValues(field);
+            ordValues = sortedValues != null ? new String[sortedValues.getValueCount()] : null;
+        }
+    }
+
+    /**
+     * Get the key of the given document of the current segment
+     *
+     * @param doc segment document id
+     * @return key
+     * @throws IOException
+     */
+    @Nullable
+    public Object get(int doc) throws IOException {
+        if (numericValues != null) {
+            long value = numericValues.get(doc);
+            if (value == 0) {
+                if (docsWithField == null) {
+                    docsWithField = ProjectionReader.getDocsWithField(reader, field);
+                }
+                if (!docsWithField.get(doc)) {
+                    return null;
+                }
+            }
+            return ProjectionReader.toValue(value, type);
+        } else if (sortedValues != null) {
+            int ord = sortedValues.getOrd(doc);
+            if (ord < 0) {
+                return null;
+            } else if (ordValues[ord] == null) {
+                BytesRef bytes = new BytesRef();
+                sortedValues.lookupOrd(ord, bytes);
+                ordValues[ord] = bytes.utf8ToString();
+            }
+            return ordValues[ord];
+        } else {
+            return null;
+        }
+    }
+
+}
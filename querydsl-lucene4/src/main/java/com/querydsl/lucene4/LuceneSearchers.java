@@ -0,0 +1,67 @@
+/*
+ * Copyright 2015, Timo Westkämper
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.querydsl.lucene4;
+
+import java.util.concurrent.ExecutorService;
+
+import javax.annotation.Nullable;
+
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.MultiReader;
+import org.apache.lucene.search.IndexSearcher;
+
+/**
+ * LuceneSearchers provides factory methods for searchers which search several segments or indexes
+ *
+ * <p>The hits of the segments and indexes are merged by Lucene into a single top-N list, which
+ * respects the {@link org.apache.lucene.search.Sort} of the query, so the searchers can be used
+ * with any Lucene query of this module.</p>
+ *
+ * @author tiwe
+ *
+ */
+public final class LuceneSearchers {
+
+    /**
+     * Create a searcher which searches the segments of the given reader concurrently
+     *
+     * @param reader index reader
+     * @param executor executor for the segment searches
+     * @return searcher
+     */
+    public static IndexSearcher concurrent(IndexReader reader, ExecutorService executor) {
+        return new IndexSearcher(reader, executor);
+    }
+
+    /**
+     * Create a searcher over the given shards, e.g. one reader per index directory. The document
+     * ids of the searcher are offset by the sizes of the preceding shards. Closing the reader of
+     * the searcher doesn't close the shards.
+     *
+     * @param executor executor for concurrent searches or null for serial searches
+     * @param shards readers of the shards
+     * @return searcher
+     */
+    public static IndexSearcher sharded(@Nullable ExecutorService executor, IndexReader... shards) {
+        IndexReader reader = new MultiReader(shards, false);
+        if (executor != null) {
+            return new IndexSearcher(reader, executor);
+        } else {
+            return new IndexSearcher(reader);
+        }
+    }
+
+    private LuceneSearchers() {}
+
+}
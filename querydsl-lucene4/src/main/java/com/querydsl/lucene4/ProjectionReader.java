@@ -0,0 +1,359 @@
+/*
+ * Copyright 2015, Timo Westkämper
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.querydsl.lucene4;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import javax.annotation.Nullable;
+
+import org.apache.lucene.document.Document;
+import org.apache.lucene.index.AtomicReader;
+import org.apache.lucene.index.AtomicReaderContext;
+import org.apache.lucene.index.BinaryDocValues;
+import org.apache.lucene.index.DocsEnum;
+import org.apache.lucene.index.FieldInfo;
+import org.apache.lucene.index.IndexableField;
+import org.apache.lucene.index.NumericDocValues;
+import org.apache.lucene.index.ReaderUtil;
+import org.apache.lucene.index.SortedDocValues;
+import org.apache.lucene.index.Terms;
+import org.apache.lucene.index.TermsEnum;
+import org.apache.lucene.search.DocIdSetIterator;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.util.Bits;
+import org.apache.lucene.util.BytesRef;
+import org.apache.lucene.util.FixedBitSet;
+
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import com.google.common.collect.ImmutableList;
+import com.querydsl.core.types.Expression;
+import com.querydsl.core.types.FactoryExpression;
+import com.querydsl.core.types.Path;
+
+/**
+ * ProjectionReader reads the values of projected paths from the DocValues of the index segments
+ * without loading the documents. The values of fields without DocValues in a segment are read
+ * from the stored fields instead.
+ *
+ * <p>Numeric DocValues read 0 for documents without a value. If the field is also indexed, these
+ * documents are detected via the indexed terms and read as null, like documents without a stored
+ * value. Otherwise they read as 0. The documents with a value are collected once per segment and
+ * field, when a value of 0 is read for the first time.</p>
+ *
+ * @author tiwe
+ *
+ * @param <T> projection type
+ */
+final class ProjectionReader<T> {
+
+    private static final LoadingCache<Object, ConcurrentMap<String, Bits>> DOCS_WITH_FIELD = CacheBuilder.newBuilder()
+            .weakKeys()
+            .build(new CacheLoader<Object, ConcurrentMap<String, Bits>>() {
+                @Override
+                public ConcurrentMap<String, Bits> load(Object key) {
+                    return new ConcurrentHashMap<String, Bits>();
+                }
+            });
+
+    private final IndexSearcher searcher;
+
+    private final List<AtomicReaderContext> leaves;
+
+    @Nullable
+    private final FactoryExpression<T> factory;
+
+    private final String[] fields;
+
+    private final Class<?>[] types;
+
+    private final Set<String> storedFields = new HashSet<String>();
+
+    private final Values[][] segments;
+
+    @SuppressWarnings("unchecked")
+    ProjectionReader(LuceneSerializer serializer, IndexSearcher searcher, Expression<T> projection) {
+        List<Expression<?>> args;
+        if (projection instanceof FactoryExpression) {
+            factory = (FactoryExpression<T>) projection;
+            args = factory.getArgs();
+        } else {
+            factory = null;
+            args = ImmutableList.<Expression<?>>of(projection);
+        }
+        this.searcher = searcher;
+        this.leaves = searcher.getTopReaderContext().leaves();
+        this.fields = new String[args.size()];
+        this.types = new Class<?>[args.size()];
+        for (int i = 0; i < fields.length; i++) {
+            Expression<?> arg = args.get(i);
+            if (!(arg instanceof Path<?>)) {
+                throw new IllegalArgumentException("Only paths can be projected, got " + arg);
+            }
+            fields[i] = serializer.toField((Path<?>) arg);
+            types[i] = arg.getType();
+            storedFields.add(fields[i]);
+        }
+        this.segments = new Values[leaves.size()][];
+    }
+
+    /**
+     * Read the projection of the given document
+     *
+     * @param doc document id
+     * @return projection
+     * @throws IOException
+     */
+    @SuppressWarnings("unchecked")
+    public T read(int doc) throws IOException {
+        int leaf = ReaderUtil.subIndex(doc, leaves);
+        Values[] values = segments[leaf];
+        if (values == null) {
+            values = createValues(leaves.get(leaf).reader());
+            segments[leaf] = values;
+        }
+        int segmentDoc = doc - leaves.get(leaf).docBase;
+        Document document = null;
+        Object[] row = new Object[fields.length];
+        for (int i = 0; i < row.length; i++) {
+            if (values[i] != null) {
+                row[i] = values[i].get(segmentDoc);
+            } else {
+                if (document == null) {
+                    document = searcher.doc(doc, storedFields);
+                }
+                row[i] = getStoredValue(document.getField(fields[i]), types[i]);
+            }
+        }
+        return factory != null ? factory.newInstance(row) : (T) row[0];
+    }
+
+    private Values[] createValues(AtomicReader reader) throws IOException {
+        Values[] values = new Values[fields.length];
+        for (int i = 0; i < values.length; i++) {
+            FieldInfo info = reader.getFieldInfos().fieldInfo(fields[i]);
+            if (info == null || !info.hasDocValues()) {
+                continue;
+            }
+            switch (info.getDocValuesType()) {
+                case NUMERIC:
+                    values[i] = new NumericValues(reader, fields[i], types[i]);
+                    break;
+                case SORTED:
+                    values[i] = new SortedValues(reader.getSortedDocValues(fields[i]));
+                    break;
+                case BINARY:
+                    values[i] = new BinaryValues(reader.getBinaryDocValues(fields[i]));
+                    break;
+                default:
+                    // multi-valued fields are read from the stored fields
+            }
+        }
+        return values;
+    }
+
+    /**
+     * Get the documents which have a value for the given field. Numeric DocValues don't
+     * distinguish missing values from 0 and FieldCache takes every document of a DocValues field
+     * to have a value, so the documents are collected from the indexed terms of the field. The
+     * result is cached per segment core.
+     *
+     * @param reader segment reader
+     * @param field field name
+     * @return documents with a value, all documents if the field isn't indexed
+     * @throws IOException
+     */
+    static Bits getDocsWithField(AtomicReader reader, String field) throws IOException {
+        ConcurrentMap<String, Bits> fieldBits = DOCS_WITH_FIELD.getUnchecked(reader.getCoreCacheKey());
+        Bits docs = fieldBits.get(field);
+        if (docs == null) {
+            docs = collectDocsWithField(reader, field);
+            fieldBits.put(field, docs);
+        }
+        return docs;
+    }
+
+    private static Bits collectDocsWithField(AtomicReader reader, String field) throws IOException {
+        FieldInfo info = reader.getFieldInfos().fieldInfo(field);
+        if (info == null || !info.isIndexed()) {
+            return new Bits.MatchAllBits(reader.maxDoc());
+        }
+        FixedBitSet docs = new FixedBitSet(reader.maxDoc());
+        Terms terms = reader.terms(field);
+        if (terms != null) {
+            TermsEnum termsEnum = terms.iterator(null);
+            DocsEnum docsEnum = null;
+            while (termsEnum.next() != null) {
+                docsEnum = termsEnum.docs(null, docsEnum, DocsEnum.FLAG_NONE);
+                int doc;
+                while ((doc = docsEnum.nextDoc()) != DocIdSetIterator.NO_MORE_DOCS) {
+                    docs.set(doc);
+                }
+            }
+        }
+        return docs;
+    }
+
+    @Nullable
+    private static Object getStoredValue(@Nullable IndexableField field, Class<?> type) {
+        if (field == null) {
+            return null;
+        }
+        Number number = field.numericValue();
+        if (number != null) {
+            return convert(number, type);
+        } else if (Number.class.isAssignableFrom(type) && field.stringValue() != null) {
+            return convert(new BigDecimal(field.stringValue()), type);
+        } else {
+            return field.stringValue();
+        }
+    }
+
+    /**
+     * Convert the given numeric DocValues value into an instance of the given type
+     *
+     * @param value value
+     * @param type target type
+     * @return converted value
+     */
+    static Object toValue(long value, Class<?> type) {
+        // floating point values are stored as raw bits
+        if (type.equals(Double.class)) {
+            return Double.longBitsToDouble(value);
+        } else if (type.equals(Float.class)) {
+            return Float.intBitsToFloat((int) value);
+        } else {
+            return convert(value, type);
+        }
+    }
+
+    private static Object convert(Number number, Class<?> type) {
+        if (type.equals(Integer.class)) {
+            return number.intValue();
+        } else if (type.equals(Long.class)) {
+            return number.longValue();
+        } else if (type.equals(Double.class)) {
+            return number.doubleValue();
+        } else if (type.equals(Float.class)) {
+            return number.floatValue();
+        } else if (type.equals(Short.class)) {
+            return number.shortValue();
+        } else if (type.equals(Byte.class)) {
+            return number.byteValue();
+        } else if (type.equals(BigDecimal.class)) {
+            return new BigDecimal(number.toString());
+        } else if (type.equals(BigInteger.class)) {
+            return BigInteger.valueOf(number.longValue());
+        } else if (type.equals(String.class)) {
+            return number.toString();
+        } else {
+            return number;
+        }
+    }
+
+    /**
+     * Values of a field in a segment
+     */
+    private abstract static class Values {
+
+        @Nullable
+        abstract Object get(int doc) throws IOException;
+
+    }
+
+    private static final class NumericValues extends Values {
+
+        private final AtomicReader reader;
+
+        private final String field;
+
+        private final NumericDocValues values;
+
+        private final Class<?> type;
+
+        @Nullable
+        private Bits docsWithField;
+
+        NumericValues(AtomicReader reader, String field, Class<?> type) throws IOException {
+            this.reader = reader;
+            this.field = field;
+            this.values = reader.getNumericDocValues(field);
+            this.type = type;
+        }
+
+        @Override
+        Object get(int doc) throws IOException {
+            long value = values.get(doc);
+            if (value == 0) {
+                if (docsWithField == null) {
+                    docsWithField = getDocsWithField(reader, field);
+                }
+                if (!docsWithField.get(doc)) {
+                    return null;
+                }
+            }
+            return toValue(value, type);
+        }
+
+    }
+
+    private static final class SortedValues extends Values {
+
+        private final SortedDocValues values;
+
+        private final BytesRef bytes = new BytesRef();
+
+        SortedValues(SortedDocValues values) {
+            this.values = values;
+        }
+
+        @Override
+        Object get(int doc) {
+            int ord = values.getOrd(doc);
+            if (ord < 0) {
+                return null;
+            }
+            values.lookupOrd(ord, bytes);
+            return bytes.utf8ToString();
+        }
+
+    }
+
+    private static final class BinaryValues extends Values {
+
+        private final BinaryDocValues values;
+
+        private final BytesRef bytes = new BytesRef();
+
+        BinaryValues(BinaryDocValues values) {
+            this.values = values;
+        }
+
+        @Override
+        Object get(int doc) {
+            values.get(doc, bytes);
+            return bytes.utf8ToString();
+        }
+
+    }
+
+}
@@ -0,0 +1,79 @@
+/*
+ * Copyright 2015, Timo Westkämper
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.querydsl.lucene4;
+
+import java.util.List;
+
+import javax.annotation.Nullable;
+
+/**
+ * ResultPage is a window of search results with an opaque token for the next window
+ *
+ * @author tiwe
+ *
+ * @param <T> result type
+ */
+public final class ResultPage<T> {
+
+    private final List<T> results;
+
+    private final long total;
+
+    @Nullable
+    private final String next;
+
+    public ResultPage(List<T> results, long total, @Nullable String next) {
+        this.results = results;
+        this.total = total;
+        this.next = next;
+    }
+
+    /**
+     * Get the results of this page
+     *
+     * @return results
+     */
+    public List<T> getResults() {
+        return results;
+    }
+
+    /**
+     * Get the total amount of hits
+     *
+     * @return total
+     */
+    public long getTotal() {
+        return total;
+    }
+
+    /**
+     * Get the token for the next page
+     *
+     * @return token or null, if this is the last page
+     */
+    @Nullable
+    public String getNext() {
+        return next;
+    }
+
+    /**
+     * Get whether there are more results after this page
+     *
+     * @return true, if there are more results
+     */
+    public boolean hasNext() {
+        return next != null;
+    }
+
+}
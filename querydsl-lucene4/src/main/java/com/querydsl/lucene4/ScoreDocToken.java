@@ -0,0 +1,151 @@
+/*
+ * Copyright 2015, Timo Westkämper
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.querydsl.lucene4;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+import org.apache.lucene.search.FieldDoc;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.util.BytesRef;
+
+import com.google.common.io.BaseEncoding;
+
+/**
+ * ScoreDocToken converts the last {@link ScoreDoc} of a result window into an opaque String
+ * token and back
+ *
+ * @author tiwe
+ *
+ */
+final class ScoreDocToken {
+
+    private static final BaseEncoding ENCODING = BaseEncoding.base64Url().omitPadding();
+
+    private static final int NULL = 0, INT = 1, LONG = 2, FLOAT = 3, DOUBLE = 4, STRING = 5, BYTES = 6,
+            SHORT = 7, BYTE = 8;
+
+    /**
+     * Encode the given hit
+     *
+     * @param scoreDoc hit
+     * @return token
+     */
+    public static String encode(ScoreDoc scoreDoc) {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeInt(scoreDoc.doc);
+            out.writeFloat(scoreDoc.score);
+            if (scoreDoc instanceof FieldDoc) {
+                Object[] fields = ((FieldDoc) scoreDoc).fields;
+                out.writeInt(fields.length);
+                for (Object field : fields) {
+                    writeField(out, field);
+                }
+            } else {
+                out.writeInt(-1);
+            }
+            out.flush();
+            return ENCODING.encode(bytes.toByteArray());
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void writeField(DataOutputStream out, Object field) throws IOException {
+        if (field == null) {
+            out.writeByte(NULL);
+        } else if (field instanceof Integer) {
+            out.writeByte(INT);
+            out.writeInt((Integer) field);
+        } else if (field instanceof Long) {
+            out.writeByte(LONG);
+            out.writeLong((Long) field);
+        } else if (field instanceof Float) {
+            out.writeByte(FLOAT);
+            out.writeFloat((Float) field);
+        } else if (field instanceof Double) {
+            out.writeByte(DOUBLE);
+            out.writeDouble((Double) field);
+        } else if (field instanceof Short) {
+            out.writeByte(SHORT);
+            out.writeShort((Short) field);
+        } else if (field instanceof Byte) {
+            out.writeByte(BYTE);
+            out.writeByte((Byte) field);
+        } else if (field instanceof String) {
+            out.writeByte(STRING);
+            out.writeUTF((String) field);
+        } else if (field instanceof BytesRef) {
+            BytesRef ref = (BytesRef) field;
+            out.writeByte(BYTES);
+            out.writeInt(ref.length);
+            out.write(ref.bytes, ref.offset, ref.length);
+        } else {
+            throw new IllegalArgumentException("Unsupported sort value " + field.getClass().getName());
+        }
+    }
+
+    /**
+     * Decode the given token
+     *
+     * @param token token
+     * @return hit
+     * @throws IllegalArgumentException if the token is invalid
+     */
+    public static ScoreDoc decode(String token) {
+        try {
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(ENCODING.decode(token)));
+            int doc = in.readInt();
+            float score = in.readFloat();
+            int length = in.readInt();
+            if (length < 0) {
+                return new ScoreDoc(doc, score);
+            }
+            Object[] fields = new Object[length];
+            for (int i = 0; i < length; i++) {
+                fields[i] = readField(in);
+            }
+            return new FieldDoc(doc, score, fields);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Invalid token " + token, e);
+        }
+    }
+
+    private static Object readField(DataInputStream in) throws IOException {
+        int type = in.readByte();
+        switch (type) {
+            case NULL: return null;
+            case INT: return in.readInt();
+            case LONG: return in.readLong();
+            case FLOAT: return in.readFloat();
+            case DOUBLE: return in.readDouble();
+            case SHORT: return in.readShort();
+            case BYTE: return in.readByte();
+            case STRING: return in.readUTF();
+            case BYTES:
+                byte[] bytes = new byte[in.readInt()];
+                in.readFully(bytes);
+                return new BytesRef(bytes);
+            default: throw new IOException("Unknown sort value type " + type);
+        }
+    }
+
+    private ScoreDocToken() {}
+
+}
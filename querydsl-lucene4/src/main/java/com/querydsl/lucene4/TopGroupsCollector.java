@@ -0,0 +1,195 @@
+/*
+ * Copyright 2015, Timo Westkämper
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.querydsl.lucene4;
+
+import java.io.IOException;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.apache.lucene.index.AtomicReaderContext;
+import org.apache.lucene.search.Collector;
+import org.apache.lucene.search.FieldComparator;
+import org.apache.lucene.search.Scorer;
+import org.apache.lucene.search.Sort;
+import org.apache.lucene.search.SortField;
+
+/**
+ * TopGroupsCollector collects the keys of the top groups of the hits, ranked by the top hit of
+ * each group. Only the top hits of the top groups are kept, so the memory use is bounded by the
+ * amount of groups instead of the amount of distinct values.
+ *
+ * @author tiwe
+ *
+ */
+final class TopGroupsCollector extends Collector {
+
+    private final GroupKeyReader keyReader;
+
+    private final int topGroups;
+
+    private final FieldComparator<?>[] comparators;
+
+    private final int[] reversed;
+
+    private final Map<Object, GroupHead> groups = new HashMap<Object, GroupHead>();
+
+    private final TreeSet<GroupHead> orderedGroups = new TreeSet<GroupHead>(new Comparator<GroupHead>() {
+        @Override
+        public int compare(GroupHead head1, GroupHead head2) {
+            int rv = compareSlots(head1.slot, head2.slot);
+            return rv != 0 ? rv : (head1.doc < head2.doc ? -1 : (head1.doc == head2.doc ? 0 : 1));
+        }
+    });
+
+    private int spareSlot;
+
+    private int docBase;
+
+    TopGroupsCollector(String field, Class<?> type, Sort sort, int topGroups) throws IOException {
+        if (topGroups < 1) {
+            throw new IllegalArgumentException("topGroups needs to be positive, was " + topGroups);
+        }
+        this.keyReader = new GroupKeyReader(field, type);
+        this.topGroups = topGroups;
+        SortField[] sortFields = sort.getSort();
+        this.comparators = new FieldComparator<?>[sortFields.length];
+        this.reversed = new int[sortFields.length];
+        for (int i = 0; i < sortFields.length; i++) {
+            // one slot per group and a spare slot for the hit under comparison
+            comparators[i] = sortFields[i].getComparator(topGroups + 1, i);
+            reversed[i] = sortFields[i].getReverse() ? -1 : 1;
+        }
+        this.spareSlot = topGroups;
+    }
+
+    @Override
+    public void setScorer(Scorer scorer) throws IOException {
+        for (FieldComparator<?> comparator : comparators) {
+            comparator.setScorer(scorer);
+        }
+    }
+
+    @Override
+    public void setNextReader(AtomicReaderContext context) throws IOException {
+        docBase = context.docBase;
+        keyReader.setNextReader(context);
+        for (int i = 0; i < comparators.length; i++) {
+            comparators[i] = comparators[i].setNextReader(context);
+        }
+    }
+
+    @Override
+    public void collect(int doc) throws IOException {
+        boolean full = groups.size() == topGroups;
+        if (full && !isCompetitive(doc)) {
+            // the hit ranks below the top hits of all top groups
+            return;
+        }
+        Object key = keyReader.get(doc);
+        GroupHead head = groups.get(key);
+        if (head == null) {
+            if (full) {
+                // replace the last group
+                head = orderedGroups.pollLast();
+                groups.remove(head.key);
+                head.key = key;
+            } else {
+                head = new GroupHead(key, groups.size());
+            }
+            copy(head.slot, doc);
+        } else {
+            // hits with an equal sort rank after the earlier hits
+            copy(spareSlot, doc);
+            if (compareSlots(spareSlot, head.slot) >= 0) {
+                return;
+            }
+            orderedGroups.remove(head);
+            int slot = head.slot;
+            head.slot = spareSlot;
+            spareSlot = slot;
+        }
+        head.doc = docBase + doc;
+        groups.put(key, head);
+        orderedGroups.add(head);
+        if (groups.size() == topGroups) {
+            int bottom = orderedGroups.last().slot;
+            for (FieldComparator<?> comparator : comparators) {
+                comparator.setBottom(bottom);
+            }
+        }
+    }
+
+    private boolean isCompetitive(int doc) throws IOException {
+        for (int i = 0; i < comparators.length; i++) {
+            // the bottom is compared to the hit
+            int rv = reversed[i] * comparators[i].compareBottom(doc);
+            if (rv != 0) {
+                return rv > 0;
+            }
+        }
+        return false;
+    }
+
+    private void copy(int slot, int doc) throws IOException {
+        for (FieldComparator<?> comparator : comparators) {
+            comparator.copy(slot, doc);
+        }
+    }
+
+    private int compareSlots(int slot1, int slot2) {
+        for (int i = 0; i < comparators.length; i++) {
+            int rv = reversed[i] * comparators[i].compare(slot1, slot2);
+            if (rv != 0) {
+                return rv;
+            }
+        }
+        return 0;
+    }
+
+    @Override
+    public boolean acceptsDocsOutOfOrder() {
+        return false;
+    }
+
+    /**
+     * Get the keys of the top groups
+     *
+     * @return group keys
+     */
+    public Set<Object> getKeys() {
+        return groups.keySet();
+    }
+
+    /**
+     * GroupHead is the top hit of a group
+     */
+    private static final class GroupHead {
+
+        private Object key;
+
+        private int slot;
+
+        private int doc;
+
+        GroupHead(Object key, int slot) {
+            this.key = key;
+            this.slot = slot;
+        }
+
+    }
+
+}
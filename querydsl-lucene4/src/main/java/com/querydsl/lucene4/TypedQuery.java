@@ -15,6 +15,7 @@ package com.querydsl.lucene4;
 
 import org.apache.lucene.document.Document;
 import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.ReferenceManager;
 
 import com.google.common.base.Function;
 
@@ -33,5 +34,14 @@ public class TypedQuery<T> extends AbstractLuceneQuery<T, TypedQuery<T>> {
     public TypedQuery(LuceneSerializer serializer, IndexSearcher searcher, Function<Document, T> transformer) {
         super(serializer, searcher, transformer);
     }
+
+    public TypedQuery(ReferenceManager<IndexSearcher> searcherManager, Function<Document, T> transformer) {
+        super(searcherManager, transformer);
+    }
+
+    public TypedQuery(LuceneSerializer serializer, ReferenceManager<IndexSearcher> searcherManager,
+            Function<Document, T> transformer) {
+        super(serializer, searcherManager, transformer);
+    }
   
 }
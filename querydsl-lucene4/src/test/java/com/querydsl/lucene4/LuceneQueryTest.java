@@ -24,18 +24,27 @@ import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import org.apache.lucene.analysis.standard.StandardAnalyzer;
 import org.apache.lucene.document.Document;
+import org.apache.lucene.document.DoubleDocValuesField;
 import org.apache.lucene.document.DoubleField;
 import org.apache.lucene.document.Field;
 import org.apache.lucene.document.Field.Index;
 import org.apache.lucene.document.Field.Store;
 import org.apache.lucene.document.IntField;
+import org.apache.lucene.document.NumericDocValuesField;
+import org.apache.lucene.document.SortedDocValuesField;
+import org.apache.lucene.document.StringField;
 import org.apache.lucene.document.TextField;
 import org.apache.lucene.index.IndexReader;
 import org.apache.lucene.index.IndexWriter;
@@ -43,8 +52,10 @@ import org.apache.lucene.index.IndexWriterConfig;
 import org.apache.lucene.sandbox.queries.DuplicateFilter;
 import org.apache.lucene.search.Filter;
 import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.SearcherManager;
 import org.apache.lucene.search.Sort;
 import org.apache.lucene.store.RAMDirectory;
+import org.apache.lucene.util.BytesRef;
 import org.apache.lucene.util.Version;
 import org.junit.After;
 import org.junit.Before;
@@ -52,11 +63,14 @@ import org.junit.Ignore;
 import org.junit.Test;
 
 import com.google.common.collect.Sets;
+import com.mysema.commons.lang.CloseableIterator;
 import com.querydsl.core.NonUniqueResultException;
 import com.querydsl.core.QueryException;
 import com.querydsl.core.QueryModifiers;
 import com.querydsl.core.SearchResults;
+import com.querydsl.core.Tuple;
 import com.querydsl.core.types.ParamNotSetException;
+import com.querydsl.core.types.Projections;
 import com.querydsl.core.types.expr.Param;
 import com.querydsl.core.types.path.NumberPath;
 import com.querydsl.core.types.path.StringPath;
@@ -140,6 +154,186 @@ public class LuceneQueryTest {
         searcher.getIndexReader().close();
     }
 
+    @Test
+    public void SearcherManager() throws Exception {
+        SearcherManager manager = new SearcherManager(idx, null);
+        IndexSearcher current = manager.acquire();
+        manager.release(current);
+        int refCount = current.getIndexReader().getRefCount();
+
+        query = new LuceneQuery(new LuceneSerializer(true, true), manager);
+        assertEquals(4, query.where(year.between(1800, 2000)).list().size());
+        CloseableIterator<Document> iterator = query.iterate();
+        iterator.close();
+        assertEquals(refCount, current.getIndexReader().getRefCount());
+
+        IndexWriterConfig config = new IndexWriterConfig(Version.LUCENE_31,
+                new StandardAnalyzer(Version.LUCENE_42))
+            .setOpenMode(IndexWriterConfig.OpenMode.APPEND);
+        writer = new IndexWriter(idx, config);
+        writer.addDocument(createDocument("Moby Dick", "Herman Melville", "Call me Ishmael.", 1851, 10.0));
+        writer.close();
+        manager.maybeRefresh();
+
+        query = new LuceneQuery(new LuceneSerializer(true, true), manager);
+        assertEquals(5, query.where(year.between(1800, 2000)).count());
+        manager.close();
+    }
+
+    @Test
+    public void Sharded() throws Exception {
+        RAMDirectory idx2 = new RAMDirectory();
+        writer = createWriter(idx2);
+        writer.addDocument(createDocument("Moby Dick", "Herman Melville", "Call me Ishmael.", 1851, 10.0));
+        writer.close();
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            IndexReader reader2 = IndexReader.open(idx2);
+            IndexSearcher sharded = LuceneSearchers.sharded(executor, searcher.getIndexReader(), reader2);
+            query = new LuceneQuery(new LuceneSerializer(true, true), sharded);
+            List<Document> documents = query.where(year.between(1800, 2000)).orderBy(year.asc()).list();
+            assertEquals(5, documents.size());
+            assertEquals("Moby Dick", documents.get(0).get("title"));
+            assertEquals("Nummisuutarit", documents.get(1).get("title"));
+            assertEquals("1990", documents.get(4).get("year"));
+            assertEquals(5, query.count());
+            reader2.close();
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private void createFacetIndex() throws Exception {
+        writer = createWriter(idx);
+        String[][] rows = {{"a", "x", "1"}, {"b", "y", "2"}, {"c", "x", "1"}, {"d", "x", "3"}, {"e", "y", "2"}};
+        for (String[] row : rows) {
+            Document document = new Document();
+            document.add(new StringField("name", row[0], Store.YES));
+            document.add(new SortedDocValuesField("category", new BytesRef(row[1])));
+            document.add(new NumericDocValuesField("rating", Long.valueOf(row[2])));
+            writer.addDocument(document);
+        }
+        writer.close();
+
+        IndexReader reader = IndexReader.open(idx);
+        searcher = new IndexSearcher(reader);
+        query = new LuceneQuery(new LuceneSerializer(true, true), searcher);
+    }
+
+    @Test
+    public void ListFacetResults() throws Exception {
+        createFacetIndex();
+        StringPath category = new StringPath("category");
+        NumberPath<Integer> rating = new NumberPath<Integer>(Integer.class, "rating");
+        FacetResults<Document> results = query.limit(2).listFacetResults(category, rating);
+        assertEquals(2, results.getResults().getResults().size());
+        assertEquals(5, results.getResults().getTotal());
+
+        Map<String, Long> categories = results.getCounts(category);
+        assertEquals(Arrays.asList("x", "y"), new ArrayList<String>(categories.keySet()));
+        assertEquals(Long.valueOf(3), categories.get("x"));
+        assertEquals(Long.valueOf(2), categories.get("y"));
+
+        Map<Integer, Long> ratings = results.getCounts(rating);
+        assertEquals(3, ratings.size());
+        assertEquals(Long.valueOf(2), ratings.get(1));
+        assertEquals(Long.valueOf(2), ratings.get(2));
+        assertEquals(Long.valueOf(1), ratings.get(3));
+    }
+
+    @Test
+    public void ListGroups() throws Exception {
+        createFacetIndex();
+        StringPath category = new StringPath("category");
+        StringPath name = new StringPath("name");
+        Map<String, SearchResults<Document>> groups = query.orderBy(name.desc()).listGroups(category, 2);
+        assertEquals(Arrays.asList("y", "x"), new ArrayList<String>(groups.keySet()));
+        SearchResults<Document> x = groups.get("x");
+        assertEquals(3, x.getTotal());
+        assertEquals(2, x.getResults().size());
+        assertEquals("d", x.getResults().get(0).get("name"));
+        assertEquals("c", x.getResults().get(1).get("name"));
+        assertEquals("e", groups.get("y").getResults().get(0).get("name"));
+    }
+
+    @Test
+    public void ListGroups_Limit() throws Exception {
+        createFacetIndex();
+        StringPath category = new StringPath("category");
+        Map<String, SearchResults<Document>> groups = query.limit(1).listGroups(category, 1);
+        assertEquals(1, groups.size());
+        assertEquals(3, groups.get("x").getTotal());
+    }
+
+    @Test
+    public void ListGroups_Offset_And_Limit() throws Exception {
+        writer = createWriter(idx);
+        for (int i = 0; i < 50; i++) {
+            Document document = new Document();
+            document.add(new StringField("name", String.format("n%02d", i), Store.YES));
+            document.add(new SortedDocValuesField("category", new BytesRef("c" + (i * 3 % 7))));
+            writer.addDocument(document);
+        }
+        writer.close();
+
+        IndexReader reader = IndexReader.open(idx);
+        searcher = new IndexSearcher(reader);
+        StringPath category = new StringPath("category");
+        StringPath name = new StringPath("name");
+        List<String> all = new ArrayList<String>(new LuceneQuery(new LuceneSerializer(true, true), searcher)
+            .orderBy(name.desc()).listGroups(category, 1).keySet());
+        assertEquals(7, all.size());
+        Map<String, SearchResults<Document>> groups = new LuceneQuery(new LuceneSerializer(true, true), searcher)
+            .orderBy(name.desc()).offset(2).limit(3).listGroups(category, 2);
+        assertEquals(all.subList(2, 5), new ArrayList<String>(groups.keySet()));
+        for (SearchResults<Document> group : groups.values()) {
+            assertEquals(2, group.getResults().size());
+        }
+    }
+
+    private void createMissingRatingIndex() throws Exception {
+        writer = createWriter(idx);
+        String[][] rows = {{"a", "1"}, {"b", null}, {"c", "1"}, {"d", "2"}, {"e", "0"}};
+        for (String[] row : rows) {
+            Document document = new Document();
+            document.add(new StringField("name", row[0], Store.YES));
+            if (row[1] != null) {
+                document.add(new NumericDocValuesField("rating", Long.valueOf(row[1])));
+                document.add(new IntField("rating", Integer.valueOf(row[1]), Store.NO));
+            }
+            writer.addDocument(document);
+        }
+        writer.close();
+
+        IndexReader reader = IndexReader.open(idx);
+        searcher = new IndexSearcher(reader);
+        query = new LuceneQuery(new LuceneSerializer(true, true), searcher);
+    }
+
+    @Test
+    public void ListFacetResults_Missing_Values() throws Exception {
+        createMissingRatingIndex();
+        NumberPath<Integer> rating = new NumberPath<Integer>(Integer.class, "rating");
+        Map<Integer, Long> ratings = query.listFacetResults(rating).getCounts(rating);
+        assertEquals(3, ratings.size());
+        assertEquals(Long.valueOf(2), ratings.get(1));
+        assertEquals(Long.valueOf(1), ratings.get(2));
+        assertEquals(Long.valueOf(1), ratings.get(0));
+    }
+
+    @Test
+    public void ListGroups_Missing_Values() throws Exception {
+        createMissingRatingIndex();
+        NumberPath<Integer> rating = new NumberPath<Integer>(Integer.class, "rating");
+        StringPath name = new StringPath("name");
+        Map<Integer, SearchResults<Document>> groups = query.orderBy(name.asc()).listGroups(rating, 2);
+        assertEquals(Arrays.asList(1, null, 2, 0), new ArrayList<Integer>(groups.keySet()));
+        assertEquals("b", groups.get(null).getResults().get(0).get("name"));
+        assertEquals("e", groups.get(0).getResults().get(0).get("name"));
+        assertEquals(2, groups.get(1).getTotal());
+    }
+
     @Test
     public void Count_Empty_Where_Clause() {
         assertEquals(4, query.count());
@@ -231,6 +425,72 @@ public class LuceneQueryTest {
         assertEquals("a\u00c4", results.get(2).getField("sort").stringValue());
     }
 
+    @Test
+    public void List_Projection() {
+        query.where(year.between(1800, 2000));
+        query.orderBy(year.asc());
+        List<Tuple> results = query.list(Projections.tuple(title, year, gross));
+        assertEquals(4, results.size());
+        assertEquals("Nummisuutarit", results.get(0).get(title));
+        assertEquals(Integer.valueOf(1864), results.get(0).get(year));
+        assertEquals(Double.valueOf(10.0), results.get(0).get(gross));
+    }
+
+    @Test
+    public void List_Projection_DocValues() throws Exception {
+        writer = createWriter(idx);
+        for (int i = 0; i < 3; i++) {
+            Document document = new Document();
+            document.add(new NumericDocValuesField("id", i));
+            document.add(new SortedDocValuesField("code", new BytesRef("c" + i)));
+            document.add(new DoubleDocValuesField("gross", i * 1.5));
+            writer.addDocument(document);
+        }
+        writer.close();
+
+        IndexReader reader = IndexReader.open(idx);
+        searcher = new IndexSearcher(reader);
+        query = new LuceneQuery(new LuceneSerializer(true, true), searcher);
+        NumberPath<Long> id = new NumberPath<Long>(Long.class, "id");
+        StringPath code = new StringPath("code");
+        List<Tuple> results = query.list(Projections.tuple(id, code, gross));
+        assertEquals(3, results.size());
+        assertEquals(Long.valueOf(2), results.get(2).get(id));
+        assertEquals("c2", results.get(2).get(code));
+        assertEquals(Double.valueOf(3.0), results.get(2).get(gross));
+        assertEquals(Arrays.asList(0l, 1l, 2l), query.list(id));
+    }
+
+    @Test
+    public void List_Projection_DocValues_Missing() throws Exception {
+        writer = createWriter(idx);
+        for (int i = 0; i < 3; i++) {
+            Document document = new Document();
+            document.add(new StringField("name", "n" + i, Store.YES));
+            if (i != 1) {
+                document.add(new NumericDocValuesField("id", i));
+                document.add(new IntField("id", i, Store.NO));
+                document.add(new NumericDocValuesField("rank", i));
+            }
+            writer.addDocument(document);
+        }
+        writer.close();
+
+        IndexReader reader = IndexReader.open(idx);
+        searcher = new IndexSearcher(reader);
+        query = new LuceneQuery(new LuceneSerializer(true, true), searcher);
+        NumberPath<Integer> id = new NumberPath<Integer>(Integer.class, "id");
+        NumberPath<Integer> rank = new NumberPath<Integer>(Integer.class, "rank");
+        // missing values of indexed fields read as null, the others as 0
+        assertEquals(Arrays.asList(0, null, 2), query.list(id));
+        assertEquals(Arrays.asList(0, 0, 2), query.list(rank));
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void List_Projection_Not_Path() {
+        query.list(Projections.tuple(title.lower()));
+    }
+
     @Test
     public void List_Not_Sorted_Limit_2() {
         query.where(year.between(1800, 2000));
@@ -621,6 +881,50 @@ public class LuceneQueryTest {
         assertEquals(4, results.getTotal());
     }
 
+    @Test
+    public void ListResults_Offset_Beyond_Results() {
+        query.where(year.between(1800, 2000));
+        query.offset(10);
+        final SearchResults<Document> results = query.listResults();
+        assertTrue(results.getResults().isEmpty());
+        assertEquals(4, results.getTotal());
+    }
+
+    @Test
+    public void Iterate_Windows() {
+        query.where(year.between(1800, 2000));
+        query.orderBy(year.asc());
+        query.offset(1).limit(2);
+        List<String> titles = new ArrayList<String>();
+        CloseableIterator<Document> iterator = query.iterate(1);
+        while (iterator.hasNext()) {
+            titles.add(iterator.next().get("title"));
+        }
+        iterator.close();
+        assertEquals(Arrays.asList("The Lord of the Rings", "Jurassic Park"), titles);
+    }
+
+    @Test
+    public void ListPage() {
+        query.where(year.between(1800, 2000));
+        query.orderBy(year.desc(), gross.asc());
+        ResultPage<Document> first = query.listPage(null, 3);
+        assertEquals(3, first.getResults().size());
+        assertEquals(4, first.getTotal());
+        assertTrue(first.hasNext());
+        assertEquals("Introduction to Algorithms", first.getResults().get(0).get("title"));
+
+        ResultPage<Document> second = query.listPage(first.getNext(), 3);
+        assertEquals(1, second.getResults().size());
+        assertEquals("Nummisuutarit", second.getResults().get(0).get("title"));
+        assertFalse(second.hasNext());
+    }
+
+    @Test(expected=QueryException.class)
+    public void ListPage_Invalid_Token() {
+        query.listPage("?", 3);
+    }
+
     @Test(expected=UnsupportedOperationException.class)
     public void ListDistinctResults() {
         query.where(year.between(1800, 2000).or(
@@ -267,6 +267,14 @@ public class AbstractMetaDataExportMojo extends AbstractMojo{
      * @parameter default-value=false
      */
     private boolean spatial;
+
+    /**
+     * fetch the columns and keys of a schema with schema wide metadata queries
+     * instead of queries per table (default: false)
+     *
+     * @parameter default-value=false
+     */
+    private boolean bulkMetaData;
     
 	/**
 	 * Comma-separated list of table types to export (allowable values will
@@ -347,6 +355,7 @@ public class AbstractMetaDataExportMojo extends AbstractMojo{
             exporter.setExportPrimaryKeys(exportPrimaryKeys);
             exporter.setExportForeignKeys(exportForeignKeys);
             exporter.setSpatial(spatial);
+            exporter.setBulkMetaData(bulkMetaData);
 
             if (imports != null && imports.length > 0) {
                 exporter.setImports(imports);
@@ -562,6 +571,10 @@ public class AbstractMetaDataExportMojo extends AbstractMojo{
         this.renameMappings = renameMappings;
     }
 
+    public void setBulkMetaData(boolean bulkMetaData) {
+        this.bulkMetaData = bulkMetaData;
+    }
+
     public void setImports(String[] imports) {
         this.imports = imports;
     }
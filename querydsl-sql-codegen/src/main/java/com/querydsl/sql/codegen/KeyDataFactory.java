@@ -47,6 +47,8 @@ public class KeyDataFactory {
 
     private static final int FK_PARENT_SCHEMA_NAME = 2;
 
+    private static final int PK_TABLE_NAME = 3;
+
     private static final int PK_COLUMN_NAME = 4;
 
     private static final int PK_NAME = 6;
@@ -72,83 +74,191 @@ public class KeyDataFactory {
         Map<String,InverseForeignKeyData> inverseForeignKeyData = new HashMap<String,InverseForeignKeyData>();
         try{
             while (foreignKeys.next()) {
-                String name = foreignKeys.getString(FK_NAME);
-                String parentColumnName = namingStrategy.normalizeColumnName(foreignKeys.getString(FK_PARENT_COLUMN_NAME));
-                String foreignSchemaName = namingStrategy.normalizeSchemaName(foreignKeys.getString(FK_FOREIGN_SCHEMA_NAME));
-                String foreignTableName = namingStrategy.normalizeTableName(foreignKeys.getString(FK_FOREIGN_TABLE_NAME));
-                String foreignColumn = namingStrategy.normalizeColumnName(foreignKeys.getString(FK_FOREIGN_COLUMN_NAME));
-                if (name == null || name.isEmpty()) {
-                    name = tableName + "_" + foreignTableName + "_IFK";
-                }
+                addExportedKey(foreignKeys, tableName, inverseForeignKeyData);
+            }
+            return inverseForeignKeyData;
+        }finally{
+            foreignKeys.close();
+        }
+    }
 
-                InverseForeignKeyData data = inverseForeignKeyData.get(name);
-                if (data == null) {
-                    data = new InverseForeignKeyData(name, foreignSchemaName,
-                            foreignTableName, createType(foreignSchemaName, foreignTableName));
-                    inverseForeignKeyData.put(name, data);
+    /**
+     * Get the exported keys of the given tables of a schema grouped by table name. The table
+     * names used for default key names are the values of the tableNames map.
+     *
+     * @param md metadata
+     * @param catalog catalog
+     * @param schema schema
+     * @param tableNames names of the tables to include by their metadata names
+     * @return exported keys by metadata table name
+     * @throws SQLException
+     */
+    public Map<String, Map<String, InverseForeignKeyData>> getExportedKeys(DatabaseMetaData md,
+            String catalog, String schema, Map<String, String> tableNames) throws SQLException{
+        ResultSet foreignKeys = md.getExportedKeys(catalog, schema, null);
+        Map<String, Map<String,InverseForeignKeyData>> tables = new HashMap<String, Map<String,InverseForeignKeyData>>();
+        try{
+            while (foreignKeys.next()) {
+                String tableName = foreignKeys.getString(FK_PARENT_TABLE_NAME);
+                if (tableNames.containsKey(tableName)) {
+                    addExportedKey(foreignKeys, tableNames.get(tableName), getTable(tables, tableName));
                 }
-                data.add(parentColumnName, foreignColumn);
             }
-            return inverseForeignKeyData;
+            return tables;
         }finally{
             foreignKeys.close();
         }
     }
 
+    private void addExportedKey(ResultSet foreignKeys, String tableName,
+            Map<String,InverseForeignKeyData> inverseForeignKeyData) throws SQLException {
+        String name = foreignKeys.getString(FK_NAME);
+        String parentColumnName = namingStrategy.normalizeColumnName(foreignKeys.getString(FK_PARENT_COLUMN_NAME));
+        String foreignSchemaName = namingStrategy.normalizeSchemaName(foreignKeys.getString(FK_FOREIGN_SCHEMA_NAME));
+        String foreignTableName = namingStrategy.normalizeTableName(foreignKeys.getString(FK_FOREIGN_TABLE_NAME));
+        String foreignColumn = namingStrategy.normalizeColumnName(foreignKeys.getString(FK_FOREIGN_COLUMN_NAME));
+        if (name == null || name.isEmpty()) {
+            name = tableName + "_" + foreignTableName + "_IFK";
+        }
+
+        InverseForeignKeyData data = inverseForeignKeyData.get(name);
+        if (data == null) {
+            data = new InverseForeignKeyData(name, foreignSchemaName,
+                    foreignTableName, createType(foreignSchemaName, foreignTableName));
+            inverseForeignKeyData.put(name, data);
+        }
+        data.add(parentColumnName, foreignColumn);
+    }
+
     public Map<String, ForeignKeyData> getImportedKeys(DatabaseMetaData md,
             String catalog, String schema, String tableName) throws SQLException {
         ResultSet foreignKeys = md.getImportedKeys(catalog, schema, tableName);
         Map<String,ForeignKeyData> foreignKeyData = new HashMap<String,ForeignKeyData>();
         try{
             while (foreignKeys.next()) {
-                String name = foreignKeys.getString(FK_NAME);
-                String parentSchemaName = namingStrategy.normalizeSchemaName(foreignKeys.getString(FK_PARENT_SCHEMA_NAME));
-                String parentTableName = namingStrategy.normalizeTableName(foreignKeys.getString(FK_PARENT_TABLE_NAME));
-                String parentColumnName = namingStrategy.normalizeColumnName(foreignKeys.getString(FK_PARENT_COLUMN_NAME));
-                String foreignColumn = namingStrategy.normalizeColumnName(foreignKeys.getString(FK_FOREIGN_COLUMN_NAME));
-                if (name == null || name.isEmpty()) {
-                    name = tableName + "_" + parentTableName + "_FK";
-                }
+                addImportedKey(foreignKeys, tableName, foreignKeyData);
+            }
+            return foreignKeyData;
+        }finally{
+            foreignKeys.close();
+        }
+    }
 
-                ForeignKeyData data = foreignKeyData.get(name);
-                if (data == null) {
-                    data = new ForeignKeyData(name, parentSchemaName, parentTableName,
-                            createType(parentSchemaName, parentTableName));
-                    foreignKeyData.put(name, data);
+    /**
+     * Get the imported keys of the given tables of a schema grouped by table name. The table
+     * names used for default key names are the values of the tableNames map.
+     *
+     * @param md metadata
+     * @param catalog catalog
+     * @param schema schema
+     * @param tableNames names of the tables to include by their metadata names
+     * @return imported keys by metadata table name
+     * @throws SQLException
+     */
+    public Map<String, Map<String, ForeignKeyData>> getImportedKeys(DatabaseMetaData md,
+            String catalog, String schema, Map<String, String> tableNames) throws SQLException {
+        ResultSet foreignKeys = md.getImportedKeys(catalog, schema, null);
+        Map<String, Map<String,ForeignKeyData>> tables = new HashMap<String, Map<String,ForeignKeyData>>();
+        try{
+            while (foreignKeys.next()) {
+                String tableName = foreignKeys.getString(FK_FOREIGN_TABLE_NAME);
+                if (tableNames.containsKey(tableName)) {
+                    addImportedKey(foreignKeys, tableNames.get(tableName), getTable(tables, tableName));
                 }
-                data.add(foreignColumn, parentColumnName);
             }
-            return foreignKeyData;
+            return tables;
         }finally{
             foreignKeys.close();
         }
     }
 
+    private void addImportedKey(ResultSet foreignKeys, String tableName,
+            Map<String,ForeignKeyData> foreignKeyData) throws SQLException {
+        String name = foreignKeys.getString(FK_NAME);
+        String parentSchemaName = namingStrategy.normalizeSchemaName(foreignKeys.getString(FK_PARENT_SCHEMA_NAME));
+        String parentTableName = namingStrategy.normalizeTableName(foreignKeys.getString(FK_PARENT_TABLE_NAME));
+        String parentColumnName = namingStrategy.normalizeColumnName(foreignKeys.getString(FK_PARENT_COLUMN_NAME));
+        String foreignColumn = namingStrategy.normalizeColumnName(foreignKeys.getString(FK_FOREIGN_COLUMN_NAME));
+        if (name == null || name.isEmpty()) {
+            name = tableName + "_" + parentTableName + "_FK";
+        }
+
+        ForeignKeyData data = foreignKeyData.get(name);
+        if (data == null) {
+            data = new ForeignKeyData(name, parentSchemaName, parentTableName,
+                    createType(parentSchemaName, parentTableName));
+            foreignKeyData.put(name, data);
+        }
+        data.add(foreignColumn, parentColumnName);
+    }
+
     public Map<String, PrimaryKeyData> getPrimaryKeys(DatabaseMetaData md,
             String catalog, String schema, String tableName) throws SQLException {
         ResultSet primaryKeys = md.getPrimaryKeys(catalog, schema, tableName);
         Map<String,PrimaryKeyData> primaryKeyData = new HashMap<String,PrimaryKeyData>();
         try{
             while (primaryKeys.next()) {
-                String name = primaryKeys.getString(PK_NAME);
-                String columnName = primaryKeys.getString(PK_COLUMN_NAME);
-                if (name == null || name.isEmpty()) {
-                    name = tableName + "_PK";
-                }
+                addPrimaryKey(primaryKeys, tableName, primaryKeyData);
+            }
+            return primaryKeyData;
+        }finally{
+            primaryKeys.close();
+        }
+    }
 
-                PrimaryKeyData data = primaryKeyData.get(name);
-                if (data == null) {
-                    data = new PrimaryKeyData(name);
-                    primaryKeyData.put(name, data);
+    /**
+     * Get the primary keys of the given tables of a schema grouped by table name. The table
+     * names used for default key names are the values of the tableNames map.
+     *
+     * @param md metadata
+     * @param catalog catalog
+     * @param schema schema
+     * @param tableNames names of the tables to include by their metadata names
+     * @return primary keys by metadata table name
+     * @throws SQLException
+     */
+    public Map<String, Map<String, PrimaryKeyData>> getPrimaryKeys(DatabaseMetaData md,
+            String catalog, String schema, Map<String, String> tableNames) throws SQLException {
+        ResultSet primaryKeys = md.getPrimaryKeys(catalog, schema, null);
+        Map<String, Map<String,PrimaryKeyData>> tables = new HashMap<String, Map<String,PrimaryKeyData>>();
+        try{
+            while (primaryKeys.next()) {
+                String tableName = primaryKeys.getString(PK_TABLE_NAME);
+                if (tableNames.containsKey(tableName)) {
+                    addPrimaryKey(primaryKeys, tableNames.get(tableName), getTable(tables, tableName));
                 }
-                data.add(columnName);
             }
-            return primaryKeyData;
+            return tables;
         }finally{
             primaryKeys.close();
         }
     }
 
+    private void addPrimaryKey(ResultSet primaryKeys, String tableName,
+            Map<String,PrimaryKeyData> primaryKeyData) throws SQLException {
+        String name = primaryKeys.getString(PK_NAME);
+        String columnName = primaryKeys.getString(PK_COLUMN_NAME);
+        if (name == null || name.isEmpty()) {
+            name = tableName + "_PK";
+        }
+
+        PrimaryKeyData data = primaryKeyData.get(name);
+        if (data == null) {
+            data = new PrimaryKeyData(name);
+            primaryKeyData.put(name, data);
+        }
+        data.add(columnName);
+    }
+
+    private static <T> Map<String, T> getTable(Map<String, Map<String, T>> tables, String tableName) {
+        Map<String, T> table = tables.get(tableName);
+        if (table == null) {
+            table = new HashMap<String, T>();
+            tables.put(tableName, table);
+        }
+        return table;
+    }
+
     private Type createType(@Nullable String schemaName, String table) {
         String packageName = this.packageName;
         if (schemaToPackage && schemaName != null) {
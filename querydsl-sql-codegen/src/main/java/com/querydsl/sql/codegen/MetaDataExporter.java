@@ -27,6 +27,7 @@ import javax.annotation.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.google.common.collect.ImmutableSet;
 import com.google.common.io.Files;
 import com.mysema.codegen.CodeWriter;
 import com.mysema.codegen.JavaWriter;
@@ -57,6 +58,11 @@ public class MetaDataExporter {
 
     private static final Logger logger = LoggerFactory.getLogger(MetaDataExporter.class);
 
+    /**
+     * Database products whose drivers return the keys of all tables of a schema for a null table name
+     */
+    private static final Set<String> BULK_KEY_PRODUCTS = ImmutableSet.of("postgresql");
+
     private final SQLTemplatesRegistry sqlTemplatesRegistry = new SQLTemplatesRegistry();
 
     private final SQLCodegenModule module = new SQLCodegenModule();
@@ -111,6 +117,8 @@ public class MetaDataExporter {
     private boolean exportForeignKeys = true;
 
     private boolean spatial = false;
+
+    private boolean bulkMetaData = false;
     
     @Nullable
     private String tableTypesToExport; 
@@ -223,43 +231,74 @@ public class MetaDataExporter {
             typesArray = types.toArray(new String[types.size()]);
         }
 
+        List<TableData> tables = new ArrayList<TableData>();
         if (tableNamePattern != null && tableNamePattern.contains(",")) {
             for (String table : tableNamePattern.split(",")) {
-                ResultSet tables = md.getTables(null, schemaPattern, table.trim(), typesArray);
-                try{
-                    while (tables.next()) {
-                        handleTable(md, tables);
-                    }
-                }finally{
-                    tables.close();
-                }
+                addTables(md, table.trim(), typesArray, tables);
             }
         } else {
-            ResultSet tables = md.getTables(null, schemaPattern, tableNamePattern, typesArray);
-            try{
-                while (tables.next()) {
-                    handleTable(md, tables);
+            addTables(md, tableNamePattern, typesArray, tables);
+        }
+
+        Map<List<String>, Map<String, String>> schemaTables = new HashMap<List<String>, Map<String, String>>();
+        if (bulkMetaData) {
+            for (TableData table : tables) {
+                List<String> schemaKey = Arrays.asList(table.catalog, table.schema);
+                Map<String, String> tableNames = schemaTables.get(schemaKey);
+                if (tableNames == null) {
+                    tableNames = new HashMap<String, String>();
+                    schemaTables.put(schemaKey, tableNames);
                 }
-            }finally{
-                tables.close();
+                tableNames.put(table.name, normalize(table.name));
             }
         }
 
+        boolean bulkKeys = BULK_KEY_PRODUCTS.contains(md.getDatabaseProductName().toLowerCase());
+        Map<List<String>, SchemaData> schemas = new HashMap<List<String>, SchemaData>();
+        for (int i = 0; i < tables.size(); i++) {
+            TableData table = tables.get(i);
+            SchemaData schemaData = null;
+            if (bulkMetaData) {
+                List<String> schemaKey = Arrays.asList(table.catalog, table.schema);
+                schemaData = schemas.get(schemaKey);
+                if (schemaData == null) {
+                    schemaData = new SchemaData(md, table.catalog, table.schema,
+                            schemaTables.get(schemaKey), bulkKeys);
+                    schemas.put(schemaKey, schemaData);
+                }
+            }
+            handleTable(md, table, schemaData);
+            logger.info("Exported " + normalize(table.name) + " successfully (" + (i + 1) + "/" + tables.size() + ")");
+        }
+
+    }
+
+    private void addTables(DatabaseMetaData md, @Nullable String tableNamePattern,
+            @Nullable String[] typesArray, List<TableData> tables) throws SQLException {
+        ResultSet rs = md.getTables(null, schemaPattern, tableNamePattern, typesArray);
+        try{
+            while (rs.next()) {
+                tables.add(new TableData(rs.getString("TABLE_CAT"), rs.getString("TABLE_SCHEM"),
+                        rs.getString("TABLE_NAME")));
+            }
+        }finally{
+            rs.close();
+        }
     }
 
     Set<String> getClasses() {
         return classes;
     }
 
-    private void handleColumn(EntityType classModel, String tableName, ResultSet columns) throws SQLException {
-        String columnName = normalize(columns.getString("COLUMN_NAME"));
+    private void handleColumn(EntityType classModel, String tableName, ColumnData columns) {
+        String columnName = normalize(columns.name);
         String normalizedColumnName = namingStrategy.normalizeColumnName(columnName);
-        int columnType = columns.getInt("DATA_TYPE");
-        String typeName = columns.getString("TYPE_NAME");
-        Number columnSize = (Number) columns.getObject("COLUMN_SIZE");
-        Number columnDigits = (Number) columns.getObject("DECIMAL_DIGITS");
-        int columnIndex = columns.getInt("ORDINAL_POSITION");
-        int nullable = columns.getInt("NULLABLE");
+        int columnType = columns.type;
+        String typeName = columns.typeName;
+        Number columnSize = columns.size;
+        Number columnDigits = columns.digits;
+        int columnIndex = columns.index;
+        int nullable = columns.nullable;
 
         String propertyName = namingStrategy.getPropertyName(normalizedColumnName, classModel);
         Class<?> clazz = configuration.getJavaType(columnType,
@@ -297,7 +336,7 @@ public class MetaDataExporter {
             if (nullable == DatabaseMetaData.columnNoNulls) {
                 property.addAnnotation(new NotNullImpl());
             }
-            int size = columns.getInt("COLUMN_SIZE");
+            int size = columnSize != null ? columnSize.intValue() : 0;
             if (size > 0 && clazz.equals(String.class)) {
                 property.addAnnotation(new SizeImpl(0, size));
             }
@@ -305,19 +344,24 @@ public class MetaDataExporter {
         classModel.addProperty(property);
     }
 
-    private void handleTable(DatabaseMetaData md, ResultSet tables) throws SQLException {
-        String catalog = tables.getString("TABLE_CAT");
-        String schema = tables.getString("TABLE_SCHEM");
-        String schemaName = normalize(tables.getString("TABLE_SCHEM"));
-        String tableName = normalize(tables.getString("TABLE_NAME"));
+    private void handleTable(DatabaseMetaData md, TableData table, @Nullable SchemaData schemaData)
+            throws SQLException {
+        String catalog = table.catalog;
+        String schema = table.schema;
+        String schemaName = normalize(table.schema);
+        String tableName = normalize(table.name);
         String normalizedTableName = namingStrategy.normalizeTableName(tableName);
         String className = namingStrategy.getClassName(normalizedTableName);
         EntityType classModel = createEntityType(schemaName, normalizedTableName, className);
 
         if (exportPrimaryKeys) {
             // collect primary keys
-            Map<String,PrimaryKeyData> primaryKeyData = keyDataFactory
-                    .getPrimaryKeys(md, catalog, schema, tableName);
+            Map<String,PrimaryKeyData> primaryKeyData;
+            if (schemaData != null && schemaData.primaryKeys != null) {
+                primaryKeyData = getKeys(schemaData.primaryKeys, table.name);
+            } else {
+                primaryKeyData = keyDataFactory.getPrimaryKeys(md, catalog, schema, tableName);
+            }
             if (!primaryKeyData.isEmpty()) {
                 classModel.getData().put(PrimaryKeyData.class, primaryKeyData.values());
             }
@@ -325,34 +369,54 @@ public class MetaDataExporter {
 
         if (exportForeignKeys) {
             // collect foreign keys
-            Map<String,ForeignKeyData> foreignKeyData = keyDataFactory
-                    .getImportedKeys(md, catalog, schema, tableName);
+            Map<String,ForeignKeyData> foreignKeyData;
+            if (schemaData != null && schemaData.importedKeys != null) {
+                foreignKeyData = getKeys(schemaData.importedKeys, table.name);
+            } else {
+                foreignKeyData = keyDataFactory.getImportedKeys(md, catalog, schema, tableName);
+            }
             if (!foreignKeyData.isEmpty()) {
                 classModel.getData().put(ForeignKeyData.class, foreignKeyData.values());
             }
 
             // collect inverse foreign keys
-            Map<String,InverseForeignKeyData> inverseForeignKeyData = keyDataFactory
-                    .getExportedKeys(md, catalog, schema, tableName);
+            Map<String,InverseForeignKeyData> inverseForeignKeyData;
+            if (schemaData != null && schemaData.exportedKeys != null) {
+                inverseForeignKeyData = getKeys(schemaData.exportedKeys, table.name);
+            } else {
+                inverseForeignKeyData = keyDataFactory.getExportedKeys(md, catalog, schema, tableName);
+            }
             if (!inverseForeignKeyData.isEmpty()) {
                 classModel.getData().put(InverseForeignKeyData.class, inverseForeignKeyData.values());
             }
         }
 
         // collect columns
-        ResultSet columns = md.getColumns(catalog, schema, tableName.replace("/", "//"), null);
-        try{
-            while (columns.next()) {
-                handleColumn(classModel, tableName, columns);
+        if (schemaData != null) {
+            List<ColumnData> columns = schemaData.columns.get(table.name);
+            if (columns != null) {
+                for (ColumnData column : columns) {
+                    handleColumn(classModel, tableName, column);
+                }
+            }
+        } else {
+            ResultSet columns = md.getColumns(catalog, schema, tableName.replace("/", "//"), null);
+            try{
+                while (columns.next()) {
+                    handleColumn(classModel, tableName, new ColumnData(columns));
+                }
+            }finally{
+                columns.close();
             }
-        }finally{
-            columns.close();
         }
 
         // serialize model
         serialize(classModel);
+    }
 
-        logger.info("Exported " + tableName + " successfully");
+    private static <T> Map<String, T> getKeys(Map<String, Map<String, T>> tables, String tableName) {
+        Map<String, T> keys = tables.get(tableName);
+        return keys != null ? keys : Collections.<String, T>emptyMap();
     }
 
     private String normalize(String str) {
@@ -664,4 +728,117 @@ public class MetaDataExporter {
         this.tableTypesToExport = tableTypesToExport;
     }
 
+    /**
+     * Set whether the columns and keys of all exported tables of a schema should be fetched with
+     * a few schema wide metadata queries instead of separate queries per table (default: false).
+     * Keys are fetched for the whole schema only with drivers known to support it (PostgreSQL),
+     * with other drivers they are fetched per table.
+     *
+     * @param bulkMetaData
+     */
+    public void setBulkMetaData(boolean bulkMetaData) {
+        this.bulkMetaData = bulkMetaData;
+    }
+
+    /**
+     * Table identity from the table metadata
+     */
+    private static final class TableData {
+
+        @Nullable
+        private final String catalog, schema;
+
+        private final String name;
+
+        TableData(@Nullable String catalog, @Nullable String schema, String name) {
+            this.catalog = catalog;
+            this.schema = schema;
+            this.name = name;
+        }
+
+    }
+
+    /**
+     * Column details from the column metadata
+     */
+    private static final class ColumnData {
+
+        private final String name, typeName;
+
+        private final int type, index, nullable;
+
+        @Nullable
+        private final Number size, digits;
+
+        ColumnData(ResultSet columns) throws SQLException {
+            name = columns.getString("COLUMN_NAME");
+            type = columns.getInt("DATA_TYPE");
+            typeName = columns.getString("TYPE_NAME");
+            size = (Number) columns.getObject("COLUMN_SIZE");
+            digits = (Number) columns.getObject("DECIMAL_DIGITS");
+            index = columns.getInt("ORDINAL_POSITION");
+            nullable = columns.getInt("NULLABLE");
+        }
+
+    }
+
+    /**
+     * Columns and keys of a schema grouped by table name. The keys are null, if the driver
+     * doesn't support schema wide key queries or if they failed.
+     */
+    private final class SchemaData {
+
+        private final Map<String, List<ColumnData>> columns = new HashMap<String, List<ColumnData>>();
+
+        @Nullable
+        private Map<String, Map<String, PrimaryKeyData>> primaryKeys;
+
+        @Nullable
+        private Map<String, Map<String, ForeignKeyData>> importedKeys;
+
+        @Nullable
+        private Map<String, Map<String, InverseForeignKeyData>> exportedKeys;
+
+        SchemaData(DatabaseMetaData md, @Nullable String catalog, @Nullable String schema,
+                Map<String, String> tableNames, boolean bulkKeys) throws SQLException {
+            ResultSet rs = md.getColumns(catalog, schema, "%", null);
+            try{
+                while (rs.next()) {
+                    // the schema is used as a pattern in the column query
+                    if (schema != null && !schema.equals(rs.getString("TABLE_SCHEM"))) {
+                        continue;
+                    }
+                    String tableName = rs.getString("TABLE_NAME");
+                    List<ColumnData> tableColumns = columns.get(tableName);
+                    if (tableColumns == null) {
+                        tableColumns = new ArrayList<ColumnData>();
+                        columns.put(tableName, tableColumns);
+                    }
+                    tableColumns.add(new ColumnData(rs));
+                }
+            }finally{
+                rs.close();
+            }
+
+            if (!bulkKeys) {
+                return;
+            }
+            try {
+                if (exportPrimaryKeys) {
+                    primaryKeys = keyDataFactory.getPrimaryKeys(md, catalog, schema, tableNames);
+                }
+                if (exportForeignKeys) {
+                    importedKeys = keyDataFactory.getImportedKeys(md, catalog, schema, tableNames);
+                    exportedKeys = keyDataFactory.getExportedKeys(md, catalog, schema, tableNames);
+                }
+            } catch (SQLException e) {
+                logger.info("Schema wide key queries failed, falling back to queries per table: " + e.getMessage());
+                primaryKeys = null;
+                importedKeys = null;
+                exportedKeys = null;
+            }
+        }
+
+    }
+
 }
@@ -215,6 +215,12 @@ public class AntMetaDataExporter extends Task {
      */
     private boolean spatial;
 
+    /**
+     * fetch the columns and keys of a schema with schema wide metadata queries
+     * instead of queries per table (default: false)
+     */
+    private boolean bulkMetaData;
+
     /**
      * Comma-separated list of table types to export (allowable values will
      * depend on JDBC driver). Allows for arbitrary set of types to be exported,
@@ -281,6 +287,7 @@ public class AntMetaDataExporter extends Task {
             exporter.setExportPrimaryKeys(exportPrimaryKeys);
             exporter.setExportForeignKeys(exportForeignKeys);
             exporter.setSpatial(spatial);
+            exporter.setBulkMetaData(bulkMetaData);
 
             if (imports != null && imports.length > 0) {
                 exporter.setImports(imports);
@@ -615,6 +622,14 @@ public class AntMetaDataExporter extends Task {
         this.spatial = spatial;
     }
 
+    public boolean isBulkMetaData() {
+        return bulkMetaData;
+    }
+
+    public void setBulkMetaData(boolean bulkMetaData) {
+        this.bulkMetaData = bulkMetaData;
+    }
+
     public String getTableTypesToExport() {
         return tableTypesToExport;
     }
@@ -17,6 +17,7 @@ import static org.junit.Assert.*;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.charset.Charset;
 import java.sql.*;
 import java.util.Arrays;
 import java.util.Collections;
@@ -27,6 +28,7 @@ import javax.tools.JavaCompiler;
 
 import org.junit.*;
 
+import com.google.common.io.Files;
 import com.mysema.codegen.SimpleCompiler;
 import com.querydsl.codegen.BeanSerializer;
 import com.querydsl.codegen.Serializer;
@@ -284,6 +286,31 @@ public class MetaDataExporterTest {
         assertTrue(new File("target/b/test/DateTestBean.java").exists());
     }
 
+    @Test
+    public void Bulk_MetaData() throws SQLException, IOException {
+        MetaDataExporter exporter = new MetaDataExporter();
+        exporter.setSchemaPattern("PUBLIC");
+        exporter.setPackageName("test");
+        exporter.setTargetFolder(new File("target/bulk1"));
+        exporter.export(metadata);
+
+        MetaDataExporter bulkExporter = new MetaDataExporter();
+        bulkExporter.setSchemaPattern("PUBLIC");
+        bulkExporter.setPackageName("test");
+        bulkExporter.setTargetFolder(new File("target/bulk2"));
+        bulkExporter.setBulkMetaData(true);
+        bulkExporter.export(metadata);
+
+        File[] files = new File("target/bulk1/test").listFiles();
+        assertTrue(files.length > 0);
+        assertEquals(files.length, new File("target/bulk2/test").listFiles().length);
+        for (File file : files) {
+            File bulkFile = new File("target/bulk2/test", file.getName());
+            assertEquals(Files.toString(file, Charset.forName("UTF-8")),
+                    Files.toString(bulkFile, Charset.forName("UTF-8")));
+        }
+    }
+
     private void test(String namePrefix, String nameSuffix, String beanPrefix, String beanSuffix,
             NamingStrategy namingStrategy, String target, boolean withBeans,
             boolean withInnerClasses, boolean withOrdinalPositioning) throws SQLException{
@@ -13,7 +13,6 @@
  */
 package com.querydsl.sql;
 
-import java.lang.reflect.InvocationTargetException;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
@@ -108,9 +107,41 @@ public abstract class AbstractSQLQuery<Q extends AbstractSQLQuery<Q>> extends Pr
         return serializer;
     }
 
-    @Nullable
-    private <T> T get(ResultSet rs, Expression<?> expr, int i, Class<T> type) throws SQLException {
-        return configuration.get(rs, expr instanceof Path ? (Path<?>)expr : null, i, type);
+    @Override
+    protected SQLSerializer serialize(boolean forCountRow) {
+        return serialize(forCountRow, null);
+    }
+
+    private SQLSerializer serialize(boolean forCountRow, @Nullable SQLListenerContext context) {
+        SQLStatementCache cache = configuration.getStatementCache();
+        if (cache == null || useLiterals || union != null) {
+            return super.serialize(forCountRow);
+        }
+        QueryMetadata metadata = queryMixin.getMetadata();
+        SQLQueryShape shape = new SQLQueryShape(configuration.getTemplates(), metadata, forCountRow);
+        SQLSerializer serializer = cache.get(shape, createSerializer());
+        if (context != null) {
+            context.setData(SQLStatementCache.CACHE_HIT, serializer != null);
+        }
+        if (serializer == null) {
+            serializer = super.serialize(forCountRow);
+            if (cache.isCacheable(shape)) {
+                List<Object> modified = null;
+                QueryModifiers modifiers = metadata.getModifiers();
+                if (!forCountRow && modifiers.isRestricting()) {
+                    // render again to detect the bindings derived from limit and offset
+                    QueryMetadata md = metadata.clone();
+                    md.setModifiers(new QueryModifiers(
+                            modifiers.getLimit() != null ? modifiers.getLimit() + 1 : null,
+                            modifiers.getOffset() != null ? modifiers.getOffset() + 1 : null));
+                    SQLSerializer modifiedSerializer = createSerializer();
+                    modifiedSerializer.serialize(md, false);
+                    modified = modifiedSerializer.getConstants();
+                }
+                cache.put(shape, serializer, modified);
+            }
+        }
+        return serializer;
     }
 
     private void set(PreparedStatement stmt, Path<?> path, int i, Object value) throws SQLException{
@@ -167,7 +198,7 @@ public abstract class AbstractSQLQuery<Q extends AbstractSQLQuery<Q>> extends Pr
 
         try {
             listeners.preRender(context);
-            SQLSerializer serializer = serialize(false);
+            SQLSerializer serializer = serialize(false, context);
             queryString = serializer.toString();
             logQuery(queryString, serializer.getConstants());
             context.addSQL(queryString);
@@ -216,7 +247,6 @@ public abstract class AbstractSQLQuery<Q extends AbstractSQLQuery<Q>> extends Pr
         return iterateSingle(queryMixin.getMetadata(), expr);
     }
 
-    @SuppressWarnings("unchecked")
     private <RT> CloseableIterator<RT> iterateSingle(QueryMetadata metadata, @Nullable final Expression<RT> expr) {
         SQLListenerContextImpl context = startContext(conn, queryMixin.getMetadata());
         String queryString = null;
@@ -224,7 +254,7 @@ public abstract class AbstractSQLQuery<Q extends AbstractSQLQuery<Q>> extends Pr
 
         try {
             listeners.preRender(context);
-            SQLSerializer serializer = serialize(false);
+            SQLSerializer serializer = serialize(false, context);
             queryString = serializer.toString();
             logQuery(queryString, serializer.getConstants());
             context.addSQL(queryString);
@@ -244,39 +274,13 @@ public abstract class AbstractSQLQuery<Q extends AbstractSQLQuery<Q>> extends Pr
             final ResultSet rs = stmt.executeQuery();
             listeners.executed(context);
 
-            if (expr == null) {
-                return new SQLResultIterator<RT>(configuration, stmt, rs) {
-                    @Override
-                    public RT produceNext(ResultSet rs) throws Exception {
-                        return (RT) rs.getObject(1);
-                    }
-                };
-            } else if (expr instanceof FactoryExpression) {
-                return new SQLResultIterator<RT>(configuration, stmt, rs) {
-                    @Override
-                    public RT produceNext(ResultSet rs) throws Exception {
-                        return newInstance((FactoryExpression<RT>) expr, rs, 0);
-                    }
-                };
-            } else if (expr.equals(Wildcard.all)) {
-                return new SQLResultIterator<RT>(configuration, stmt, rs) {
-                    @Override
-                    public RT produceNext(ResultSet rs) throws Exception {
-                        Object[] rv = new Object[rs.getMetaData().getColumnCount()];
-                        for (int i = 0; i < rv.length; i++) {
-                            rv[i] = rs.getObject(i+1);
-                        }
-                        return (RT) rv;
-                    }
-                };
-            } else {
-                return new SQLResultIterator<RT>(configuration, stmt, rs) {
-                    @Override
-                    public RT produceNext(ResultSet rs) throws Exception {
-                        return get(rs, expr, 1, expr.getType());
-                    }
-                };
-            }
+            final RowReader<RT> reader = RowReader.create(configuration, expr);
+            return new SQLResultIterator<RT>(configuration, stmt, rs) {
+                @Override
+                public RT produceNext(ResultSet rs) throws Exception {
+                    return reader.read(rs);
+                }
+            };
 
         } catch (SQLException e) {
             onException(context, e);
@@ -287,7 +291,6 @@ public abstract class AbstractSQLQuery<Q extends AbstractSQLQuery<Q>> extends Pr
         }
     }
 
-    @SuppressWarnings("unchecked")
     @Override
     public <RT> List<RT> list(Expression<RT> expr) {
         expr = queryMixin.setProjection(expr);
@@ -297,7 +300,7 @@ public abstract class AbstractSQLQuery<Q extends AbstractSQLQuery<Q>> extends Pr
 
         try {
             listeners.preRender(context);
-            SQLSerializer serializer = serialize(false);
+            SQLSerializer serializer = serialize(false, context);
             queryString = serializer.toString();
             logQuery(queryString, serializer.getConstants());
             context.addSQL(queryString);
@@ -318,47 +321,17 @@ public abstract class AbstractSQLQuery<Q extends AbstractSQLQuery<Q>> extends Pr
                 listeners.executed(context);
                 try {
                     lastCell = null;
+                    final RowReader<RT> reader = RowReader.create(configuration, expr);
                     final List<RT> rv = new ArrayList<RT>();
-                    if (expr instanceof FactoryExpression) {
-                        FactoryExpression<RT> fe = (FactoryExpression<RT>) expr;
-                        while (rs.next()) {
-                            if (getLastCell) {
-                                lastCell = rs.getObject(fe.getArgs().size() + 1);
-                                getLastCell = false;
-                            }
-                            rv.add(newInstance(fe, rs, 0));
-                        }
-                    } else if (expr.equals(Wildcard.all)) {
-                        while (rs.next()) {
-                            Object[] row = new Object[rs.getMetaData().getColumnCount()];
-                            if (getLastCell) {
-                                lastCell = rs.getObject(row.length);
-                                getLastCell = false;
-                            }
-                            for (int i = 0; i < row.length; i++) {
-                                row[i] = rs.getObject(i+1);
-                            }
-                            rv.add((RT)row);
-                        }
-                    } else {
-                        while (rs.next()) {
-                            if (getLastCell) {
-                                lastCell = rs.getObject(2);
-                                getLastCell = false;
-                            }
-                            rv.add(get(rs, expr, 1, expr.getType()));
-                        }
+                    if (getLastCell && rs.next()) {
+                        lastCell = rs.getObject(getLastCellIndex(expr, rs));
+                        getLastCell = false;
+                        rv.add(reader.read(rs));
+                    }
+                    while (rs.next()) {
+                        rv.add(reader.read(rs));
                     }
                     return rv;
-                } catch (IllegalAccessException e) {
-                    onException(context, e);
-                    throw new QueryException(e);
-                } catch (InvocationTargetException e) {
-                    onException(context,e);
-                    throw new QueryException(e);
-                } catch (InstantiationException e) {
-                    onException(context,e);
-                    throw new QueryException(e);
                 } catch (SQLException e) {
                     onException(context,e);
                     throw configuration.translate(queryString, constants, e);
@@ -419,13 +392,14 @@ public abstract class AbstractSQLQuery<Q extends AbstractSQLQuery<Q>> extends Pr
         }
     }
 
-    private <RT> RT newInstance(FactoryExpression<RT> c, ResultSet rs, int offset)
-        throws InstantiationException, IllegalAccessException, InvocationTargetException, SQLException{
-        Object[] args = new Object[c.getArgs().size()];
-        for (int i = 0; i < args.length; i++) {
-            args[i] = get(rs, c.getArgs().get(i), offset + i + 1, c.getArgs().get(i).getType());
+    private int getLastCellIndex(Expression<?> expr, ResultSet rs) throws SQLException {
+        if (expr instanceof FactoryExpression) {
+            return ((FactoryExpression<?>) expr).getArgs().size() + 1;
+        } else if (expr.equals(Wildcard.all)) {
+            return rs.getMetaData().getColumnCount();
+        } else {
+            return 2;
         }
-        return c.newInstance(args);
     }
 
     private void reset() {
@@ -474,7 +448,7 @@ public abstract class AbstractSQLQuery<Q extends AbstractSQLQuery<Q>> extends Pr
 
         try {
             listeners.preRender(context);
-            SQLSerializer serializer = serialize(true);
+            SQLSerializer serializer = serialize(true, context);
             queryString = serializer.toString();
             logQuery(queryString, serializer.getConstants());
             context.addSQL(queryString);
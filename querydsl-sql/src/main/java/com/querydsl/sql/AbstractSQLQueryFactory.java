@@ -17,6 +17,8 @@ import java.sql.Connection;
 
 import javax.inject.Provider;
 
+import com.querydsl.sql.dml.Mapper;
+import com.querydsl.sql.dml.SQLBulkLoader;
 import com.querydsl.sql.dml.SQLDeleteClause;
 import com.querydsl.sql.dml.SQLInsertClause;
 import com.querydsl.sql.dml.SQLMergeClause;
@@ -43,6 +45,29 @@ public abstract class AbstractSQLQueryFactory<Q extends SQLCommonQuery<Q>, SQ ex
         this.connection = connection;
     }
 
+    /**
+     * Create a new bulk loader for the given table which maps the rows via the given Mapper
+     *
+     * @param path table
+     * @param mapper row mapper
+     * @return
+     */
+    public final <T> SQLBulkLoader<T> bulkLoader(RelationalPath<?> path, Mapper<? super T> mapper) {
+        return new SQLBulkLoader<T>(connection.get(), configuration, path, mapper);
+    }
+
+    /**
+     * Create a new bulk loader for the given table which maps array rows to the given columns
+     *
+     * @param path table
+     * @param columns columns
+     * @return
+     */
+    public final SQLBulkLoader<Object[]> bulkLoader(RelationalPath<?> path, Path<?>... columns) {
+        return new SQLBulkLoader<Object[]>(connection.get(), configuration, path,
+                SQLBulkLoader.columns(columns));
+    }
+
     @Override
     public final SQLDeleteClause delete(RelationalPath<?> path) {
         return new SQLDeleteClause(connection.get(), configuration, path);
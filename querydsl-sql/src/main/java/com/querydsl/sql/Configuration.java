@@ -27,6 +27,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Maps;
 import com.google.common.primitives.Primitives;
 import com.querydsl.core.types.Path;
@@ -60,10 +61,17 @@ public final class Configuration {
 
     private final SQLListeners listeners = new SQLListeners();
 
-    private boolean hasTableColumnTypes = false;
+    private volatile boolean hasTableColumnTypes = false;
+
+    private volatile boolean frozen = false;
+
+    private volatile Map<Path<?>, Type<?>> frozenTypes = ImmutableMap.of();
 
     private boolean useLiterals = false;
 
+    @Nullable
+    private SQLStatementCache statementCache;
+
     /**
      * Create a new Configuration instance
      *
@@ -229,7 +237,13 @@ public final class Configuration {
     }
 
     @SuppressWarnings({ "unchecked", "rawtypes" })
-    private <T> Type<T> getType(@Nullable Path<?> path, Class<T> clazz) {
+    <T> Type<T> getType(@Nullable Path<?> path, Class<T> clazz) {
+        if (path != null && clazz.equals(path.getType())) {
+            Type<T> type = (Type) frozenTypes.get(path);
+            if (type != null) {
+                return type;
+            }
+        }
         if (hasTableColumnTypes && path != null && !clazz.equals(Null.class)
                 && path.getMetadata().getParent() instanceof RelationalPath) {
             String table = ((RelationalPath)path.getMetadata().getParent()).getTableName();
@@ -277,6 +291,8 @@ public final class Configuration {
      * @return
      */
     public String registerSchemaOverride(String oldSchema, String newSchema) {
+        checkNotFrozen();
+        invalidateStatementCache();
         return nameMapping.registerSchemaOverride(oldSchema, newSchema);
     }
 
@@ -288,6 +304,8 @@ public final class Configuration {
      * @return
      */
     public String registerTableOverride(String oldTable, String newTable) {
+        checkNotFrozen();
+        invalidateStatementCache();
         return nameMapping.registerTableOverride(oldTable, newTable);
     }
 
@@ -325,6 +343,8 @@ public final class Configuration {
      * @return
      */
     public SchemaAndTable registerTableOverride(SchemaAndTable from, SchemaAndTable to) {
+        checkNotFrozen();
+        invalidateStatementCache();
         return nameMapping.registerTableOverride(from, to);
     }
 
@@ -338,6 +358,8 @@ public final class Configuration {
      * @return
      */
     public String registerColumnOverride(String schema, String table, String oldColumn, String newColumn) {
+        checkNotFrozen();
+        invalidateStatementCache();
         return nameMapping.registerColumnOverride(schema, table, oldColumn, newColumn);
     }
 
@@ -350,6 +372,8 @@ public final class Configuration {
      * @return
      */
     public String registerColumnOverride(String table, String oldColumn, String newColumn) {
+        checkNotFrozen();
+        invalidateStatementCache();
         return nameMapping.registerColumnOverride(table, oldColumn, newColumn);
     }
 
@@ -359,8 +383,10 @@ public final class Configuration {
      * @param type
      */
     public void register(Type<?> type) {
+        checkNotFrozen();
         jdbcTypeMapping.register(type.getSQLTypes()[0], type.getReturnedClass());
         javaTypeMapping.register(type);
+        invalidateStatementCache();
     }
 
     /**
@@ -370,6 +396,7 @@ public final class Configuration {
      * @param clazz
      */
     public void registerType(String typeName, Class<?> clazz) {
+        checkNotFrozen();
         typeToName.put(typeName.toLowerCase(), clazz);
     }
 
@@ -381,7 +408,9 @@ public final class Configuration {
      * @param javaType
      */
     public void registerNumeric(int total, int decimal, Class<?> javaType) {
+        checkNotFrozen();
         jdbcTypeMapping.registerNumeric(total, decimal, javaType);
+        invalidateStatementCache();
     }
 
     /**
@@ -420,6 +449,7 @@ public final class Configuration {
      * @param type
      */
     public void register(String table, String column, Type<?> type) {
+        checkNotFrozen();
         javaTypeMapping.setType(table, column, type);
         hasTableColumnTypes = true;
     }
@@ -484,7 +514,82 @@ public final class Configuration {
      * @param templates
      */
     public void setTemplates(SQLTemplates templates) {
+        checkNotFrozen();
         this.templates = templates;
+        invalidateStatementCache();
+    }
+
+    /**
+     * Get the cache of rendered statements
+     *
+     * @return statement cache or null, if statements are not cached
+     */
+    @Nullable
+    public SQLStatementCache getStatementCache() {
+        return statementCache;
+    }
+
+    /**
+     * Set the cache of rendered statements, which is used by queries without literals and unions
+     *
+     * <p>The cache is cleared when overrides, types or templates of this configuration are changed.
+     * A cache can't be shared with other configurations.</p>
+     *
+     * @param statementCache statement cache or null to render each statement
+     * @throws IllegalArgumentException if the cache is already used by another configuration
+     */
+    public void setStatementCache(@Nullable SQLStatementCache statementCache) {
+        if (statementCache != null) {
+            statementCache.setConfiguration(this);
+        }
+        this.statementCache = statementCache;
+    }
+
+    /**
+     * Freeze the type and name mappings of this configuration. The Java types of the columns
+     * of the given tables are resolved eagerly and kept in an immutable map, which is used for
+     * these columns from then on. Afterwards registrations and overrides fail with an
+     * {@link IllegalStateException}.
+     *
+     * <p>Type lookups are thread-safe without locking also before freezing, but a frozen
+     * configuration guarantees that concurrent queries see the same mappings.</p>
+     *
+     * @param tables tables to resolve the column types for
+     */
+    public void freeze(RelationalPath<?>... tables) {
+        Map<Path<?>, Type<?>> types = Maps.newHashMap(frozenTypes);
+        for (RelationalPath<?> table : tables) {
+            for (Path<?> column : table.getColumns()) {
+                types.put(column, getType(column, column.getType()));
+            }
+        }
+        frozenTypes = ImmutableMap.copyOf(types);
+        frozen = true;
+    }
+
+    /**
+     * Get whether this configuration has been frozen
+     *
+     * @return
+     */
+    public boolean isFrozen() {
+        return frozen;
+    }
+
+    JavaTypeMapping getJavaTypeMapping() {
+        return javaTypeMapping;
+    }
+
+    private void checkNotFrozen() {
+        if (frozen) {
+            throw new IllegalStateException("Configuration has been frozen");
+        }
+    }
+
+    private void invalidateStatementCache() {
+        if (statementCache != null) {
+            statementCache.invalidateAll();
+        }
     }
 
 }
@@ -50,6 +50,7 @@ public class H2Templates extends SQLTemplates {
         setNativeMerge(true);
         setLimitRequired(true);
         setCountDistinctMultipleColumns(true);
+        setMultiRowInsertSupported(true);
 
         setPrecedence(Precedence.ARITH_LOW + 1, Ops.CONCAT);
         setPrecedence(Precedence.COMPARISON, Ops.EQ, Ops.EQ_IGNORE_CASE, Ops.NE);
@@ -16,8 +16,11 @@ package com.querydsl.sql;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import javax.annotation.Nullable;
+import javax.annotation.concurrent.ThreadSafe;
 
 import com.google.common.primitives.Primitives;
 import com.querydsl.core.util.ReflectionUtils;
@@ -26,9 +29,13 @@ import com.querydsl.sql.types.*;
 /**
  * JavaTypeMapping provides a mapping from Class to Type instances
  *
+ * <p>Lookups don't lock. Registrations replace the cache of resolved types instead of clearing it,
+ * so that concurrent lookups never see types resolved before the registration.</p>
+ *
  * @author tiwe
  *
  */
+@ThreadSafe
 class JavaTypeMapping {
 
     private static final Type<Object> DEFAULT = new ObjectType();
@@ -76,15 +83,16 @@ class JavaTypeMapping {
         }
     }
 
-    private final Map<Class<?>,Type<?>> typeByClass = new HashMap<Class<?>,Type<?>>();
+    private final Map<Class<?>,Type<?>> typeByClass = new ConcurrentHashMap<Class<?>,Type<?>>();
 
-    private final Map<Class<?>,Type<?>> resolvedTypesByClass = new HashMap<Class<?>,Type<?>>();
+    private volatile ConcurrentMap<Class<?>,Type<?>> resolvedTypesByClass = new ConcurrentHashMap<Class<?>,Type<?>>();
 
-    private final Map<String, Map<String,Type<?>>> typeByColumn = new HashMap<String,Map<String,Type<?>>>();
+    private final ConcurrentMap<String, ConcurrentMap<String,Type<?>>> typeByColumn
+        = new ConcurrentHashMap<String, ConcurrentMap<String,Type<?>>>();
 
     @Nullable
     public Type<?> getType(String table, String column) {
-        Map<String,Type<?>> columns = typeByColumn.get(table);
+        ConcurrentMap<String,Type<?>> columns = typeByColumn.get(table);
         if (columns != null) {
             return columns.get(column);
         } else {
@@ -94,11 +102,12 @@ class JavaTypeMapping {
 
     @SuppressWarnings("unchecked")
     public <T> Type<T> getType(Class<T> clazz) {
-        Type<?> resolvedType = resolvedTypesByClass.get(clazz);
+        ConcurrentMap<Class<?>,Type<?>> resolvedTypes = resolvedTypesByClass;
+        Type<?> resolvedType = resolvedTypes.get(clazz);
         if (resolvedType == null) {
             resolvedType = findType(clazz);
             if (resolvedType != null) {
-                resolvedTypesByClass.put(clazz, resolvedType);
+                resolvedTypes.putIfAbsent(clazz, resolvedType);
             } else {
                 return (Type)DEFAULT;
             }
@@ -137,15 +146,18 @@ class JavaTypeMapping {
         if (primitive != null) {
             typeByClass.put(primitive, type);
         }
-        // Clear previous resolved types, so they won't impact future lookups
-        resolvedTypesByClass.clear();
+        // Replace previous resolved types, so they won't impact future lookups
+        resolvedTypesByClass = new ConcurrentHashMap<Class<?>,Type<?>>();
     }
 
     public void setType(String table, String column, Type<?> type) {
-        Map<String,Type<?>> columns = typeByColumn.get(table);
+        ConcurrentMap<String,Type<?>> columns = typeByColumn.get(table);
         if (columns == null) {
-            columns = new HashMap<String, Type<?>>();
-            typeByColumn.put(table, columns);
+            columns = new ConcurrentHashMap<String, Type<?>>();
+            ConcurrentMap<String,Type<?>> existing = typeByColumn.putIfAbsent(table, columns);
+            if (existing != null) {
+                columns = existing;
+            }
         }
         columns.put(column, type);
     }
@@ -99,6 +99,7 @@ public class MySQLTemplates extends SQLTemplates {
         setArraysSupported(false);
         setParameterMetadataAvailable(false);
         setLimitRequired(true);
+        setMultiRowInsertSupported(true);
         setSupportsUnquotedReservedWordsAsIdentifier(true);
         setNullsFirst(null);
         setNullsLast(null);
@@ -75,6 +75,7 @@ public class PostgreSQLTemplates extends SQLTemplates {
         setDummyTable(null);
         setCountDistinctMultipleColumns(true);
         setCountViaAnalytics(true);
+        setMultiRowInsertSupported(true);
         setDefaultValues("\ndefault values");
         setSupportsUnquotedReservedWordsAsIdentifier(true);
 
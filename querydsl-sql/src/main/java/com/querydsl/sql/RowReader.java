@@ -0,0 +1,140 @@
+/*
+ * Copyright 2015, Timo Westkämper
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.querydsl.sql;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+
+import javax.annotation.Nullable;
+
+import com.querydsl.core.types.Expression;
+import com.querydsl.core.types.FactoryExpression;
+import com.querydsl.core.types.Path;
+import com.querydsl.core.types.expr.Wildcard;
+import com.querydsl.sql.types.Type;
+
+/**
+ * RowReader reads the projection of a query from the rows of a ResultSet. The {@link Type}
+ * of each projected column is resolved once, when the reader is created.
+ *
+ * @author tiwe
+ *
+ * @param <T> projection type
+ */
+abstract class RowReader<T> {
+
+    /**
+     * Create a reader for the given projection
+     *
+     * @param configuration configuration
+     * @param expr projection or null for untyped single column projections
+     * @return
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> RowReader<T> create(Configuration configuration, @Nullable Expression<T> expr) {
+        if (expr == null) {
+            return (RowReader<T>) new ObjectReader();
+        } else if (expr instanceof FactoryExpression) {
+            return new FactoryReader<T>(configuration, (FactoryExpression<T>) expr);
+        } else if (expr.equals(Wildcard.all)) {
+            return (RowReader<T>) new WildcardReader();
+        } else {
+            return new ColumnReader<T>(getType(configuration, expr));
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> Type<T> getType(Configuration configuration, Expression<T> expr) {
+        return configuration.getType(expr instanceof Path ? (Path<?>) expr : null, (Class<T>) expr.getType());
+    }
+
+    /**
+     * Read the projection from the current row
+     *
+     * @param rs result set
+     * @return
+     * @throws SQLException
+     */
+    public abstract T read(ResultSet rs) throws SQLException;
+
+    private static final class ObjectReader extends RowReader<Object> {
+
+        @Override
+        public Object read(ResultSet rs) throws SQLException {
+            return rs.getObject(1);
+        }
+
+    }
+
+    private static final class ColumnReader<T> extends RowReader<T> {
+
+        private final Type<T> type;
+
+        ColumnReader(Type<T> type) {
+            this.type = type;
+        }
+
+        @Override
+        public T read(ResultSet rs) throws SQLException {
+            return type.getValue(rs, 1);
+        }
+
+    }
+
+    private static final class FactoryReader<T> extends RowReader<T> {
+
+        private final FactoryExpression<T> expr;
+
+        private final Type<?>[] types;
+
+        FactoryReader(Configuration configuration, FactoryExpression<T> expr) {
+            this.expr = expr;
+            List<Expression<?>> args = expr.getArgs();
+            this.types = new Type<?>[args.size()];
+            for (int i = 0; i < types.length; i++) {
+                types[i] = getType(configuration, args.get(i));
+            }
+        }
+
+        @Override
+        public T read(ResultSet rs) throws SQLException {
+            Object[] args = new Object[types.length];
+            for (int i = 0; i < args.length; i++) {
+                args[i] = types[i].getValue(rs, i + 1);
+            }
+            return expr.newInstance(args);
+        }
+
+    }
+
+    private static final class WildcardReader extends RowReader<Object[]> {
+
+        private int columns = -1;
+
+        @Override
+        public Object[] read(ResultSet rs) throws SQLException {
+            if (columns < 0) {
+                columns = rs.getMetaData().getColumnCount();
+            }
+            Object[] row = new Object[columns];
+            for (int i = 0; i < row.length; i++) {
+                row[i] = rs.getObject(i + 1);
+            }
+            return row;
+        }
+
+    }
+
+}
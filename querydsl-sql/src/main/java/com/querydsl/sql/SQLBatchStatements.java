@@ -0,0 +1,144 @@
+/*
+ * Copyright 2015, Timo Westkämper
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.querydsl.sql;
+
+import java.util.List;
+
+import javax.annotation.Nullable;
+
+import com.querydsl.core.QueryMetadata;
+import com.querydsl.sql.dml.SQLInsertBatch;
+import com.querydsl.sql.dml.SQLUpdateBatch;
+
+/**
+ * SQLBatchStatements renders the statements of the batch items of a DML clause. Batch items of
+ * the same shape share the rendered statement via a small {@link SQLStatementCache} local to the
+ * clause. The shape of a batch item which differs from the previous shape only in its constants
+ * is derived from it without visiting the batch item again.
+ *
+ * <p>Instances are used by the DML clauses of a single thread.</p>
+ *
+ * @author tiwe
+ */
+public final class SQLBatchStatements {
+
+    private final SQLTemplates templates;
+
+    private final SQLStatementCache cache;
+
+    @Nullable
+    private SQLQueryShape previous;
+
+    /**
+     * Create a new SQLBatchStatements instance
+     *
+     * @param templates templates of the clause
+     * @param maximumSize maximum amount of cached statements
+     */
+    public SQLBatchStatements(SQLTemplates templates, int maximumSize) {
+        this.templates = templates;
+        this.cache = new SQLStatementCache(maximumSize);
+    }
+
+    /**
+     * Render the INSERT statement of the given batch item
+     *
+     * @param serializer empty serializer
+     * @param metadata clause metadata
+     * @param entity target table
+     * @param batch batch item
+     * @return the given serializer
+     */
+    public SQLSerializer serializeInsert(SQLSerializer serializer, QueryMetadata metadata,
+            RelationalPath<?> entity, SQLInsertBatch batch) {
+        SQLQueryShape shape = previous != null ? previous.rebindInsert(metadata, entity,
+                batch.getColumns(), batch.getValues(), batch.getSubQuery()) : null;
+        if (shape == null || cache.isCacheable(shape)) {
+            if (shape != null && cache.get(shape, serializer) != null) {
+                return serializer;
+            }
+            shape = SQLQueryShape.insert(templates, metadata, entity, batch.getColumns(),
+                    batch.getValues(), batch.getSubQuery());
+            previous = shape;
+            if (cache.get(shape, serializer) != null) {
+                return serializer;
+            }
+        }
+        serializer.serializeInsert(metadata, entity, batch.getColumns(), batch.getValues(),
+                batch.getSubQuery());
+        put(shape, serializer);
+        return serializer;
+    }
+
+    /**
+     * Render the multi-row INSERT statement of the given batch items
+     *
+     * @param serializer empty serializer
+     * @param metadata clause metadata
+     * @param entity target table
+     * @param batches batch items
+     * @return the given serializer
+     */
+    public SQLSerializer serializeInsert(SQLSerializer serializer, QueryMetadata metadata,
+            RelationalPath<?> entity, List<SQLInsertBatch> batches) {
+        SQLQueryShape shape = previous != null ? previous.rebindInsert(metadata, entity, batches) : null;
+        if (shape == null || cache.isCacheable(shape)) {
+            if (shape != null && cache.get(shape, serializer) != null) {
+                return serializer;
+            }
+            shape = SQLQueryShape.insert(templates, metadata, entity, batches);
+            previous = shape;
+            if (cache.get(shape, serializer) != null) {
+                return serializer;
+            }
+        }
+        serializer.serializeInsert(metadata, entity, batches);
+        put(shape, serializer);
+        return serializer;
+    }
+
+    /**
+     * Render the UPDATE statement of the given batch item
+     *
+     * @param serializer empty serializer
+     * @param entity target table
+     * @param batch batch item
+     * @return the given serializer
+     */
+    public SQLSerializer serializeUpdate(SQLSerializer serializer, RelationalPath<?> entity,
+            SQLUpdateBatch batch) {
+        SQLQueryShape shape = previous != null
+                ? previous.rebindUpdate(batch.getMetadata(), entity, batch.getUpdates()) : null;
+        if (shape == null || cache.isCacheable(shape)) {
+            if (shape != null && cache.get(shape, serializer) != null) {
+                return serializer;
+            }
+            shape = SQLQueryShape.update(templates, batch.getMetadata(), entity, batch.getUpdates());
+            previous = shape;
+            if (cache.get(shape, serializer) != null) {
+                return serializer;
+            }
+        }
+        serializer.serializeUpdate(batch.getMetadata(), entity, batch.getUpdates());
+        put(shape, serializer);
+        return serializer;
+    }
+
+    private void put(SQLQueryShape shape, SQLSerializer serializer) {
+        if (cache.isCacheable(shape)) {
+            cache.put(shape, serializer, null);
+        }
+    }
+
+}
@@ -0,0 +1,579 @@
+/*
+ * Copyright 2015, Timo Westkämper
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.querydsl.sql;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.annotation.Nullable;
+
+import com.google.common.base.Objects;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Sets;
+import com.querydsl.core.JoinExpression;
+import com.querydsl.core.JoinFlag;
+import com.querydsl.core.QueryFlag;
+import com.querydsl.core.QueryMetadata;
+import com.querydsl.core.QueryModifiers;
+import com.querydsl.core.types.*;
+import com.querydsl.sql.dml.SQLInsertBatch;
+
+/**
+ * SQLQueryShape is a structural fingerprint of a query in which constants are
+ * replaced by placeholders. The constants are collected in visiting order, converted
+ * the same way {@link SQLSerializer} converts them, so that they can be mapped to the
+ * bindings of a statement rendered earlier for the same shape. Constants which are created
+ * by template conversions, like the patterns of {@code startsWith} and {@code endsWith}, and
+ * escaped like patterns are marked as derived.
+ *
+ * <p>Shapes of DML clauses are created via {@link #insert(SQLTemplates, QueryMetadata, RelationalPath, List, List, SubQueryExpression)}
+ * and {@link #update(SQLTemplates, QueryMetadata, RelationalPath, Map)}. The shapes of further
+ * batch items which differ only in their constants are derived from them via {@link #rebind}
+ * without visiting the clause again.</p>
+ *
+ * @author tiwe
+ */
+final class SQLQueryShape implements Visitor<Void, Void> {
+
+    private final StringBuilder key;
+
+    private final List<Object> constants;
+
+    private final BitSet derived;
+
+    private final SQLTemplates templates;
+
+    /**
+     * Constant expressions which are bound as is, with their indexes in the constants
+     */
+    private final Map<Constant<?>, List<Integer>> slots;
+
+    /**
+     * Constant expressions which are converted or part of the key
+     */
+    private final Set<Constant<?>> converted;
+
+    @Nullable
+    private String keyString;
+
+    @Nullable
+    private QueryMetadata metadata;
+
+    @Nullable
+    private List<?> fixed;
+
+    @Nullable
+    private List<Expression<?>> values;
+
+    SQLQueryShape(SQLTemplates templates, QueryMetadata metadata, boolean forCountRow) {
+        this(templates, forCountRow ? "count" : "select");
+        handle(metadata);
+    }
+
+    private SQLQueryShape(SQLTemplates templates, String type) {
+        this.templates = templates;
+        this.key = new StringBuilder(128).append(type);
+        this.constants = new ArrayList<Object>();
+        this.derived = new BitSet();
+        this.slots = new IdentityHashMap<Constant<?>, List<Integer>>();
+        this.converted = Sets.newIdentityHashSet();
+    }
+
+    private SQLQueryShape(SQLQueryShape shape, List<Object> constants) {
+        this.templates = shape.templates;
+        this.key = shape.key;
+        this.keyString = shape.getKey();
+        this.constants = constants;
+        this.derived = shape.derived;
+        this.slots = shape.slots;
+        this.converted = shape.converted;
+    }
+
+    /**
+     * Create the shape of an INSERT clause
+     *
+     * @param templates templates
+     * @param metadata clause metadata
+     * @param entity target table
+     * @param columns columns
+     * @param values values
+     * @param subQuery subquery or null
+     * @return
+     */
+    static SQLQueryShape insert(SQLTemplates templates, QueryMetadata metadata,
+            RelationalPath<?> entity, List<Path<?>> columns, List<Expression<?>> values,
+            @Nullable SubQueryExpression<?> subQuery) {
+        SQLQueryShape shape = new SQLQueryShape(templates, "insert");
+        shape.setSource(metadata, Arrays.asList(entity, columns, subQuery), values);
+        shape.handle(metadata);
+        shape.handle(entity);
+        shape.key.append(" columns ");
+        for (Path<?> column : columns) {
+            shape.handle(column);
+            shape.key.append(',');
+        }
+        if (subQuery != null) {
+            shape.key.append(" select ");
+            shape.handle(subQuery.getMetadata());
+        } else {
+            shape.key.append(" values ");
+            for (Expression<?> value : values) {
+                shape.handle(value);
+                shape.key.append(',');
+            }
+        }
+        return shape;
+    }
+
+    /**
+     * Create the shape of a multi-row INSERT clause
+     *
+     * @param templates templates
+     * @param metadata clause metadata
+     * @param entity target table
+     * @param batches batch items
+     * @return
+     */
+    static SQLQueryShape insert(SQLTemplates templates, QueryMetadata metadata,
+            RelationalPath<?> entity, List<SQLInsertBatch> batches) {
+        SQLQueryShape shape = new SQLQueryShape(templates, "insert");
+        shape.setSource(metadata, Arrays.asList(entity, batches.get(0).getColumns(), batches.size()),
+                getValues(batches));
+        shape.handle(metadata);
+        shape.handle(entity);
+        shape.key.append(" columns ");
+        for (Path<?> column : batches.get(0).getColumns()) {
+            shape.handle(column);
+            shape.key.append(',');
+        }
+        for (SQLInsertBatch batch : batches) {
+            shape.key.append(" values ");
+            for (Expression<?> value : batch.getValues()) {
+                shape.handle(value);
+                shape.key.append(',');
+            }
+        }
+        return shape;
+    }
+
+    /**
+     * Create the shape of an UPDATE clause
+     *
+     * @param templates templates
+     * @param metadata clause metadata
+     * @param entity target table
+     * @param updates updates
+     * @return
+     */
+    static SQLQueryShape update(SQLTemplates templates, QueryMetadata metadata,
+            RelationalPath<?> entity, Map<Path<?>, Expression<?>> updates) {
+        SQLQueryShape shape = new SQLQueryShape(templates, "update");
+        shape.setSource(metadata, Arrays.asList(entity, new ArrayList<Path<?>>(updates.keySet())),
+                new ArrayList<Expression<?>>(updates.values()));
+        shape.handle(metadata);
+        shape.handle(entity);
+        shape.key.append(" set ");
+        for (Map.Entry<Path<?>, Expression<?>> update : updates.entrySet()) {
+            shape.handle(update.getKey());
+            shape.key.append('=');
+            shape.handle(update.getValue());
+            shape.key.append(',');
+        }
+        return shape;
+    }
+
+    private static List<Expression<?>> getValues(List<SQLInsertBatch> batches) {
+        List<Expression<?>> rv = new ArrayList<Expression<?>>();
+        for (SQLInsertBatch batch : batches) {
+            rv.addAll(batch.getValues());
+        }
+        return rv;
+    }
+
+    private void setSource(QueryMetadata metadata, List<?> fixed, List<Expression<?>> values) {
+        this.metadata = metadata;
+        this.fixed = fixed;
+        this.values = values;
+    }
+
+    /**
+     * Derive the shape of an INSERT clause from this shape
+     *
+     * @param metadata clause metadata
+     * @param entity target table
+     * @param columns columns
+     * @param values values
+     * @param subQuery subquery or null
+     * @return shape or null, if the clause differs from the clause of this shape in more than its
+     *         constants
+     */
+    @Nullable
+    SQLQueryShape rebindInsert(QueryMetadata metadata, RelationalPath<?> entity, List<Path<?>> columns,
+            List<Expression<?>> values, @Nullable SubQueryExpression<?> subQuery) {
+        return rebind(metadata, Arrays.asList(entity, columns, subQuery), values);
+    }
+
+    /**
+     * Derive the shape of a multi-row INSERT clause from this shape
+     *
+     * @param metadata clause metadata
+     * @param entity target table
+     * @param batches batch items
+     * @return shape or null, if the clause differs from the clause of this shape in more than its
+     *         constants
+     */
+    @Nullable
+    SQLQueryShape rebindInsert(QueryMetadata metadata, RelationalPath<?> entity, List<SQLInsertBatch> batches) {
+        return rebind(metadata, Arrays.asList(entity, batches.get(0).getColumns(), batches.size()),
+                getValues(batches));
+    }
+
+    /**
+     * Derive the shape of an UPDATE clause from this shape
+     *
+     * @param metadata clause metadata
+     * @param entity target table
+     * @param updates updates
+     * @return shape or null, if the clause differs from the clause of this shape in more than its
+     *         constants
+     */
+    @Nullable
+    SQLQueryShape rebindUpdate(QueryMetadata metadata, RelationalPath<?> entity,
+            Map<Path<?>, Expression<?>> updates) {
+        return rebind(metadata, Arrays.asList(entity, new ArrayList<Path<?>>(updates.keySet())),
+                new ArrayList<Expression<?>>(updates.values()));
+    }
+
+    /**
+     * Derive the shape of a clause, whose where clause and values have the same structure as the
+     * ones of this shape. Constants which are bound as is are replaced by the constants of the
+     * clause, all other parts need to be equal.
+     */
+    @Nullable
+    private SQLQueryShape rebind(QueryMetadata md, List<?> fx, List<Expression<?>> vals) {
+        if (values == null || values.size() != vals.size() || !fixed.equals(fx)
+                || !hasSameClauses(metadata, md)) {
+            return null;
+        }
+        List<Object> rebound = new ArrayList<Object>(constants);
+        Set<Constant<?>> visited = Sets.newIdentityHashSet();
+        if (metadata.getWhere() != null || md.getWhere() != null) {
+            if (metadata.getWhere() == null || md.getWhere() == null
+                    || !rebind(metadata.getWhere(), md.getWhere(), rebound, visited)) {
+                return null;
+            }
+        }
+        for (int i = 0; i < values.size(); i++) {
+            if (!rebind(values.get(i), vals.get(i), rebound, visited)) {
+                return null;
+            }
+        }
+        return new SQLQueryShape(this, rebound);
+    }
+
+    private boolean rebind(Expression<?> expr, Expression<?> other, List<Object> rebound,
+            Set<Constant<?>> visited) {
+        if (!expr.getClass().equals(other.getClass())) {
+            return false;
+        } else if (expr instanceof Constant<?>) {
+            List<Integer> indexes = slots.get(expr);
+            Object value = ((Constant<?>) other).getConstant();
+            if (indexes == null || converted.contains(expr)
+                    || !((Constant<?>) expr).getConstant().getClass().equals(value.getClass())) {
+                return expr.equals(other);
+            } else if (!visited.add((Constant<?>) expr)) {
+                // the same instance occurs more than once
+                return value.equals(rebound.get(indexes.get(0)));
+            }
+            for (Integer index : indexes) {
+                rebound.set(index, value);
+            }
+            return true;
+        } else if (expr instanceof Operation<?>) {
+            Operation<?> operation = (Operation<?>) expr, otherOperation = (Operation<?>) other;
+            return operation.getOperator() == otherOperation.getOperator()
+                && rebind(operation.getArgs(), otherOperation.getArgs(), rebound, visited);
+        } else if (expr instanceof TemplateExpression<?>) {
+            TemplateExpression<?> template = (TemplateExpression<?>) expr, otherTemplate = (TemplateExpression<?>) other;
+            return template.getTemplate().equals(otherTemplate.getTemplate())
+                && rebind(template.getArgs(), otherTemplate.getArgs(), rebound, visited);
+        } else {
+            return expr.equals(other);
+        }
+    }
+
+    private boolean rebind(List<?> args, List<?> otherArgs, List<Object> rebound, Set<Constant<?>> visited) {
+        if (args.size() != otherArgs.size()) {
+            return false;
+        }
+        for (int i = 0; i < args.size(); i++) {
+            Object arg = args.get(i), otherArg = otherArgs.get(i);
+            if (arg instanceof Expression<?> && otherArg instanceof Expression<?>) {
+                if (!rebind((Expression<?>) arg, (Expression<?>) otherArg, rebound, visited)) {
+                    return false;
+                }
+            } else if (!arg.equals(otherArg)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean hasSameClauses(QueryMetadata md1, QueryMetadata md2) {
+        return md1.isDistinct() == md2.isDistinct()
+            && md1.getFlags().equals(md2.getFlags())
+            && Objects.equal(md1.getProjection(), md2.getProjection())
+            && md1.getJoins().equals(md2.getJoins())
+            && md1.getGroupBy().equals(md2.getGroupBy())
+            && Objects.equal(md1.getHaving(), md2.getHaving())
+            && md1.getOrderBy().equals(md2.getOrderBy())
+            && md1.getModifiers().equals(md2.getModifiers());
+    }
+
+    /**
+     * Get the fingerprint
+     *
+     * @return
+     */
+    String getKey() {
+        if (keyString == null) {
+            keyString = key.toString();
+        }
+        return keyString;
+    }
+
+    /**
+     * Get the constants in visiting order
+     *
+     * @return
+     */
+    List<Object> getConstants() {
+        return constants;
+    }
+
+    /**
+     * Get whether the constant at the given index was created by a template conversion or
+     * by escaping a like pattern
+     *
+     * @param index index in {@link #getConstants()}
+     * @return
+     */
+    boolean isDerived(int index) {
+        return derived.get(index);
+    }
+
+    private void handle(QueryMetadata metadata) {
+        key.append(metadata.isDistinct() ? "{distinct " : "{");
+        for (QueryFlag flag : metadata.getFlags()) {
+            key.append(flag.getPosition()).append(' ');
+            handle(flag.getFlag());
+        }
+        if (metadata.getProjection() != null) {
+            key.append("projection ");
+            handle(metadata.getProjection());
+        }
+        for (JoinExpression join : metadata.getJoins()) {
+            key.append(join.getType()).append(' ');
+            for (JoinFlag flag : join.getFlags()) {
+                key.append(flag.getPosition()).append(' ');
+                handle(flag.getFlag());
+            }
+            handle(join.getTarget());
+            if (join.getCondition() != null) {
+                key.append(" on ");
+                handle(join.getCondition());
+            }
+        }
+        if (metadata.getWhere() != null) {
+            key.append(" where ");
+            handle(metadata.getWhere());
+        }
+        if (!metadata.getGroupBy().isEmpty()) {
+            key.append(" group by ");
+            for (Expression<?> expr : metadata.getGroupBy()) {
+                handle(expr);
+            }
+        }
+        if (metadata.getHaving() != null) {
+            key.append(" having ");
+            handle(metadata.getHaving());
+        }
+        if (!metadata.getOrderBy().isEmpty()) {
+            key.append(" order by ");
+            for (OrderSpecifier<?> order : metadata.getOrderBy()) {
+                handle(order.getTarget());
+                key.append(order.getOrder()).append(' ').append(order.getNullHandling());
+            }
+        }
+        // limit and offset are rendered as literals by some dialects
+        QueryModifiers modifiers = metadata.getModifiers();
+        if (modifiers.isRestricting()) {
+            key.append(" limit ").append(modifiers.getLimit());
+            key.append(" offset ").append(modifiers.getOffset());
+        }
+        key.append('}');
+    }
+
+    private void handle(Expression<?> expr) {
+        expr.accept(this, null);
+    }
+
+    private void handleTemplate(Template template, List<?> args) {
+        for (Template.Element element : template.getElements()) {
+            if (element instanceof Template.Transformed || element instanceof Template.AsString) {
+                setConverted(args);
+            }
+            Object rv = element.convert(args);
+            if (rv instanceof Expression) {
+                int start = constants.size();
+                handle((Expression<?>) rv);
+                if (element instanceof Template.Transformed) {
+                    derived.set(start, constants.size());
+                }
+            } else if (element.isString()) {
+                appendText(rv.toString());
+            } else {
+                visitConstant(rv);
+            }
+        }
+    }
+
+    private void setConverted(List<?> args) {
+        for (Object arg : args) {
+            if (arg instanceof Constant<?>) {
+                converted.add((Constant<?>) arg);
+            }
+        }
+    }
+
+    private void appendText(String text) {
+        key.append(text.length()).append(':').append(text);
+    }
+
+    private void visitConstant(Object constant) {
+        if (constant instanceof Collection) {
+            Collection<?> collection = (Collection<?>) constant;
+            key.append("?(").append(collection.size()).append(')');
+            constants.addAll(collection);
+        } else {
+            key.append('?').append(constant.getClass().getName());
+            constants.add(constant);
+        }
+    }
+
+    @Override
+    public Void visit(Constant<?> expr, Void context) {
+        if (!(expr.getConstant() instanceof Collection)) {
+            List<Integer> indexes = slots.get(expr);
+            if (indexes == null) {
+                indexes = new ArrayList<Integer>(1);
+                slots.put(expr, indexes);
+            }
+            indexes.add(constants.size());
+        }
+        visitConstant(expr.getConstant());
+        return null;
+    }
+
+    @Override
+    public Void visit(FactoryExpression<?> expr, Void context) {
+        key.append('[');
+        for (Expression<?> arg : expr.getArgs()) {
+            handle(arg);
+            key.append(',');
+        }
+        key.append(']');
+        return null;
+    }
+
+    @Override
+    public Void visit(Operation<?> expr, Void context) {
+        Operator operator = expr.getOperator();
+        List<Expression<?>> args = expr.getArgs();
+        key.append(operator.name()).append('(');
+        if (operator == Ops.LIKE && args.get(1) instanceof Constant) {
+            setConverted(args);
+            String escape = String.valueOf(templates.getEscapeChar());
+            String value = args.get(1).toString();
+            String escapedValue = value.replace(escape, escape + escape);
+            int start = constants.size();
+            handleTemplate(templates.getTemplate(operator),
+                    ImmutableList.of(args.get(0), ConstantImpl.create(escapedValue)));
+            if (!escapedValue.equals(value)) {
+                derived.set(start, constants.size());
+            }
+        } else if (operator == Ops.NUMCAST) {
+            setConverted(args.subList(1, 2));
+            handle(args.get(0));
+            key.append(' ').append(((Constant<?>) args.get(1)).getConstant());
+        } else if (operator == Ops.STRING_CAST) {
+            handle(args.get(0));
+        } else if (templates.getTemplate(operator) != null) {
+            handleTemplate(templates.getTemplate(operator), args);
+        } else {
+            for (Expression<?> arg : args) {
+                handle(arg);
+                key.append(',');
+            }
+        }
+        key.append(')');
+        return null;
+    }
+
+    @Override
+    public Void visit(ParamExpression<?> expr, Void context) {
+        key.append("?param ").append(expr.getName());
+        constants.add(expr);
+        return null;
+    }
+
+    @Override
+    public Void visit(Path<?> expr, Void context) {
+        PathMetadata metadata = expr.getMetadata();
+        if (metadata.getParent() != null) {
+            visit(metadata.getParent(), context);
+            key.append('.');
+        }
+        appendText(ColumnMetadata.getName(expr));
+        if (expr instanceof RelationalPath) {
+            RelationalPath<?> relationalPath = (RelationalPath<?>) expr;
+            key.append('[');
+            appendText(String.valueOf(relationalPath.getSchemaName()));
+            appendText(relationalPath.getTableName());
+            key.append(']');
+        }
+        return null;
+    }
+
+    @Override
+    public Void visit(SubQueryExpression<?> expr, Void context) {
+        handle(expr.getMetadata());
+        return null;
+    }
+
+    @Override
+    public Void visit(TemplateExpression<?> expr, Void context) {
+        key.append(expr instanceof RelationalFunctionCall ? "call(" : "template(");
+        handleTemplate(expr.getTemplate(), expr.getArgs());
+        key.append(')');
+        return null;
+    }
+
+}
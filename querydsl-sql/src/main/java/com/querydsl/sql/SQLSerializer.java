@@ -31,6 +31,7 @@ import com.querydsl.core.support.SerializerBase;
 import com.querydsl.core.types.*;
 import com.querydsl.core.types.Template.Element;
 import com.querydsl.core.types.template.NumberTemplate;
+import com.querydsl.sql.dml.SQLInsertBatch;
 import com.querydsl.sql.types.Null;
 
 /**
@@ -191,6 +192,21 @@ public class SQLSerializer extends SerializerBase<SQLSerializer> {
         templates.serialize(metadata, forCountRow, this);
     }
 
+    /**
+     * Restore a statement rendered earlier by a serializer of the same configuration
+     *
+     * @param sql rendered statement
+     * @param constants constants to be bound
+     * @param constantPaths paths of the constants
+     */
+    void serializeRendered(String sql, List<Object> constants, List<Path<?>> constantPaths) {
+        // the statement has been normalized already
+        setNormalize(false);
+        append(sql);
+        this.constants.addAll(constants);
+        this.constantPaths.addAll(constantPaths);
+    }
+
     void serializeForQuery(QueryMetadata metadata, boolean forCountRow) {
         boolean oldSkipParent = skipParent;
         skipParent = false;
@@ -503,8 +519,57 @@ public class SQLSerializer extends SerializerBase<SQLSerializer> {
         templates.serializeInsert(metadata, entity, columns, values, subQuery, this);
     }
 
+    /**
+     * Serialize the given batch items as a single INSERT with multiple VALUES rows. The
+     * batch items need to share the same columns and may not contain subqueries.
+     *
+     * @param metadata
+     * @param entity
+     * @param batches
+     */
+    public void serializeInsert(QueryMetadata metadata, RelationalPath<?> entity,
+            List<SQLInsertBatch> batches) {
+        this.entity = entity;
+        templates.serializeInsert(metadata, entity, batches, this);
+    }
+
     void serializeForInsert(QueryMetadata metadata, RelationalPath<?> entity, List<Path<?>> columns,
             List<Expression<?>> values, @Nullable SubQueryExpression<?> subQuery) {
+        serializeInsertInto(metadata, entity, columns);
+
+        if (subQuery != null) {
+            append("\n");
+            serialize(subQuery.getMetadata(), false);
+
+        } else if (!values.isEmpty()) {
+            // values
+            append(templates.getValues());
+            serializeValues(columns, values);
+        } else {
+            append(templates.getDefaultValues());
+        }
+
+    }
+
+    void serializeForInsert(QueryMetadata metadata, RelationalPath<?> entity,
+            List<SQLInsertBatch> batches) {
+        List<Path<?>> columns = batches.get(0).getColumns();
+        serializeInsertInto(metadata, entity, columns);
+
+        // values
+        append(templates.getValues());
+        boolean first = true;
+        for (SQLInsertBatch batch : batches) {
+            if (!first) {
+                append(COMMA);
+            }
+            serializeValues(columns, batch.getValues());
+            first = false;
+        }
+    }
+
+    private void serializeInsertInto(QueryMetadata metadata, RelationalPath<?> entity,
+            List<Path<?>> columns) {
         serialize(Position.START, metadata.getFlags());
 
         if (!serialize(Position.START_OVERRIDE, metadata.getFlags())) {
@@ -523,31 +588,19 @@ public class SQLSerializer extends SerializerBase<SQLSerializer> {
             skipParent = false;
             append(")");
         }
+    }
 
-        if (subQuery != null) {
-            append("\n");
-            serialize(subQuery.getMetadata(), false);
-
-        } else {
-            if (!useLiterals) {
-                for (int i = 0; i < columns.size(); i++) {
-                    if (values.get(i) instanceof Constant<?>) {
-                        constantPaths.add(columns.get(i));
-                    }
+    private void serializeValues(List<Path<?>> columns, List<Expression<?>> values) {
+        if (!useLiterals) {
+            for (int i = 0; i < columns.size(); i++) {
+                if (values.get(i) instanceof Constant<?>) {
+                    constantPaths.add(columns.get(i));
                 }
             }
-
-            if (!values.isEmpty()) {
-                // values
-                append(templates.getValues());
-                append("(");
-                handle(COMMA, values);
-                append(")");
-            } else {
-                append(templates.getDefaultValues());
-            }
         }
-
+        append("(");
+        handle(COMMA, values);
+        append(")");
     }
 
     public void serializeUpdate(QueryMetadata metadata, RelationalPath<?> entity,
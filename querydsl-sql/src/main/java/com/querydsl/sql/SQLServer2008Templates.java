@@ -44,6 +44,7 @@ public class SQLServer2008Templates extends SQLServer2005Templates {
 
     public SQLServer2008Templates(char escape, boolean quote) {
         super(escape, quote);
+        setMultiRowInsertSupported(true);
     }
 
 }
@@ -55,6 +55,7 @@ public class SQLServer2012Templates extends SQLServerTemplates {
 
     public SQLServer2012Templates(char escape, boolean quote) {
         super(escape, quote);
+        setMultiRowInsertSupported(true);
     }
 
     @Override
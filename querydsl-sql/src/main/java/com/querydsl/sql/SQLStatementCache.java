@@ -0,0 +1,267 @@
+/*
+ * Copyright 2015, Timo Westkämper
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.querydsl.sql;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.Nullable;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.querydsl.core.types.ParamExpression;
+import com.querydsl.core.types.Path;
+import com.querydsl.sql.types.Null;
+
+/**
+ * SQLStatementCache is a bounded cache of rendered SQL statements keyed by query shape.
+ *
+ * <p>Queries which differ only in their constants share the rendered SQL string and the
+ * constant path layout, so that on a cache hit only the parameters need to be bound.
+ * Enable it via {@link Configuration#setStatementCache(SQLStatementCache)}.
+ * Batch items of DML clauses share the rendered statements in the same way via a cache local
+ * to the clause, see {@link SQLBatchStatements}.</p>
+ *
+ * <p>The rendered statements depend on the templates and mappings of the configuration, so a
+ * cache can be used only by a single {@link Configuration}.</p>
+ *
+ * <p>Whether the statement of the current query was served from the cache is available to
+ * {@link SQLDetailedListener} instances via the {@link #CACHE_HIT} context data key.</p>
+ *
+ * @author tiwe
+ */
+public final class SQLStatementCache {
+
+    /**
+     * {@link SQLListenerContext} data key for a Boolean telling whether the rendered statement
+     * was served from the cache
+     */
+    public static final String CACHE_HIT = "statementCacheHit";
+
+    private static final int AMBIGUOUS = -1;
+
+    private static final Statement UNCACHEABLE = new Statement(null, null, null, null);
+
+    private final Cache<String, Statement> statements;
+
+    private final AtomicLong hitCount = new AtomicLong();
+
+    private final AtomicLong missCount = new AtomicLong();
+
+    @Nullable
+    private Configuration configuration;
+
+    /**
+     * Create a new SQLStatementCache instance
+     *
+     * @param maximumSize maximum amount of cached statements
+     */
+    public SQLStatementCache(int maximumSize) {
+        this.statements = CacheBuilder.newBuilder().maximumSize(maximumSize).build();
+    }
+
+    /**
+     * Bind this cache to the given configuration
+     *
+     * @param configuration configuration
+     * @throws IllegalArgumentException if this cache is already used by another configuration
+     */
+    synchronized void setConfiguration(Configuration configuration) {
+        if (this.configuration != null && this.configuration != configuration) {
+            throw new IllegalArgumentException(
+                    "SQLStatementCache is already used by another Configuration");
+        }
+        this.configuration = configuration;
+    }
+
+    /**
+     * Get the amount of statements served from the cache
+     *
+     * @return
+     */
+    public long getHitCount() {
+        return hitCount.get();
+    }
+
+    /**
+     * Get the amount of statements which needed to be rendered
+     *
+     * @return
+     */
+    public long getMissCount() {
+        return missCount.get();
+    }
+
+    /**
+     * Get the amount of cached query shapes
+     *
+     * @return
+     */
+    public long size() {
+        return statements.size();
+    }
+
+    /**
+     * Discard all cached statements
+     */
+    public void invalidateAll() {
+        statements.invalidateAll();
+    }
+
+    /**
+     * Get the cached statement for the given shape bound to its constants
+     *
+     * @param shape query shape
+     * @param serializer empty serializer for the statement
+     * @return the given serializer with the rendered statement or null, if the shape needs to be
+     *         rendered
+     */
+    @Nullable
+    SQLSerializer get(SQLQueryShape shape, SQLSerializer serializer) {
+        Statement statement = statements.getIfPresent(shape.getKey());
+        if (statement != null && statement != UNCACHEABLE) {
+            hitCount.incrementAndGet();
+            List<Object> constants = shape.getConstants();
+            List<Object> bindings = new ArrayList<Object>(statement.bindings.length);
+            for (int i = 0; i < statement.bindings.length; i++) {
+                int index = statement.bindings[i];
+                bindings.add(index > AMBIGUOUS ? constants.get(index) : statement.fixed[i]);
+            }
+            serializer.serializeRendered(statement.sql, bindings, statement.constantPaths);
+            return serializer;
+        } else {
+            missCount.incrementAndGet();
+            return null;
+        }
+    }
+
+    /**
+     * Get whether statements of the given shape could be cached
+     *
+     * @param shape query shape
+     * @return
+     */
+    boolean isCacheable(SQLQueryShape shape) {
+        return statements.getIfPresent(shape.getKey()) != UNCACHEABLE;
+    }
+
+    /**
+     * Cache the statement rendered for the given shape
+     *
+     * <p>The bindings of the rendered statement are mapped to the constants of the shape by
+     * identity. Constants created by template conversions, like the patterns of
+     * {@code startsWith} and {@code endsWith}, are new instances in each rendering and are mapped
+     * to the equal derived constant of the shape instead. Bindings which are not backed by a
+     * constant of the shape need to be given in a second rendering with different limit and
+     * offset, which contains them with other values. If the bindings can't be mapped
+     * unambiguously, the shape is marked as uncacheable, so that later statements of the shape are
+     * rendered once without further mapping attempts.</p>
+     *
+     * @param shape query shape
+     * @param serializer serializer with the rendered statement
+     * @param modified bindings of the same statement with modified limit and offset or null
+     */
+    void put(SQLQueryShape shape, SQLSerializer serializer, @Nullable List<Object> modified) {
+        List<Object> constants = serializer.getConstants();
+        if (modified != null && modified.size() != constants.size()) {
+            statements.put(shape.getKey(), UNCACHEABLE);
+            return;
+        }
+        Map<Object, Integer> indexes = new IdentityHashMap<Object, Integer>();
+        List<Object> shapeConstants = shape.getConstants();
+        for (int i = 0; i < shapeConstants.size(); i++) {
+            Object constant = shapeConstants.get(i);
+            if (!indexes.containsKey(constant)) {
+                indexes.put(constant, i);
+            } else if (!(constant instanceof ParamExpression)) {
+                // the same instance is used for different constants
+                indexes.put(constant, AMBIGUOUS);
+            }
+        }
+
+        int[] bindings = new int[constants.size()];
+        Object[] fixed = new Object[constants.size()];
+        for (int i = 0; i < bindings.length; i++) {
+            Object constant = constants.get(i);
+            Integer index = indexes.get(constant);
+            if (modified != null && !constant.equals(modified.get(i))) {
+                // derived from limit and offset, which are part of the shape
+                bindings[i] = AMBIGUOUS;
+                fixed[i] = constant;
+            } else if (constant instanceof Null) {
+                // null constants are part of the shape
+                bindings[i] = AMBIGUOUS;
+                fixed[i] = constant;
+            } else if (index == null) {
+                index = getDerivedIndex(shape, constant);
+                if (index == null) {
+                    statements.put(shape.getKey(), UNCACHEABLE);
+                    return;
+                } else if (index == AMBIGUOUS) {
+                    // equal derived constants can't be told apart
+                    statements.put(shape.getKey(), UNCACHEABLE);
+                    return;
+                }
+                bindings[i] = index;
+            } else if (index == AMBIGUOUS) {
+                statements.put(shape.getKey(), UNCACHEABLE);
+                return;
+            } else {
+                bindings[i] = index;
+            }
+        }
+        List<Path<?>> constantPaths = Collections.unmodifiableList(
+                new ArrayList<Path<?>>(serializer.getConstantPaths()));
+        statements.put(shape.getKey(), new Statement(serializer.toString(), constantPaths, bindings, fixed));
+    }
+
+    @Nullable
+    private static Integer getDerivedIndex(SQLQueryShape shape, Object constant) {
+        Integer rv = null;
+        List<Object> shapeConstants = shape.getConstants();
+        for (int i = 0; i < shapeConstants.size(); i++) {
+            if (shape.isDerived(i) && constant.equals(shapeConstants.get(i))) {
+                if (rv != null) {
+                    return AMBIGUOUS;
+                }
+                rv = i;
+            }
+        }
+        return rv;
+    }
+
+    private static final class Statement {
+
+        private final String sql;
+
+        private final List<Path<?>> constantPaths;
+
+        private final int[] bindings;
+
+        private final Object[] fixed;
+
+        Statement(String sql, List<Path<?>> constantPaths, int[] bindings, Object[] fixed) {
+            this.sql = sql;
+            this.constantPaths = constantPaths;
+            this.bindings = bindings;
+            this.fixed = fixed;
+        }
+
+    }
+
+}
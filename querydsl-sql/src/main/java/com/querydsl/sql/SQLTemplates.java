@@ -32,6 +32,7 @@ import com.querydsl.core.QueryFlag.Position;
 import com.querydsl.core.QueryMetadata;
 import com.querydsl.core.QueryModifiers;
 import com.querydsl.core.types.*;
+import com.querydsl.sql.dml.SQLInsertBatch;
 import com.querydsl.sql.types.Type;
 
 /**
@@ -276,6 +277,8 @@ public class SQLTemplates extends Templates {
 
     private boolean arraysSupported = true;
 
+    private boolean multiRowInsertSupported = false;
+
     private int listMaxSize = 0;
 
     private boolean supportsUnquotedReservedWordsAsIdentifier = false;
@@ -790,6 +793,10 @@ public class SQLTemplates extends Templates {
         return arraysSupported;
     }
 
+    public boolean isMultiRowInsertSupported() {
+        return multiRowInsertSupported;
+    }
+
     public int getListMaxSize() {
         return listMaxSize;
     }
@@ -898,6 +905,23 @@ public class SQLTemplates extends Templates {
         }
     }
 
+    /**
+     * template method for multi-row INSERT serialization
+     *
+     * @param metadata
+     * @param entity
+     * @param batches
+     * @param context
+     */
+    public void serializeInsert(QueryMetadata metadata, RelationalPath<?> entity,
+            List<SQLInsertBatch> batches, SQLSerializer context) {
+        context.serializeForInsert(metadata, entity, batches);
+
+        if (!metadata.getFlags().isEmpty()) {
+            context.serialize(Position.END, metadata.getFlags());
+        }
+    }
+
     /**
      * template method for MERGE serialization
      *
@@ -1167,6 +1191,10 @@ public class SQLTemplates extends Templates {
         this.arraysSupported = b;
     }
 
+    protected void setMultiRowInsertSupported(boolean b) {
+        this.multiRowInsertSupported = b;
+    }
+
     protected void setListMaxSize(int i ) {
         listMaxSize = i;
     }
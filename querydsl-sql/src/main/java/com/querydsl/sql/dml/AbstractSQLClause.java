@@ -18,6 +18,8 @@ import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 
+import javax.annotation.Nullable;
+
 import com.google.common.collect.ImmutableList;
 import com.querydsl.core.QueryMetadata;
 import com.querydsl.core.dml.DMLClause;
@@ -36,6 +38,8 @@ import org.slf4j.MDC;
  */
 public abstract class AbstractSQLClause<C extends AbstractSQLClause<C>> implements DMLClause<C> {
 
+    private static final int BATCH_STATEMENTS = 16;
+
     protected final Configuration configuration;
 
     protected final SQLListeners listeners;
@@ -44,6 +48,9 @@ public abstract class AbstractSQLClause<C extends AbstractSQLClause<C>> implemen
 
     protected SQLListenerContextImpl context;
 
+    @Nullable
+    private SQLBatchStatements batchStatements;
+
     /**
      * @param configuration
      */
@@ -118,6 +125,25 @@ public abstract class AbstractSQLClause<C extends AbstractSQLClause<C>> implemen
         return serializer;
     }
 
+    /**
+     * Get the statements shared by batch items of the same shape. The statements are local
+     * to this clause, so that batch statements don't occupy the statement cache of the
+     * configuration.
+     *
+     * @return statements or null, if literals are used
+     */
+    @Nullable
+    protected SQLBatchStatements getBatchStatements() {
+        if (useLiterals) {
+            return null;
+        } else {
+            if (batchStatements == null) {
+                batchStatements = new SQLBatchStatements(configuration.getTemplates(), BATCH_STATEMENTS);
+            }
+            return batchStatements;
+        }
+    }
+
     /**
      * Get the SQL string and bindings
      *
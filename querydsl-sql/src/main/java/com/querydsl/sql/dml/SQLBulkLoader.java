@@ -0,0 +1,257 @@
+/*
+ * Copyright 2015, Timo Westkämper
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.querydsl.sql.dml;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import javax.annotation.Nullable;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Maps;
+import com.querydsl.core.types.Path;
+import com.querydsl.sql.Configuration;
+import com.querydsl.sql.RelationalPath;
+import com.querydsl.sql.SQLBatchStatements;
+import com.querydsl.sql.SQLDetailedListener;
+import com.querydsl.sql.SQLListenerContextImpl;
+
+/**
+ * SQLBulkLoader inserts the rows of a row source in fixed size JDBC batches without holding
+ * more than one batch in memory. If the templates support multi-row inserts, the rows of a
+ * batch are rendered into multi-row INSERT statements. The serialized statements are shared
+ * by the batches of the loader.
+ *
+ * <p>Each executed batch is reported to {@link SQLDetailedListener} instances as an own listener
+ * context, which contains the amount of rows loaded so far under the {@link #ROW_COUNT} data key and
+ * the throughput of the load under the {@link #ROWS_PER_SECOND} data key.</p>
+ *
+ * <pre>
+ * long rows = queryFactory.bulkLoader(survey, survey.id, survey.name)
+ *     .batchSize(1000)
+ *     .commitInterval(100000)
+ *     .load(rows.iterator());
+ * </pre>
+ *
+ * @author tiwe
+ *
+ * @param <T> row type
+ */
+public class SQLBulkLoader<T> {
+
+    /**
+     * {@link com.querydsl.sql.SQLListenerContext} data key for a Long of the rows loaded
+     */
+    public static final String ROW_COUNT = "bulkLoadRowCount";
+
+    /**
+     * {@link com.querydsl.sql.SQLListenerContext} data key for a Double of the rows loaded per second
+     */
+    public static final String ROWS_PER_SECOND = "bulkLoadRowsPerSecond";
+
+    private static final int DEFAULT_BATCH_SIZE = 1000;
+
+    private static final int DEFAULT_ROWS_PER_STATEMENT = 100;
+
+    private static final int BATCH_STATEMENTS = 16;
+
+    private final Connection connection;
+
+    private final Configuration configuration;
+
+    private final RelationalPath<?> entity;
+
+    private final Mapper<? super T> mapper;
+
+    private final SQLBatchStatements batchStatements;
+
+    private int batchSize = DEFAULT_BATCH_SIZE;
+
+    private int commitInterval;
+
+    private int rowsPerStatement = DEFAULT_ROWS_PER_STATEMENT;
+
+    private long rowCount;
+
+    private long startTime;
+
+    public SQLBulkLoader(Connection connection, Configuration configuration,
+            RelationalPath<?> entity, Mapper<? super T> mapper) {
+        this.connection = connection;
+        this.configuration = configuration;
+        this.entity = entity;
+        this.mapper = mapper;
+        this.batchStatements = new SQLBatchStatements(configuration.getTemplates(), BATCH_STATEMENTS);
+    }
+
+    /**
+     * Create a Mapper which maps array rows to the given columns by position
+     *
+     * @param columns columns
+     * @return
+     */
+    public static Mapper<Object[]> columns(Path<?>... columns) {
+        return new ColumnMapper(ImmutableList.copyOf(columns));
+    }
+
+    /**
+     * Set the amount of rows per JDBC batch
+     *
+     * @param batchSize batch size
+     * @return
+     */
+    public SQLBulkLoader<T> batchSize(int batchSize) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("batchSize needs to be positive, was " + batchSize);
+        }
+        this.batchSize = batchSize;
+        return this;
+    }
+
+    /**
+     * Set the amount of rows after which the transaction is committed. Commits happen after
+     * complete batches and are skipped, if the connection is in auto-commit mode.
+     *
+     * @param commitInterval commit interval or 0 to leave transaction handling to the caller
+     * @return
+     */
+    public SQLBulkLoader<T> commitInterval(int commitInterval) {
+        this.commitInterval = commitInterval;
+        return this;
+    }
+
+    /**
+     * Set the maximum amount of rows per multi-row INSERT statement
+     *
+     * @param rowsPerStatement maximum amount of rows or 0 to bind each row separately
+     * @return
+     * @see SQLInsertClause#setRowsPerStatement(int)
+     */
+    public SQLBulkLoader<T> rowsPerStatement(int rowsPerStatement) {
+        this.rowsPerStatement = rowsPerStatement;
+        return this;
+    }
+
+    /**
+     * Load the given rows
+     *
+     * @param rows row source
+     * @return the amount of affected rows
+     */
+    public long load(Iterable<? extends T> rows) {
+        return load(rows.iterator());
+    }
+
+    /**
+     * Load the given rows
+     *
+     * @param rows row source
+     * @return the amount of affected rows
+     */
+    public long load(Iterator<? extends T> rows) {
+        boolean commit = commitInterval > 0 && !getAutoCommit();
+        long affected = 0;
+        long uncommitted = 0;
+        rowCount = 0;
+        startTime = System.nanoTime();
+        while (rows.hasNext()) {
+            BulkInsertClause insert = new BulkInsertClause();
+            while (insert.size < batchSize && rows.hasNext()) {
+                insert.populate(rows.next(), mapper).addBatch();
+                insert.size++;
+            }
+            affected += insert.execute();
+            rowCount += insert.size;
+            uncommitted += insert.size;
+            if (commit && uncommitted >= commitInterval) {
+                commit();
+                uncommitted = 0;
+            }
+        }
+        if (commit && uncommitted > 0) {
+            commit();
+        }
+        return affected;
+    }
+
+    private boolean getAutoCommit() {
+        try {
+            return connection.getAutoCommit();
+        } catch (SQLException e) {
+            throw configuration.translate(e);
+        }
+    }
+
+    private void commit() {
+        try {
+            connection.commit();
+        } catch (SQLException e) {
+            throw configuration.translate(e);
+        }
+    }
+
+    private class BulkInsertClause extends SQLInsertClause {
+
+        private int size;
+
+        BulkInsertClause() {
+            super(connection, SQLBulkLoader.this.configuration, entity);
+            setRowsPerStatement(rowsPerStatement);
+        }
+
+        @Override
+        @Nullable
+        protected SQLBatchStatements getBatchStatements() {
+            // the statements are shared by the batches of the loader
+            return useLiterals ? null : batchStatements;
+        }
+
+        @Override
+        protected void endContext(SQLListenerContextImpl context) {
+            long rows = rowCount + size;
+            double seconds = Math.max(System.nanoTime() - startTime, 1) / 1e9;
+            context.setData(ROW_COUNT, rows);
+            context.setData(ROWS_PER_SECOND, rows / seconds);
+            super.endContext(context);
+        }
+
+    }
+
+    private static class ColumnMapper implements Mapper<Object[]> {
+
+        private final List<Path<?>> columns;
+
+        ColumnMapper(List<Path<?>> columns) {
+            this.columns = columns;
+        }
+
+        @Override
+        public Map<Path<?>, Object> createMap(RelationalPath<?> path, Object[] row) {
+            if (row.length != columns.size()) {
+                throw new IllegalArgumentException("Expected " + columns.size() + " values, " +
+                        "but got " + row.length);
+            }
+            Map<Path<?>, Object> values = Maps.newLinkedHashMap();
+            for (int i = 0; i < row.length; i++) {
+                values.put(columns.get(i), row[i]);
+            }
+            return values;
+        }
+
+    }
+
+}
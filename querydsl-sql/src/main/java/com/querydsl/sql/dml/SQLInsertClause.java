@@ -43,6 +43,9 @@ public class SQLInsertClause extends AbstractSQLClause<SQLInsertClause> implemen
 
     private static final Logger logger = LoggerFactory.getLogger(SQLInsertClause.class);
 
+    // SQL Server limits statements to 2100 parameters
+    private static final int MAX_MULTI_ROW_PARAMETERS = 2000;
+
     private final Connection connection;
 
     private final RelationalPath<?> entity;
@@ -61,6 +64,14 @@ public class SQLInsertClause extends AbstractSQLClause<SQLInsertClause> implemen
 
     private final List<Expression<?>> values = new ArrayList<Expression<?>>();
 
+    private int batchFlushSize;
+
+    private int rowsPerStatement;
+
+    private boolean flushed;
+
+    private long flushedCount;
+
     private transient String queryString;
 
     private transient List<Object> constants;
@@ -127,6 +138,35 @@ public class SQLInsertClause extends AbstractSQLClause<SQLInsertClause> implemen
         columns.clear();
         values.clear();
         subQuery = null;
+        if (batchFlushSize > 0 && batches.size() >= batchFlushSize) {
+            flushedCount += executeBatches();
+            flushed = true;
+            batches.clear();
+        }
+        return this;
+    }
+
+    /**
+     * Set the maximum amount of batch items which are rendered into a single multi-row
+     * INSERT statement. Multi-row statements are only used, if the templates support them.
+     *
+     * @param rowsPerStatement maximum amount of rows or 0 to bind each batch item separately
+     * @return
+     */
+    public SQLInsertClause setRowsPerStatement(int rowsPerStatement) {
+        this.rowsPerStatement = rowsPerStatement;
+        return this;
+    }
+
+    /**
+     * Set the amount of batch items after which the pending batch items are executed.
+     * The update counts of flushed batch items are included in the result of {@link #execute()}.
+     *
+     * @param batchFlushSize batch size or 0 to keep all batch items until execution
+     * @return
+     */
+    public SQLInsertClause setBatchFlushSize(int batchFlushSize) {
+        this.batchFlushSize = batchFlushSize;
         return this;
     }
 
@@ -237,7 +277,6 @@ public class SQLInsertClause extends AbstractSQLClause<SQLInsertClause> implemen
 
     private Collection<PreparedStatement> createStatements(boolean withKeys) throws SQLException {
         boolean addBatches = !configuration.getUseLiterals();
-        listeners.preRender(context);
 
         if (subQueryBuilder != null) {
             subQuery = subQueryBuilder.list(values.toArray(new Expression[values.size()]));
@@ -245,34 +284,24 @@ public class SQLInsertClause extends AbstractSQLClause<SQLInsertClause> implemen
         }
 
         Map<String, PreparedStatement> stmts = Maps.newHashMap();
+        SQLBatchStatements batchStatements = getBatchStatements();
+        boolean multiRow = isMultiRow(withKeys);
 
-        // add first batch
-        SQLSerializer serializer = createSerializer();
-        serializer.serializeInsert(metadata, entity, batches.get(0).getColumns(), batches
-                .get(0).getValues(), batches.get(0).getSubQuery());
-        PreparedStatement stmt = prepareStatementAndSetParameters(serializer, withKeys);
-        if (addBatches) {
-            stmt.addBatch();
-        }
-        stmts.put(serializer.toString(), stmt);
-        context.addSQL(serializer.toString());
-        listeners.rendered(context);
-
-        // add other batches
-        for (int i = 1; i < batches.size(); i++) {
-            SQLInsertBatch batch = batches.get(i);
-
+        for (int i = 0; i < batches.size(); ) {
+            int end = multiRow ? getMultiRowEnd(i) : i + 1;
             listeners.preRender(context);
-            serializer = createSerializer();
-            serializer.serializeInsert(metadata, entity, batch.getColumns(),
-                    batch.getValues(), batch.getSubQuery());
-            context.addSQL(serializer.toString());
+            SQLSerializer serializer = end - i > 1
+                    ? serialize(batchStatements, batches.subList(i, end))
+                    : serialize(batchStatements, batches.get(i));
+            i = end;
+            String sql = serializer.toString();
+            context.addSQL(sql);
             listeners.rendered(context);
 
-            stmt = stmts.get(serializer.toString());
+            PreparedStatement stmt = stmts.get(sql);
             if (stmt == null) {
                 stmt = prepareStatementAndSetParameters(serializer, withKeys);
-                stmts.put(serializer.toString(), stmt);
+                stmts.put(sql, stmt);
             } else {
                 setParameters(stmt, serializer.getConstants(), serializer.getConstantPaths(),
                         metadata.getParams());
@@ -285,6 +314,54 @@ public class SQLInsertClause extends AbstractSQLClause<SQLInsertClause> implemen
         return stmts.values();
     }
 
+    private boolean isMultiRow(boolean withKeys) {
+        return !withKeys && rowsPerStatement > 1
+            && configuration.getTemplates().isMultiRowInsertSupported();
+    }
+
+    /**
+     * Get the end index of the batch items starting at the given index which can be rendered
+     * into a single multi-row statement
+     */
+    private int getMultiRowEnd(int start) {
+        SQLInsertBatch first = batches.get(start);
+        int columns = first.getColumns().size();
+        if (first.getSubQuery() != null || columns == 0) {
+            return start + 1;
+        }
+        int max = Math.min(rowsPerStatement, Math.max(MAX_MULTI_ROW_PARAMETERS / columns, 1));
+        int end = start + 1;
+        while (end < batches.size() && end - start < max) {
+            SQLInsertBatch batch = batches.get(end);
+            if (batch.getSubQuery() != null || !batch.getColumns().equals(first.getColumns())) {
+                break;
+            }
+            end++;
+        }
+        return end;
+    }
+
+    private SQLSerializer serialize(@Nullable SQLBatchStatements batchStatements,
+            List<SQLInsertBatch> batches) {
+        if (batchStatements != null) {
+            return batchStatements.serializeInsert(createSerializer(), metadata, entity, batches);
+        }
+        SQLSerializer serializer = createSerializer();
+        serializer.serializeInsert(metadata, entity, batches);
+        return serializer;
+    }
+
+    private SQLSerializer serialize(@Nullable SQLBatchStatements batchStatements, SQLInsertBatch batch) {
+        if (batchStatements != null) {
+            // batch items of the same shape are bound to the statement of the first one
+            return batchStatements.serializeInsert(createSerializer(), metadata, entity, batch);
+        }
+        SQLSerializer serializer = createSerializer();
+        serializer.serializeInsert(metadata, entity, batch.getColumns(),
+                batch.getValues(), batch.getSubQuery());
+        return serializer;
+    }
+
     private PreparedStatement prepareStatementAndSetParameters(SQLSerializer serializer,
             boolean withKeys) throws SQLException {
         listeners.prePrepare(context);
@@ -322,6 +399,9 @@ public class SQLInsertClause extends AbstractSQLClause<SQLInsertClause> implemen
      * @return
      */
     public ResultSet executeWithKeys() {
+        if (flushed) {
+            throw new IllegalStateException("executeWithKeys called after batch items have been flushed");
+        }
         context = startContext(connection, metadata, entity);
         try {
             PreparedStatement stmt = null;
@@ -368,27 +448,26 @@ public class SQLInsertClause extends AbstractSQLClause<SQLInsertClause> implemen
 
     @Override
     public long execute() {
+        if (flushed) {
+            try {
+                return flushedCount + (batches.isEmpty() ? 0 : executeBatches());
+            } finally {
+                flushed = false;
+                flushedCount = 0;
+            }
+        } else if (!batches.isEmpty()) {
+            return executeBatches();
+        }
         context = startContext(connection,metadata,entity);
         PreparedStatement stmt = null;
-        Collection<PreparedStatement> stmts = null;
         try {
-            if (batches.isEmpty()) {
-                stmt = createStatement(false);
-                listeners.notifyInsert(entity, metadata, columns, values, subQuery);
-
-                listeners.preExecute(context);
-                int rc = stmt.executeUpdate();
-                listeners.executed(context);
-                return rc;
-            } else {
-                stmts = createStatements(false);
-                listeners.notifyInserts(entity, metadata, batches);
+            stmt = createStatement(false);
+            listeners.notifyInsert(entity, metadata, columns, values, subQuery);
 
-                listeners.preExecute(context);
-                long rc = executeBatch(stmts);
-                listeners.executed(context);
-                return rc;
-            }
+            listeners.preExecute(context);
+            int rc = stmt.executeUpdate();
+            listeners.executed(context);
+            return rc;
         } catch (SQLException e) {
             onException(context,e);
             throw configuration.translate(queryString, constants, e);
@@ -396,6 +475,26 @@ public class SQLInsertClause extends AbstractSQLClause<SQLInsertClause> implemen
             if (stmt != null) {
                 close(stmt);
             }
+            reset();
+            endContext(context);
+        }
+    }
+
+    private long executeBatches() {
+        context = startContext(connection,metadata,entity);
+        Collection<PreparedStatement> stmts = null;
+        try {
+            stmts = createStatements(false);
+            listeners.notifyInserts(entity, metadata, batches);
+
+            listeners.preExecute(context);
+            long rc = executeBatch(stmts);
+            listeners.executed(context);
+            return rc;
+        } catch (SQLException e) {
+            onException(context,e);
+            throw configuration.translate(queryString, constants, e);
+        } finally {
             if (stmts != null) {
                 close(stmts);
             }
@@ -412,10 +511,18 @@ public class SQLInsertClause extends AbstractSQLClause<SQLInsertClause> implemen
             return ImmutableList.of(createBindings(metadata, serializer));
         } else {
             ImmutableList.Builder<SQLBindings> builder = ImmutableList.builder();
-            for (SQLInsertBatch batch : batches) {
+            boolean multiRow = isMultiRow(false);
+            for (int i = 0; i < batches.size(); ) {
+                int end = multiRow ? getMultiRowEnd(i) : i + 1;
                 SQLSerializer serializer = createSerializer();
-                serializer.serializeInsert(metadata, entity, batch.getColumns(), batch.getValues(), batch.getSubQuery());
+                if (end - i > 1) {
+                    serializer.serializeInsert(metadata, entity, batches.subList(i, end));
+                } else {
+                    SQLInsertBatch batch = batches.get(i);
+                    serializer.serializeInsert(metadata, entity, batch.getColumns(), batch.getValues(), batch.getSubQuery());
+                }
                 builder.add(createBindings(metadata, serializer));
+                i = end;
             }
             return builder.build();
         }
@@ -14,6 +14,7 @@
 package com.querydsl.sql.dml;
 
 import javax.annotation.Nonnegative;
+import javax.annotation.Nullable;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.SQLException;
@@ -51,6 +52,12 @@ public class SQLUpdateClause extends AbstractSQLClause<SQLUpdateClause> implemen
 
     private QueryMetadata metadata = new DefaultQueryMetadata();
 
+    private int batchFlushSize;
+
+    private boolean flushed;
+
+    private long flushedCount;
+
     private transient String queryString;
 
     private transient List<Object> constants;
@@ -100,6 +107,23 @@ public class SQLUpdateClause extends AbstractSQLClause<SQLUpdateClause> implemen
         updates = Maps.newLinkedHashMap();
         metadata = new DefaultQueryMetadata();
         metadata.addJoin(JoinType.DEFAULT, entity);
+        if (batchFlushSize > 0 && batches.size() >= batchFlushSize) {
+            flushedCount += executeBatches();
+            flushed = true;
+            batches.clear();
+        }
+        return this;
+    }
+
+    /**
+     * Set the amount of batch items after which the pending batch items are executed.
+     * The update counts of flushed batch items are included in the result of {@link #execute()}.
+     *
+     * @param batchFlushSize batch size or 0 to keep all batch items until execution
+     * @return
+     */
+    public SQLUpdateClause setBatchFlushSize(int batchFlushSize) {
+        this.batchFlushSize = batchFlushSize;
         return this;
     }
 
@@ -124,46 +148,30 @@ public class SQLUpdateClause extends AbstractSQLClause<SQLUpdateClause> implemen
 
     private Collection<PreparedStatement> createStatements() throws SQLException {
         boolean addBatches = !configuration.getUseLiterals();
-        listeners.preRender(context);
-        SQLSerializer serializer = createSerializer();
-        serializer.serializeUpdate(batches.get(0).getMetadata(), entity, batches.get(0).getUpdates());
-        queryString = serializer.toString();
-        constants = serializer.getConstants();
-        logQuery(logger, queryString, constants);
-        context.addSQL(queryString);
-        listeners.rendered(context);
-
         Map<String, PreparedStatement> stmts = Maps.newHashMap();
+        SQLBatchStatements batchStatements = getBatchStatements();
 
-        // add first batch
-        listeners.prePrepare(context);
-        PreparedStatement stmt = connection.prepareStatement(queryString);
-        setParameters(stmt, serializer.getConstants(), serializer.getConstantPaths(), metadata.getParams());
-        if (addBatches) {
-            stmt.addBatch();
-        }
-        stmts.put(serializer.toString(), stmt);
-        context.addPreparedStatement(stmt);
-        listeners.prepared(context);
-
-
-        // add other batches
-        for (int i = 1; i < batches.size(); i++) {
+        for (SQLUpdateBatch batch : batches) {
             listeners.preRender(context);
-            serializer = createSerializer();
-            serializer.serializeUpdate(batches.get(i).getMetadata(), entity, batches.get(i).getUpdates());
-            context.addSQL(serializer.toString());
+            SQLSerializer serializer = serialize(batchStatements, batch);
+            String sql = serializer.toString();
+            context.addSQL(sql);
             listeners.rendered(context);
 
-            stmt = stmts.get(serializer.toString());
+            PreparedStatement stmt = stmts.get(sql);
             if (stmt == null) {
+                queryString = sql;
+                constants = serializer.getConstants();
+                logQuery(logger, queryString, constants);
+
                 listeners.prePrepare(context);
-                stmt = connection.prepareStatement(serializer.toString());
-                stmts.put(serializer.toString(), stmt);
+                stmt = connection.prepareStatement(sql);
+                stmts.put(sql, stmt);
                 context.addPreparedStatement(stmt);
                 listeners.prepared(context);
             }
-            setParameters(stmt, serializer.getConstants(), serializer.getConstantPaths(), metadata.getParams());
+            setParameters(stmt, serializer.getConstants(), serializer.getConstantPaths(),
+                    batch.getMetadata().getParams());
             if (addBatches) {
                 stmt.addBatch();
             }
@@ -172,30 +180,39 @@ public class SQLUpdateClause extends AbstractSQLClause<SQLUpdateClause> implemen
         return stmts.values();
     }
 
+    private SQLSerializer serialize(@Nullable SQLBatchStatements batchStatements, SQLUpdateBatch batch) {
+        if (batchStatements != null) {
+            // batch items of the same shape are bound to the statement of the first one
+            return batchStatements.serializeUpdate(createSerializer(), entity, batch);
+        }
+        SQLSerializer serializer = createSerializer();
+        serializer.serializeUpdate(batch.getMetadata(), entity, batch.getUpdates());
+        return serializer;
+    }
+
     @Override
     public long execute() {
+        if (flushed) {
+            try {
+                return flushedCount + (batches.isEmpty() ? 0 : executeBatches());
+            } finally {
+                flushed = false;
+                flushedCount = 0;
+            }
+        } else if (!batches.isEmpty()) {
+            return executeBatches();
+        }
         context = startContext(connection, metadata, entity);
 
         PreparedStatement stmt = null;
-        Collection<PreparedStatement> stmts = null;
         try {
-            if (batches.isEmpty()) {
-                stmt = createStatement();
-                listeners.notifyUpdate(entity, metadata, updates);
-
-                listeners.preExecute(context);
-                int rc = stmt.executeUpdate();
-                listeners.executed(context);
-                return rc;
-            } else {
-                stmts = createStatements();
-                listeners.notifyUpdates(entity, batches);
+            stmt = createStatement();
+            listeners.notifyUpdate(entity, metadata, updates);
 
-                listeners.preExecute(context);
-                long rc = executeBatch(stmts);
-                listeners.executed(context);
-                return rc;
-            }
+            listeners.preExecute(context);
+            int rc = stmt.executeUpdate();
+            listeners.executed(context);
+            return rc;
         } catch (SQLException e) {
             onException(context,e);
             throw configuration.translate(queryString, constants, e);
@@ -203,6 +220,27 @@ public class SQLUpdateClause extends AbstractSQLClause<SQLUpdateClause> implemen
             if (stmt != null) {
                 close(stmt);
             }
+            reset();
+            endContext(context);
+        }
+    }
+
+    private long executeBatches() {
+        context = startContext(connection, metadata, entity);
+
+        Collection<PreparedStatement> stmts = null;
+        try {
+            stmts = createStatements();
+            listeners.notifyUpdates(entity, batches);
+
+            listeners.preExecute(context);
+            long rc = executeBatch(stmts);
+            listeners.executed(context);
+            return rc;
+        } catch (SQLException e) {
+            onException(context,e);
+            throw configuration.translate(queryString, constants, e);
+        } finally {
             if (stmts != null) {
                 close(stmts);
             }
@@ -18,6 +18,8 @@ import java.math.BigInteger;
 import java.sql.PreparedStatement;
 import java.sql.SQLException;
 import java.sql.Types;
+import java.util.Arrays;
+import java.util.List;
 
 import com.querydsl.core.alias.Gender;
 import com.querydsl.sql.domain.QSurvey;
@@ -25,6 +27,9 @@ import com.querydsl.sql.types.*;
 import org.easymock.EasyMock;
 import org.junit.Test;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 public class ConfigurationTest {
 
@@ -86,5 +91,64 @@ public class ConfigurationTest {
         assertEquals(configuration.getJavaType(Types.NUMERIC, "", 19, 0, "", ""), BigInteger.class);
     }
 
+    @Test
+    public void Freeze() throws SQLException {
+        Configuration configuration = new Configuration(new H2Templates());
+        EncryptedString encrypted = new EncryptedString();
+        configuration.register("SURVEY", "NAME",  encrypted);
+        configuration.freeze(QSurvey.survey);
+        assertTrue(configuration.isFrozen());
+
+        // the types of the frozen columns don't depend on the mutable mappings anymore
+        configuration.getJavaTypeMapping().setType("SURVEY", "NAME", new StringType());
+        configuration.getJavaTypeMapping().register(new IntegerType() {});
+        assertSame(encrypted, configuration.getType(QSurvey.survey.name, String.class));
+        assertEquals(IntegerType.class, configuration.getType(QSurvey.survey.id, Integer.class).getClass());
+
+        PreparedStatement stmt = EasyMock.createNiceMock(PreparedStatement.class);
+        configuration.set(stmt, QSurvey.survey.name, 1, "X");
+        configuration.set(stmt, QSurvey.survey.id, 2, 1);
+    }
+
+    @Test
+    public void Freeze_Registrations() {
+        final Configuration configuration = new Configuration(new H2Templates());
+        configuration.freeze();
+        List<Runnable> registrations = Arrays.<Runnable>asList(
+            new Runnable() { public void run() { configuration.register(new InputStreamType()); } },
+            new Runnable() { public void run() { configuration.register("survey", "name", String.class); } },
+            new Runnable() { public void run() { configuration.register("survey", "name", new StringType()); } },
+            new Runnable() { public void run() { configuration.registerType("text", String.class); } },
+            new Runnable() { public void run() { configuration.registerNumeric(19, 0, BigInteger.class); } },
+            new Runnable() { public void run() { configuration.registerNumeric(18, 19, 0, 0, BigInteger.class); } },
+            new Runnable() { public void run() { configuration.registerSchemaOverride("public", "pub"); } },
+            new Runnable() { public void run() { configuration.registerTableOverride("employee", "emp"); } },
+            new Runnable() { public void run() { configuration.registerTableOverride("public", "employee", "emp"); } },
+            new Runnable() { public void run() { configuration.registerColumnOverride("employee", "id", "emp_id"); } },
+            new Runnable() { public void run() { configuration.registerColumnOverride("public", "employee", "id", "emp_id"); } },
+            new Runnable() { public void run() { configuration.setTemplates(new H2Templates()); } });
+        for (Runnable registration : registrations) {
+            try {
+                registration.run();
+                fail("Expected IllegalStateException");
+            } catch (IllegalStateException e) {
+                // expected
+            }
+        }
+    }
+
+    @Test(expected=IllegalStateException.class)
+    public void Freeze_Register() {
+        Configuration configuration = new Configuration(new H2Templates());
+        configuration.freeze();
+        configuration.register(new InputStreamType());
+    }
+
+    @Test(expected=IllegalStateException.class)
+    public void Freeze_Override() {
+        Configuration configuration = new Configuration(new H2Templates());
+        configuration.freeze();
+        configuration.registerTableOverride("employee", "emp");
+    }
 
 }
@@ -20,6 +20,9 @@ import static org.junit.Assert.*;
 
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.UUID;
 
 import org.joda.time.DateTime;
@@ -33,6 +36,7 @@ import com.querydsl.core.QueryFlag.Position;
 import com.querydsl.core.Tuple;
 import com.querydsl.sql.dml.DefaultMapper;
 import com.querydsl.sql.dml.Mapper;
+import com.querydsl.sql.dml.SQLBulkLoader;
 import com.querydsl.sql.dml.SQLInsertClause;
 import com.querydsl.sql.domain.*;
 import com.querydsl.core.support.Expressions;
@@ -134,6 +138,50 @@ public class InsertBase extends AbstractBaseTest {
         assertEquals(1l, query().from(survey).where(survey.name.eq("66")).count());
     }
 
+    @Test
+    public void Insert_Batch_Flush() {
+        SQLInsertClause insert = insert(survey).setBatchFlushSize(2);
+        for (int i = 5; i < 10; i++) {
+            insert.set(survey.id, i).set(survey.name, String.valueOf(i * 11)).addBatch();
+        }
+
+        assertEquals(5, insert.execute());
+
+        assertEquals(1l, query().from(survey).where(survey.name.eq("55")).count());
+        assertEquals(1l, query().from(survey).where(survey.name.eq("99")).count());
+    }
+
+    @Test
+    public void Insert_Batch_Rows_Per_Statement() {
+        SQLInsertClause insert = insert(survey).setRowsPerStatement(3);
+        for (int i = 5; i < 12; i++) {
+            insert.set(survey.id, i).set(survey.name, String.valueOf(i * 11)).addBatch();
+        }
+
+        // two full statements and a partial last statement
+        assertEquals(7, insert.execute());
+
+        assertEquals(7l, query().from(survey).where(survey.id.goe(5)).count());
+        assertEquals(Arrays.asList("55", "66", "77", "88", "99", "110", "121"),
+                query().from(survey).where(survey.id.goe(5)).orderBy(survey.id.asc()).list(survey.name));
+    }
+
+    @Test
+    public void Bulk_Loader() {
+        List<Object[]> rows = new ArrayList<Object[]>();
+        for (int i = 5; i < 15; i++) {
+            rows.add(new Object[]{i, String.valueOf(i * 11)});
+        }
+        SQLBulkLoader<Object[]> loader = new SQLBulkLoader<Object[]>(connection, configuration, survey,
+                SQLBulkLoader.columns(survey.id, survey.name));
+
+        assertEquals(10, loader.batchSize(4).rowsPerStatement(3).load(rows));
+
+        assertEquals(10l, query().from(survey).where(survey.id.goe(5)).count());
+        assertEquals(Arrays.asList("55", "66", "77", "88", "99", "110", "121", "132", "143", "154"),
+                query().from(survey).where(survey.id.goe(5)).orderBy(survey.id.asc()).list(survey.name));
+    }
+
     @Test
     public void Insert_Batch_Templates() {
         SQLInsertClause insert = insert(survey)
@@ -15,9 +15,15 @@ package com.querydsl.sql;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
 
 import java.io.FileInputStream;
 import java.io.InputStream;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
 
 import org.junit.Test;
 
@@ -32,6 +38,7 @@ import com.querydsl.sql.types.IntegerType;
 import com.querydsl.sql.types.LongType;
 import com.querydsl.sql.types.ObjectType;
 import com.querydsl.sql.types.ShortType;
+import com.querydsl.sql.types.StringType;
 
 public class JavaTypeMappingTest {
 
@@ -66,4 +73,41 @@ public class JavaTypeMappingTest {
         assertEquals(CharacterType.class, typeMapping.getType(char.class).getClass());
     }
 
+    @Test
+    public void GetType_Concurrently() throws Exception {
+        final int threads = 8;
+        final CountDownLatch start = new CountDownLatch(1);
+        final AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            for (int i = 0; i < threads; i++) {
+                executor.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        try {
+                            start.await();
+                            for (int j = 0; j < 10000; j++) {
+                                assertEquals(IntegerType.class, typeMapping.getType(Integer.class).getClass());
+                                assertNotNull(typeMapping.getType(FileInputStream.class));
+                                typeMapping.getType("TABLE", "COLUMN" + (j % 10));
+                            }
+                        } catch (Throwable e) {
+                            failure.set(e);
+                        }
+                    }
+                });
+            }
+            start.countDown();
+            for (int j = 0; j < 100; j++) {
+                typeMapping.register(new InputStreamType());
+                typeMapping.setType("TABLE", "COLUMN" + (j % 10), new StringType());
+            }
+        } finally {
+            executor.shutdown();
+            executor.awaitTermination(1, TimeUnit.MINUTES);
+        }
+        assertNull(failure.get());
+        assertEquals(InputStreamType.class, typeMapping.getType(FileInputStream.class).getClass());
+    }
+
 }
@@ -0,0 +1,82 @@
+package com.querydsl.sql;
+
+import static org.easymock.EasyMock.*;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.Arrays;
+
+import org.junit.Test;
+
+import com.querydsl.core.Tuple;
+import com.querydsl.core.types.Projections;
+import com.querydsl.core.types.expr.Wildcard;
+import com.querydsl.sql.domain.QSurvey;
+
+public class RowReaderTest {
+
+    private final QSurvey survey = QSurvey.survey;
+
+    private final Configuration configuration = new Configuration(SQLTemplates.DEFAULT);
+
+    @Test
+    public void Column() throws SQLException {
+        ResultSet rs = createMock(ResultSet.class);
+        expect(rs.getObject(1)).andReturn(5);
+        replay(rs);
+
+        assertEquals(Integer.valueOf(5), RowReader.create(configuration, survey.id).read(rs));
+        verify(rs);
+    }
+
+    @Test
+    public void Factory() throws SQLException {
+        ResultSet rs = createMock(ResultSet.class);
+        expect(rs.getObject(1)).andReturn(5);
+        expect(rs.getString(2)).andReturn("Bob");
+        replay(rs);
+
+        Tuple tuple = RowReader.create(configuration, Projections.tuple(survey.id, survey.name)).read(rs);
+        assertEquals(Integer.valueOf(5), tuple.get(survey.id));
+        assertEquals("Bob", tuple.get(survey.name));
+        verify(rs);
+    }
+
+    @Test
+    public void Wildcard() throws SQLException {
+        ResultSet rs = createMock(ResultSet.class);
+        ResultSetMetaData metaData = createMock(ResultSetMetaData.class);
+        expect(rs.getMetaData()).andReturn(metaData).once();
+        expect(metaData.getColumnCount()).andReturn(2).once();
+        expect(rs.getObject(1)).andReturn(1).times(2);
+        expect(rs.getObject(2)).andReturn("a").times(2);
+        replay(rs, metaData);
+
+        RowReader<Object[]> reader = RowReader.create(configuration, Wildcard.all);
+        assertArrayEquals(new Object[]{1, "a"}, reader.read(rs));
+        assertArrayEquals(new Object[]{1, "a"}, reader.read(rs));
+        verify(rs, metaData);
+    }
+
+    @Test
+    public void List() throws SQLException {
+        Connection conn = createMock(Connection.class);
+        PreparedStatement stmt = createNiceMock(PreparedStatement.class);
+        ResultSet rs = createMock(ResultSet.class);
+        expect(conn.prepareStatement("select SURVEY.NAME\nfrom SURVEY SURVEY")).andReturn(stmt);
+        expect(stmt.executeQuery()).andReturn(rs);
+        expect(rs.next()).andReturn(true).times(2).andReturn(false);
+        expect(rs.getString(1)).andReturn("a").andReturn("b");
+        rs.close();
+        replay(conn, stmt, rs);
+
+        assertEquals(Arrays.asList("a", "b"), new SQLQuery(conn, configuration).from(survey).list(survey.name));
+        verify(conn, rs);
+    }
+
+}
@@ -0,0 +1,111 @@
+/*
+ * Copyright 2015, Timo Westkämper
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.querydsl.sql;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.querydsl.core.DefaultQueryMetadata;
+import com.querydsl.core.JoinType;
+import com.querydsl.core.QueryMetadata;
+import com.querydsl.core.types.ConstantImpl;
+import com.querydsl.core.types.Expression;
+import com.querydsl.core.types.Path;
+import com.querydsl.core.types.Predicate;
+import com.querydsl.sql.dml.SQLUpdateBatch;
+import com.querydsl.sql.domain.QSurvey;
+
+public class SQLBatchStatementsTest {
+
+    private QSurvey survey = QSurvey.survey;
+
+    private Configuration configuration;
+
+    private SQLBatchStatements statements;
+
+    @Before
+    public void setUp() {
+        configuration = new Configuration(SQLTemplates.DEFAULT);
+        statements = new SQLBatchStatements(configuration.getTemplates(), 10);
+    }
+
+    private SQLSerializer update(Predicate where, Path<?> path, Object value) {
+        QueryMetadata metadata = new DefaultQueryMetadata();
+        metadata.addJoin(JoinType.DEFAULT, survey);
+        metadata.addWhere(where);
+        Map<Path<?>, Expression<?>> updates = new LinkedHashMap<Path<?>, Expression<?>>();
+        updates.put(path, ConstantImpl.create(value));
+        return statements.serializeUpdate(new SQLSerializer(configuration, true), survey,
+                new SQLUpdateBatch(metadata, updates));
+    }
+
+    @Test
+    public void Same_Structure() {
+        SQLSerializer first = update(survey.id.eq(1000), survey.name, "a");
+        SQLSerializer second = update(survey.id.eq(2000), survey.name, "b");
+        assertEquals(first.toString(), second.toString());
+        assertEquals(Arrays.asList("b", 2000), second.getConstants());
+    }
+
+    @Test
+    public void Derived_Shape() {
+        QueryMetadata metadata = new DefaultQueryMetadata();
+        metadata.addJoin(JoinType.DEFAULT, survey);
+        metadata.addWhere(survey.id.eq(1000));
+        Map<Path<?>, Expression<?>> updates = new LinkedHashMap<Path<?>, Expression<?>>();
+        updates.put(survey.name, ConstantImpl.create("a"));
+        SQLQueryShape shape = SQLQueryShape.update(configuration.getTemplates(), metadata, survey, updates);
+
+        QueryMetadata metadata2 = new DefaultQueryMetadata();
+        metadata2.addJoin(JoinType.DEFAULT, survey);
+        metadata2.addWhere(survey.id.eq(2000));
+        updates.put(survey.name, ConstantImpl.create("b"));
+        SQLQueryShape derived = shape.rebindUpdate(metadata2, survey, updates);
+        assertEquals(shape.getKey(), derived.getKey());
+        assertEquals(Arrays.asList(2000, "b"), derived.getConstants());
+
+        metadata2.addWhere(survey.name2.isNull());
+        assertNull(shape.rebindUpdate(metadata2, survey, updates));
+    }
+
+    @Test
+    public void Same_Constant_Instance() {
+        update(survey.id.eq(1), survey.id, 1);
+        assertEquals(Arrays.asList(2, 3), update(survey.id.eq(3), survey.id, 2).getConstants());
+        assertEquals(Arrays.asList(4, 4), update(survey.id.eq(4), survey.id, 4).getConstants());
+    }
+
+    @Test
+    public void Converted_Constants() {
+        update(survey.name.startsWith("a"), survey.name2, "x");
+        SQLSerializer serializer = update(survey.name.startsWith("b"), survey.name2, "y");
+        assertEquals(Arrays.asList("y", "b%"), serializer.getConstants());
+    }
+
+    @Test
+    public void Different_Structure() {
+        update(survey.id.eq(1000), survey.name, "a");
+        SQLSerializer serializer = update(survey.id.gt(2000), survey.name, "b");
+        assertEquals("update SURVEY\nset NAME = ?\nwhere SURVEY.ID > ?", serializer.toString());
+        assertEquals(Arrays.asList("b", 2000), serializer.getConstants());
+    }
+
+}
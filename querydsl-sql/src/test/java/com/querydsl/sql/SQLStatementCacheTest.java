@@ -0,0 +1,163 @@
+package com.querydsl.sql;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Arrays;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.querydsl.core.types.expr.Param;
+import com.querydsl.sql.domain.QSurvey;
+
+public class SQLStatementCacheTest {
+
+    private QSurvey survey = QSurvey.survey;
+
+    private Configuration configuration;
+
+    private SQLStatementCache cache;
+
+    @Before
+    public void setUp() {
+        configuration = new Configuration(SQLTemplates.DEFAULT);
+        cache = new SQLStatementCache(10);
+        configuration.setStatementCache(cache);
+    }
+
+    private SQLQuery query() {
+        return new SQLQuery(configuration);
+    }
+
+    @Test
+    public void Same_Shape() {
+        SQLBindings first = query().from(survey).where(survey.name.eq("Bob")).getSQL(survey.id);
+        SQLBindings second = query().from(survey).where(survey.name.eq("Ann")).getSQL(survey.id);
+        assertEquals("select SURVEY.ID\nfrom SURVEY SURVEY\nwhere SURVEY.NAME = ?", second.getSQL());
+        assertEquals(first.getSQL(), second.getSQL());
+        assertEquals(Arrays.asList("Ann"), second.getBindings());
+        assertEquals(1, cache.getHitCount());
+        assertEquals(1, cache.getMissCount());
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    public void Different_Shapes() {
+        query().from(survey).where(survey.name.eq("Bob")).getSQL(survey.id);
+        query().from(survey).where(survey.name2.eq("Bob")).getSQL(survey.id);
+        query().from(survey).where(survey.name.eq("Bob")).getSQL(survey.name);
+        assertEquals(0, cache.getHitCount());
+        assertEquals(3, cache.size());
+    }
+
+    @Test
+    public void Collection_Sizes() {
+        query().from(survey).where(survey.name.in("a", "b")).getSQL(survey.id);
+        SQLBindings bindings = query().from(survey).where(survey.name.in("a", "b", "c")).getSQL(survey.id);
+        assertEquals("select SURVEY.ID\nfrom SURVEY SURVEY\nwhere SURVEY.NAME in (?, ?, ?)", bindings.getSQL());
+        bindings = query().from(survey).where(survey.name.in("d", "e")).getSQL(survey.id);
+        assertEquals("select SURVEY.ID\nfrom SURVEY SURVEY\nwhere SURVEY.NAME in (?, ?)", bindings.getSQL());
+        assertEquals(Arrays.asList("d", "e"), bindings.getBindings());
+        assertEquals(1, cache.getHitCount());
+    }
+
+    @Test
+    public void Order_Of_Bindings() {
+        query().from(survey).where(survey.name.eq("a"), survey.id.gt(1000)).orderBy(survey.name.asc())
+            .getSQL(survey.name.concat("x"));
+        SQLBindings bindings = query().from(survey).where(survey.name.eq("b"), survey.id.gt(2000))
+            .orderBy(survey.name.asc()).getSQL(survey.name.concat("y"));
+        assertEquals(Arrays.asList("y", "b", 2000), bindings.getBindings());
+        assertEquals(1, cache.getHitCount());
+    }
+
+    @Test
+    public void Limit_And_Offset() {
+        query().from(survey).where(survey.id.eq(1000)).limit(20).offset(40).getSQL(survey.id);
+        SQLBindings bindings = query().from(survey).where(survey.id.eq(2000)).limit(20).offset(40)
+            .getSQL(survey.id);
+        assertEquals(Arrays.asList(2000, 20L, 40L), bindings.getBindings());
+        bindings = query().from(survey).where(survey.id.eq(3000)).limit(20).offset(60).getSQL(survey.id);
+        assertEquals(Arrays.asList(3000, 20L, 60L), bindings.getBindings());
+        assertEquals(1, cache.getHitCount());
+    }
+
+    @Test
+    public void Like_Escape() {
+        query().from(survey).where(survey.name.like("a%")).getSQL(survey.id);
+        SQLBindings bindings = query().from(survey).where(survey.name.like("b\\%")).getSQL(survey.id);
+        assertEquals(Arrays.asList("b\\\\%"), bindings.getBindings());
+        assertEquals(1, cache.getHitCount());
+    }
+
+    @Test
+    public void StartsWith_And_EndsWith() {
+        query().from(survey).where(survey.name.startsWith("a"), survey.name2.endsWith("b")).getSQL(survey.id);
+        SQLBindings bindings = query().from(survey).where(survey.name.startsWith("c"), survey.name2.endsWith("d"))
+            .getSQL(survey.id);
+        assertEquals(Arrays.asList("c%", "%d"), bindings.getBindings());
+        assertEquals(1, cache.getHitCount());
+    }
+
+    @Test
+    public void Equal_Derived_Constants() {
+        query().from(survey).where(survey.name.startsWith("a"), survey.name2.startsWith("a")).getSQL(survey.id);
+        SQLBindings bindings = query().from(survey).where(survey.name.startsWith("a"), survey.name2.startsWith("b"))
+            .getSQL(survey.id);
+        assertEquals(Arrays.asList("a%", "b%"), bindings.getBindings());
+        bindings = query().from(survey).where(survey.name.startsWith("c"), survey.name2.startsWith("c"))
+            .getSQL(survey.id);
+        assertEquals(Arrays.asList("c%", "c%"), bindings.getBindings());
+        assertEquals(0, cache.getHitCount());
+        assertEquals(3, cache.getMissCount());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void Shared_Between_Configurations() {
+        configuration.setStatementCache(cache);
+        new Configuration(new H2Templates()).setStatementCache(cache);
+    }
+
+    @Test
+    public void Same_Constant_Instance() {
+        String value = "a";
+        query().from(survey).where(survey.name.eq(value), survey.name2.eq(value)).getSQL(survey.id);
+        SQLBindings bindings = query().from(survey).where(survey.name.eq("a"), survey.name2.eq("b"))
+            .getSQL(survey.id);
+        assertEquals(Arrays.asList("a", "b"), bindings.getBindings());
+        bindings = query().from(survey).where(survey.name.eq(value), survey.name2.eq(value))
+            .getSQL(survey.id);
+        assertEquals(Arrays.asList("a", "a"), bindings.getBindings());
+        // the shape is uncacheable after the first ambiguous rendering
+        assertEquals(0, cache.getHitCount());
+        assertEquals(3, cache.getMissCount());
+    }
+
+    @Test
+    public void Params() {
+        Param<String> name = new Param<String>(String.class, "name");
+        query().from(survey).where(survey.name.eq(name), survey.name2.eq(name)).set(name, "Bob")
+            .getSQL(survey.id);
+        SQLBindings bindings = query().from(survey).where(survey.name.eq(name), survey.name2.eq(name))
+            .set(name, "Ann").getSQL(survey.id);
+        assertEquals(Arrays.asList("Ann", "Ann"), bindings.getBindings());
+        assertEquals(1, cache.getHitCount());
+    }
+
+    @Test
+    public void Literals() {
+        configuration.setUseLiterals(true);
+        query().from(survey).where(survey.name.eq("Bob")).getSQL(survey.id);
+        assertEquals(0, cache.getMissCount());
+    }
+
+    @Test
+    public void Invalidated_On_Override() {
+        query().from(survey).where(survey.name.eq("Bob")).getSQL(survey.id);
+        configuration.registerColumnOverride("SURVEY", "NAME", "NAME3");
+        SQLBindings bindings = query().from(survey).where(survey.name.eq("Ann")).getSQL(survey.id);
+        assertEquals("select SURVEY.ID\nfrom SURVEY SURVEY\nwhere SURVEY.NAME3 = ?", bindings.getSQL());
+        assertEquals(0, cache.getHitCount());
+    }
+
+}
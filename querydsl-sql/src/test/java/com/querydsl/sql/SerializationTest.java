@@ -80,6 +80,17 @@ public class SerializationTest {
         assertEquals("update SURVEY\nset ID = ?, NAME = ?\nwhere SURVEY.NAME = ?", updateClause.toString());
     }
 
+    @Test
+    public void Insert_Multiple_Rows() {
+        SQLInsertClause insertClause = new SQLInsertClause(connection, new H2Templates(), survey);
+        insertClause.set(survey.id, 1).set(survey.name, "a").addBatch();
+        insertClause.set(survey.id, 2).set(survey.name, (String)null).addBatch();
+        insertClause.setRowsPerStatement(10);
+        SQLBindings bindings = insertClause.getSQL().get(0);
+        assertEquals("insert into SURVEY (ID, NAME)\nvalues (?, ?), (?, ?)", bindings.getSQL());
+        assertEquals(4, bindings.getBindings().size());
+    }
+
     @Test
     public void Insert() {
         SQLInsertClause insertClause = new SQLInsertClause(connection,SQLTemplates.DEFAULT,survey);
@@ -133,6 +133,17 @@ public class UpdateBase extends AbstractBaseTest {
         assertEquals(2, update.execute());
     }
 
+    @Test
+    public void Batch_Flush() throws SQLException{
+        assertEquals(1, insert(survey).values(2, "A","B").execute());
+        assertEquals(1, insert(survey).values(3, "B","C").execute());
+
+        SQLUpdateClause update = update(survey).setBatchFlushSize(1);
+        update.set(survey.name, "AA").where(survey.name.eq("A")).addBatch();
+        update.set(survey.name, "BB").where(survey.name.eq("B")).addBatch();
+        assertEquals(2, update.execute());
+    }
+
     @Test
     public void Batch_Templates() throws SQLException{
         assertEquals(1, insert(survey).values(2, "A","B").execute());
@@ -0,0 +1,82 @@
+package com.querydsl.sql.dml;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import com.querydsl.sql.Configuration;
+import com.querydsl.sql.KeyAccessorsTest.QEmployee;
+import com.querydsl.sql.SQLListenerContext;
+import com.querydsl.sql.SQLTemplates;
+import com.querydsl.sql.TestLoggingListener;
+import org.junit.Test;
+import static org.easymock.EasyMock.*;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class SQLBulkLoaderTest {
+
+    private final QEmployee emp1 = new QEmployee("emp1");
+
+    private List<Object[]> rows(int count) {
+        List<Object[]> rows = new ArrayList<Object[]>();
+        for (int i = 1; i <= count; i++) {
+            rows.add(new Object[]{i, i + 100});
+        }
+        return rows;
+    }
+
+    @Test
+    public void Load() throws SQLException {
+        Connection connection = createNiceMock(Connection.class);
+        PreparedStatement stmt = createNiceMock(PreparedStatement.class);
+        expect(connection.getAutoCommit()).andReturn(false);
+        expect(connection.prepareStatement("insert into EMPLOYEE (ID, SUPERIOR_ID)\nvalues (?, ?)"))
+            .andReturn(stmt).times(3);
+        expect(stmt.executeBatch()).andReturn(new int[]{1, 1}).times(2).andReturn(new int[]{1});
+        connection.commit();
+        expectLastCall().times(2);
+        replay(connection, stmt);
+
+        final List<Object> rowCounts = new ArrayList<Object>();
+        Configuration configuration = new Configuration(SQLTemplates.DEFAULT);
+        configuration.addListener(new TestLoggingListener() {
+            @Override
+            public void end(SQLListenerContext context) {
+                rowCounts.add(context.getData(SQLBulkLoader.ROW_COUNT));
+                assertTrue(((Double) context.getData(SQLBulkLoader.ROWS_PER_SECOND)) > 0.0);
+            }
+        });
+        SQLBulkLoader<Object[]> loader = new SQLBulkLoader<Object[]>(connection, configuration, emp1,
+                SQLBulkLoader.columns(emp1.id, emp1.superiorId));
+        assertEquals(5, loader.batchSize(2).commitInterval(4).load(rows(5)));
+        assertEquals(Arrays.<Object>asList(2L, 4L, 5L), rowCounts);
+        verify(connection, stmt);
+    }
+
+    @Test
+    public void Load_AutoCommit() throws SQLException {
+        Connection connection = createMock(Connection.class);
+        PreparedStatement stmt = createNiceMock(PreparedStatement.class);
+        expect(connection.getAutoCommit()).andReturn(true);
+        expect(connection.prepareStatement("insert into EMPLOYEE (ID, SUPERIOR_ID)\nvalues (?, ?)"))
+            .andReturn(stmt);
+        expect(stmt.executeBatch()).andReturn(new int[]{1, 1, 1});
+        replay(connection, stmt);
+
+        SQLBulkLoader<Object[]> loader = new SQLBulkLoader<Object[]>(connection,
+                new Configuration(SQLTemplates.DEFAULT), emp1,
+                SQLBulkLoader.columns(emp1.id, emp1.superiorId));
+        assertEquals(3, loader.commitInterval(1).load(rows(3)));
+        verify(connection, stmt);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void Row_Width() {
+        SQLBulkLoader.columns(emp1.id, emp1.superiorId).createMap(emp1, new Object[]{1});
+    }
+
+}
@@ -1,10 +1,19 @@
 package com.querydsl.sql.dml;
 
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.List;
+
 import com.google.common.collect.ImmutableList;
+import com.querydsl.sql.Configuration;
+import com.querydsl.sql.H2Templates;
 import com.querydsl.sql.KeyAccessorsTest.QEmployee;
 import com.querydsl.sql.SQLBindings;
+import com.querydsl.sql.SQLStatementCache;
 import com.querydsl.sql.SQLTemplates;
 import org.junit.Test;
+import static org.easymock.EasyMock.*;
 import static org.junit.Assert.assertEquals;
 
 public class SQLInsertClauseTest {
@@ -20,4 +29,103 @@ public class SQLInsertClauseTest {
         assertEquals(ImmutableList.of(1), sql.getBindings());
     }
 
+    @Test
+    public void Batch_Same_Shape() throws SQLException {
+        QEmployee emp1 = new QEmployee("emp1");
+        Connection connection = createNiceMock(Connection.class);
+        PreparedStatement stmt = createNiceMock(PreparedStatement.class);
+        expect(connection.prepareStatement("insert into EMPLOYEE (ID, SUPERIOR_ID)\nvalues (?, ?)"))
+            .andReturn(stmt).once();
+        stmt.setInt(1, 3);
+        stmt.setInt(2, 13);
+        expect(stmt.executeBatch()).andReturn(new int[]{1, 1, 1});
+        replay(connection, stmt);
+
+        Configuration configuration = new Configuration(SQLTemplates.DEFAULT);
+        SQLStatementCache cache = new SQLStatementCache(10);
+        configuration.setStatementCache(cache);
+        SQLInsertClause insert = new SQLInsertClause(connection, configuration, emp1);
+        for (int i = 1; i <= 3; i++) {
+            insert.set(emp1.id, i).set(emp1.superiorId, 10 + i).addBatch();
+        }
+        assertEquals(3, insert.execute());
+        assertEquals(0, cache.getMissCount());
+        assertEquals(0, cache.size());
+        verify(connection, stmt);
+    }
+
+    @Test
+    public void Batch_Flush() throws SQLException {
+        QEmployee emp1 = new QEmployee("emp1");
+        Connection connection = createNiceMock(Connection.class);
+        PreparedStatement stmt = createNiceMock(PreparedStatement.class);
+        expect(connection.prepareStatement("insert into EMPLOYEE (ID)\nvalues (?)"))
+            .andReturn(stmt).times(3);
+        expect(stmt.executeBatch()).andReturn(new int[]{1, 1}).times(2).andReturn(new int[]{1});
+        replay(connection, stmt);
+
+        SQLInsertClause insert = new SQLInsertClause(connection, SQLTemplates.DEFAULT, emp1);
+        insert.setBatchFlushSize(2);
+        for (int i = 1; i <= 5; i++) {
+            insert.set(emp1.id, i).addBatch();
+        }
+        assertEquals(1, insert.getSQL().size());
+        assertEquals(5, insert.execute());
+        verify(connection, stmt);
+    }
+
+    @Test
+    public void MultiRow() {
+        QEmployee emp1 = new QEmployee("emp1");
+        SQLInsertClause insert = new SQLInsertClause(null, new H2Templates(), emp1);
+        for (int i = 1; i <= 3; i++) {
+            insert.set(emp1.id, i).set(emp1.superiorId, 10 + i).addBatch();
+        }
+        insert.set(emp1.id, 4).addBatch();
+        insert.setRowsPerStatement(2);
+
+        List<SQLBindings> sql = insert.getSQL();
+        assertEquals(3, sql.size());
+        assertEquals("insert into EMPLOYEE (ID, SUPERIOR_ID)\nvalues (?, ?), (?, ?)", sql.get(0).getSQL());
+        assertEquals(ImmutableList.of(1, 11, 2, 12), sql.get(0).getBindings());
+        assertEquals("insert into EMPLOYEE (ID, SUPERIOR_ID)\nvalues (?, ?)", sql.get(1).getSQL());
+        assertEquals("insert into EMPLOYEE (ID)\nvalues (?)", sql.get(2).getSQL());
+    }
+
+    @Test
+    public void MultiRow_Not_Supported() {
+        QEmployee emp1 = new QEmployee("emp1");
+        SQLInsertClause insert = new SQLInsertClause(null, SQLTemplates.DEFAULT, emp1);
+        insert.set(emp1.id, 1).addBatch();
+        insert.set(emp1.id, 2).addBatch();
+        insert.setRowsPerStatement(2);
+        assertEquals(2, insert.getSQL().size());
+    }
+
+    @Test
+    public void MultiRow_Execute() throws SQLException {
+        QEmployee emp1 = new QEmployee("emp1");
+        Connection connection = createNiceMock(Connection.class);
+        PreparedStatement stmt = createNiceMock(PreparedStatement.class);
+        expect(connection.prepareStatement("insert into EMPLOYEE (ID)\nvalues (?), (?)"))
+            .andReturn(stmt).once();
+        stmt.setInt(1, 3);
+        stmt.setInt(2, 4);
+        expect(stmt.executeBatch()).andReturn(new int[]{2, 2});
+        replay(connection, stmt);
+
+        Configuration configuration = new Configuration(new H2Templates());
+        SQLStatementCache cache = new SQLStatementCache(10);
+        configuration.setStatementCache(cache);
+        SQLInsertClause insert = new SQLInsertClause(connection, configuration, emp1);
+        insert.setRowsPerStatement(2);
+        for (int i = 1; i <= 4; i++) {
+            insert.set(emp1.id, i).addBatch();
+        }
+        assertEquals(4, insert.execute());
+        assertEquals(0, cache.getMissCount());
+        assertEquals(0, cache.size());
+        verify(connection, stmt);
+    }
+
 }
@@ -1,11 +1,16 @@
 package com.querydsl.sql.dml;
 
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+
 import com.google.common.collect.ImmutableList;
 import com.querydsl.sql.KeyAccessorsTest.QEmployee;
 import com.querydsl.sql.SQLBindings;
 import com.querydsl.sql.SQLSubQuery;
 import com.querydsl.sql.SQLTemplates;
 import org.junit.Test;
+import static org.easymock.EasyMock.*;
 import static org.junit.Assert.assertEquals;
 
 public class SQLUpdateClauseTest {
@@ -71,4 +76,43 @@ public class SQLUpdateClauseTest {
                 "where emp2.ID = EMPLOYEE.ID)", sql.getSQL());
     }
 
+    @Test
+    public void Batch_Same_Shape() throws SQLException {
+        QEmployee emp1 = new QEmployee("emp1");
+        Connection connection = createNiceMock(Connection.class);
+        PreparedStatement stmt = createNiceMock(PreparedStatement.class);
+        expect(connection.prepareStatement("update EMPLOYEE\nset SUPERIOR_ID = ?\nwhere EMPLOYEE.ID = ?"))
+            .andReturn(stmt).once();
+        stmt.setInt(1, 3);
+        stmt.setInt(2, 13);
+        expect(stmt.executeBatch()).andReturn(new int[]{1, 1, 1});
+        replay(connection, stmt);
+
+        SQLUpdateClause update = new SQLUpdateClause(connection, SQLTemplates.DEFAULT, emp1);
+        for (int i = 1; i <= 3; i++) {
+            update.set(emp1.superiorId, i).where(emp1.id.eq(10 + i)).addBatch();
+        }
+        assertEquals(3, update.execute());
+        verify(connection, stmt);
+    }
+
+    @Test
+    public void Batch_Flush() throws SQLException {
+        QEmployee emp1 = new QEmployee("emp1");
+        Connection connection = createNiceMock(Connection.class);
+        PreparedStatement stmt = createNiceMock(PreparedStatement.class);
+        expect(connection.prepareStatement("update EMPLOYEE\nset SUPERIOR_ID = ?\nwhere EMPLOYEE.ID = ?"))
+            .andReturn(stmt).times(2);
+        expect(stmt.executeBatch()).andReturn(new int[]{1, 1, 1}).times(2);
+        replay(connection, stmt);
+
+        SQLUpdateClause update = new SQLUpdateClause(connection, SQLTemplates.DEFAULT, emp1);
+        update.setBatchFlushSize(3);
+        for (int i = 1; i <= 6; i++) {
+            update.set(emp1.superiorId, i).where(emp1.id.eq(10 + i)).addBatch();
+        }
+        assertEquals(6, update.execute());
+        verify(connection, stmt);
+    }
+
 }